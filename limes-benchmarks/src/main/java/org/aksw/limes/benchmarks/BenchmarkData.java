@@ -0,0 +1,271 @@
+package org.aksw.limes.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomStringGenerator;
+
+/**
+ * Inputs of the benchmarks. Labels are built from words of a
+ * {@link DataGenerator}, geometries are the NUTS regions of
+ * <code>datasets/nuts</code> and the files read by the query modules are
+ * built from the persons of <code>datasets/Persons1</code>. All inputs that
+ * are not produced by the {@link DataGenerator} are drawn from a seeded
+ * random number generator so that runs can be compared.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+public final class BenchmarkData {
+
+    public static final String LABEL = DataGenerator.LABEL;
+    public static final String GEOMETRY = "asWKT";
+    public static final String LAT = "lat";
+    public static final String LONG = "long";
+    public static final long SEED = 42;
+
+    static final String NUTS = "datasets/nuts/nuts_geometry.csv";
+    static final String PERSONS_CSV = "datasets/Persons1/person11.nt.csv";
+    static final String PERSONS_NT = "datasets/Persons1/person11.nt";
+
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int MAX_WORD_LENGTH = 10;
+    private static final int MAX_WORDS = 3;
+    // longitude offset between two copies of the NUTS regions
+    private static final double NUTS_OFFSET = 100;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param size
+     *            Number of instances
+     * @param random
+     *            Random number generator
+     * @return a cache whose instances have a label of one to three words
+     *         generated by a {@link RandomStringGenerator}
+     */
+    public static ACache labels(int size, Random random) {
+        // a vocabulary smaller than the data set so that labels share words
+        List<String> words = new ArrayList<>(
+                new RandomStringGenerator(MIN_WORD_LENGTH, MAX_WORD_LENGTH).generateData(Math.max(1, size / 2))
+                        .getAllUris());
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            int length = 1 + random.nextInt(MAX_WORDS);
+            StringBuilder label = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                if (j > 0) {
+                    label.append(' ');
+                }
+                label.append(words.get(random.nextInt(words.size())));
+            }
+            cache.addTriple("http://limes.sf.net/source/" + i, LABEL, label.toString());
+        }
+        return cache;
+    }
+
+    /**
+     * @param source
+     *            Cache created by {@link #labels(int, Random)}
+     * @param random
+     *            Random number generator
+     * @return a cache of the same size as source, half of whose labels are
+     *         copies of labels of source with one character replaced
+     */
+    public static ACache similarLabels(ACache source, Random random) {
+        ACache cache = new MemoryCache();
+        ACache others = labels(source.size(), random);
+        int i = 0;
+        for (Instance instance : source.getAllInstances()) {
+            String label;
+            if (random.nextBoolean()) {
+                char[] chars = instance.getProperty(LABEL).first().toCharArray();
+                chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+                label = new String(chars);
+            } else {
+                label = others.getInstance("http://limes.sf.net/source/" + i).getProperty(LABEL).first();
+            }
+            cache.addTriple("http://limes.sf.net/target/" + i, LABEL, label);
+            i++;
+        }
+        return cache;
+    }
+
+    /**
+     * @param size
+     *            Number of instances
+     * @param random
+     *            Random number generator
+     * @return a cache of points that are distributed uniformly in a square
+     *         whose area grows with size, so that the number of neighbours of
+     *         a point within a fixed distance does not depend on size
+     */
+    public static ACache points(int size, Random random) {
+        double side = Math.sqrt(size);
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            String uri = "http://limes.sf.net/point/" + i;
+            cache.addTriple(uri, LAT, Double.toString(random.nextDouble() * side));
+            cache.addTriple(uri, LONG, Double.toString(random.nextDouble() * side));
+        }
+        return cache;
+    }
+
+    /**
+     * @param size
+     *            Number of instances
+     * @return a cache of the NUTS regions as WKT polygons. If more regions are
+     *         requested than there are in the data set, shifted copies of the
+     *         regions are added.
+     * @throws IOException
+     *             if the data set could not be read
+     */
+    public static ACache geometries(int size) throws IOException {
+        List<String[]> regions = new ArrayList<>();
+        try (BufferedReader reader = open(NUTS)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] split = line.split("\t");
+                if (split.length == 2) {
+                    regions.add(new String[] { split[0], split[1] });
+                }
+            }
+        }
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size && !regions.isEmpty(); i++) {
+            String[] region = regions.get(i % regions.size());
+            int copy = i / regions.size();
+            cache.addTriple("http://limes.sf.net/nuts/" + region[0] + "/" + copy, GEOMETRY,
+                    toPolygon(region[1], copy * NUTS_OFFSET));
+        }
+        return cache;
+    }
+
+    /**
+     * @return a WKT polygon of a list of coordinates separated by blanks
+     */
+    private static String toPolygon(String coordinates, double offset) {
+        String[] values = coordinates.trim().split("\\s+");
+        StringBuilder wkt = new StringBuilder("POLYGON ((");
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            wkt.append(Double.parseDouble(values[i]) + offset).append(' ').append(values[i + 1]);
+        }
+        return wkt.append("))").toString();
+    }
+
+    /**
+     * Adds size distinct links between random instances to a mapping. Only
+     * the drawn pairs are checked for duplicates, the links that are already
+     * in mapping may be drawn again.
+     *
+     * @param size
+     *            Number of links, at most the number of pairs
+     * @param fanOut
+     *            Number of targets of each drawn source
+     * @param source
+     *            Source instances
+     * @param target
+     *            Target instances
+     * @param mapping
+     *            Mapping to fill
+     * @param random
+     *            Random number generator
+     * @return mapping
+     */
+    public static AMapping links(int size, int fanOut, List<String> source, List<String> target, AMapping mapping,
+            Random random) {
+        Set<Long> pairs = new HashSet<>();
+        size = (int) Math.min(size, (long) source.size() * target.size());
+        while (pairs.size() < size) {
+            int s = random.nextInt(source.size());
+            for (int i = 0; i < fanOut && pairs.size() < size; i++) {
+                int t = random.nextInt(target.size());
+                if (pairs.add((long) s * target.size() + t)) {
+                    mapping.add(source.get(s), target.get(t), random.nextDouble());
+                }
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * Writes copies of a bundled data set into a temporary file. The subjects
+     * of all but the first copy are renamed, so that every copy describes new
+     * resources.
+     *
+     * @param resource
+     *            Data set
+     * @param header
+     *            True if the first line is a header that is written once
+     * @param copies
+     *            Number of copies
+     * @return the temporary file
+     * @throws IOException
+     *             if the data set could not be read or the file could not be
+     *             written
+     */
+    public static File replicate(String resource, boolean header, int copies) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = open(resource)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        String extension = resource.substring(resource.lastIndexOf('.'));
+        File file = File.createTempFile("limes-benchmark", extension);
+        file.deleteOnExit();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (header && !lines.isEmpty()) {
+                writer.write(lines.get(0));
+                writer.write('\n');
+            }
+            for (int copy = 0; copy < copies; copy++) {
+                for (String line : header ? lines.subList(1, lines.size()) : lines) {
+                    writer.write(copy == 0 ? line : rename(line, copy));
+                    writer.write('\n');
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @return line with the suffix -copy appended to its subject, i.e. to the
+     *         first CSV column or the first IRI of a triple
+     */
+    private static String rename(String line, int copy) {
+        int end = line.startsWith("<") ? line.indexOf('>') : line.indexOf(',');
+        if (end < 0) {
+            return line;
+        }
+        return line.substring(0, end) + "-" + copy + line.substring(end);
+    }
+
+    private static BufferedReader open(String resource) throws IOException {
+        InputStream in = BenchmarkData.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Data set " + resource + " not found");
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
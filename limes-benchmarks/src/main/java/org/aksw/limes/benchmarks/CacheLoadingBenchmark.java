@@ -0,0 +1,111 @@
+package org.aksw.limes.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.query.QueryModuleFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runtime of filling a cache from a file with the query module of format,
+ * and of loading the snapshot of the file written by the {@link HybridCache}.
+ * The file holds size persons of <code>datasets/Persons1</code>, which is
+ * copied as often as needed.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheLoadingBenchmark {
+
+    static final int PERSONS = 500;
+    static final String ONTOLOGY = "http://www.okkam.org/ontology_person1.owl#";
+
+    @Param({ "csv", "stream-csv", "nt", "stream-nt" })
+    public String format;
+
+    @Param({ "500", "5000", "50000" })
+    public int size;
+
+    private File file;
+    private File folder;
+
+    @Setup
+    public void setUp() throws IOException {
+        boolean csv = format.endsWith("csv");
+        file = BenchmarkData.replicate(csv ? BenchmarkData.PERSONS_CSV : BenchmarkData.PERSONS_NT, csv,
+                Math.max(1, size / PERSONS));
+        folder = Files.createTempDirectory("limes-benchmark").toFile();
+        // writes the snapshot that is read by loadSnapshot
+        HybridCache.getData(folder, createKBInfo());
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] snapshots = new File(folder, "cache").listFiles();
+        if (snapshots != null) {
+            for (File snapshot : snapshots) {
+                snapshot.delete();
+            }
+        }
+        new File(folder, "cache").delete();
+        folder.delete();
+        file.delete();
+    }
+
+    /**
+     * @return a new description of the file, as the query modules may change
+     *         its type
+     */
+    private KBInfo createKBInfo() {
+        KBInfo kb = new KBInfo("?x");
+        kb.setId("persons");
+        kb.setEndpoint(file.getAbsolutePath());
+        kb.setType(format);
+        if (format.endsWith("csv")) {
+            kb.setProperties(Arrays.asList(ONTOLOGY + "surname", ONTOLOGY + "given_name"));
+        } else {
+            kb.setProperties(Arrays.asList("person:surname", "person:given_name"));
+            Map<String, String> prefixes = new HashMap<>();
+            prefixes.put("person", ONTOLOGY);
+            kb.setPrefixes(prefixes);
+        }
+        return kb;
+    }
+
+    @Benchmark
+    public ACache fillCache() {
+        ACache cache = new MemoryCache();
+        QueryModuleFactory.getQueryModule(format, createKBInfo()).fillCache(cache);
+        return cache;
+    }
+
+    @Benchmark
+    public ACache loadSnapshot() {
+        return HybridCache.getData(folder, createKBInfo());
+    }
+}
@@ -0,0 +1,93 @@
+package org.aksw.limes.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runtime of the {@link LinearFilter} on mappings of size links between
+ * generated labels, each source being linked to {@link #FAN_OUT} targets.
+ *
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterBenchmark {
+
+    static final int FAN_OUT = 10;
+
+    @Param({ "trigram", "levenshtein", "jarowinkler", "cosine" })
+    public String measure;
+
+    @Param({ "10000", "100000" })
+    public int size;
+
+    @Param({ "0.5", "0.8", "0.95" })
+    public double threshold;
+
+    private LinearFilter filter = new LinearFilter();
+    private String condition;
+    private ACache source;
+    private ACache target;
+    private AMapping mapping;
+    private AMapping other;
+
+    @Setup
+    public void setUp() {
+        condition = measure + "(x." + BenchmarkData.LABEL + ", y." + BenchmarkData.LABEL + ")";
+        Random random = new Random(BenchmarkData.SEED);
+        source = BenchmarkData.labels(Math.max(1, size / FAN_OUT), random);
+        target = BenchmarkData.similarLabels(source, random);
+        mapping = BenchmarkData.links(size, FAN_OUT, source.getAllUris(), target.getAllUris(),
+                MappingFactory.createDefaultMapping(), random);
+        // every other link of mapping with a new confidence
+        other = MappingFactory.createDefaultMapping();
+        int i = 0;
+        for (String s : mapping.getMap().keySet()) {
+            for (String t : mapping.getMap().get(s).keySet()) {
+                if (i++ % 2 == 0) {
+                    other.add(s, t, random.nextDouble());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public AMapping filterByThreshold() {
+        return filter.filter(mapping, threshold);
+    }
+
+    @Benchmark
+    public AMapping filterByCondition() {
+        return filter.filter(mapping, condition, threshold, source, target, "?x", "?y");
+    }
+
+    @Benchmark
+    public AMapping filterByConditionAndMainThreshold() {
+        return filter.filter(mapping, condition, threshold, 0.5, source, target, "?x", "?y");
+    }
+
+    @Benchmark
+    public AMapping filterWeightedSum() {
+        return filter.filter(mapping, other, 0.5, 0.5, threshold, "add");
+    }
+}
@@ -0,0 +1,100 @@
+package org.aksw.limes.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runtime of the mappers of the atomic measures. The mapper is created by the
+ * {@link MapperFactory} from the measure of the expression, so that the
+ * benchmark follows the mapper that is used by the execution engines.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapperBenchmark {
+
+    /**
+     * Expressions of the benchmarked mappers and the data they are run on.
+     */
+    public enum Mapper {
+        PPJoinPlusPlus("jaccard(x.label, y.label)", Data.LABELS),
+        EDJoinMapper("levenshtein(x.label, y.label)", Data.LABELS),
+        FastNGramMapper("trigram(x.label, y.label)", Data.LABELS),
+        JaroWinklerMapper("jarowinkler(x.label, y.label)", Data.LABELS),
+        HR3Mapper("euclidean(x.lat|long, y.lat|long)", Data.POINTS),
+        RADON("top_intersects(x.asWKT, y.asWKT)", Data.GEOMETRIES),
+        OrchidMapper("geo_hausdorff(x.asWKT, y.asWKT)", Data.GEOMETRIES);
+
+        final String expression;
+        final Data data;
+
+        Mapper(String expression, Data data) {
+            this.expression = expression;
+            this.data = data;
+        }
+    }
+
+    enum Data {
+        LABELS, POINTS, GEOMETRIES
+    }
+
+    @Param
+    public Mapper mapper;
+
+    @Param({ "1000", "10000" })
+    public int size;
+
+    @Param({ "0.5", "0.8", "0.95" })
+    public double threshold;
+
+    private AMapper instance;
+    private ACache source;
+    private ACache target;
+
+    @Setup
+    public void setUp() throws IOException {
+        instance = MapperFactory.createMapper(MeasureFactory.getMeasureType(mapper.expression));
+        Random random = new Random(BenchmarkData.SEED);
+        switch (mapper.data) {
+        case LABELS:
+            source = BenchmarkData.labels(size, random);
+            target = BenchmarkData.similarLabels(source, random);
+            break;
+        case POINTS:
+            source = BenchmarkData.points(size, random);
+            target = BenchmarkData.points(size, random);
+            break;
+        default:
+            source = BenchmarkData.geometries(size);
+            target = source;
+        }
+    }
+
+    @Benchmark
+    public AMapping getMapping() {
+        return instance.getMapping(source, target, "?x", "?y", mapper.expression, threshold);
+    }
+}
@@ -0,0 +1,103 @@
+package org.aksw.limes.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.cache.StringDictionary;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runtime of the set operations of {@link MappingOperations} on two mappings
+ * of size links, of which about overlap percent are in both mappings. The
+ * indexed mappings share their dictionaries, as is the case for mappings
+ * computed on the same caches.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MappingOperationsBenchmark {
+
+    static final int FAN_OUT = 10;
+
+    @Param({ "MEMORY_MAPPING", "INDEXED_MAPPING" })
+    public MappingType type;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "10", "50", "90" })
+    public int overlap;
+
+    private AMapping first;
+    private AMapping second;
+
+    @Setup
+    public void setUp() {
+        List<String> sourceUris = new ArrayList<>();
+        List<String> targetUris = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, size / FAN_OUT); i++) {
+            sourceUris.add("http://limes.sf.net/source/" + i);
+            targetUris.add("http://limes.sf.net/target/" + i);
+        }
+        StringDictionary sourceDictionary = new StringDictionary();
+        StringDictionary targetDictionary = new StringDictionary();
+        first = create(sourceDictionary, targetDictionary);
+        second = create(sourceDictionary, targetDictionary);
+        Random random = new Random(BenchmarkData.SEED);
+        BenchmarkData.links(size, FAN_OUT, sourceUris, targetUris, first, random);
+        // copy overlap percent of the links of first, then add random links
+        int copied = 0;
+        for (String s : first.getMap().keySet()) {
+            for (String t : first.getMap().get(s).keySet()) {
+                if (random.nextInt(100) < overlap) {
+                    second.add(s, t, random.nextDouble());
+                    copied++;
+                }
+            }
+        }
+        BenchmarkData.links(size - copied, FAN_OUT, sourceUris, targetUris, second, random);
+    }
+
+    private AMapping create(StringDictionary sourceDictionary, StringDictionary targetDictionary) {
+        if (type == MappingType.INDEXED_MAPPING) {
+            return MappingFactory.createIndexedMapping(sourceDictionary, targetDictionary);
+        }
+        return MappingFactory.createMapping(type);
+    }
+
+    @Benchmark
+    public AMapping union() {
+        return MappingOperations.union(first, second);
+    }
+
+    @Benchmark
+    public AMapping intersection() {
+        return MappingOperations.intersection(first, second);
+    }
+
+    @Benchmark
+    public AMapping difference() {
+        return MappingOperations.difference(first, second);
+    }
+}
@@ -11,18 +11,21 @@ import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 //import org.aksw.limes.core.gui.LimesGUI;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.ColumnarCache;
 import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.Configuration;
+import org.aksw.limes.core.io.config.KBInfo;
 import org.aksw.limes.core.io.config.reader.AConfigurationReader;
 import org.aksw.limes.core.io.config.reader.rdf.RDFConfigurationReader;
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.preprocessing.Preprocessor;
-import org.aksw.limes.core.io.serializer.ISerializer;
-import org.aksw.limes.core.io.serializer.SerializerFactory;
-import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.aksw.limes.core.io.serializer.ILinkSink;
+import org.aksw.limes.core.io.serializer.ThresholdLinkSink;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -35,7 +38,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * This is the default LIMES Controller used to run the software as CLI.
@@ -84,14 +89,23 @@ public class Controller {
                 System.exit(1);
             }
             Configuration config = getConfig(cmd);
-            LimesResult result = getMapping(config);
+            LimesResult result;
             if (cmd.hasOption('1')) {
-                //force 1-to-1 result
+                //force 1-to-1 result, which needs all links before writing
+                result = getMapping(config);
                 logger.info("Enforcing 1-to-1 result...");
                 result.forceOneToOneMapping();
+                logger.info("Writing result files...");
+                writeResults(result, config);
+            } else {
+                // the links are written while the linking task finishes
+                ILinkSink sink = openLinkSink(config, config.getAcceptanceFile(), config.getVerificationFile());
+                try {
+                    result = getMapping(config, -1, new ConsoleOracle(MAX_ITERATIONS_NUMBER), sink);
+                } finally {
+                    closeLinkSink(sink);
+                }
             }
-            logger.info("Writing result files...");
-            writeResults(result, config);
 
             logger.info("Writing statistics file...");
             // output statistics
@@ -178,25 +192,36 @@ public class Controller {
     }
 
     static LimesResult getMapping(Configuration config, int limit, ActiveLearningOracle oracle) {
+        return getMapping(config, limit, oracle, null);
+    }
+
+    /**
+     * Execute LIMES, passing the links to a sink once the mapping of the final
+     * step of the linking task is built
+     *
+     * @param config
+     *            LIMES configuration object
+     * @param limit
+     *            Number of instances to keep, or a value below 1 to keep all
+     * @param oracle
+     *            Oracle of active learning algorithms
+     * @param sink
+     *            Sink of the links, e.g. opened by
+     *            {@link #openLinkSink(Configuration, String, String)}, or null
+     * @return Instance of ResultMapping
+     */
+    static LimesResult getMapping(Configuration config, int limit, ActiveLearningOracle oracle, ILinkSink sink) {
         if (logger == null)
             logger = LoggerFactory.getLogger(Controller.class);
         AMapping results = null;
 
-        // 3. Fill Caches
-        ACache sourceCache = HybridCache.getData(config.getSourceInfo());
-        ACache targetCache = HybridCache.getData(config.getTargetInfo());
-        if (limit > 0) {
-            Function<ACache, ACache> getSubCache = c -> {
-                ACache reducedCache = new MemoryCache();
-                c.getAllInstances().subList(0, limit).forEach(reducedCache::addInstance);
-                return reducedCache;
-            };
-            sourceCache = getSubCache.apply(sourceCache);
-            targetCache = getSubCache.apply(targetCache);
-        }
-        // 4. Apply preprocessing 
-        sourceCache = Preprocessor.applyFunctionsToCache(sourceCache, config.getSourceInfo().getFunctions());
-        targetCache = Preprocessor.applyFunctionsToCache(targetCache, config.getTargetInfo().getFunctions());
+        // 3. Fill Caches and 4. Apply preprocessing, for source and target concurrently
+        List<Callable<ACache>> loaders = new ArrayList<>();
+        loaders.add(() -> fillCache(config.getSourceInfo(), limit));
+        loaders.add(() -> fillCache(config.getTargetInfo(), limit));
+        List<ACache> caches = ComputeExecutor.invokeAll(loaders);
+        ACache sourceCache = caches.get(0);
+        ACache targetCache = caches.get(1);
 
         // 5. Machine Learning or Planning
         StopWatch stopWatch = new StopWatch();
@@ -211,30 +236,93 @@ public class Controller {
                 e.printStackTrace();
             }
         } else {
-            results = LSPipeline.execute(sourceCache, targetCache, config.getMetricExpression(),
-                    config.getVerificationThreshold(), config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
-                    RewriterFactory.getRewriterType(config.getExecutionRewriter()),
+            LinkSpecification ls = new LinkSpecification(config.getMetricExpression(),
+                    config.getVerificationThreshold());
+            results = LSPipeline.execute(sourceCache, targetCache, ls, config.getSourceInfo().getVar(),
+                    config.getTargetInfo().getVar(), RewriterFactory.getRewriterType(config.getExecutionRewriter()),
                     ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
                     ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()),
-                    config.getOptimizationTime(), config.getExpectedSelectivity());
+                    config.getOptimizationTime(), config.getExpectedSelectivity(), null, sink);
         }
         long runTime = stopWatch.getTime();
         logger.info("Mapping task finished in " + runTime + " ms");
         assert results != null;
-        AMapping acceptanceMapping = results.getSubMap(config.getAcceptanceThreshold());
-        AMapping verificationMapping = MappingOperations.difference(results, acceptanceMapping);
-        logger.info("Mapping size: " + acceptanceMapping.size() + " (accepted) + " + verificationMapping.size()
-                + " (need verification) = " + results.size() + " (total)");
-        return new LimesResult(verificationMapping, acceptanceMapping, sourceCache, targetCache, runTime);
+        LimesResult result = new LimesResult(results, config.getAcceptanceThreshold(),
+                config.getVerificationThreshold(), sourceCache, targetCache, runTime);
+        logger.info("Mapping size: " + results.size() + " (total)");
+        if (isAlgorithm && sink != null) {
+            // the final mapping of a machine learning algorithm is only known
+            // once it has finished
+            result.writeLinks(sink);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the data of a knowledge base, reduces it to its first instances if
+     * a limit is given and applies the preprocessing functions of the
+     * knowledge base. The data is loaded directly into a {@link ColumnarCache}
+     * if the knowledge base asks for it, and into a hybrid cache otherwise.
+     *
+     * @param kb
+     *            Info of the knowledge base
+     * @param limit
+     *            Number of instances to keep, or a value below 1 to keep all
+     * @return the preprocessed cache
+     */
+    private static ACache fillCache(KBInfo kb, int limit) {
+        boolean columnar = KBInfo.COLUMNAR_CACHE.equals(kb.getCache());
+        if (!columnar && !KBInfo.HYBRID_CACHE.equals(kb.getCache())) {
+            logger.warn("Unknown cache " + kb.getCache() + " of " + kb.getId() + ", using a hybrid cache");
+        }
+        ACache cache = columnar ? ColumnarCache.getData(kb) : HybridCache.getData(kb);
+        if (limit > 0) {
+            ACache reducedCache = columnar ? new ColumnarCache() : new MemoryCache();
+            for (String uri : cache.getAllUris().subList(0, limit)) {
+                reducedCache.addInstance(cache.getInstance(uri));
+            }
+            cache = reducedCache;
+        }
+        return Preprocessor.applyFunctionsToCache(cache, kb.getFunctions());
     }
 
     private static void writeResults(LimesResult mappings, Configuration config) {
-        String outputFormat = config.getOutputFormat();
-        ISerializer output = SerializerFactory.createSerializer(outputFormat);
-        output.setPrefixes(config.getPrefixes());
-        output.writeToFile(mappings.getVerificationMapping(), config.getVerificationRelation(),
-                config.getVerificationFile());
-        output.writeToFile(mappings.getAcceptanceMapping(), config.getAcceptanceRelation(), config.getAcceptanceFile());
+        ILinkSink sink = openLinkSink(config, config.getAcceptanceFile(), config.getVerificationFile());
+        mappings.writeLinks(sink);
+        closeLinkSink(sink);
+    }
+
+    /**
+     * Opens a sink that writes each link directly to the acceptance or to the
+     * verification file of a configuration, depending on its similarity.
+     *
+     * @param config
+     *            LIMES configuration object
+     * @param acceptanceFile
+     *            Path of the acceptance file
+     * @param verificationFile
+     *            Path of the verification file
+     * @return the opened sink
+     */
+    static ILinkSink openLinkSink(Configuration config, String acceptanceFile, String verificationFile) {
+        return ThresholdLinkSink.open(config.getOutputFormat(), config.getAcceptanceRelation(), acceptanceFile,
+                config.getAcceptanceThreshold(), config.getVerificationRelation(), verificationFile,
+                config.getVerificationThreshold(), config.getPrefixes());
+    }
+
+    /**
+     * Closes a sink of links and reports if the output files could not be
+     * completed
+     *
+     * @param sink
+     *            Sink of the links
+     */
+    static void closeLinkSink(ILinkSink sink) {
+        if (logger == null)
+            logger = LoggerFactory.getLogger(Controller.class);
+        if (!sink.close()) {
+            logger.error("Error closing the result files, they may be incomplete.");
+        }
     }
 
     /**
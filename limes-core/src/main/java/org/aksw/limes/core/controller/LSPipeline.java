@@ -2,6 +2,7 @@ package org.aksw.limes.core.controller;
 
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.planning.calibration.CostModel;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.Planner;
 import org.aksw.limes.core.execution.rewriter.Rewriter;
@@ -9,6 +10,7 @@ import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.serializer.ILinkSink;
 
 /**
  * Execution pipeline for generating mappings out of link specifications.
@@ -79,17 +81,93 @@ public class LSPipeline {
             String targetVar, RewriterFactory.RewriterType rewriterType,
             ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
             ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k) {
+        return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, maxOpt, k, null);
+    }
+
+    /**
+     * Execute a given LS with a planner that uses measured costs, generating a
+     * mapping.
+     *
+     * @param sourceCache
+     *            Resources from source KB
+     * @param targetCache
+     *            Resources from target KB
+     * @param ls
+     *            LIMES Link Specification
+     * @param sourceVar
+     *            Name of SPARQL variable for resources from source KB
+     * @param targetVar
+     *            Name of SPARQL variable for resources from target KB
+     * @param rewriterType
+     *            Specifies rewriter module to use
+     * @param executionPlannerType
+     *            Specifies executionPlanner module to use
+     * @param executionEngineType
+     *            Specifies executionEngine module to use
+     * @param costModel
+     *            Measured costs used by the HELIOS and DYNAMIC planners, null
+     *            to use the approximations of the mappers
+     * @return Mapping of resources in sourceCache to resources in targetCache
+     *         with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+            String targetVar, RewriterFactory.RewriterType rewriterType,
+            ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+            ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k,
+            CostModel costModel) {
+        return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, maxOpt, k, costModel, null);
+    }
+
+    /**
+     * Execute a given LS, generating a mapping whose links are passed to a
+     * sink as soon as the final step of the plan is executed.
+     *
+     * @param sourceCache
+     *            Resources from source KB
+     * @param targetCache
+     *            Resources from target KB
+     * @param ls
+     *            LIMES Link Specification
+     * @param sourceVar
+     *            Name of SPARQL variable for resources from source KB
+     * @param targetVar
+     *            Name of SPARQL variable for resources from target KB
+     * @param rewriterType
+     *            Specifies rewriter module to use
+     * @param executionPlannerType
+     *            Specifies executionPlanner module to use
+     * @param executionEngineType
+     *            Specifies executionEngine module to use
+     * @param costModel
+     *            Measured costs used by the HELIOS and DYNAMIC planners, null
+     *            to use the approximations of the mappers
+     * @param linkSink
+     *            Sink of the links, e.g. a
+     *            {@link org.aksw.limes.core.io.serializer.ThresholdLinkSink},
+     *            or null
+     * @return Mapping of resources in sourceCache to resources in targetCache
+     *         with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+            String targetVar, RewriterFactory.RewriterType rewriterType,
+            ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+            ExecutionEngineFactory.ExecutionEngineType executionEngineType, long maxOpt, double k,
+            CostModel costModel, ILinkSink linkSink) {
         // Optimize LS by rewriting
         Rewriter rw = RewriterFactory.getRewriter(rewriterType);
         assert rw != null;
         LinkSpecification rwLs = rw.rewrite(ls);
         // Planning execution of the LS
-        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache,
+                costModel);
         assert planner != null;
         // Execute the ExecutionPlan obtained from the LS
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache, targetCache,
                 sourceVar, targetVar, maxOpt, k);
         assert engine != null;
+        engine.setLinkSink(linkSink);
         return engine.execute(rwLs, planner);
     }
 
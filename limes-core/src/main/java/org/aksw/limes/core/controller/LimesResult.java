@@ -6,9 +6,13 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.serializer.ILinkSink;
+import org.aksw.limes.core.io.serializer.ThresholdLinkSink;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map.Entry;
 import java.util.Set;
 
 /**
@@ -17,6 +21,11 @@ import java.util.Set;
 public class LimesResult {
     protected AMapping verificationMapping;
     protected AMapping acceptanceMapping;
+    // links of the linking task that are split into the verification and the
+    // acceptance part on demand, or null if the parts are given
+    private AMapping mapping = null;
+    private double acceptanceThreshold;
+    private double verificationThreshold;
     private ACache sourceCache = null;
     private ACache targetCache = null;
     private long runTime = 0;
@@ -57,11 +66,35 @@ public class LimesResult {
     }
 
 
+    /**
+     * Constructor for the links of a linking task, which are only split into
+     * the verification and the acceptance part when a part is requested
+     * @param mapping Links of the linking task
+     * @param acceptanceThreshold Lowest similarity of the acceptance part
+     * @param verificationThreshold Lowest similarity of the verification part
+     * @param sourceCache source resources cache
+     * @param targetCache target resources cache
+     * @param runTime run time
+     */
+    public LimesResult(AMapping mapping, double acceptanceThreshold, double verificationThreshold,
+            ACache sourceCache, ACache targetCache, long runTime) {
+        this.mapping = mapping;
+        this.acceptanceThreshold = acceptanceThreshold;
+        this.verificationThreshold = verificationThreshold;
+        this.sourceCache = sourceCache;
+        this.targetCache = targetCache;
+        this.runTime = runTime;
+    }
+
+
     /**
      * Getter for verification part
      * @return verification mapping
      */
     public AMapping getVerificationMapping() {
+        if (verificationMapping == null) {
+            verificationMapping = getLinks(verificationThreshold, acceptanceThreshold);
+        }
         return verificationMapping;
     }
 
@@ -71,21 +104,134 @@ public class LimesResult {
      * @return acceptance mapping
      */
     public AMapping getAcceptanceMapping() {
+        if (acceptanceMapping == null) {
+            acceptanceMapping = getLinks(acceptanceThreshold, Double.POSITIVE_INFINITY);
+        }
         return acceptanceMapping;
     }
 
+    /**
+     * @return the links whose similarity is at least lowest and below highest
+     */
+    private AMapping getLinks(double lowest, double highest) {
+        AMapping links = MappingFactory.createDefaultMapping();
+        for (Entry<String, HashMap<String, Double>> sourceLinks : mapping.getMap().entrySet()) {
+            for (Entry<String, Double> link : sourceLinks.getValue().entrySet()) {
+                if (link.getValue() >= lowest && link.getValue() < highest) {
+                    links.add(sourceLinks.getKey(), link.getKey(), link.getValue());
+                }
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Streams the links of the verification and the acceptance part to a sink
+     * @param sink Sink of the links, e.g. a {@link ThresholdLinkSink} that
+     *            writes them to the output files
+     */
+    public void writeLinks(ILinkSink sink) {
+        forEachLink((source, target, confidence, acceptance) -> sink.addLink(source, target, confidence));
+    }
+
+    /**
+     * Passes each link of the verification and the acceptance part to a
+     * consumer, without splitting or copying the mappings
+     */
+    private void forEachLink(PartConsumer consumer) {
+        AMapping[] mappings = mapping == null ? new AMapping[] { acceptanceMapping, verificationMapping }
+                : new AMapping[] { mapping };
+        for (AMapping m : mappings) {
+            for (Entry<String, HashMap<String, Double>> links : m.getMap().entrySet()) {
+                for (Entry<String, Double> link : links.getValue().entrySet()) {
+                    boolean acceptance;
+                    if (mapping == null) {
+                        acceptance = m == acceptanceMapping;
+                    } else if (link.getValue() >= verificationThreshold) {
+                        acceptance = link.getValue() >= acceptanceThreshold;
+                    } else {
+                        continue;
+                    }
+                    consumer.accept(links.getKey(), link.getKey(), link.getValue(), acceptance);
+                }
+            }
+        }
+    }
+
+    private interface PartConsumer {
+        void accept(String source, String target, double confidence, boolean acceptance);
+    }
+
+    /**
+     * Counts of the links of a part, from which the pseudo precision, recall
+     * and F-measure are computed as by {@link PseudoFMeasure} with its
+     * default settings, i.e. with symmetric precision.
+     */
+    private static class PartStatistics {
+
+        private int links = 0;
+        private int positiveLinks = 0;
+        private final Set<String> sources = new HashSet<>();
+        private final Set<String> targets = new HashSet<>();
+        private final Set<String> positiveSources = new HashSet<>();
+        private final Set<String> positiveTargets = new HashSet<>();
+
+        void add(String source, String target, double confidence) {
+            links++;
+            sources.add(source);
+            targets.add(target);
+            if (confidence > 0) {
+                positiveLinks++;
+                positiveSources.add(source);
+                positiveTargets.add(target);
+            }
+        }
+
+        double precision() {
+            double p = positiveSources.size() + positiveTargets.size();
+            double q = 2d * positiveLinks;
+            if (p == 0 || q == 0)
+                return 0;
+            return p / q;
+        }
+
+        double recall(int referenceSize) {
+            return (sources.size() + targets.size()) / (double) referenceSize;
+        }
+
+        double fMeasure(int referenceSize) {
+            double p = precision();
+            double r = recall(referenceSize);
+            if (p == 0 && r == 0)
+                return 0.0;
+            return 2 * p * r / (p + r);
+        }
+    }
+
+    /**
+     * Computes the statistics of the linking task in one pass over its links,
+     * without splitting or copying the mappings
+     * @return statistics as JSON
+     */
     public String getStatistics() {
         if (sourceCache == null) {
             return "";
         }
-        GoldStandard goldStandard = new GoldStandard(null, sourceCache, targetCache);
-        double pseudoPrecisionForAcceptance = new PseudoFMeasure().precision(acceptanceMapping, goldStandard);
-        double pseudoRecallForAcceptance = new PseudoFMeasure().recall(acceptanceMapping, goldStandard);
-        double pseudoFMeasureForAcceptance = new PseudoFMeasure().calculate(acceptanceMapping, goldStandard);
-        AMapping wholeMapping = MappingOperations.union(acceptanceMapping, verificationMapping);
-        double pseudoPrecisionForAll = new PseudoFMeasure().precision(wholeMapping, goldStandard);
-        double pseudoRecallForAll = new PseudoFMeasure().recall(wholeMapping, goldStandard);
-        double pseudoFMeasureForAll = new PseudoFMeasure().calculate(wholeMapping, goldStandard);
+        int referenceSize = sourceCache.getAllUris().size() + targetCache.getAllUris().size();
+        PartStatistics acceptance = new PartStatistics();
+        PartStatistics all = new PartStatistics();
+        forEachLink((source, target, confidence, isAcceptance) -> {
+            if (isAcceptance) {
+                acceptance.add(source, target, confidence);
+            }
+            all.add(source, target, confidence);
+        });
+        double pseudoPrecisionForAcceptance = acceptance.precision();
+        double pseudoRecallForAcceptance = acceptance.recall(referenceSize);
+        double pseudoFMeasureForAcceptance = acceptance.fMeasure(referenceSize);
+        double pseudoPrecisionForAll = all.precision();
+        double pseudoRecallForAll = all.recall(referenceSize);
+        double pseudoFMeasureForAll = all.fMeasure(referenceSize);
         return String.format(
                 "{" +
                 "\n\t\"mappingTime\" : %d," +
@@ -111,7 +257,7 @@ public class LimesResult {
                 "\n\t}" +
                 "\n}",
                 this.runTime, this.sourceCache.size(), this.targetCache.size(),
-                this.verificationMapping.size(), this.acceptanceMapping.size(),
+                all.links - acceptance.links, acceptance.links,
                 Double.toString(pseudoPrecisionForAcceptance), Double.toString(pseudoRecallForAcceptance), Double.toString(pseudoFMeasureForAcceptance),
                 Double.toString(pseudoPrecisionForAll), Double.toString(pseudoRecallForAll), Double.toString(pseudoFMeasureForAll));
     }
@@ -139,11 +285,11 @@ public class LimesResult {
             gsT.addAll(reference.getMap().get(s).keySet());
         }
         GoldStandard goldStandard = new GoldStandard(reference, sourceCache, targetCache);
-        AMapping filteredAcceptance = filterReferenceCompliant(acceptanceMapping, gsS, gsT);
+        AMapping filteredAcceptance = filterReferenceCompliant(getAcceptanceMapping(), gsS, gsT);
         double precisionForAcceptance = new FMeasure().precision(filteredAcceptance, goldStandard);
         double recallForAcceptance = new FMeasure().recall(filteredAcceptance, goldStandard);
         double fMeasureForAcceptance = new FMeasure().calculate(filteredAcceptance, goldStandard);
-        AMapping filteredWhole = MappingOperations.union(filteredAcceptance, filterReferenceCompliant(verificationMapping, gsS, gsT));
+        AMapping filteredWhole = MappingOperations.union(filteredAcceptance, filterReferenceCompliant(getVerificationMapping(), gsS, gsT));
         double precisionForAll = new FMeasure().precision(filteredWhole, goldStandard);
         double recallForAll = new FMeasure().recall(filteredWhole, goldStandard);
         double fMeasureForAll = new FMeasure().calculate(filteredWhole, goldStandard);
@@ -167,6 +313,13 @@ public class LimesResult {
 
     public void forceOneToOneMapping() {
         AMapping map = MappingFactory.createDefaultMapping();
+        if (mapping != null) {
+            // the parts are split again from the remaining links
+            verificationMapping = null;
+            acceptanceMapping = null;
+            mapping = map.getBestOneToOneMappings(mapping);
+            return;
+        }
         verificationMapping = map.getBestOneToOneMappings(verificationMapping);
         acceptanceMapping = map.getBestOneToOneMappings(acceptanceMapping);
     }
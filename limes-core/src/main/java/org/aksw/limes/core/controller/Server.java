@@ -11,8 +11,7 @@ import org.aksw.limes.core.io.config.reader.rdf.RDFConfigurationReader;
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
 import org.aksw.limes.core.io.preprocessing.APreprocessingFunction;
 import org.aksw.limes.core.io.preprocessing.PreprocessingFunctionFactory;
-import org.aksw.limes.core.io.serializer.ISerializer;
-import org.aksw.limes.core.io.serializer.SerializerFactory;
+import org.aksw.limes.core.io.serializer.ILinkSink;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.ml.algorithm.MLImplementationType;
 import org.apache.commons.io.FilenameUtils;
@@ -306,16 +305,15 @@ public class Server {
             if (uploadFiles.containsKey(targetEndpoint)) {
                 config.getTargetInfo().setEndpoint(uploadFiles.get(targetEndpoint));
             }
-            LimesResult mappings = Controller.getMapping(config, limit, oracle);
-            String outputFormat = config.getOutputFormat();
-            ISerializer output = SerializerFactory.createSerializer(outputFormat);
-            output.setPrefixes(config.getPrefixes());
             File verificationFile = new File(workingDir, config.getVerificationFile());
             File acceptanceFile = new File(workingDir, config.getAcceptanceFile());
-            output.writeToFile(mappings.getVerificationMapping(), config.getVerificationRelation(),
+            ILinkSink sink = Controller.openLinkSink(config, acceptanceFile.getAbsolutePath(),
                     verificationFile.getAbsolutePath());
-            output.writeToFile(mappings.getAcceptanceMapping(), config.getAcceptanceRelation(),
-                    acceptanceFile.getAbsolutePath());
+            try {
+                Controller.getMapping(config, limit, oracle, sink);
+            } finally {
+                Controller.closeLinkSink(sink);
+            }
         }).exceptionally((e)-> {e.printStackTrace();return null;}));
         res.status(200);
 
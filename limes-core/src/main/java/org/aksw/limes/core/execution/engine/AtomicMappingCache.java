@@ -0,0 +1,572 @@
+package org.aksw.limes.core.execution.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the mappings of atomic link specifications, which is shared by the
+ * machine learning algorithms, as they execute the same atoms over the same
+ * caches again and again. A mapping is cached by the identity of the source
+ * and of the target cache, by its measure expression and by its threshold. As
+ * the mapping of an atom is monotone in the threshold, a query is also
+ * answered by filtering the cached mapping of a lower threshold of the same
+ * atom, and a mapping makes the cached mappings of its atom with higher
+ * thresholds redundant.
+ * <p>
+ * The number of links of the cached mappings is bounded. When the bound is
+ * exceeded, the least recently used mappings are written to a directory, if
+ * one is given, or evicted. The written mappings are bounded as well, by ten
+ * times the number of links. The bound and the directory are set by the
+ * system properties {@value #MAX_LINKS_PROPERTY} and
+ * {@value #SPILL_DIRECTORY_PROPERTY} for the shared cache of
+ * {@link #getInstance()}. The mappings of a cache are released when the cache
+ * is garbage collected, and evicted when the values of the properties of the
+ * atom have changed. The values are compared by a fingerprint of the
+ * property, which is computed once per modification of the cache, see
+ * {@link ACache#modified()}.
+ * <p>
+ * The cached mappings are never handed out, so that callers may modify the
+ * returned mappings.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ */
+public class AtomicMappingCache {
+
+    static Logger logger = LoggerFactory.getLogger(AtomicMappingCache.class);
+
+    public static final String MAX_LINKS_PROPERTY = "limes.mappingCache.maxLinks";
+    public static final String SPILL_DIRECTORY_PROPERTY = "limes.mappingCache.spillDirectory";
+    public static final long DEFAULT_MAX_LINKS = 2000000L;
+
+    private static AtomicMappingCache instance;
+
+    private final long maxLinks;
+    private final long maxSpilledLinks;
+    private final File spillDirectory;
+
+    private final ReferenceQueue<ACache> collectedCaches = new ReferenceQueue<>();
+    private final Map<Atom, AtomResults> results = new HashMap<>();
+    // all results, least recently used first
+    private final LinkedHashMap<Result, Result> usage = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<CacheProperty, Fingerprint> fingerprints = new HashMap<>();
+    private long links = 0;
+    private long spilledLinks = 0;
+
+    private long hits = 0;
+    private long filteredHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long spills = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param maxLinks
+     *            Maximal number of links of the mappings kept in memory
+     * @param spillDirectory
+     *            Directory of the mappings that exceed the bound, or null if
+     *            they are evicted
+     */
+    public AtomicMappingCache(long maxLinks, File spillDirectory) {
+        this.maxLinks = maxLinks;
+        this.maxSpilledLinks = 10 * maxLinks;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * @return the cache shared by the machine learning algorithms
+     */
+    public static synchronized AtomicMappingCache getInstance() {
+        if (instance == null) {
+            long maxLinks = DEFAULT_MAX_LINKS;
+            String maxLinksProperty = System.getProperty(MAX_LINKS_PROPERTY);
+            if (maxLinksProperty != null) {
+                try {
+                    maxLinks = Long.parseLong(maxLinksProperty.trim());
+                } catch (NumberFormatException e) {
+                    logger.warn("Invalid value " + maxLinksProperty + " of " + MAX_LINKS_PROPERTY
+                            + ", using the default of " + DEFAULT_MAX_LINKS + " links.");
+                }
+            }
+            File spillDirectory = null;
+            String spillDirectoryProperty = System.getProperty(SPILL_DIRECTORY_PROPERTY);
+            if (spillDirectoryProperty != null) {
+                spillDirectory = new File(spillDirectoryProperty);
+                if (!spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+                    logger.warn("Cannot create " + spillDirectory + ", mappings will be evicted instead.");
+                    spillDirectory = null;
+                }
+            }
+            instance = new AtomicMappingCache(maxLinks, spillDirectory);
+        }
+        return instance;
+    }
+
+    /**
+     * Retrieves the mapping of an atomic link specification, and computes and
+     * caches it if neither it nor the mapping of a lower threshold is cached.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param measureExpression
+     *            Measure expression of the atom
+     * @param threshold
+     *            Threshold of the atom
+     * @param mapper
+     *            Computes the mapping of the atom
+     * @return a copy of the mapping
+     */
+    public AMapping getMapping(ACache source, ACache target, String measureExpression, double threshold,
+            Supplier<AMapping> mapper) {
+        List<String> properties = PropertyFetcher.getProperties(measureExpression, threshold);
+        long sourceFingerprint = getFingerprint(source, properties.get(0));
+        long targetFingerprint = getFingerprint(target, properties.get(1));
+        Atom atom = new Atom(source, target, measureExpression.replaceAll("\\s", ""), collectedCaches);
+        AMapping cached = null;
+        File file = null;
+        synchronized (this) {
+            expungeCollectedCaches();
+            Result result = getResult(atom, sourceFingerprint, targetFingerprint, threshold);
+            if (result == null) {
+                misses++;
+            } else {
+                if (result.threshold == threshold) {
+                    hits++;
+                } else {
+                    filteredHits++;
+                }
+                cached = result.mapping;
+                file = result.file;
+            }
+        }
+        if (cached == null && file != null) {
+            try {
+                cached = read(file);
+            } catch (IOException e) {
+                // evicted in the meantime
+                logger.debug("Cannot read " + file + ": " + e.getMessage());
+            }
+        }
+        if (cached != null) {
+            return filter(cached, threshold);
+        }
+        AMapping mapping = mapper.get();
+        synchronized (this) {
+            put(atom, sourceFingerprint, targetFingerprint, threshold, mapping);
+        }
+        return filter(mapping, threshold);
+    }
+
+    /**
+     * @return the cached result with the highest threshold that is not higher
+     *         than the threshold, or null
+     */
+    private Result getResult(Atom atom, long sourceFingerprint, long targetFingerprint, double threshold) {
+        AtomResults atomResults = results.get(atom);
+        if (atomResults == null) {
+            return null;
+        }
+        if (atomResults.sourceFingerprint != sourceFingerprint
+                || atomResults.targetFingerprint != targetFingerprint) {
+            for (Result result : new ArrayList<>(atomResults.byThreshold.values())) {
+                remove(result);
+            }
+            return null;
+        }
+        Entry<Double, Result> entry = atomResults.byThreshold.floorEntry(threshold);
+        if (entry == null) {
+            return null;
+        }
+        // marks the result as used
+        usage.get(entry.getValue());
+        return entry.getValue();
+    }
+
+    private void put(Atom atom, long sourceFingerprint, long targetFingerprint, double threshold,
+            AMapping mapping) {
+        AtomResults atomResults = results.get(atom);
+        if (atomResults != null && (atomResults.sourceFingerprint != sourceFingerprint
+                || atomResults.targetFingerprint != targetFingerprint)) {
+            for (Result result : new ArrayList<>(atomResults.byThreshold.values())) {
+                remove(result);
+            }
+            atomResults = null;
+        }
+        if (atomResults == null) {
+            atomResults = new AtomResults(sourceFingerprint, targetFingerprint);
+            results.put(atom, atomResults);
+        } else if (atomResults.byThreshold.floorKey(threshold) != null) {
+            // computed concurrently for a lower threshold
+            return;
+        }
+        Result result = new Result(atom, threshold, mapping);
+        atomResults.byThreshold.put(threshold, result);
+        usage.put(result, result);
+        links += result.size;
+        // the results of higher thresholds are filtered from this one
+        for (Result higher : new ArrayList<>(atomResults.byThreshold.tailMap(threshold, false).values())) {
+            remove(higher);
+        }
+        evict();
+    }
+
+    /**
+     * Spills or evicts the least recently used results until the bounds are
+     * met.
+     */
+    private void evict() {
+        Iterator<Result> it = usage.keySet().iterator();
+        while (links > maxLinks && it.hasNext()) {
+            Result result = it.next();
+            if (result.mapping == null) {
+                continue;
+            }
+            if (spillDirectory != null && result.size <= maxSpilledLinks) {
+                try {
+                    result.file = write(result.mapping, spillDirectory);
+                    result.mapping = null;
+                    links -= result.size;
+                    spilledLinks += result.size;
+                    spills++;
+                    continue;
+                } catch (IOException e) {
+                    logger.warn("Cannot write a mapping to " + spillDirectory + ": " + e.getMessage());
+                }
+            }
+            it.remove();
+            removeFromAtom(result);
+            evictions++;
+        }
+        it = usage.keySet().iterator();
+        while (spilledLinks > maxSpilledLinks && it.hasNext()) {
+            Result result = it.next();
+            if (result.mapping == null) {
+                it.remove();
+                removeFromAtom(result);
+                evictions++;
+            }
+        }
+    }
+
+    private void remove(Result result) {
+        usage.remove(result);
+        removeFromAtom(result);
+    }
+
+    private void removeFromAtom(Result result) {
+        AtomResults atomResults = results.get(result.atom);
+        if (atomResults != null && atomResults.byThreshold.get(result.threshold) == result) {
+            atomResults.byThreshold.remove(result.threshold);
+            if (atomResults.byThreshold.isEmpty()) {
+                results.remove(result.atom);
+            }
+        }
+        if (result.mapping != null) {
+            links -= result.size;
+        } else if (result.file != null) {
+            spilledLinks -= result.size;
+            result.file.delete();
+        }
+    }
+
+    private void expungeCollectedCaches() {
+        Reference<? extends ACache> collected;
+        while ((collected = collectedCaches.poll()) != null) {
+            Reference<? extends ACache> reference = collected;
+            fingerprints.keySet().removeIf(key -> key.cache == reference);
+            for (Atom atom : new ArrayList<>(results.keySet())) {
+                if (atom.source == collected || atom.target == collected) {
+                    for (Result result : new ArrayList<>(results.get(atom).byThreshold.values())) {
+                        remove(result);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public synchronized void clear() {
+        for (Result result : new ArrayList<>(usage.keySet())) {
+            remove(result);
+        }
+    }
+
+    /**
+     * @return the number of queries answered by a mapping of the same
+     *         threshold
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of queries answered by filtering a mapping of a lower
+     *         threshold
+     */
+    public synchronized long getFilteredHits() {
+        return filteredHits;
+    }
+
+    /**
+     * @return the number of queries whose mapping was computed
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of evicted mappings
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of mappings that were written to the spill directory
+     */
+    public synchronized long getSpills() {
+        return spills;
+    }
+
+    /**
+     * @return the number of links of the mappings in memory
+     */
+    public synchronized long getLinks() {
+        return links;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AtomicMappingCache [hits=" + hits + ", filteredHits=" + filteredHits + ", misses=" + misses
+                + ", evictions=" + evictions + ", spills=" + spills + ", links=" + links + ", spilledLinks="
+                + spilledLinks + "]";
+    }
+
+    /**
+     * @return a copy of the links of a mapping whose confidence reaches the
+     *         threshold
+     */
+    private static AMapping filter(AMapping mapping, double threshold) {
+        AMapping result = MappingFactory.createMapping(mapping);
+        for (Entry<String, HashMap<String, Double>> s : mapping.getMap().entrySet()) {
+            for (Entry<String, Double> t : s.getValue().entrySet()) {
+                if (t.getValue() >= threshold) {
+                    result.add(s.getKey(), t.getKey(), t.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a hash of the uris of the instances of a cache and of the values
+     *         of a property of the instances, which is only recomputed if the
+     *         cache was modified
+     */
+    private long getFingerprint(ACache cache, String property) {
+        long modifications = cache.getModifications();
+        CacheProperty key = new CacheProperty(cache, property, collectedCaches);
+        synchronized (this) {
+            Fingerprint fingerprint = fingerprints.get(key);
+            if (fingerprint != null && fingerprint.modifications == modifications) {
+                return fingerprint.value;
+            }
+        }
+        long value = 0;
+        for (Instance instance : cache.getAllInstances()) {
+            value = 31 * value + 31L * instance.getUri().hashCode() + instance.getProperty(property).hashCode();
+        }
+        synchronized (this) {
+            fingerprints.put(key, new Fingerprint(modifications, value));
+        }
+        return value;
+    }
+
+    private static File write(AMapping mapping, File directory) throws IOException {
+        File file = File.createTempFile("mapping", ".bin", directory);
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(mapping.getMap().size());
+            for (Entry<String, HashMap<String, Double>> s : mapping.getMap().entrySet()) {
+                out.writeUTF(s.getKey());
+                out.writeInt(s.getValue().size());
+                for (Entry<String, Double> t : s.getValue().entrySet()) {
+                    out.writeUTF(t.getKey());
+                    out.writeDouble(t.getValue());
+                }
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+
+    private static AMapping read(File file) throws IOException {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            for (int sources = in.readInt(); sources > 0; sources--) {
+                String s = in.readUTF();
+                for (int targets = in.readInt(); targets > 0; targets--) {
+                    mapping.add(s, in.readUTF(), in.readDouble());
+                }
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * Identifies an atom by the identity of its caches and by its measure
+     * expression.
+     */
+    private static class Atom {
+
+        private final WeakReference<ACache> source;
+        private final WeakReference<ACache> target;
+        private final String measureExpression;
+        private final int hash;
+
+        Atom(ACache source, ACache target, String measureExpression, ReferenceQueue<ACache> queue) {
+            this.source = new WeakReference<>(source, queue);
+            this.target = new WeakReference<>(target, queue);
+            this.measureExpression = measureExpression;
+            this.hash = 31 * (31 * System.identityHashCode(source) + System.identityHashCode(target))
+                    + measureExpression.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Atom)) {
+                return false;
+            }
+            Atom other = (Atom) obj;
+            ACache sourceCache = source.get();
+            ACache targetCache = target.get();
+            return sourceCache != null && targetCache != null && sourceCache == other.source.get()
+                    && targetCache == other.target.get() && measureExpression.equals(other.measureExpression);
+        }
+    }
+
+    /**
+     * Identifies a property of a cache by the identity of the cache.
+     */
+    private static class CacheProperty {
+
+        private final WeakReference<ACache> cache;
+        private final String property;
+        private final int hash;
+
+        CacheProperty(ACache cache, String property, ReferenceQueue<ACache> queue) {
+            this.cache = new WeakReference<>(cache, queue);
+            this.property = property;
+            this.hash = 31 * System.identityHashCode(cache) + property.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheProperty)) {
+                return false;
+            }
+            CacheProperty other = (CacheProperty) obj;
+            ACache c = cache.get();
+            return c != null && c == other.cache.get() && property.equals(other.property);
+        }
+    }
+
+    /**
+     * The fingerprint of a property of a cache after a number of
+     * modifications of the cache.
+     */
+    private static class Fingerprint {
+
+        private final long modifications;
+        private final long value;
+
+        Fingerprint(long modifications, long value) {
+            this.modifications = modifications;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The results of an atom for the values its caches had when the results
+     * were computed.
+     */
+    private static class AtomResults {
+
+        private final long sourceFingerprint;
+        private final long targetFingerprint;
+        private final TreeMap<Double, Result> byThreshold = new TreeMap<>();
+
+        AtomResults(long sourceFingerprint, long targetFingerprint) {
+            this.sourceFingerprint = sourceFingerprint;
+            this.targetFingerprint = targetFingerprint;
+        }
+    }
+
+    /**
+     * The mapping of an atom for a threshold, in memory or in a file.
+     */
+    private static class Result {
+
+        private final Atom atom;
+        private final double threshold;
+        private final long size;
+        private AMapping mapping;
+        private File file;
+
+        Result(Atom atom, double threshold, AMapping mapping) {
+            this.atom = atom;
+            this.threshold = threshold;
+            this.size = mapping.size();
+            this.mapping = mapping;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package org.aksw.limes.core.execution.engine;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map.Entry;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.serializer.ILinkSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +46,15 @@ public abstract class ExecutionEngine implements IExecutionEngine {
     protected long optimizationTime = 0l;
 
     protected double expectedSelectivity = 1.0d;
+    /**
+     * Cache of the mappings of the atoms, or null if the atoms are executed
+     * every time.
+     */
+    protected AtomicMappingCache atomicMappingCache = null;
+    /**
+     * Sink that receives the links of the final step of the plan, or null.
+     */
+    protected ILinkSink linkSink = null;
 
     /**
      * Constructor for an execution engine.
@@ -102,6 +114,22 @@ public abstract class ExecutionEngine implements IExecutionEngine {
 
     }
 
+    public ACache getSourceCache() {
+        return source;
+    }
+
+    public ACache getTargetCache() {
+        return target;
+    }
+
+    public String getSourceVariable() {
+        return sourceVariable;
+    }
+
+    public String getTargetVariable() {
+        return targetVariable;
+    }
+
     public List<AMapping> getBuffer() {
         return buffer;
     }
@@ -109,4 +137,57 @@ public abstract class ExecutionEngine implements IExecutionEngine {
     public void setBuffer(List<AMapping> buffer) {
         this.buffer = buffer;
     }
+
+    public AtomicMappingCache getAtomicMappingCache() {
+        return atomicMappingCache;
+    }
+
+    /**
+     * Sets the cache of the mappings of the atoms, e.g. the shared
+     * {@link AtomicMappingCache#getInstance()} of the machine learning
+     * algorithms.
+     *
+     * @param atomicMappingCache
+     *            Cache of the mappings, or null to execute the atoms every
+     *            time
+     */
+    public void setAtomicMappingCache(AtomicMappingCache atomicMappingCache) {
+        this.atomicMappingCache = atomicMappingCache;
+    }
+
+    public ILinkSink getLinkSink() {
+        return linkSink;
+    }
+
+    /**
+     * Sets a sink that receives the links of the final step of the plan once
+     * the mapping of the step is built, e.g. to write them to the output files
+     * without building further mappings. The links are not passed while the
+     * step is executed.
+     *
+     * @param linkSink
+     *            Sink of the links, or null
+     */
+    public void setLinkSink(ILinkSink linkSink) {
+        this.linkSink = linkSink;
+    }
+
+    /**
+     * Passes the links of the final step of the plan to the sink of the
+     * engine, if it has one.
+     *
+     * @param m
+     *            Mapping of the final step
+     * @return m
+     */
+    protected AMapping sendToSink(AMapping m) {
+        if (linkSink != null) {
+            for (Entry<String, HashMap<String, Double>> links : m.getMap().entrySet()) {
+                for (Entry<String, Double> link : links.getValue().entrySet()) {
+                    linkSink.addLink(links.getKey(), link.getKey(), link.getValue());
+                }
+            }
+        }
+        return m;
+    }
 }
@@ -1,23 +1,82 @@
 package org.aksw.limes.core.execution.engine;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.util.ComputeExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Implements the default execution engine class. The idea is that the engine
+ * Implements the parallel execution engine class. The idea is that the engine
  * gets as input a link specification and a planner type, executes the
  * independent parts of the plan returned from the planner in parallel and
  * returns a MemoryMemoryMapping.
  *
+ * The nested plan returned by a static planner (Canonical or Helios) is
+ * treated as a dependency graph: each atomic sub-plan is submitted to a
+ * work-stealing pool as soon as the plan is scheduled, and the operator and
+ * the filtering instruction of a complex plan are applied as soon as the
+ * mappings of its sub-plans are available. Dynamic plans are re-planned after
+ * every step and are therefore executed sequentially, exactly as by the
+ * {@link SimpleExecutionEngine}.
+ *
+ * The sub-plans are executed by the pool of the {@link ComputeExecutor}, which
+ * is shared with the multithreaded mappers. The work partitioned by a mapper
+ * is then executed by the same worker threads as the sub-plans, so that the
+ * number of threads does not grow with the number of concurrent sub-plans or
+ * engines. If a parallelism is given, at most that many tasks of the engine
+ * are executed concurrently.
  *
  * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version 1.0
  */
-public class ParallelExecutionEngine extends ExecutionEngine {
+public class ParallelExecutionEngine extends SimpleExecutionEngine {
+
+    static Logger logger = LoggerFactory.getLogger(ParallelExecutionEngine.class);
+    /**
+     * Executes the independent parts of a plan on the shared pool.
+     */
+    private Executor executor;
+    /**
+     * Maximal number of tasks of the engine that are executed concurrently.
+     */
+    private int parallelism;
+
+    /**
+     * Constructor for a parallel execution engine that uses the shared pool of
+     * the {@link ComputeExecutor}.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar) {
+        this(source, target, sourceVar, targetVar, 0, 1.0d);
+    }
+
     /**
-     * Constructor for a parallel execution engine.
+     * Constructor for a parallel execution engine that uses the shared pool of
+     * the {@link ComputeExecutor}.
      *
      * @param source
      *            Source cache
@@ -27,10 +86,162 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      *            Source variable
      * @param targetVar
      *            Target variable
+     * @param maxOpt,
+     *            optimization time constraint
+     * @param k,
+     *            expected selectivity
      */
     public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar, long maxOpt,
             double k) {
-        super(source, target, sourceVar, targetVar);
+        super(source, target, sourceVar, targetVar, maxOpt, k);
+        this.executor = ComputeExecutor.getPool();
+        this.parallelism = ComputeExecutor.getParallelism();
+    }
+
+    /**
+     * Constructor for a parallel execution engine that executes at most
+     * parallelism sub-plans concurrently on the shared pool of the
+     * {@link ComputeExecutor}.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param maxOpt,
+     *            optimization time constraint
+     * @param k,
+     *            expected selectivity
+     * @param parallelism,
+     *            maximal number of sub-plans that are executed concurrently
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar, long maxOpt,
+            double k, int parallelism) {
+        super(source, target, sourceVar, targetVar, maxOpt, k);
+        if (parallelism < 1) {
+            logger.info("\nParallelism must be at least 1. Your input value is " + parallelism
+                    + ".\nUsing the parallelism of the shared pool.");
+            this.executor = ComputeExecutor.getPool();
+            this.parallelism = ComputeExecutor.getParallelism();
+        } else {
+            this.executor = new BoundedExecutor(ComputeExecutor.getPool(), parallelism);
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Returns the number of sub-plans that can be executed concurrently.
+     *
+     * @return the parallelism of the engine
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Executes an immutable nested plan. Independent sub-plans are executed in
+     * parallel, while the operator and the filtering instruction of a complex
+     * plan are applied as soon as the results of its sub-plans are available.
+     * The result is equal to the one of
+     * {@link SimpleExecutionEngine#executeStatic(NestedPlan)}.
+     *
+     * @param plan
+     *            A nested plan created by a static planner (Canonical or
+     *            Helios)
+     * @return The mapping obtained from executing the plan
+     */
+    public AMapping executeParallel(NestedPlan plan) {
+        try {
+            return schedule(plan).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the future of a nested plan. Atomic plans are submitted to the
+     * pool, complex plans are chained to the futures of their sub-plans.
+     *
+     * @param plan
+     *            A nested plan
+     * @return The future mapping of the plan
+     */
+    private CompletableFuture<AMapping> schedule(NestedPlan plan) {
+        if (plan.isEmpty()) {
+            return CompletableFuture.completedFuture(MappingFactory.createDefaultMapping());
+        }
+        if (plan.isAtomic()) {
+            // every task gets its own engine since the instruction buffer is
+            // not thread-safe
+            return CompletableFuture.supplyAsync(() -> createAtomEngine().executeInstructions(plan), executor);
+        }
+        List<CompletableFuture<AMapping>> subResults = new ArrayList<CompletableFuture<AMapping>>();
+        for (NestedPlan subPlan : plan.getSubPlans()) {
+            subResults.add(schedule(subPlan));
+        }
+        CompletableFuture<AMapping> result = subResults.get(0);
+        for (int i = 1; i < subResults.size(); i++) {
+            result = result.thenCombineAsync(subResults.get(i), (m1, m2) -> merge(plan, m1, m2), executor);
+        }
+        // only run filtering if there is a filter indeed
+        if (plan.getFilteringInstruction() != null) {
+            result = result.thenApplyAsync(m -> executeFilter(plan.getFilteringInstruction(), m), executor);
+        }
+        return result;
+    }
+
+    /**
+     * Creates an engine for an atomic sub-plan with the configuration of this
+     * engine.
+     *
+     * @return the engine of the sub-plan
+     */
+    private SimpleExecutionEngine createAtomEngine() {
+        SimpleExecutionEngine engine = new SimpleExecutionEngine(source, target, sourceVariable, targetVariable,
+                optimizationTime, expectedSelectivity);
+        engine.setAtomicMappingCache(atomicMappingCache);
+        engine.setLinkSink(linkSink);
+        return engine;
+    }
+
+    /**
+     * Applies the operator of a complex plan to the mappings of two of its
+     * sub-plans.
+     *
+     * @param plan
+     *            The complex nested plan
+     * @param m1
+     *            First Mapping
+     * @param m2
+     *            Second Mapping
+     * @return The result of the operator of the plan
+     */
+    private AMapping merge(NestedPlan plan, AMapping m1, AMapping m2) {
+        Command operator = plan.getOperator();
+        if (operator == null) {
+            return m1;
+        }
+        switch (operator) {
+        case INTERSECTION:
+            return executeIntersection(m1, m2);
+        case UNION:
+            return executeUnion(m1, m2);
+        case DIFF:
+            return executeDifference(m1, m2);
+        case XOR:
+            LinearFilter f = new LinearFilter();
+            AMapping mleft = f.filter(executeUnion(m1, m2), Double.parseDouble(plan.getThreshold()));
+            AMapping mright = f.filter(executeIntersection(m1, m2), Double.parseDouble(plan.getThreshold()));
+            return executeDifference(mleft, mright);
+        default:
+            return m1;
+        }
     }
 
     /**
@@ -41,11 +252,63 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      *            The input link specification
      * @param planner
      *            The chosen planner
-     * @return The mapping from running the plan
+     * @return The mapping from running the plan, whose links are also passed
+     *         to the sink of the engine
      */
     @Override
     public AMapping execute(LinkSpecification spec, IPlanner planner) {
-        throw new UnsupportedOperationException("Not implemented yet");
+        spec = planner.normalize(spec);
+        if (planner.isStatic() == false) {
+            logger.info("Dynamic plans are executed sequentially.");
+            return sendToSink(executeDynamic(spec, (DynamicPlanner) planner));
+        }
+        return sendToSink(executeParallel(planner.plan(spec)));
+    }
+
+    /**
+     * Executes at most a given number of tasks concurrently on another
+     * executor and queues the remaining tasks.
+     */
+    private static class BoundedExecutor implements Executor {
+
+        private final Executor executor;
+        private final int limit;
+        private final Queue<Runnable> queue = new ArrayDeque<Runnable>();
+        private int running = 0;
+
+        BoundedExecutor(Executor executor, int limit) {
+            this.executor = executor;
+            this.limit = limit;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            synchronized (this) {
+                if (running >= limit) {
+                    queue.add(task);
+                    return;
+                }
+                running++;
+            }
+            executor.execute(() -> run(task));
+        }
+
+        private void run(Runnable task) {
+            try {
+                task.run();
+            } finally {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        running--;
+                    }
+                }
+                if (next != null) {
+                    executor.execute(() -> run(next));
+                }
+            }
+        }
     }
 
 }
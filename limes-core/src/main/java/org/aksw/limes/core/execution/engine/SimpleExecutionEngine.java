@@ -17,7 +17,6 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
-import org.aksw.limes.core.io.mapping.MemoryMapping;
 import org.aksw.limes.core.measures.mapper.IMapper;
 import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
@@ -141,12 +140,12 @@ public class SimpleExecutionEngine extends ExecutionEngine {
             }
             // place resulting mapping in the buffer
             if (index < 0) {// add the new mapping at the end of the list
-                getBuffer().add((MemoryMapping) m);
+                getBuffer().add(m);
             } else {
                 // avoid overriding places in buffer
                 // by adding the result at the end
                 if (index < getBuffer().size()) {
-                    getBuffer().add((MemoryMapping) m);
+                    getBuffer().add(m);
                 } else {
                     // add placeholders to ensure that the mapping can be placed
                     // where the user wanted to have it
@@ -154,7 +153,7 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                     while ((index + 1) > getBuffer().size()) {
                         getBuffer().add(MappingFactory.createDefaultMapping());
                     }
-                    getBuffer().set(index, (MemoryMapping) m);
+                    getBuffer().set(index, m);
                 }
 
             }
@@ -171,7 +170,11 @@ public class SimpleExecutionEngine extends ExecutionEngine {
 
     /**
      * Implements the execution of the RUN operator. The input instruction must
-     * include an atomic link specification.
+     * include an atomic link specification. The mapping is taken from the
+     * {@link AtomicMappingCache} of the engine, if it has one. For
+     * {@link org.aksw.limes.core.io.cache.ColumnarCache}s, the mapping is an
+     * {@link org.aksw.limes.core.io.mapping.IndexedMapping}, so that the set
+     * operations and filters of the plan run on sorted runs of links.
      *
      * @param inst
      *            Atomic RUN instruction
@@ -189,8 +192,16 @@ public class SimpleExecutionEngine extends ExecutionEngine {
             MeasureType type = MeasureFactory.getMeasureType(inst.getMeasureExpression());
             mapper = MapperFactory.createMapper(type);
 
-            return mapper.getMapping(source, target, sourceVariable, targetVariable, inst.getMeasureExpression(),
-                    threshold);
+            if (atomicMappingCache != null) {
+                // spilled mappings are read back as default mappings
+                return MappingFactory.toMapping(atomicMappingCache.getMapping(source, target,
+                        inst.getMeasureExpression(), threshold,
+                        () -> MappingFactory.toMapping(mapper.getMapping(source, target, sourceVariable,
+                                targetVariable, inst.getMeasureExpression(), threshold), source, target)),
+                        source, target);
+            }
+            return MappingFactory.toMapping(mapper.getMapping(source, target, sourceVariable, targetVariable,
+                    inst.getMeasureExpression(), threshold), source, target);
             /*
              * } catch (InvalidMeasureException e) { e.printStackTrace();
              * logger.info("Returning an empty mapping"); }
@@ -499,7 +510,8 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      * @param planner
      *            The chosen planner
      * @return The mapping obtained from executing the plan of the input link
-     *         specification
+     *         specification, whose links are also passed to the sink of the
+     *         engine
      */
     @Override
     public AMapping execute(LinkSpecification spec, IPlanner planner) {
@@ -513,7 +525,7 @@ public class SimpleExecutionEngine extends ExecutionEngine {
             m = executeStatic(plan);
         }
 
-        return m;
+        return sendToSink(m);
     }
 
 }
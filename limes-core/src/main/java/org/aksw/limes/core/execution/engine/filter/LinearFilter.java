@@ -5,7 +5,7 @@ import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,7 +36,7 @@ public class LinearFilter implements IFilter {
         if (threshold <= 0.0) {
             return map;
         } else {
-            AMapping result = MappingFactory.createDefaultMapping();
+            AMapping result = MappingFactory.createMapping(map);
             // run on all pairs and remove those whose similarity is below
             // the threshold
             for (String key : map.getMap().keySet()) {
@@ -83,14 +83,16 @@ public class LinearFilter implements IFilter {
             logger.error("Null condition in filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        // compile the condition once for all pairs
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map);
         // 2. run on all pairs and remove those
         for (String key : map.getMap().keySet()) {
             s = source.getInstance(key);
             for (String value : map.getMap().get(key).keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = expression.getSimilarity(s, t);
                 if (sim >= threshold) {
                     result.add(s.getUri(), t.getUri(), sim);
                 }
@@ -133,17 +135,18 @@ public class LinearFilter implements IFilter {
             ACache target, String sourceVar, String targetVar) {
         double sim = 0.0;
         Instance s, t;
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map);
         if (condition == null) {
             logger.info("Null condition in extended filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
         for (String key : map.getMap().keySet()) {
             s = source.getInstance(key);
             for (String value : map.getMap().get(key).keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = expression.getSimilarity(s, t);
                 // result must pass the filter threshold first!
                 if (sim >= threshold) {
                     double sim2 = map.getConfidence(key, value);
@@ -194,18 +197,19 @@ public class LinearFilter implements IFilter {
 
         double sim = 0.0;
         Instance s, t;
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map);
         if (condition == null) {
             System.err.println("Null condition in extended reverse filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression expression = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
         // 2. run on all pairs and remove those
         for (String key : map.getMap().keySet()) {
             s = source.getInstance(key);
             for (String value : map.getMap().get(key).keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = expression.getSimilarity(s, t);
 
                 // similarity of s and t must be 0 to be accepted
                 if (sim == 0) {
@@ -250,7 +254,7 @@ public class LinearFilter implements IFilter {
     public AMapping filter(AMapping map1, AMapping map2, double coef1, double coef2, double threshold,
             String operation) {
         AMapping m = MappingOperations.intersection(map1, map2);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map1);
         double sim;
         // we can be sure that each key in m is also in m1 and m2 as we used
         // intersection
@@ -0,0 +1,295 @@
+package org.aksw.limes.core.execution.planning.calibration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+
+/**
+ * Measured costs of the atomic measures, as computed by the
+ * {@link CostModelCalibrator}. For each measure, the model stores
+ * <ul>
+ * <li>a runtime model <code>runtime = a * (sourceSize * targetSize)^b</code>
+ * in milliseconds for running its mapper,</li>
+ * <li>the selectivity of the mapper for the calibrated thresholds, which is
+ * interpolated linearly for all other thresholds and</li>
+ * <li>the time needed to compute the similarity of a single pair, which is
+ * used for the costs of filters.</li>
+ * </ul>
+ * Costs are stored per atomic metric expression, e.g.
+ * <code>trigrams(x.name,y.name)</code>, since the costs of a measure depend on
+ * the values of the compared properties. The model also stores the ratio
+ * between the measured runtimes and the approximations of the mappers and
+ * measures, so that the approximations of expressions that are not part of
+ * the model can be scaled to milliseconds. Models can be saved to and loaded
+ * from a properties file so that the calibration only needs to be run once
+ * for a pair of data sets.
+ *
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public class CostModel {
+
+    private static final String RUNTIME_FACTOR = ".runtime.factor";
+    private static final String RUNTIME_EXPONENT = ".runtime.exponent";
+    private static final String FILTER_COST = ".filter";
+    private static final String SELECTIVITY = ".selectivity.";
+    private static final String RUNTIME_SCALE = "runtime.scale";
+    private static final String FILTER_SCALE = "filter.scale";
+    private static final String MEASURED = ".measured";
+    private static final String APPROXIMATED = ".approximated";
+
+    private Map<String, double[]> runtimes = new HashMap<>();
+    private Map<String, Double> filterCosts = new HashMap<>();
+    private Map<String, TreeMap<Double, Double>> selectivities = new HashMap<>();
+    // sums of the measured runtimes and of the approximations of the same runs
+    private double[] runtimeScale = new double[2];
+    private double[] filterScale = new double[2];
+
+    /**
+     * @return the name of the measure type of an atomic metric expression
+     *         followed by its arguments without whitespace, or the name of
+     *         the measure type of a measure
+     */
+    static String key(String measure) {
+        String expression = measure.replaceAll("\\s", "");
+        String type = MeasureFactory.getMeasureType(expression).name();
+        int arguments = expression.indexOf('(');
+        return arguments < 0 ? type : type + expression.substring(arguments);
+    }
+
+    /**
+     * Sets the runtime model of a measure to
+     * <code>factor * (sourceSize * targetSize)^exponent</code>.
+     *
+     * @param measure
+     *            Atomic metric expression or name of the measure
+     * @param factor
+     *            Runtime factor
+     * @param exponent
+     *            Exponent of the number of pairs
+     */
+    public void setRuntime(String measure, double factor, double exponent) {
+        runtimes.put(key(measure), new double[] { factor, exponent });
+    }
+
+    public boolean hasRuntime(String measure) {
+        return runtimes.containsKey(key(measure));
+    }
+
+    /**
+     * @param measure
+     *            Atomic metric expression or name of the measure
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @return the estimated runtime of the mapper of the measure in
+     *         milliseconds
+     */
+    public double getRuntime(String measure, int sourceSize, int targetSize) {
+        double[] runtime = runtimes.get(key(measure));
+        return runtime[0] * Math.pow((double) sourceSize * targetSize, runtime[1]);
+    }
+
+    /**
+     * @param measure
+     *            Atomic metric expression or name of the measure
+     * @param threshold
+     *            Calibrated threshold
+     * @param selectivity
+     *            Fraction of all pairs returned by the mapper
+     */
+    public void setSelectivity(String measure, double threshold, double selectivity) {
+        selectivities.computeIfAbsent(key(measure), k -> new TreeMap<>()).put(threshold, selectivity);
+    }
+
+    public boolean hasSelectivity(String measure) {
+        return selectivities.containsKey(key(measure));
+    }
+
+    /**
+     * @param measure
+     *            Atomic metric expression or name of the measure
+     * @param threshold
+     *            Threshold of the measure
+     * @return the selectivity of the measure, interpolated between the
+     *         closest calibrated thresholds
+     */
+    public double getSelectivity(String measure, double threshold) {
+        TreeMap<Double, Double> points = selectivities.get(key(measure));
+        Entry<Double, Double> lower = points.floorEntry(threshold);
+        Entry<Double, Double> upper = points.ceilingEntry(threshold);
+        if (lower == null) {
+            return upper.getValue();
+        }
+        if (upper == null || lower.getKey().equals(upper.getKey())) {
+            return lower.getValue();
+        }
+        double position = (threshold - lower.getKey()) / (upper.getKey() - lower.getKey());
+        return lower.getValue() + position * (upper.getValue() - lower.getValue());
+    }
+
+    /**
+     * @param measure
+     *            Atomic metric expression or name of the measure
+     * @param costPerPair
+     *            Time needed to compute the similarity of one pair in
+     *            milliseconds
+     */
+    public void setFilterCost(String measure, double costPerPair) {
+        filterCosts.put(key(measure), costPerPair);
+    }
+
+    public boolean hasFilterCost(String measure) {
+        return filterCosts.containsKey(key(measure));
+    }
+
+    /**
+     * @param measure
+     *            Atomic metric expression or name of the measure
+     * @param mappingSize
+     *            Size of the mapping to filter
+     * @return the estimated runtime of filtering the mapping in milliseconds
+     */
+    public double getFilterCost(String measure, double mappingSize) {
+        return filterCosts.get(key(measure)) * mappingSize;
+    }
+
+    /**
+     * Adds runs of mappers to the ratio between measured runtimes and the
+     * runtime approximations of the mappers.
+     *
+     * @param measured
+     *            Measured runtime in milliseconds
+     * @param approximated
+     *            Runtime approximation of the mappers for the same runs
+     */
+    public void addRuntimeScale(double measured, double approximated) {
+        if (approximated > 0) {
+            runtimeScale[0] += measured;
+            runtimeScale[1] += approximated;
+        }
+    }
+
+    /**
+     * @return the factor that converts runtime approximations of the mappers
+     *         to milliseconds, 1 if no runs were added
+     */
+    public double getRuntimeScale() {
+        return runtimeScale[1] > 0 ? runtimeScale[0] / runtimeScale[1] : 1;
+    }
+
+    /**
+     * Adds computed similarities to the ratio between measured runtimes and
+     * the runtime approximations of the measures.
+     *
+     * @param measured
+     *            Measured runtime in milliseconds
+     * @param approximated
+     *            Runtime approximation of the measures for the same pairs
+     */
+    public void addFilterScale(double measured, double approximated) {
+        if (approximated > 0) {
+            filterScale[0] += measured;
+            filterScale[1] += approximated;
+        }
+    }
+
+    /**
+     * @return the factor that converts runtime approximations of the measures
+     *         to milliseconds, 1 if no pairs were added
+     */
+    public double getFilterScale() {
+        return filterScale[1] > 0 ? filterScale[0] / filterScale[1] : 1;
+    }
+
+    /**
+     * Writes the model into a properties file.
+     *
+     * @param file
+     *            File to write
+     * @throws IOException
+     *             if the file could not be written
+     */
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        for (Entry<String, double[]> e : runtimes.entrySet()) {
+            properties.setProperty(e.getKey() + RUNTIME_FACTOR, Double.toString(e.getValue()[0]));
+            properties.setProperty(e.getKey() + RUNTIME_EXPONENT, Double.toString(e.getValue()[1]));
+        }
+        for (Entry<String, Double> e : filterCosts.entrySet()) {
+            properties.setProperty(e.getKey() + FILTER_COST, Double.toString(e.getValue()));
+        }
+        for (Entry<String, TreeMap<Double, Double>> e : selectivities.entrySet()) {
+            for (Entry<Double, Double> point : e.getValue().entrySet()) {
+                properties.setProperty(e.getKey() + SELECTIVITY + point.getKey(), Double.toString(point.getValue()));
+            }
+        }
+        properties.setProperty(RUNTIME_SCALE + MEASURED, Double.toString(runtimeScale[0]));
+        properties.setProperty(RUNTIME_SCALE + APPROXIMATED, Double.toString(runtimeScale[1]));
+        properties.setProperty(FILTER_SCALE + MEASURED, Double.toString(filterScale[0]));
+        properties.setProperty(FILTER_SCALE + APPROXIMATED, Double.toString(filterScale[1]));
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.store(writer, "LIMES cost model");
+        }
+    }
+
+    /**
+     * Reads a model written by {@link #save(File)}.
+     *
+     * @param file
+     *            File to read
+     * @return the model
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public static CostModel load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        CostModel model = new CostModel();
+        for (String name : properties.stringPropertyNames()) {
+            double value = Double.parseDouble(properties.getProperty(name));
+            // keys of atomic expressions contain dots, hence the suffixes are
+            // removed to get the key
+            if (name.equals(RUNTIME_SCALE + MEASURED)) {
+                model.runtimeScale[0] = value;
+            } else if (name.equals(RUNTIME_SCALE + APPROXIMATED)) {
+                model.runtimeScale[1] = value;
+            } else if (name.equals(FILTER_SCALE + MEASURED)) {
+                model.filterScale[0] = value;
+            } else if (name.equals(FILTER_SCALE + APPROXIMATED)) {
+                model.filterScale[1] = value;
+            } else if (name.endsWith(RUNTIME_FACTOR)) {
+                model.runtimes.computeIfAbsent(strip(name, RUNTIME_FACTOR), k -> new double[2])[0] = value;
+            } else if (name.endsWith(RUNTIME_EXPONENT)) {
+                model.runtimes.computeIfAbsent(strip(name, RUNTIME_EXPONENT), k -> new double[2])[1] = value;
+            } else if (name.endsWith(FILTER_COST)) {
+                model.filterCosts.put(strip(name, FILTER_COST), value);
+            } else if (name.contains(SELECTIVITY)) {
+                int suffix = name.lastIndexOf(SELECTIVITY);
+                double threshold = Double.parseDouble(name.substring(suffix + SELECTIVITY.length()));
+                model.selectivities.computeIfAbsent(name.substring(0, suffix), k -> new TreeMap<>()).put(threshold,
+                        value);
+            } else {
+                throw new IOException("Unknown entry " + name + " in " + file);
+            }
+        }
+        return model;
+    }
+
+    private static String strip(String name, String suffix) {
+        return name.substring(0, name.length() - suffix.length());
+    }
+}
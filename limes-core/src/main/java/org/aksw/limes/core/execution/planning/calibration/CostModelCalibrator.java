@@ -0,0 +1,280 @@
+package org.aksw.limes.core.execution.planning.calibration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.AMeasure;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes a {@link CostModel} for the atomic specifications of a link
+ * specification by running their mappers on random samples of the source and
+ * target caches. For each sample size, the mapper is run on the sample and
+ * its runtime and the size of the returned mapping are recorded. The runtime
+ * model is fitted to these measurements by least squares in log-log space, the
+ * selectivity is the fraction of sampled pairs returned by the mapper, and
+ * the costs of filters are measured by computing the similarity of random
+ * pairs of the samples. The measured runtimes are also compared with the
+ * approximations of the mappers and measures, so that the planners can scale
+ * the approximations of expressions that were not calibrated.
+ *
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public class CostModelCalibrator {
+
+    static Logger logger = LoggerFactory.getLogger(CostModelCalibrator.class);
+
+    /**
+     * Default number of instances sampled from each cache.
+     */
+    public static final int[] DEFAULT_SAMPLE_SIZES = { 100, 200, 400 };
+    /**
+     * Default number of pairs used to measure the costs of filters.
+     */
+    public static final int DEFAULT_FILTER_PAIRS = 1000;
+    // lower bound of measured runtimes, avoids log(0)
+    private static final double MIN_RUNTIME = 1e-3;
+
+    private ACache source;
+    private ACache target;
+    private String sourceVar;
+    private String targetVar;
+    private int[] sampleSizes = DEFAULT_SAMPLE_SIZES;
+    private int filterPairs = DEFAULT_FILTER_PAIRS;
+    private long seed = 42;
+
+    /**
+     * Constructor
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable, e.g. ?x
+     * @param targetVar
+     *            Target variable, e.g. ?y
+     */
+    public CostModelCalibrator(ACache source, ACache target, String sourceVar, String targetVar) {
+        this.source = source;
+        this.target = target;
+        this.sourceVar = sourceVar;
+        this.targetVar = targetVar;
+    }
+
+    /**
+     * @param sampleSizes
+     *            Number of instances sampled from each cache, at least two
+     *            different sizes are needed to fit the runtime model
+     */
+    public void setSampleSizes(int... sampleSizes) {
+        this.sampleSizes = sampleSizes.clone();
+        Arrays.sort(this.sampleSizes);
+    }
+
+    /**
+     * @param filterPairs
+     *            Number of pairs used to measure the costs of filters
+     */
+    public void setFilterPairs(int filterPairs) {
+        this.filterPairs = filterPairs;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Calibrates the measures of all atomic specifications of a link
+     * specification.
+     *
+     * @param spec
+     *            Input link specification
+     * @return a new cost model
+     */
+    public CostModel calibrate(LinkSpecification spec) {
+        return calibrate(spec, new CostModel());
+    }
+
+    /**
+     * Calibrates the measures of all atomic specifications of a link
+     * specification and adds them to an existing model.
+     *
+     * @param spec
+     *            Input link specification
+     * @param model
+     *            Model to which the costs are added
+     * @return model
+     */
+    public CostModel calibrate(LinkSpecification spec, CostModel model) {
+        List<LinkSpecification> atomicSpecs = new ArrayList<>();
+        collectAtomicSpecifications(spec, atomicSpecs);
+        Set<String> calibrated = new HashSet<>();
+        for (LinkSpecification atomic : atomicSpecs) {
+            String key = atomic.getFilterExpression() + "|" + atomic.getThreshold();
+            if (calibrated.add(key)) {
+                calibrate(atomic.getFilterExpression(), atomic.getThreshold(), model);
+            }
+        }
+        return model;
+    }
+
+    private void collectAtomicSpecifications(LinkSpecification spec, List<LinkSpecification> atomicSpecs) {
+        if (spec == null || spec.isEmpty()) {
+            return;
+        }
+        if (spec.isAtomic()) {
+            atomicSpecs.add(spec);
+        } else {
+            for (LinkSpecification child : spec.getChildren()) {
+                collectAtomicSpecifications(child, atomicSpecs);
+            }
+        }
+    }
+
+    /**
+     * Calibrates the measure of an atomic metric expression.
+     *
+     * @param expression
+     *            Atomic metric expression, e.g. trigrams(x.name, y.name)
+     * @param threshold
+     *            Threshold of the expression
+     * @param model
+     *            Model to which the costs are added
+     */
+    public void calibrate(String expression, double threshold, CostModel model) {
+        MeasureType type = MeasureFactory.getMeasureType(new Parser(expression, threshold).getOperator());
+        AMapper mapper = MapperFactory.createMapper(type);
+        Random random = new Random(seed);
+        List<String> sourceUris = shuffle(source, random);
+        List<String> targetUris = shuffle(target, random);
+        List<ACache> sourceSamples = new ArrayList<>();
+        List<ACache> targetSamples = new ArrayList<>();
+        for (int size : sampleSizes) {
+            sourceSamples.add(sample(source, sourceUris, size));
+            targetSamples.add(sample(target, targetUris, size));
+        }
+        try {
+            // warm up, so that class loading and compilation are not measured
+            mapper.getMapping(sourceSamples.get(0), targetSamples.get(0), sourceVar, targetVar, expression, threshold);
+            double[] pairs = new double[sampleSizes.length];
+            double[] runtimes = new double[sampleSizes.length];
+            double allPairs = 0, allLinks = 0, approximated = 0;
+            for (int i = 0; i < sampleSizes.length; i++) {
+                ACache s = sourceSamples.get(i), t = targetSamples.get(i);
+                long start = System.nanoTime();
+                AMapping mapping = mapper.getMapping(s, t, sourceVar, targetVar, expression, threshold);
+                runtimes[i] = (System.nanoTime() - start) / 1e6;
+                pairs[i] = (double) s.size() * t.size();
+                allPairs += pairs[i];
+                allLinks += mapping.getNumberofMappings();
+                approximated += mapper.getRuntimeApproximation(s.size(), t.size(), threshold, Language.EN);
+            }
+            double[] fit = fitPowerLaw(pairs, runtimes);
+            model.setRuntime(expression, fit[0], fit[1]);
+            model.addRuntimeScale(Arrays.stream(runtimes).sum(), approximated);
+            if (allPairs > 0) {
+                model.setSelectivity(expression, threshold, allLinks / allPairs);
+            }
+            double filterCost = measureFilterCost(expression, threshold, sourceSamples.get(sampleSizes.length - 1),
+                    targetSamples.get(sampleSizes.length - 1), random);
+            model.setFilterCost(expression, filterCost);
+            AMeasure measure = MeasureFactory.createMeasure(type);
+            model.addFilterScale(filterCost * filterPairs, measure.getRuntimeApproximation(filterPairs));
+            logger.info("Calibrated " + expression + " with threshold " + threshold + ": runtime " + fit[0]
+                    + " * pairs^" + fit[1] + ", selectivity " + model.getSelectivity(expression, threshold));
+        } catch (RuntimeException e) {
+            logger.warn("Could not calibrate " + expression + ": " + e.getMessage());
+        }
+    }
+
+    private static List<String> shuffle(ACache cache, Random random) {
+        List<String> uris = new ArrayList<>(cache.getAllUris());
+        Collections.sort(uris);
+        Collections.shuffle(uris, random);
+        return uris;
+    }
+
+    /**
+     * @return a cache with the first size instances of the shuffled uris, so
+     *         that smaller samples are contained in larger ones
+     */
+    private static ACache sample(ACache cache, List<String> uris, int size) {
+        ACache sample = new MemoryCache();
+        for (String uri : uris.subList(0, Math.min(size, uris.size()))) {
+            sample.addInstance(cache.getInstance(uri));
+        }
+        return sample;
+    }
+
+    /**
+     * Fits runtime = factor * pairs^exponent by least squares on the
+     * logarithms.
+     *
+     * @return factor and exponent
+     */
+    static double[] fitPowerLaw(double[] pairs, double[] runtimes) {
+        int n = pairs.length;
+        double meanX = 0, meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += Math.log(Math.max(pairs[i], 1)) / n;
+            meanY += Math.log(Math.max(runtimes[i], MIN_RUNTIME)) / n;
+        }
+        double covariance = 0, variance = 0;
+        for (int i = 0; i < n; i++) {
+            double x = Math.log(Math.max(pairs[i], 1)) - meanX;
+            covariance += x * (Math.log(Math.max(runtimes[i], MIN_RUNTIME)) - meanY);
+            variance += x * x;
+        }
+        // a single sample size (e.g. tiny caches) is assumed to scale linearly
+        double exponent = variance > 0 ? Math.max(0, covariance / variance) : 1;
+        double factor = Math.exp(meanY - exponent * meanX);
+        return new double[] { factor, exponent };
+    }
+
+    /**
+     * @return the time needed to compute the similarity of one pair in
+     *         milliseconds
+     */
+    private double measureFilterCost(String expression, double threshold, ACache s, ACache t, Random random) {
+        List<Instance> sourceInstances = s.getAllInstances();
+        List<Instance> targetInstances = t.getAllInstances();
+        if (sourceInstances.isEmpty() || targetInstances.isEmpty() || filterPairs <= 0) {
+            return 0;
+        }
+        CompiledExpression compiled = CompiledExpression.compile(expression, threshold, sourceVar, targetVar);
+        Instance[] sourcePairs = new Instance[filterPairs];
+        Instance[] targetPairs = new Instance[filterPairs];
+        for (int i = 0; i < filterPairs; i++) {
+            sourcePairs[i] = sourceInstances.get(random.nextInt(sourceInstances.size()));
+            targetPairs[i] = targetInstances.get(random.nextInt(targetInstances.size()));
+        }
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < filterPairs; i++) {
+            sum += compiled.getSimilarity(sourcePairs[i], targetPairs[i]);
+        }
+        double cost = (System.nanoTime() - start) / 1e6 / filterPairs;
+        logger.debug("Average similarity of " + expression + " is " + sum / filterPairs);
+        return cost;
+    }
+}
@@ -285,6 +285,31 @@ public class NestedPlan extends Plan {
         return result;
     }
 
+    /**
+     * Returns all the atomic metric expressions of the current plan.
+     *
+     * @return List of all atomic metric expressions
+     */
+    public List<String> getAllAtomicExpressions() {
+        List<String> result = new ArrayList<String>();
+        if (isAtomic() && filteringInstruction != null) {
+            result.addAll(MeasureProcessor.getAtomicExpressions(filteringInstruction.getMeasureExpression()));
+        }
+        if (subPlans != null) {
+            for (NestedPlan p : subPlans) {
+                result.addAll(p.getAllAtomicExpressions());
+            }
+        }
+        if (instructionList != null) {
+            for (Instruction i : instructionList) {
+                if (i.getMeasureExpression() != null) {
+                    result.addAll(MeasureProcessor.getAtomicExpressions(i.getMeasureExpression()));
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * String representation of the current plan.
      *
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.execution.planning.planner;
 
+import org.aksw.limes.core.execution.planning.calibration.CostModel;
 import org.aksw.limes.core.io.cache.ACache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,4 +95,28 @@ public class ExecutionPlannerFactory {
         }
     }
 
+    /**
+     * Factory function for retrieving the desired planner instance that uses
+     * measured costs. Only the HELIOS and DYNAMIC planners are cost-based,
+     * all other planners ignore the cost model.
+     *
+     * @param type
+     *            Type of the Planner
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param costModel
+     *            Measured costs of the atomic measures
+     *
+     * @return a specific planner instance
+     */
+    public static Planner getPlanner(ExecutionPlannerType type, ACache source, ACache target, CostModel costModel) {
+        Planner planner = getPlanner(type, source, target);
+        if (planner instanceof HeliosPlanner || planner instanceof DynamicPlanner) {
+            planner.setCostModel(costModel);
+        }
+        return planner;
+    }
+
 }
@@ -11,12 +11,10 @@ import org.aksw.limes.core.io.ls.ExtendedLinkSpecification;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
-import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.IMapper.Language;
 import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,7 +62,7 @@ public class HeliosPlanner extends Planner {
      * InvalidMeasureException exception.
      *
      * @param measure
-     *            Measure of metric expression
+     *            Atomic metric expression or its measure
      * @param threshold
      *            Threshold of metric expression
      * @return estimated runtime cost of the metric expression
@@ -73,8 +71,13 @@ public class HeliosPlanner extends Planner {
 
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (costModel != null && costModel.hasRuntime(measure)) {
+            return costModel.getRuntime(measure, source.size(), target.size());
+        }
         mapper = MapperFactory.createMapper(type);
-        return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
+        double approximation = mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
+        // the approximations are scaled to the milliseconds of the model
+        return costModel == null ? approximation : approximation * costModel.getRuntimeScale();
 
     }
 
@@ -84,7 +87,7 @@ public class HeliosPlanner extends Planner {
      * exception.
      *
      * @param measure
-     *            Measure of metric expression
+     *            Atomic metric expression or its measure
      * @param threshold
      *            Threshold of metric expression
      * @return estimated size of returned mapping
@@ -92,34 +95,13 @@ public class HeliosPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (costModel != null && costModel.hasSelectivity(measure)) {
+            return costModel.getSelectivity(measure, threshold) * source.size() * target.size();
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
 
-    /**
-     * Computes costs for a filtering instruction. If the metric expression of
-     * the filtering instruction is not supported by the framework, it throws an
-     * InvalidMeasureException exception.
-     *
-     * @param measures
-     *            The set of expressions used to filter
-     * @param mappingSize
-     *            Size of mapping
-     * @return estimated runtime cost of filteringInstruction(s)
-     */
-    public double getFilterCosts(List<String> measures, int mappingSize) {
-        double cost = 0;
-        if (measures != null) {
-            for (String measure : measures) {
-                double tempCost = 0;
-                MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
-                cost += tempCost;
-            }
-        }
-        return cost;
-    }
-
     /**
      * Generates a NestedPlan for a link specification.
      *
@@ -161,12 +143,11 @@ public class HeliosPlanner extends Planner {
         if (spec.isAtomic()) {
             // here we should actually choose between different implementations
             // of the operators based on their runtimeCost
-            Parser p = new Parser(spec.getFilterExpression(), spec.getThreshold());
             plan.setInstructionList(new ArrayList<Instruction>());
             plan.addInstruction(new Instruction(Instruction.Command.RUN, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
-            plan.setRuntimeCost(getAtomicRuntimeCosts(p.getOperator(), spec.getThreshold()));
-            plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
+            plan.setRuntimeCost(getAtomicRuntimeCosts(spec.getFilterExpression(), spec.getThreshold()));
+            plan.setMappingSize(getAtomicMappingSizes(spec.getFilterExpression(), spec.getThreshold()));
             plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
         } else {
             // no optimization for non AND operators really
@@ -216,7 +197,7 @@ public class HeliosPlanner extends Planner {
                 // size
                 if (plan.getFilteringInstruction().getMeasureExpression() != null) {
                     plan.setRuntimeCost(plan.getRuntimeCost()
-                            + MeasureProcessor.getCosts(plan.getFilteringInstruction().getMeasureExpression(),
+                            + getFilterCosts(plan.getFilteringInstruction().getMeasureExpression(),
                                     source.size() * target.size() * plan.getSelectivity()));
                 }
             } // here we can optimize.
@@ -331,16 +312,16 @@ public class HeliosPlanner extends Planner {
         result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, spec.getFilterExpression(),
                 spec.getThreshold() + "", -1, -1, 0));
         if (result.getFilteringInstruction().getMeasureExpression() != null) {
-            runtime1 = runtime1 + MeasureProcessor.getCosts(result.getFilteringInstruction().getMeasureExpression(),
+            runtime1 = runtime1 + getFilterCosts(result.getFilteringInstruction().getMeasureExpression(),
                     (int) Math.ceil(source.size() * target.size() * selectivity));
         }
         // second instructionList: run left child and use right child as filter
         runtime2 = left.getRuntimeCost();
-        runtime2 = runtime2 + getFilterCosts(right.getAllMeasures(),
+        runtime2 = runtime2 + getFilterCosts(right.getAllAtomicExpressions(),
                 (int) Math.ceil(source.size() * target.size() * right.getSelectivity()));
         // third instructionList: run right child and use left child as filter
         runtime3 = right.getRuntimeCost();
-        runtime3 = runtime3 + getFilterCosts(left.getAllMeasures(),
+        runtime3 = runtime3 + getFilterCosts(left.getAllAtomicExpressions(),
                 (int) Math.ceil(source.size() * target.size() * left.getSelectivity()));
 
         double min = Math.min(Math.min(runtime3, runtime2), runtime1);
@@ -1,5 +1,11 @@
 package org.aksw.limes.core.execution.planning.planner;
 
+import java.util.List;
+
+import org.aksw.limes.core.execution.planning.calibration.CostModel;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.MeasureType;
 
 /**
  * Implements the planner abstract class. It takes as input a link specification
@@ -9,4 +15,90 @@ package org.aksw.limes.core.execution.planning.planner;
  * @version 1.0
  */
 public abstract class Planner implements IPlanner {
+
+    /**
+     * Measured costs of the atomic measures, null to use the approximations
+     * of the mappers.
+     */
+    protected CostModel costModel;
+
+    /**
+     * Computes costs for a filtering instruction. If the metric expression of
+     * the filtering instruction is not supported by the framework, it throws an
+     * InvalidMeasureException exception.
+     *
+     * @param measures
+     *            The set of atomic metric expressions (or measures) used to
+     *            filter
+     * @param mappingSize
+     *            Size of mapping
+     * @return estimated runtime cost of filteringInstruction(s)
+     */
+    public double getFilterCosts(List<String> measures, int mappingSize) {
+        double cost = 0;
+        if (measures != null) {
+            for (String measure : measures) {
+                cost += getMeasureCosts(measure, mappingSize);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Computes costs for filtering a mapping with a metric expression.
+     *
+     * @param expression
+     *            Metric expression used to filter
+     * @param mappingSize
+     *            Size of mapping
+     * @return estimated runtime cost of the filter
+     */
+    protected double getFilterCosts(String expression, double mappingSize) {
+        double cost = 0;
+        for (String atom : MeasureProcessor.getAtomicExpressions(expression)) {
+            cost += getMeasureCosts(atom, mappingSize);
+        }
+        return cost;
+    }
+
+    /**
+     * Computes the costs of computing an atomic metric expression for all
+     * pairs of a mapping. Expressions that are not part of the cost model are
+     * estimated by the approximation of their measure, scaled to milliseconds
+     * if a cost model is set.
+     *
+     * @param measure
+     *            Atomic metric expression or measure
+     * @param mappingSize
+     *            Size of mapping
+     * @return estimated runtime cost of the measure
+     */
+    protected double getMeasureCosts(String measure, double mappingSize) {
+        if (costModel != null && costModel.hasFilterCost(measure)) {
+            return costModel.getFilterCost(measure, mappingSize);
+        }
+        MeasureType type = MeasureFactory.getMeasureType(measure);
+        double approximation = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+        return costModel == null ? approximation : approximation * costModel.getFilterScale();
+    }
+
+    /**
+     * @return the measured costs used instead of the approximations of the
+     *         mappers, or null
+     */
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Sets measured costs of the atomic measures. Measures that are not part
+     * of the model are estimated by the approximations of their mappers.
+     *
+     * @param costModel
+     *            Cost model, e.g. computed by a
+     *            {@link org.aksw.limes.core.execution.planning.calibration.CostModelCalibrator}
+     */
+    public void setCostModel(CostModel costModel) {
+        this.costModel = costModel;
+    }
 }
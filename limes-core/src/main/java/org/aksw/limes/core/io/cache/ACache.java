@@ -11,6 +11,28 @@ import org.apache.jena.rdf.model.Model;
  * @version Jul 8, 2015
  */
 public abstract class ACache implements ICache {
+
+    private volatile long modifications = 0;
+
+    /**
+     * @return the number of modifications of the cache, which changes
+     *         whenever instances or values are added or replaced
+     */
+    public long getModifications() {
+        return modifications;
+    }
+
+    /**
+     * Records a modification of the cache, so that values derived from its
+     * instances, e.g. the fingerprints of the
+     * {@link org.aksw.limes.core.execution.engine.AtomicMappingCache}, are
+     * recomputed. Called by the methods that modify the cache, and to be
+     * called after modifying the instances of the cache directly.
+     */
+    public void modified() {
+        modifications++;
+    }
+
     public abstract void addInstance(Instance i);
 
     public abstract Instance getNextInstance();
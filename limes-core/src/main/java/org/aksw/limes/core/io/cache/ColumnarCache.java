@@ -0,0 +1,364 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.rdf.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements a memory cache for very large data sets. URIs and property names
+ * are interned to integer ids and the values of each property are stored in a
+ * column of packed characters instead of one {@link Instance} object with a
+ * map of sets per URI. The cache is therefore several times smaller than a
+ * {@link MemoryCache} with the same content.
+ *
+ * Instances returned by {@link #getInstance(String)},
+ * {@link #getAllInstances()} and {@link #getNextInstance()} are views that
+ * are created on demand. Changes to these instances are not reflected in the
+ * cache, use {@link #replaceInstance(String, Instance)} to write them back.
+ * Concurrent reads are safe, writes must not happen concurrently with other
+ * operations.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public class ColumnarCache extends ACache {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCache.class);
+
+    // maps uris to instance ids
+    protected StringDictionary uris;
+    // maps property names to column ids
+    protected StringDictionary properties;
+    protected ArrayList<ValueColumn> columns;
+
+    // id of the next instance returned by getNextInstance
+    protected int iteratorPosition = 0;
+
+    public ColumnarCache() {
+        uris = new StringDictionary();
+        properties = new StringDictionary();
+        columns = new ArrayList<ValueColumn>();
+    }
+
+    /**
+     * Creates a columnar copy of a cache.
+     *
+     * @param cache
+     *            The cache to copy
+     */
+    public ColumnarCache(ACache cache) {
+        this();
+        for (String uri : cache.getAllUris()) {
+            addInstance(cache.getInstance(uri));
+        }
+    }
+
+    /**
+     * Loads the data of a knowledge base into a columnar cache. The data is
+     * read from the snapshot of the knowledge base, see
+     * {@link HybridCache#getData(KBInfo)}. If there is no usable snapshot, the
+     * data is retrieved from the knowledge base directly into the columnar
+     * cache, and a new snapshot is written.
+     *
+     * @param kb
+     *            Info of the knowledge base
+     * @return ColumnarCache of the data
+     */
+    public static ColumnarCache getData(KBInfo kb) {
+        File snapshot = HybridCache.getSnapshotFile(new File(""), kb, false);
+        MappedCache mapped = HybridCache.openSnapshot(snapshot, kb);
+        if (mapped != null) {
+            return new ColumnarCache(mapped);
+        }
+        ColumnarCache cache = new ColumnarCache();
+        HybridCache.fillCache(cache, kb, false, snapshot);
+        return cache;
+    }
+
+    private ValueColumn getColumn(String property) {
+        int id = properties.add(property);
+        if (id == columns.size()) {
+            columns.add(new ValueColumn());
+        }
+        return columns.get(id);
+    }
+
+    private Instance createInstance(int id) {
+        Instance instance = new Instance(uris.get(id));
+        for (int p = 0; p < columns.size(); p++) {
+            if (columns.get(p).hasValues(id)) {
+                instance.addProperty(properties.get(p), columns.get(p).get(id));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the dictionary that maps the URIs of the cache to instance ids,
+     * e.g. to key an {@link org.aksw.limes.core.io.mapping.IndexedMapping} to
+     * the cache. The dictionary must not be modified.
+     *
+     * @return the URI dictionary of the cache
+     */
+    public StringDictionary getUriDictionary() {
+        return uris;
+    }
+
+    /**
+     * Returns the values of a property of an instance without creating the
+     * whole instance.
+     *
+     * @param uri
+     *            URI of the instance
+     * @param property
+     *            URI of the property
+     * @return the values of the property, empty if the instance or the
+     *         property are not in the cache
+     */
+    public TreeSet<String> getProperty(String uri, String property) {
+        int id = uris.getId(uri);
+        int p = properties.getId(property);
+        if (id < 0 || p < 0) {
+            return new TreeSet<String>();
+        }
+        return columns.get(p).get(id);
+    }
+
+    /**
+     * Returns the next instance in the list of instances
+     *
+     * @return null if no next instance, else the next instance
+     */
+    @Override
+    public Instance getNextInstance() {
+        if (iteratorPosition < uris.size()) {
+            return createInstance(iteratorPosition++);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns all the instance contained in the cache
+     *
+     * @return ArrayList containing all instances
+     */
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        ArrayList<Instance> instances = new ArrayList<Instance>(uris.size());
+        for (int id = 0; id < uris.size(); id++) {
+            instances.add(createInstance(id));
+        }
+        return instances;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> result = new ArrayList<String>(uris.size());
+        for (int id = 0; id < uris.size(); id++) {
+            result.add(uris.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public void addInstance(Instance i) {
+        if (!uris.contains(i.getUri())) {
+            addValues(uris.add(i.getUri()), i);
+            modified();
+        }
+    }
+
+    private void addValues(int id, Instance i) {
+        for (String property : i.getAllProperties()) {
+            ValueColumn column = getColumn(property);
+            for (String value : i.getProperty(property)) {
+                column.add(id, value);
+            }
+        }
+    }
+
+    /**
+     * Adds a new spo statement to the cache
+     *
+     * @param s
+     *            The URI of the instance linked to o via p
+     * @param p
+     *            The property which links s and o
+     * @param o
+     *            The value of the property of p for the entity s
+     */
+    @Override
+    public void addTriple(String s, String p, String o) {
+        getColumn(p).add(uris.add(s), o);
+        modified();
+    }
+
+    /**
+     * @param i
+     *            The instance to look for
+     * @return true if the URI of the instance is found in the cache
+     */
+    @Override
+    public boolean containsInstance(Instance i) {
+        return uris.contains(i.getUri());
+    }
+
+    /**
+     * @param uri
+     *            The URI to looks for
+     * @return True if an instance with the URI uri is found in the cache, else
+     *         false
+     */
+    @Override
+    public boolean containsUri(String uri) {
+        return uris.contains(uri);
+    }
+
+    /**
+     * @param uri
+     *            URI to look for
+     * @return The instance with the URI uri if it is in the cache, else null
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        int id = uris.getId(uri);
+        if (id < 0) {
+            return null;
+        }
+        return createInstance(id);
+    }
+
+    @Override
+    public void resetIterator() {
+        iteratorPosition = 0;
+    }
+
+    /**
+     * @return The size of the cache
+     */
+    @Override
+    public int size() {
+        return uris.size();
+    }
+
+    @Override
+    public ACache getSample(int size) {
+        ColumnarCache c = new ColumnarCache();
+        size = Math.min(size, size());
+        while (c.size() < size) {
+            int index = (int) Math.floor(Math.random() * size());
+            c.addInstance(createInstance(index));
+        }
+        return c;
+    }
+
+    /**
+     * Replaces all values of an instance.
+     *
+     * @param uri
+     *            URI of the instance to replace
+     * @param a
+     *            The instance holding the new values
+     */
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        int id = uris.getId(uri);
+        if (id < 0) {
+            id = uris.add(uri);
+        } else {
+            for (ValueColumn column : columns) {
+                column.clear(id);
+            }
+        }
+        addValues(id, a);
+        modified();
+    }
+
+    /**
+     * Returns the set of properties that at least one instance has.
+     *
+     * @return set of all properties
+     */
+    @Override
+    public Set<String> getAllProperties() {
+        logger.debug("Get all properties...");
+        HashSet<String> props = new HashSet<String>();
+        for (int p = 0; p < columns.size(); p++) {
+            if (!columns.get(p).isEmpty()) {
+                props.add(properties.get(p));
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Preprocessing functions change instances in place, hence they are
+     * applied to a {@link MemoryCache} copy which is then converted back.
+     */
+    @Override
+    public ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain) {
+        return new ColumnarCache(toMemoryCache().addProperty(sourcePropertyName, targetPropertyName, processingChain));
+    }
+
+    @Override
+    public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
+        return toMemoryCache().parseCSVtoRDFModel(baseURI, IDbaseURI, rdfType);
+    }
+
+    /**
+     * @return a {@link MemoryCache} with the same content
+     */
+    public MemoryCache toMemoryCache() {
+        MemoryCache cache = new MemoryCache();
+        for (int id = 0; id < uris.size(); id++) {
+            cache.addInstance(createInstance(id));
+        }
+        return cache;
+    }
+
+    private HashMap<String, Instance> toInstanceMap() {
+        HashMap<String, Instance> map = new HashMap<String, Instance>();
+        for (int id = 0; id < uris.size(); id++) {
+            map.put(uris.get(id), createInstance(id));
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toInstanceMap().toString();
+    }
+
+    /**
+     * Ignores the iterator position since there is no sane way to test the
+     * equality of iterators
+     */
+    @Override
+    public ColumnarCache clone() {
+        return new ColumnarCache(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return toInstanceMap().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ColumnarCache) {
+            final ColumnarCache other = (ColumnarCache) obj;
+            return toInstanceMap().equals(other.toInstanceMap());
+        } else {
+            return false;
+        }
+    }
+}
@@ -107,40 +107,7 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return HybridCache of the data
      */
     public static HybridCache getData(File folder, KBInfo kb) {
-
-        HybridCache cache = new HybridCache(folder);
-        // 1. Try to get content from a serialization
-        String hash = kb.hashCode() + "";
-        File cacheFile = new File(folder + "cache/" + hash + ".ser");
-        logger.info("Checking for file " + cacheFile.getAbsolutePath());
-        try {
-            if (cacheFile.exists()) {
-                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
-                cache = HybridCache.loadFromFile(cacheFile);
-            }
-            if (cache.size() == 0) {
-                throw new Exception();
-            } else {
-                logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
-                logger.info("Size = " + cache.size());
-            }
-        } // 2. If it does not work, then get it from data sourceInfo as
-          // specified
-        catch (Exception e) {
-
-            // need to add a QueryModuleFactory
-            logger.info("No cached data found for " + kb.getId());
-            IQueryModule module = QueryModuleFactory.getQueryModule(kb.getType(), kb);
-            module.fillCache(cache);
-
-            if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists()
-                    || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
-                new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
-            }
-            cache.saveToFile(new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + hash + ".ser"));
-        }
-
-        return cache;
+        return getData(folder, kb, false);
     }
 
     /**
@@ -165,37 +132,95 @@ public class HybridCache extends MemoryCache implements Serializable {
      * @return A cache filled with the entities to link
      */
     public static HybridCache getNoPrefixData(File folder, KBInfo kb) {
-        HybridCache cache = new HybridCache();
-        // 1. Try to get content from a serialization
-        File cacheFile = new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + kb.hashCode() + ".ser");
-        try {
-            if (cacheFile.exists()) {
-                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
-                cache = HybridCache.loadFromFile(cacheFile);
-            }
-            if (cache.size() == 0) {
-                throw new Exception();
-            } else {
-                logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
-                logger.info("Size = " + cache.size());
-            }
-        } // 2. If it does not work, then get it from data sourceInfo as
-          // specified
-        catch (Exception e) {
-            // need to add a QueryModuleFactory
-            logger.info("No cached data found for " + kb.getId());
-            NoPrefixSparqlQueryModule module = new NoPrefixSparqlQueryModule(kb);
-            module.fillCache(cache);
-
-            if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists()
-                    || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
-                new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
+        return getData(folder, kb, true);
+    }
+
+    /**
+     * Loads the data of a knowledge base from the snapshot named after the
+     * content hash of kb in the cache folder. If there is no such snapshot, if
+     * it is older than the file of a local knowledge base or if it can not be
+     * read, the data is retrieved from the knowledge base and a new snapshot
+     * is written.
+     */
+    private static HybridCache getData(File folder, KBInfo kb, boolean noPrefix) {
+        File snapshot = getSnapshotFile(folder, kb, noPrefix);
+        MappedCache mapped = openSnapshot(snapshot, kb);
+        if (mapped != null) {
+            return mapped;
+        }
+        HybridCache cache = new HybridCache(folder);
+        fillCache(cache, kb, noPrefix, snapshot);
+        return cache;
+    }
+
+    /**
+     * @return the snapshot file of a knowledge base in the cache folder of
+     *         folder
+     */
+    static File getSnapshotFile(File folder, KBInfo kb, boolean noPrefix) {
+        // computed before the query module is created as the module may change the type of kb
+        String hash = kb.getContentHash() + (noPrefix ? "-noprefix" : "");
+        File cacheFolder = new File(folder.getAbsolutePath() + File.separatorChar + "cache");
+        return new File(cacheFolder, hash + MappedCache.SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * @return the snapshot of a knowledge base, or null if there is no such
+     *         snapshot, if it is stale, empty or can not be read
+     */
+    static MappedCache openSnapshot(File snapshot, KBInfo kb) {
+        logger.info("Checking for file " + snapshot.getAbsolutePath());
+        if (snapshot.exists() && !isStale(snapshot, kb)) {
+            try {
+                logger.info("Found cached data. Loading data from file " + snapshot.getAbsolutePath());
+                MappedCache cache = MappedCache.open(snapshot);
+                if (cache.size() > 0) {
+                    logger.info("Cached data loaded successfully from file " + snapshot.getAbsolutePath());
+                    logger.info("Size = " + cache.size());
+                    return cache;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not load snapshot " + snapshot.getAbsolutePath() + ": " + e.getMessage());
             }
-            cache.saveToFile(
-                    new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + kb.hashCode() + ".ser"));
         }
+        return null;
+    }
 
-        return cache;
+    /**
+     * Retrieves the data of a knowledge base into a cache and writes a
+     * snapshot of it.
+     */
+    static void fillCache(ACache cache, KBInfo kb, boolean noPrefix, File snapshot) {
+        logger.info("No cached data found for " + kb.getId());
+        IQueryModule module;
+        if (noPrefix) {
+            module = new NoPrefixSparqlQueryModule(kb);
+        } else {
+            module = QueryModuleFactory.getQueryModule(kb.getType(), kb);
+        }
+        module.fillCache(cache);
+        File cacheFolder = snapshot.getParentFile();
+        if (!cacheFolder.exists() || !cacheFolder.isDirectory()) {
+            cacheFolder.mkdir();
+        }
+        try {
+            logger.info("Writing snapshot of " + cache.size() + " instances to " + snapshot.getAbsolutePath());
+            MappedCache.write(cache, snapshot);
+        } catch (IOException e) {
+            logger.warn("Could not write snapshot " + snapshot.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the knowledge base is a local file that was changed
+     *         after the snapshot was written
+     */
+    private static boolean isStale(File snapshot, KBInfo kb) {
+        if (kb.getEndpoint() == null) {
+            return false;
+        }
+        File endpoint = new File(kb.getEndpoint());
+        return endpoint.isFile() && endpoint.lastModified() > snapshot.lastModified();
     }
 
     /**
@@ -228,6 +253,7 @@ public class HybridCache extends MemoryCache implements Serializable {
     public void addInstance(Instance i) {
         if (!instanceMap.containsKey(i.getUri())) {
             instanceMap.put(i.getUri(), i);
+            modified();
         }
     }
 
@@ -270,6 +296,7 @@ public class HybridCache extends MemoryCache implements Serializable {
             m.addProperty(p, o);
             instanceMap.put(s, m);
         }
+        modified();
     }
 
     /**
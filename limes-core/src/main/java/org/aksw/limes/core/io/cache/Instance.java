@@ -1,6 +1,9 @@
 package org.aksw.limes.core.io.cache;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Set;
@@ -28,6 +31,9 @@ public class Instance implements Comparable<Object>, Serializable {
     public double distance;
     private String uri;
     private HashMap<String, TreeSet<String>> properties;
+    // source of the values that were not decoded so far, or null if all
+    // values are in properties
+    private transient volatile LazyValues lazy = null;
 
     /**
      * Constructor
@@ -42,6 +48,47 @@ public class Instance implements Comparable<Object>, Serializable {
         distance = -1;
     }
 
+    /**
+     * Constructor for an instance whose values are decoded on first access
+     *
+     * @param _uri
+     *         URI of the instance
+     * @param lazy
+     *         Source of the values of the instance
+     */
+    Instance(String _uri, LazyValues lazy) {
+        this(_uri);
+        this.lazy = lazy;
+    }
+
+    /**
+     * Source of the values of an instance that are decoded on first access,
+     * e.g. from a {@link MappedCache}.
+     */
+    interface LazyValues {
+
+        /**
+         * @return the properties that have values
+         */
+        Collection<String> getProperties();
+
+        /**
+         * @param propUri
+         *         URI of the property
+         * @return the values of the property, empty if it has none
+         */
+        TreeSet<String> getValues(String propUri);
+
+        /**
+         * Called before the instance is changed for the first time, after all
+         * its values were decoded.
+         *
+         * @param instance
+         *         The changed instance
+         */
+        void changed(Instance instance);
+    }
+
     /**
      * Add a new (property, value) pair
      *
@@ -51,6 +98,7 @@ public class Instance implements Comparable<Object>, Serializable {
      *         value of the property for this instance
      */
     public void addProperty(String propUri, String value) {
+        change();
         if (properties.containsKey(propUri)) {
             properties.get(propUri).add(value);
         } else {
@@ -61,6 +109,7 @@ public class Instance implements Comparable<Object>, Serializable {
     }
 
     public void addProperty(String propUri, TreeSet<String> values) {
+        change();
         // propUri = propUri.toLowerCase();
         if (properties.containsKey(propUri)) {
             Iterator<String> iter = values.iterator();
@@ -76,6 +125,7 @@ public class Instance implements Comparable<Object>, Serializable {
      * Removes the old values of propUri and replaces them with values
      */
     public void replaceProperty(String propUri, TreeSet<String> values) {
+        change();
         if (properties.containsKey(propUri)) {
             properties.remove(propUri);
         }
@@ -98,6 +148,9 @@ public class Instance implements Comparable<Object>, Serializable {
      * @return TreeSet of values associated with this URI
      */
     public TreeSet<String> getProperty(String propUri) {
+        if (lazy != null) {
+            return getLazyProperty(propUri);
+        }
         if (properties.containsKey(propUri)) {
             return properties.get(propUri);
         } else {
@@ -112,11 +165,65 @@ public class Instance implements Comparable<Object>, Serializable {
      * @return A set of property Uris
      */
     public Set<String> getAllProperties() {
+        decodeAll();
         return properties.keySet();
     }
 
+    /**
+     * Decodes the values of a single property, if the instance was not
+     * decoded so far.
+     */
+    private synchronized TreeSet<String> getLazyProperty(String propUri) {
+        LazyValues values = lazy;
+        if (values != null && !properties.containsKey(propUri)) {
+            TreeSet<String> decoded = values.getValues(propUri);
+            if (!decoded.isEmpty()) {
+                properties.put(propUri, decoded);
+            }
+        }
+        if (properties.containsKey(propUri)) {
+            return properties.get(propUri);
+        } else {
+            logger.debug("Failed to access property <" + propUri + "> on " + uri);
+            return new TreeSet<String>();
+        }
+    }
+
+    /**
+     * Decodes the values of all properties that were not decoded so far.
+     */
+    private synchronized void decodeAll() {
+        LazyValues values = lazy;
+        if (values != null) {
+            for (String propUri : values.getProperties()) {
+                if (!properties.containsKey(propUri)) {
+                    properties.put(propUri, values.getValues(propUri));
+                }
+            }
+            lazy = null;
+        }
+    }
+
+    /**
+     * Decodes all values before the instance is changed for the first time,
+     * and notifies the source of its values.
+     */
+    private void change() {
+        LazyValues values = lazy;
+        if (values != null) {
+            decodeAll();
+            values.changed(this);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        decodeAll();
+        out.defaultWriteObject();
+    }
+
     @Override
     public String toString() {
+        decodeAll();
         String s = uri;
         String propUri;
         Iterator<String> iter = properties.keySet().iterator();
@@ -149,6 +256,7 @@ public class Instance implements Comparable<Object>, Serializable {
     }
 
     public Instance copy() {
+        decodeAll();
         Instance instance = new Instance(uri);
         HashMap<String, TreeSet<String>> ps = new HashMap<String, TreeSet<String>>();
         for (String p : properties.keySet()) {
@@ -167,6 +275,7 @@ public class Instance implements Comparable<Object>, Serializable {
      * @param uri of the property to be removed
      */
     public void removePropery(String uri) {
+        change();
         if (properties.containsKey(uri)) {
             properties.remove(uri);
         }
@@ -174,6 +283,7 @@ public class Instance implements Comparable<Object>, Serializable {
 
 	@Override
 	public int hashCode() {
+		decodeAll();
 		final int prime = 31;
 		int result = 1;
 		long temp;
@@ -193,6 +303,8 @@ public class Instance implements Comparable<Object>, Serializable {
 		if (getClass() != obj.getClass())
 			return false;
 		Instance other = (Instance) obj;
+		decodeAll();
+		other.decodeAll();
 		if (Double.doubleToLongBits(distance) != Double.doubleToLongBits(other.distance))
 			return false;
 		if (properties == null) {
@@ -0,0 +1,766 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link HybridCache} that is served from a binary snapshot file. The file
+ * is memory mapped and read lazily, i.e., opening a snapshot only reads its
+ * header and the operating system pages in the parts of the file that are
+ * actually accessed. The values of an instance are decoded per property on
+ * first access, and an instance is only kept in memory once it is changed, so
+ * that it can be changed in place as for any other cache. Iterating over the
+ * cache therefore does not fill the memory with decoded instances. Added
+ * instances are kept in memory next to the snapshot. The snapshot is
+ * immutable and read without locking.
+ *
+ * The snapshot format (version {@value #VERSION}, big endian) consists of a
+ * header (magic number, version), a section with the URIs of all instances in
+ * ascending order, one section per property with the values of all instances
+ * and a footer with the number of instances, the property names and the
+ * offsets of all sections. URI sections contain n + 1 string offsets followed
+ * by the UTF-8 bytes of the strings. Property sections contain n + 1 row
+ * offsets into the list of values, the e + 1 offsets of the values and the
+ * UTF-8 bytes of the values.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public class MappedCache extends HybridCache {
+    private static final long serialVersionUID = 3186440567093012719L;
+    private static final Logger logger = LoggerFactory.getLogger(MappedCache.class);
+
+    /**
+     * Extension of snapshot files
+     */
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+    static final int MAGIC = 0x4C494D43;
+    static final int VERSION = 1;
+
+    // number of instances in the snapshot
+    private transient int instances;
+    private transient ByteBuffer uris;
+    private transient String[] propertyNames;
+    private transient ByteBuffer[] columns;
+    private transient Map<String, Integer> propertyIndexes;
+    // instances that were changed or added, by URI
+    private final ConcurrentHashMap<String, Instance> kept = new ConcurrentHashMap<String, Instance>();
+    // URIs of the instances that were added to the snapshot, guarded by this
+    private final ArrayList<String> added = new ArrayList<String>();
+    private volatile int addedSize = 0;
+
+    private MappedCache(File folder) {
+        super(folder);
+    }
+
+    /**
+     * Opens a snapshot written by {@link #write(ACache, File)}.
+     *
+     * @param file
+     *            The snapshot file
+     * @return A cache that is backed by the snapshot
+     * @throws IOException
+     *             if the file can not be read or is not a snapshot of the
+     *             current version
+     */
+    public static MappedCache open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 20) {
+                throw new IOException("File " + file + " is not a cache snapshot");
+            }
+            ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, 8);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("File " + file + " is not a cache snapshot");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Snapshot " + file + " has version " + header.getInt(4) + ", expected " + VERSION);
+            }
+            ByteBuffer trailer = channel.map(MapMode.READ_ONLY, size - 12, 12);
+            if (trailer.getInt(8) != MAGIC) {
+                throw new IOException("Snapshot " + file + " is incomplete");
+            }
+            channel.position(trailer.getLong(0));
+            DataInputStream footer = new DataInputStream(Channels.newInputStream(channel));
+            File folder = file.getAbsoluteFile().getParentFile().getParentFile();
+            MappedCache cache = new MappedCache(folder == null ? new File("") : folder);
+            cache.instances = footer.readInt();
+            int properties = footer.readInt();
+            cache.uris = map(channel, footer);
+            cache.propertyNames = new String[properties];
+            cache.columns = new ByteBuffer[properties];
+            cache.propertyIndexes = new HashMap<String, Integer>();
+            for (int p = 0; p < properties; p++) {
+                cache.propertyNames[p] = footer.readUTF();
+                cache.columns[p] = map(channel, footer);
+                cache.propertyIndexes.put(cache.propertyNames[p], p);
+            }
+            logger.info("Opened snapshot " + file + " with " + cache.instances + " instances and " + properties
+                    + " properties");
+            return cache;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, DataInputStream footer) throws IOException {
+        long offset = footer.readLong();
+        long length = footer.readLong();
+        return channel.map(MapMode.READ_ONLY, offset, length);
+    }
+
+    /**
+     * Writes the content of a cache to a snapshot file. The snapshot is
+     * written to a temporary file first, so that no incomplete snapshot is
+     * left behind if writing fails.
+     *
+     * @param cache
+     *            The cache to write
+     * @param file
+     *            The snapshot file
+     * @throws IOException
+     *             if the snapshot can not be written
+     */
+    public static void write(ACache cache, File file) throws IOException {
+        ArrayList<String> uris = cache.getAllUris();
+        Collections.sort(uris);
+        TreeSet<String> properties = new TreeSet<String>();
+        for (String uri : uris) {
+            properties.addAll(cache.getInstance(uri).getAllProperties());
+        }
+        // the name of the temporary file is unique, as the same knowledge base
+        // may be loaded concurrently
+        File tmp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            long[] offsets = new long[properties.size() + 1];
+            long[] lengths = new long[properties.size() + 1];
+            CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try (DataOutputStream out = new DataOutputStream(counter)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                offsets[0] = counter.count;
+                writeUris(out, uris);
+                lengths[0] = counter.count - offsets[0];
+                int p = 1;
+                for (String property : properties) {
+                    offsets[p] = counter.count;
+                    writeColumn(out, cache, uris, property);
+                    lengths[p] = counter.count - offsets[p];
+                    p++;
+                }
+                long footer = counter.count;
+                out.writeInt(uris.size());
+                out.writeInt(properties.size());
+                out.writeLong(offsets[0]);
+                out.writeLong(lengths[0]);
+                p = 1;
+                for (String property : properties) {
+                    out.writeUTF(property);
+                    out.writeLong(offsets[p]);
+                    out.writeLong(lengths[p]);
+                    p++;
+                }
+                out.writeLong(footer);
+                out.writeInt(MAGIC);
+            }
+            for (int p = 0; p < lengths.length; p++) {
+                if (lengths[p] > Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot section " + p + " is larger than 2GB");
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private static void writeUris(DataOutputStream out, ArrayList<String> uris) throws IOException {
+        int offset = 0;
+        out.writeInt(offset);
+        for (String uri : uris) {
+            offset = add(offset, utf8Length(uri));
+            out.writeInt(offset);
+        }
+        for (String uri : uris) {
+            out.write(uri.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, ACache cache, ArrayList<String> uris, String property)
+            throws IOException {
+        ArrayList<TreeSet<String>> rows = new ArrayList<TreeSet<String>>(uris.size());
+        for (String uri : uris) {
+            Instance i = cache.getInstance(uri);
+            rows.add(i.getAllProperties().contains(property) ? i.getProperty(property) : null);
+        }
+        int entries = 0;
+        out.writeInt(entries);
+        for (TreeSet<String> values : rows) {
+            entries = add(entries, values == null ? 0 : values.size());
+            out.writeInt(entries);
+        }
+        int offset = 0;
+        out.writeInt(offset);
+        for (TreeSet<String> values : rows) {
+            if (values != null) {
+                for (String value : values) {
+                    offset = add(offset, utf8Length(value));
+                    out.writeInt(offset);
+                }
+            }
+        }
+        for (TreeSet<String> values : rows) {
+            if (values != null) {
+                for (String value : values) {
+                    out.write(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    private static int add(int offset, int length) throws IOException {
+        if ((long) offset + length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section is larger than 2GB");
+        }
+        return offset + length;
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Reads a string using absolute positions only, so that concurrent reads
+     * do not interfere.
+     */
+    private static String readString(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String readUri(int id) {
+        int base = 4 * (instances + 1);
+        return readString(uris, base + uris.getInt(4 * id), base + uris.getInt(4 * (id + 1)));
+    }
+
+    private TreeSet<String> readValues(int property, int id) {
+        ByteBuffer column = columns[property];
+        TreeSet<String> values = new TreeSet<String>();
+        int first = column.getInt(4 * id);
+        int last = column.getInt(4 * (id + 1));
+        if (first < last) {
+            int entries = column.getInt(4 * instances);
+            int offsets = 4 * (instances + 1);
+            int base = offsets + 4 * (entries + 1);
+            for (int e = first; e < last; e++) {
+                values.add(readString(column, base + column.getInt(offsets + 4 * e),
+                        base + column.getInt(offsets + 4 * (e + 1))));
+            }
+        }
+        return values;
+    }
+
+    private boolean hasValues(int property, int id) {
+        ByteBuffer column = columns[property];
+        return column.getInt(4 * id) < column.getInt(4 * (id + 1));
+    }
+
+    /**
+     * @return the id of uri in the snapshot or -1
+     */
+    private int find(String uri) {
+        int low = 0, high = instances - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = readUri(mid).compareTo(uri);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The values of an instance of the snapshot. The instance is kept in
+     * memory once it is changed.
+     */
+    private class SnapshotValues implements Instance.LazyValues {
+        private final int id;
+
+        SnapshotValues(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public List<String> getProperties() {
+            List<String> result = new ArrayList<String>();
+            for (int p = 0; p < columns.length; p++) {
+                if (hasValues(p, id)) {
+                    result.add(propertyNames[p]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public TreeSet<String> getValues(String property) {
+            Integer p = propertyIndexes.get(property);
+            return p == null ? new TreeSet<String>() : readValues(p, id);
+        }
+
+        @Override
+        public void changed(Instance instance) {
+            kept.put(instance.getUri(), instance);
+        }
+    }
+
+    /**
+     * Returns the instance at a position of {@link #getAllInstances()}. The
+     * instances of the snapshot come first, followed by the instances that
+     * were added to the cache.
+     *
+     * @param index
+     *            Position of the instance
+     * @return the instance at position index
+     */
+    private Instance instanceAt(int index) {
+        if (index >= instances) {
+            synchronized (this) {
+                return kept.get(added.get(index - instances));
+            }
+        }
+        String uri = readUri(index);
+        Instance instance = kept.get(uri);
+        return instance != null ? instance : new Instance(uri, new SnapshotValues(index));
+    }
+
+    /**
+     * @return the number of instances of the snapshot that were changed and
+     *         are kept in memory
+     */
+    int getDecodedInstances() {
+        return kept.size() - addedSize;
+    }
+
+    /**
+     * Returns the values of a property of an instance. Only the section of
+     * the property is read if the instance was not changed so far.
+     *
+     * @param uri
+     *            URI of the instance
+     * @param property
+     *            URI of the property
+     * @return the values of the property, empty if the instance or the
+     *         property are not in the cache
+     */
+    public TreeSet<String> getProperty(String uri, String property) {
+        Instance instance = kept.get(uri);
+        if (instance != null) {
+            return instance.getProperty(property);
+        }
+        Integer p = propertyIndexes.get(property);
+        int id = find(uri);
+        if (p == null || id < 0) {
+            return new TreeSet<String>();
+        }
+        return readValues(p, id);
+    }
+
+    /**
+     * Instances of the snapshot that were not changed are decoded on every
+     * call, one property after another on first access.
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        Instance instance = kept.get(uri);
+        if (instance == null) {
+            int id = find(uri);
+            if (id >= 0) {
+                instance = new Instance(uri, new SnapshotValues(id));
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean containsUri(String uri) {
+        return kept.containsKey(uri) || find(uri) >= 0;
+    }
+
+    @Override
+    public boolean containsInstance(Instance i) {
+        return containsUri(i.getUri());
+    }
+
+    @Override
+    public int size() {
+        return instances + addedSize;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> result = new ArrayList<String>(size());
+        for (int id = 0; id < instances; id++) {
+            result.add(readUri(id));
+        }
+        synchronized (this) {
+            result.addAll(added);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getAllProperties() {
+        // the snapshot only contains properties with at least one value
+        Set<String> result = new HashSet<String>(Arrays.asList(propertyNames));
+        for (Instance i : kept.values()) {
+            result.addAll(i.getAllProperties());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read-only view of all instances. Instances are decoded when
+     * they are accessed through the view, and are only kept in memory once
+     * they are changed.
+     */
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        return new InstanceList();
+    }
+
+    @Override
+    public synchronized Instance getNextInstance() {
+        if (instanceIterator == null) {
+            resetIterator();
+        }
+        return instanceIterator.hasNext() ? instanceIterator.next() : null;
+    }
+
+    @Override
+    public synchronized void resetIterator() {
+        instanceIterator = getAllInstances().iterator();
+    }
+
+    @Override
+    public synchronized void addInstance(Instance i) {
+        if (!containsUri(i.getUri())) {
+            add(i.getUri(), i);
+            modified();
+        }
+    }
+
+    @Override
+    public synchronized void addTriple(String s, String p, String o) {
+        Instance m = getInstance(s);
+        if (m == null) {
+            m = new Instance(s);
+            add(s, m);
+        }
+        // an instance of the snapshot is kept once it is changed
+        m.addProperty(p, o);
+        modified();
+    }
+
+    @Override
+    public synchronized void replaceInstance(String uri, Instance a) {
+        if (!containsUri(uri)) {
+            add(uri, a);
+        } else {
+            kept.put(uri, a);
+        }
+        modified();
+    }
+
+    /**
+     * Adds an instance that is not in the snapshot. The caller holds the lock
+     * of the cache.
+     */
+    private void add(String uri, Instance i) {
+        kept.put(uri, i);
+        added.add(uri);
+        addedSize = added.size();
+    }
+
+    /**
+     * Instances that were not changed so far are decoded for the string
+     * only.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        int size = size();
+        for (int index = 0; index < size; index++) {
+            Instance i = instanceAt(index);
+            result.append(index == 0 ? "" : ", ").append(i.getUri()).append('=').append(i);
+        }
+        return result.append('}').toString();
+    }
+
+    /**
+     * Read-only list of the instances of the cache that decodes instances on
+     * access. Positions refer to the instances of the cache at the time of
+     * the access.
+     */
+    private class InstanceList extends ArrayList<Instance> {
+        private static final long serialVersionUID = 6502412981467150238L;
+
+        private final List<Instance> view = new AbstractList<Instance>() {
+            @Override
+            public Instance get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return instanceAt(index);
+            }
+
+            @Override
+            public int size() {
+                return MappedCache.this.size();
+            }
+        };
+
+        @Override
+        public Instance get(int index) {
+            return view.get(index);
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return view.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return view.contains(o);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return view.indexOf(o);
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return view.lastIndexOf(o);
+        }
+
+        @Override
+        public Iterator<Instance> iterator() {
+            return view.iterator();
+        }
+
+        @Override
+        public ListIterator<Instance> listIterator() {
+            return view.listIterator();
+        }
+
+        @Override
+        public ListIterator<Instance> listIterator(int index) {
+            return view.listIterator(index);
+        }
+
+        @Override
+        public List<Instance> subList(int fromIndex, int toIndex) {
+            return view.subList(fromIndex, toIndex);
+        }
+
+        @Override
+        public Spliterator<Instance> spliterator() {
+            return view.spliterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Instance> action) {
+            view.forEach(action);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return view.toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            return view.toArray(a);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return view.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return view.hashCode();
+        }
+
+        @Override
+        public Object clone() {
+            return new ArrayList<Instance>(view);
+        }
+
+        @Override
+        public Instance set(int index, Instance element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean add(Instance e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(int index, Instance element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends Instance> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends Instance> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instance remove(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super Instance> filter) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<Instance> operator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sort(Comparator<? super Instance> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            return new ArrayList<Instance>(view);
+        }
+    }
+
+    /**
+     * Mapped buffers can not be serialized, hence a {@link HybridCache} with
+     * the same content is serialized instead.
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        HybridCache copy = new HybridCache(getFolder());
+        for (Instance i : getAllInstances()) {
+            copy.addInstance(i);
+        }
+        return copy;
+    }
+}
@@ -74,6 +74,7 @@ public class MemoryCache extends ACache {
             // Instance m = instanceMap.get(i.getUri());
         } else {
             instanceMap.put(i.getUri(), i);
+            modified();
         }
     }
 
@@ -119,6 +120,7 @@ public class MemoryCache extends ACache {
             m.addProperty(p, o);
             instanceMap.put(s, m);
         }
+        modified();
     }
 
     /**
@@ -199,6 +201,7 @@ public class MemoryCache extends ACache {
             instanceMap.remove(uri);
         }
         instanceMap.put(uri, a);
+        modified();
     }
 
     public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
@@ -0,0 +1,133 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Maps strings (e.g. URIs or property names) to dense integer ids and back.
+ * Each string is stored exactly once, the lookup table is an open-addressing
+ * hash table of ids, so that no boxed keys or map entries are allocated.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public class StringDictionary implements Serializable {
+
+    private static final long serialVersionUID = -4017552389013265818L;
+
+    private static final int EMPTY = -1;
+
+    private String[] strings;
+    private int[] table;
+    private int size = 0;
+
+    public StringDictionary() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize
+     *            Number of strings the dictionary is expected to hold
+     */
+    public StringDictionary(int expectedSize) {
+        strings = new String[Math.max(expectedSize, 16)];
+        table = new int[tableSize(strings.length)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2;
+    }
+
+    private static int hash(String s) {
+        int h = s.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the id of a string, adding the string to the dictionary if
+     * necessary.
+     *
+     * @param s
+     *            The string to add
+     * @return the id of s
+     */
+    public int add(String s) {
+        int mask = table.length - 1;
+        int slot = hash(s) & mask;
+        while (table[slot] != EMPTY) {
+            if (strings[table[slot]].equals(s)) {
+                return table[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size + (size >> 1));
+        }
+        strings[size] = s;
+        table[slot] = size;
+        size++;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * @param s
+     *            The string to look for
+     * @return the id of s or -1 if s is not in the dictionary
+     */
+    public int getId(String s) {
+        int mask = table.length - 1;
+        int slot = hash(s) & mask;
+        while (table[slot] != EMPTY) {
+            if (strings[table[slot]].equals(s)) {
+                return table[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * @param id
+     *            Id of a string
+     * @return the string with the given id
+     */
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No string with id " + id);
+        }
+        return strings[id];
+    }
+
+    /**
+     * @param s
+     *            The string to look for
+     * @return true if s is in the dictionary
+     */
+    public boolean contains(String s) {
+        return getId(s) != EMPTY;
+    }
+
+    /**
+     * @return the number of strings in the dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(strings[id]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+}
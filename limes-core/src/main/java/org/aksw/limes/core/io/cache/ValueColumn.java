@@ -0,0 +1,251 @@
+package org.aksw.limes.core.io.cache;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Stores all values of one property for all instances of a
+ * {@link ColumnarCache}. The values are kept as packed characters, the values
+ * of instance i are the entries rowStart[i] to rowStart[i + 1] - 1. Values
+ * that are added later are collected in a pending area, in which the entries
+ * of each row are chained, and reads combine both areas. Once the pending
+ * area outgrows a quarter of the packed area, the next write merges it into
+ * the packed area, so interleaved writes and reads cost amortized constant
+ * time per value. Concurrent reads are safe, writes must not happen
+ * concurrently with other operations.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+class ValueColumn {
+
+    // packed area
+    private int rows = 0;
+    private int[] rowStart = new int[1];
+    private int[] valueEnd = new int[0];
+    private char[] chars = new char[0];
+
+    // pending area
+    private int pendingEntries = 0;
+    private int pendingCharCount = 0;
+    private int[] pendingOwner = new int[8];
+    private int[] pendingEnd = new int[8];
+    private char[] pendingChars = new char[64];
+    // for each row its last pending entry, for each pending entry the
+    // previous pending entry of its row, -1 if there is none
+    private int[] lastPending = new int[0];
+    private int[] pendingPrev = new int[8];
+
+    // for each row the number of pending entries at the time the row was
+    // cleared, or -1 if the row was not cleared since the last merge
+    private int[] clearedAt = null;
+    private int clears = 0;
+
+    // minimum number of pending entries and clears before a merge
+    private static final int MIN_PENDING = 1024;
+
+    /**
+     * Adds a value to a row.
+     *
+     * @param row
+     *            Id of the instance
+     * @param value
+     *            Value of the property for the instance
+     */
+    void add(int row, String value) {
+        if (pendingEntries == pendingOwner.length) {
+            pendingOwner = Arrays.copyOf(pendingOwner, pendingEntries * 2);
+            pendingEnd = Arrays.copyOf(pendingEnd, pendingEntries * 2);
+            pendingPrev = Arrays.copyOf(pendingPrev, pendingEntries * 2);
+        }
+        if (row >= lastPending.length) {
+            int oldLength = lastPending.length;
+            lastPending = Arrays.copyOf(lastPending, Math.max(row + 1, oldLength * 2));
+            Arrays.fill(lastPending, oldLength, lastPending.length, -1);
+        }
+        int length = value.length();
+        if (pendingCharCount + length > pendingChars.length) {
+            pendingChars = Arrays.copyOf(pendingChars, Math.max(pendingChars.length * 2, pendingCharCount + length));
+        }
+        value.getChars(0, length, pendingChars, pendingCharCount);
+        pendingCharCount += length;
+        pendingOwner[pendingEntries] = row;
+        pendingEnd[pendingEntries] = pendingCharCount;
+        pendingPrev[pendingEntries] = lastPending[row];
+        lastPending[row] = pendingEntries;
+        pendingEntries++;
+        mergeIfDue();
+    }
+
+    /**
+     * Removes all values of a row.
+     *
+     * @param row
+     *            Id of the instance
+     */
+    void clear(int row) {
+        if (clearedAt == null) {
+            clearedAt = new int[Math.max(row + 1, rows)];
+            Arrays.fill(clearedAt, -1);
+        } else if (row >= clearedAt.length) {
+            int oldLength = clearedAt.length;
+            clearedAt = Arrays.copyOf(clearedAt, Math.max(row + 1, oldLength * 2));
+            Arrays.fill(clearedAt, oldLength, clearedAt.length, -1);
+        }
+        clearedAt[row] = pendingEntries;
+        clears++;
+        mergeIfDue();
+    }
+
+    /**
+     * Returns the values of a row.
+     *
+     * @param row
+     *            Id of the instance
+     * @return the sorted values of the row, empty if the row has no values
+     */
+    TreeSet<String> get(int row) {
+        TreeSet<String> values = new TreeSet<String>();
+        if (row < rows && !isCleared(row, 0)) {
+            for (int e = rowStart[row]; e < rowStart[row + 1]; e++) {
+                int start = e == 0 ? 0 : valueEnd[e - 1];
+                values.add(new String(chars, start, valueEnd[e] - start));
+            }
+        }
+        if (row < lastPending.length) {
+            for (int i = lastPending[row]; i >= 0 && !isCleared(row, i + 1); i = pendingPrev[i]) {
+                int start = i == 0 ? 0 : pendingEnd[i - 1];
+                values.add(new String(pendingChars, start, pendingEnd[i] - start));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param row
+     *            Id of the instance
+     * @return true if the row has at least one value
+     */
+    boolean hasValues(int row) {
+        if (row < rows && !isCleared(row, 0) && rowStart[row] < rowStart[row + 1]) {
+            return true;
+        }
+        return row < lastPending.length && lastPending[row] >= 0 && !isCleared(row, lastPending[row] + 1);
+    }
+
+    /**
+     * @return true if no row has a value
+     */
+    boolean isEmpty() {
+        if (clearedAt == null) {
+            return valueEnd.length == 0 && pendingEntries == 0;
+        }
+        for (int row = 0; row < Math.max(rows, lastPending.length); row++) {
+            if (hasValues(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param row
+     *            Id of the instance
+     * @param position
+     *            0 for packed entries, i + 1 for the i-th pending entry
+     * @return true if the entry was added before its row was cleared
+     */
+    private boolean isCleared(int row, int position) {
+        return clearedAt != null && row < clearedAt.length && position <= clearedAt[row];
+    }
+
+    /**
+     * Merges the pending area into the packed area once the pending entries
+     * and clears outgrow a quarter of the packed entries.
+     */
+    private void mergeIfDue() {
+        if (pendingEntries + clears > MIN_PENDING + valueEnd.length / 4) {
+            mergePending();
+        }
+    }
+
+    /**
+     * Merges the pending area into the packed area, dropping the values of
+     * cleared rows. The packed arrays are allocated with their exact size.
+     */
+    private void mergePending() {
+        int newRows = rows;
+        for (int i = 0; i < pendingEntries; i++) {
+            newRows = Math.max(newRows, pendingOwner[i] + 1);
+        }
+        // count the surviving entries and characters of each row
+        int[] newRowStart = new int[newRows + 1];
+        int newCharCount = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!isCleared(row, 0)) {
+                newRowStart[row + 1] += rowStart[row + 1] - rowStart[row];
+                int first = rowStart[row], last = rowStart[row + 1];
+                if (last > first) {
+                    newCharCount += valueEnd[last - 1] - (first == 0 ? 0 : valueEnd[first - 1]);
+                }
+            }
+        }
+        for (int i = 0; i < pendingEntries; i++) {
+            if (!isCleared(pendingOwner[i], i + 1)) {
+                newRowStart[pendingOwner[i] + 1]++;
+                newCharCount += pendingEnd[i] - (i == 0 ? 0 : pendingEnd[i - 1]);
+            }
+        }
+        for (int row = 0; row < newRows; row++) {
+            newRowStart[row + 1] += newRowStart[row];
+        }
+        // place the entries row by row
+        int newEntries = newRowStart[newRows];
+        int[] newValueLength = new int[newEntries];
+        int[] fill = Arrays.copyOf(newRowStart, newRows);
+        int[] source = new int[newEntries];
+        for (int row = 0; row < rows; row++) {
+            if (!isCleared(row, 0)) {
+                for (int e = rowStart[row]; e < rowStart[row + 1]; e++) {
+                    source[fill[row]] = e;
+                    newValueLength[fill[row]++] = valueEnd[e] - (e == 0 ? 0 : valueEnd[e - 1]);
+                }
+            }
+        }
+        for (int i = 0; i < pendingEntries; i++) {
+            int row = pendingOwner[i];
+            if (!isCleared(row, i + 1)) {
+                // pending entries are encoded as negative sources
+                source[fill[row]] = -i - 1;
+                newValueLength[fill[row]++] = pendingEnd[i] - (i == 0 ? 0 : pendingEnd[i - 1]);
+            }
+        }
+        int[] newValueEnd = new int[newEntries];
+        char[] newChars = new char[newCharCount];
+        int offset = 0;
+        for (int e = 0; e < newEntries; e++) {
+            int length = newValueLength[e];
+            if (source[e] >= 0) {
+                System.arraycopy(chars, valueEnd[source[e]] - length, newChars, offset, length);
+            } else {
+                int i = -source[e] - 1;
+                System.arraycopy(pendingChars, pendingEnd[i] - length, newChars, offset, length);
+            }
+            offset += length;
+            newValueEnd[e] = offset;
+        }
+        rows = newRows;
+        rowStart = newRowStart;
+        valueEnd = newValueEnd;
+        chars = newChars;
+        pendingEntries = 0;
+        pendingCharCount = 0;
+        pendingOwner = new int[8];
+        pendingEnd = new int[8];
+        pendingChars = new char[64];
+        lastPending = new int[0];
+        pendingPrev = new int[8];
+        clearedAt = null;
+        clears = 0;
+    }
+}
@@ -5,12 +5,16 @@
 package org.aksw.limes.core.io.config;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
 
@@ -23,6 +27,8 @@ import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
 public class KBInfo implements Serializable {
 
     private static final String DEFAULT_QUERY_TYPE = "sparql";
+    public static final String HYBRID_CACHE = "hybrid";
+    public static final String COLUMNAR_CACHE = "columnar";
 
     private static final long serialVersionUID = 7915400434442160847L;
 
@@ -39,6 +45,7 @@ public class KBInfo implements Serializable {
     protected String type;
     protected int maxoffset;
     protected int minoffset;
+    protected String cache;
 
     /**
      * Constructor
@@ -56,6 +63,7 @@ public class KBInfo implements Serializable {
         type = DEFAULT_QUERY_TYPE;    //default value
         maxoffset  = -1;
         minoffset = -1;
+        cache = HYBRID_CACHE;
     }
 
     /**
@@ -210,6 +218,18 @@ public class KBInfo implements Serializable {
         return minoffset;
     }
 
+    /**
+     * @return the type of the cache the data is kept in, either
+     *         {@value #HYBRID_CACHE} or {@value #COLUMNAR_CACHE}
+     */
+    public String getCache() {
+        return cache;
+    }
+
+    public void setCache(String cache) {
+        this.cache = cache;
+    }
+
     /**
      * @return String representation of knowledge base info
      */
@@ -228,6 +248,7 @@ public class KBInfo implements Serializable {
         s = s + "Type: " + type + "\n";
         s = s + "MinOffset: " + minoffset + "\n";
         s = s + "MaxOffset: " + maxoffset + "\n";
+        s = s + "Cache: " + cache + "\n";
         return s;
     }
 
@@ -260,6 +281,41 @@ public class KBInfo implements Serializable {
         return result;
     }
 
+    /**
+     * Computes a content hash of everything that determines the data
+     * retrieved for this KBInfo, i.e., endpoint, graph, variable, properties,
+     * restrictions, prefixes, paging and type. Unlike {@link #hashCode()},
+     * the hash does not depend on the id, on the order of the prefixes and is
+     * stable across JVMs, so that it can be used to name cache files.
+     *
+     * @return SHA-256 hash of the query content as hex string
+     */
+    public String getContentHash() {
+        StringBuilder content = new StringBuilder();
+        content.append("endpoint=").append(endpoint).append('\n');
+        content.append("graph=").append(graph).append('\n');
+        content.append("var=").append(var).append('\n');
+        content.append("properties=").append(properties).append('\n');
+        content.append("optionalProperties=").append(optionalProperties).append('\n');
+        content.append("restrictions=").append(restrictions).append('\n');
+        content.append("prefixes=").append(prefixes == null ? null : new TreeMap<>(prefixes)).append('\n');
+        content.append("pageSize=").append(pageSize).append('\n');
+        content.append("type=").append(type).append('\n');
+        content.append("minOffset=").append(minoffset).append('\n');
+        content.append("maxOffset=").append(maxoffset).append('\n');
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -33,6 +33,7 @@ public class LIMES {
     public static final Property relation = property("relation");
     public static final Property graph = property("graph");
     public static final Property type = property("type");
+    public static final Property cache = property("cache");
     public static final Property executionPlanner = property("executionPlanner");
     public static final Property executionRewriter = property("executionRewriter");
     public static final Property executionEngine = property("executionEngine");
@@ -321,6 +321,12 @@ public class RDFConfigurationReader extends AConfigurationReader {
             kbinfo.setType(type.toString().toLowerCase());
         }
 
+        // KB cache
+        RDFNode cache = getObject(kb, LIMES.cache, false);
+        if (cache != null) {
+            kbinfo.setCache(cache.toString().toLowerCase());
+        }
+
         // Prefixes
         kbinfo.setPrefixes(configuration.getPrefixes());
     }
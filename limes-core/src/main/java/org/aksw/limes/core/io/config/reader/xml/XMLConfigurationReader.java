@@ -56,6 +56,7 @@ public class XMLConfigurationReader extends AConfigurationReader {
     protected static final String SOURCE = "SOURCE";
     protected static final String PREFIX = "PREFIX";
     protected static final String PAGESIZE = "PAGESIZE";
+    protected static final String CACHE = "CACHE";
     protected static final String ENDPOINT = "ENDPOINT";
     protected static final String GRAPH = "GRAPH";
     protected static final String RESTRICTION = "RESTRICTION";
@@ -259,6 +260,8 @@ public class XMLConfigurationReader extends AConfigurationReader {
                 kbinfo.setVar(getText(child));
             } else if (child.getNodeName().equals(TYPE)) {
                 kbinfo.setType(getText(child));
+            } else if (child.getNodeName().equals(CACHE)) {
+                kbinfo.setCache(getText(child).trim().toLowerCase());
             } else if (child.getNodeName().equals(FUNCTION)) {
                 setComplexFunction(kbinfo, getText(child));
             }
@@ -85,6 +85,7 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
 		m.add(source, LIMES.type, String.valueOf(configuration.getSourceInfo().getType()));
 		m.add(source, LIMES.variable, configuration.getSourceInfo().getVar());
 		m.add(source, LIMES.pageSize, String.valueOf(configuration.getSourceInfo().getPageSize()));
+		m.add(source, LIMES.cache, configuration.getSourceInfo().getCache());
 		for (String r : configuration.getSourceInfo().getRestrictions()) {
 			m.add(source, LIMES.restriction, r);
 		}
@@ -112,6 +113,7 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
 		m.add(target, LIMES.type, String.valueOf(configuration.getTargetInfo().getType()));
 		m.add(target, LIMES.variable, configuration.getTargetInfo().getVar() + "");
 		m.add(target, LIMES.pageSize, String.valueOf(configuration.getTargetInfo().getPageSize()));
+		m.add(target, LIMES.cache, configuration.getTargetInfo().getCache());
 		for (String r : configuration.getTargetInfo().getRestrictions()) {
 			m.add(target, LIMES.restriction, r);
 		}
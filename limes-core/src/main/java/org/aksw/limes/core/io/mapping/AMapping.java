@@ -113,9 +113,6 @@ public abstract class AMapping implements IMapping {
         result = prime * result + ((map == null) ? 0 : map.hashCode());
         result = prime * result
                 + ((predicate == null) ? 0 : predicate.hashCode());
-        result = prime * result
-                + ((reversedMap == null) ? 0 : reversedMap.hashCode());
-        result = prime * result + size;
         return result;
     }
 
@@ -125,6 +122,9 @@ public abstract class AMapping implements IMapping {
             return true;
         if (obj == null)
             return false;
+        // indexed mappings are compared by their links
+        if (obj instanceof IndexedMapping)
+            return obj.equals(this);
         if (getClass() != obj.getClass())
             return false;
         AMapping other = (AMapping) obj;
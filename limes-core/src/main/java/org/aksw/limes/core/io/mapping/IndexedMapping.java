@@ -0,0 +1,712 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.cache.StringDictionary;
+
+/**
+ * Mapping for very large link sets. URIs are replaced by integer ids and each
+ * link is stored as a primitive (source id, target id) key and a primitive
+ * confidence, so that neither the URIs nor the confidences are duplicated or
+ * boxed per link.
+ *
+ * The ids are taken from a base dictionary, e.g. the URI dictionary of a
+ * {@link org.aksw.limes.core.io.cache.ColumnarCache}, which is only read.
+ * URIs that are not in the base dictionary are added to a local dictionary
+ * that is shared by all mappings derived from this one. Links are kept in a
+ * sorted run of unique keys plus an unsorted tail of recently added links,
+ * the tail is sorted and merged into the run when needed. Union, intersection
+ * and difference of mappings with the same dictionaries are computed by
+ * merging their sorted runs.
+ *
+ * As for {@link MemoryMapping}, adding (s, t, sim2) when (s, t, sim1) is
+ * already in the mapping results in (s, t, max(sim1, sim2)).
+ * {@link #getReversedMap()} returns a copy that is built on demand.
+ * {@link #getMap()} moves the links into nested maps, as kept by
+ * {@link MemoryMapping}, so that changes through the returned map are not
+ * lost, hence it should be avoided for large mappings. Mappings are equal to
+ * other mappings, e.g. memory mappings, with the same links and predicate.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public class IndexedMapping extends AMapping {
+
+    private static final long serialVersionUID = 5270186432185064347L;
+
+    // maximal number of unsorted links that are scanned instead of merged
+    private static final int MAX_TAIL_SCAN = 1024;
+
+    protected StringDictionary sourceBase;
+    protected StringDictionary targetBase;
+    protected StringDictionary sourceLocal;
+    protected StringDictionary targetLocal;
+
+    protected long[] keys;
+    protected double[] confidences;
+    // number of links
+    protected int links = 0;
+    // the links 0 to sorted - 1 are sorted by key and unique
+    protected int sorted = 0;
+
+    // the links once getMap() handed them out as nested maps, else null
+    private MemoryMapping memory = null;
+
+    protected IndexedMapping() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a mapping keyed to the given dictionaries, which are not
+     * modified by the mapping.
+     *
+     * @param sourceUris
+     *            Dictionary of the source URIs or null
+     * @param targetUris
+     *            Dictionary of the target URIs or null
+     */
+    protected IndexedMapping(StringDictionary sourceUris, StringDictionary targetUris) {
+        this(sourceUris, targetUris, new StringDictionary(), new StringDictionary(), 16);
+    }
+
+    private IndexedMapping(StringDictionary sourceBase, StringDictionary targetBase, StringDictionary sourceLocal,
+            StringDictionary targetLocal, int capacity) {
+        super();
+        this.sourceBase = sourceBase;
+        this.targetBase = targetBase;
+        this.sourceLocal = sourceLocal;
+        this.targetLocal = targetLocal;
+        this.keys = new long[Math.max(capacity, 16)];
+        this.confidences = new double[keys.length];
+    }
+
+    /**
+     * @return an empty mapping with the same dictionaries
+     */
+    IndexedMapping createSibling(int capacity) {
+        IndexedMapping m = new IndexedMapping(sourceBase, targetBase, sourceLocal, targetLocal, capacity);
+        m.predicate = predicate;
+        return m;
+    }
+
+    private boolean hasSameDictionaries(IndexedMapping other) {
+        return sourceBase == other.sourceBase && targetBase == other.targetBase && sourceLocal == other.sourceLocal
+                && targetLocal == other.targetLocal;
+    }
+
+    /**
+     * Ids of the base dictionary are non-negative, ids of the local
+     * dictionary are negative.
+     *
+     * @return the id of uri or Integer.MIN_VALUE if uri is unknown and create
+     *         is false
+     */
+    private static int getId(StringDictionary base, StringDictionary local, String uri, boolean create) {
+        if (base != null) {
+            int id = base.getId(uri);
+            if (id >= 0) {
+                return id;
+            }
+        }
+        // local dictionaries are shared between mappings
+        synchronized (local) {
+            int id = create ? local.add(uri) : local.getId(uri);
+            return id < 0 ? Integer.MIN_VALUE : -id - 1;
+        }
+    }
+
+    private static String getUri(StringDictionary base, StringDictionary local, int id) {
+        if (id >= 0) {
+            return base.get(id);
+        }
+        synchronized (local) {
+            return local.get(-id - 1);
+        }
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    private static int sourceId(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int targetId(long key) {
+        return (int) key;
+    }
+
+    private String getSource(long key) {
+        return getUri(sourceBase, sourceLocal, sourceId(key));
+    }
+
+    private String getTarget(long key) {
+        return getUri(targetBase, targetLocal, targetId(key));
+    }
+
+    /**
+     * Appends a link without looking for duplicates.
+     */
+    private void append(long key, double confidence) {
+        if (links == keys.length) {
+            int capacity = links + (links >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            confidences = Arrays.copyOf(confidences, capacity);
+        }
+        keys[links] = key;
+        confidences[links] = confidence;
+        links++;
+    }
+
+    /**
+     * Sorts the tail and merges it into the sorted run.
+     */
+    protected synchronized void compact() {
+        if (memory != null || sorted == links) {
+            return;
+        }
+        sort(keys, confidences, sorted, links - 1);
+        int tail = unique(keys, confidences, sorted, links);
+        if (sorted == 0) {
+            links = tail;
+        } else {
+            long[] newKeys = new long[keys.length];
+            double[] newConfidences = new double[keys.length];
+            links = merge(keys, confidences, 0, sorted, keys, confidences, sorted, tail, newKeys, newConfidences,
+                    MERGE_UNION);
+            keys = newKeys;
+            confidences = newConfidences;
+        }
+        sorted = links;
+    }
+
+    /**
+     * Removes duplicate keys from a sorted range, keeping the maximal
+     * confidence.
+     *
+     * @return the end of the range after removing the duplicates
+     */
+    private static int unique(long[] keys, double[] confidences, int from, int to) {
+        if (from == to) {
+            return to;
+        }
+        int last = from;
+        for (int i = from + 1; i < to; i++) {
+            if (keys[i] == keys[last]) {
+                confidences[last] = Math.max(confidences[last], confidences[i]);
+            } else {
+                last++;
+                keys[last] = keys[i];
+                confidences[last] = confidences[i];
+            }
+        }
+        return last + 1;
+    }
+
+    private static void sort(long[] keys, double[] confidences, int left, int right) {
+        while (right - left > 16) {
+            long pivot = keys[(left + right) >>> 1];
+            int i = left, j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, confidences, i++, j--);
+                }
+            }
+            // recurse into the smaller part
+            if (j - left < right - i) {
+                sort(keys, confidences, left, j);
+                left = i;
+            } else {
+                sort(keys, confidences, i, right);
+                right = j;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            for (int j = i; j > left && keys[j - 1] > keys[j]; j--) {
+                swap(keys, confidences, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(long[] keys, double[] confidences, int i, int j) {
+        long k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        double c = confidences[i];
+        confidences[i] = confidences[j];
+        confidences[j] = c;
+    }
+
+    private static final int MERGE_UNION = 0;
+    private static final int MERGE_INTERSECTION = 1;
+    private static final int MERGE_DIFFERENCE = 2;
+
+    /**
+     * Merges two sorted runs of unique keys. The union keeps the maximal and
+     * the intersection the minimal confidence, the difference keeps the links
+     * of the first run that are not in the second one.
+     *
+     * @return the number of links written to the output arrays
+     */
+    private static int merge(long[] keys1, double[] conf1, int from1, int to1, long[] keys2, double[] conf2,
+            int from2, int to2, long[] outKeys, double[] outConf, int operation) {
+        int i = from1, j = from2, n = 0;
+        while (i < to1 && j < to2) {
+            if (keys1[i] < keys2[j]) {
+                if (operation != MERGE_INTERSECTION) {
+                    outKeys[n] = keys1[i];
+                    outConf[n++] = conf1[i];
+                }
+                i++;
+            } else if (keys1[i] > keys2[j]) {
+                if (operation == MERGE_UNION) {
+                    outKeys[n] = keys2[j];
+                    outConf[n++] = conf2[j];
+                }
+                j++;
+            } else {
+                if (operation == MERGE_UNION) {
+                    outKeys[n] = keys1[i];
+                    outConf[n++] = Math.max(conf1[i], conf2[j]);
+                } else if (operation == MERGE_INTERSECTION) {
+                    outKeys[n] = keys1[i];
+                    outConf[n++] = Math.min(conf1[i], conf2[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        if (operation != MERGE_INTERSECTION) {
+            for (; i < to1; i++) {
+                outKeys[n] = keys1[i];
+                outConf[n++] = conf1[i];
+            }
+        }
+        if (operation == MERGE_UNION) {
+            for (; j < to2; j++) {
+                outKeys[n] = keys2[j];
+                outConf[n++] = conf2[j];
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return the position of key or -1 if the mapping does not contain key
+     */
+    private synchronized int find(long key) {
+        if (links - sorted > MAX_TAIL_SCAN) {
+            compact();
+        }
+        int best = Arrays.binarySearch(keys, 0, sorted, key);
+        if (best < 0) {
+            best = -1;
+        }
+        // the tail may contain duplicates, hence look for the maximum
+        for (int i = sorted; i < links; i++) {
+            if (keys[i] == key && (best < 0 || confidences[i] > confidences[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the position of (source, target) or -1
+     */
+    private int find(String source, String target) {
+        int s = getId(sourceBase, sourceLocal, source, false);
+        int t = getId(targetBase, targetLocal, target, false);
+        if (s == Integer.MIN_VALUE || t == Integer.MIN_VALUE) {
+            return -1;
+        }
+        return find(key(s, t));
+    }
+
+    /**
+     * Returns this mapping if it uses the same dictionaries as other, else a
+     * copy of this mapping that uses the dictionaries of other.
+     */
+    private IndexedMapping withDictionariesOf(IndexedMapping other) {
+        compact();
+        if (hasSameDictionaries(other)) {
+            return this;
+        }
+        IndexedMapping m = other.createSibling(links);
+        for (int i = 0; i < links; i++) {
+            m.add(getSource(keys[i]), getTarget(keys[i]), confidences[i]);
+        }
+        m.compact();
+        return m;
+    }
+
+    /**
+     * Returns this mapping if its links are kept as keys, else a copy of its
+     * links as keys with the same dictionaries.
+     */
+    private synchronized IndexedMapping indexed() {
+        if (memory == null) {
+            compact();
+            return this;
+        }
+        IndexedMapping m = createSibling(memory.getNumberofMappings());
+        for (Entry<String, HashMap<String, Double>> s : memory.getMap().entrySet()) {
+            m.add(s.getKey(), s.getValue());
+        }
+        m.compact();
+        return m;
+    }
+
+    private IndexedMapping merge(IndexedMapping other, int operation) {
+        IndexedMapping m1 = indexed();
+        IndexedMapping m2 = other.indexed().withDictionariesOf(m1);
+        int capacity = operation == MERGE_UNION ? m1.links + m2.links : m1.links;
+        IndexedMapping result = m1.createSibling(capacity);
+        result.links = merge(m1.keys, m1.confidences, 0, m1.links, m2.keys, m2.confidences, 0, m2.links,
+                result.keys, result.confidences, operation);
+        result.sorted = result.links;
+        return result;
+    }
+
+    /**
+     * Union of two mappings, the maximal confidence is kept for links that
+     * are in both mappings.
+     *
+     * @param other
+     *            the second mapping
+     * @return the union of both mappings
+     */
+    public IndexedMapping union(IndexedMapping other) {
+        return merge(other, MERGE_UNION);
+    }
+
+    /**
+     * Intersection of two mappings, the minimal confidence is kept.
+     *
+     * @param other
+     *            the second mapping
+     * @return the intersection of both mappings
+     */
+    public IndexedMapping intersection(IndexedMapping other) {
+        return merge(other, MERGE_INTERSECTION);
+    }
+
+    /**
+     * @param other
+     *            the second mapping
+     * @return all links of this mapping that are not in other
+     */
+    public IndexedMapping difference(IndexedMapping other) {
+        return merge(other, MERGE_DIFFERENCE);
+    }
+
+    @Override
+    public synchronized double getConfidence(String source, String target) {
+        if (memory != null) {
+            return memory.getConfidence(source, target);
+        }
+        int position = find(source, target);
+        return position < 0 ? 0 : confidences[position];
+    }
+
+    @Override
+    public synchronized boolean contains(String source, String target) {
+        if (memory != null) {
+            return memory.contains(source, target);
+        }
+        return find(source, target) >= 0;
+    }
+
+    @Override
+    public synchronized void add(String source, String target, double confidence) {
+        if (memory != null) {
+            memory.add(source, target, confidence);
+            return;
+        }
+        int s = getId(sourceBase, sourceLocal, source, true);
+        int t = getId(targetBase, targetLocal, target, true);
+        append(key(s, t), confidence);
+    }
+
+    @Override
+    public void add(String source, HashMap<String, Double> targets) {
+        for (String target : targets.keySet()) {
+            add(source, target, targets.get(target));
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        if (memory != null) {
+            // the nested maps may have been changed directly
+            return memory.getNumberofMappings();
+        }
+        compact();
+        return links;
+    }
+
+    @Override
+    public int getSize() {
+        return size();
+    }
+
+    @Override
+    public int getNumberofMappings() {
+        return size();
+    }
+
+    @Override
+    public synchronized int getNumberofPositiveMappings() {
+        if (memory != null) {
+            return memory.getNumberofPositiveMappings();
+        }
+        compact();
+        int n = 0;
+        for (int i = 0; i < links; i++) {
+            if (confidences[i] > 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized AMapping getOnlyPositiveExamples() {
+        if (memory != null) {
+            return memory.getOnlyPositiveExamples();
+        }
+        compact();
+        IndexedMapping m = createSibling(links);
+        for (int i = 0; i < links; i++) {
+            if (confidences[i] > 0) {
+                m.keys[m.links] = keys[i];
+                m.confidences[m.links++] = confidences[i];
+            }
+        }
+        m.sorted = m.links;
+        return m;
+    }
+
+    @Override
+    public synchronized AMapping getSubMap(double threshold) {
+        if (memory != null) {
+            return memory.getSubMap(threshold);
+        }
+        compact();
+        IndexedMapping m = createSibling(links);
+        for (int i = 0; i < links; i++) {
+            if (confidences[i] >= threshold) {
+                m.keys[m.links] = keys[i];
+                m.confidences[m.links++] = confidences[i];
+            }
+        }
+        m.sorted = m.links;
+        return m;
+    }
+
+    /**
+     * Computes the best one to n mapping for the current mapping, i.e., for
+     * each element of the source, it gets the best t from target.
+     *
+     * @return Best one to n mapping
+     */
+    @Override
+    public synchronized AMapping getBestOneToNMapping() {
+        if (memory != null) {
+            return memory.getBestOneToNMapping();
+        }
+        compact();
+        IndexedMapping m = createSibling(16);
+        int first = 0;
+        // links are sorted by source, so that each source is a block
+        while (first < links) {
+            int source = sourceId(keys[first]);
+            int last = first;
+            double maxSim = 0;
+            while (last < links && sourceId(keys[last]) == source) {
+                maxSim = Math.max(maxSim, confidences[last]);
+                last++;
+            }
+            for (int i = first; i < last; i++) {
+                if (confidences[i] == maxSim) {
+                    m.append(keys[i], maxSim);
+                }
+            }
+            first = last;
+        }
+        m.sorted = m.links;
+        return m;
+    }
+
+    @Override
+    public synchronized AMapping reverseSourceTarget() {
+        if (memory != null) {
+            return memory.reverseSourceTarget();
+        }
+        compact();
+        IndexedMapping m = new IndexedMapping(targetBase, sourceBase, targetLocal, sourceLocal, links);
+        m.predicate = predicate;
+        for (int i = 0; i < links; i++) {
+            m.append(key(targetId(keys[i]), sourceId(keys[i])), confidences[i]);
+        }
+        m.compact();
+        return m;
+    }
+
+    /**
+     * Moves the links into nested maps, which are returned and used by the
+     * mapping from now on, so that changes through them are kept.
+     */
+    @Override
+    public synchronized HashMap<String, HashMap<String, Double>> getMap() {
+        if (memory == null) {
+            compact();
+            memory = new MemoryMapping();
+            for (int i = 0; i < links; i++) {
+                memory.add(getSource(keys[i]), getTarget(keys[i]), confidences[i]);
+            }
+            keys = new long[16];
+            confidences = new double[16];
+            links = 0;
+            sorted = 0;
+            map = memory.getMap();
+        }
+        return memory.getMap();
+    }
+
+    /**
+     * Replaces the content of the mapping.
+     */
+    @Override
+    public synchronized void setMap(HashMap<String, HashMap<String, Double>> map) {
+        memory = null;
+        this.map = new HashMap<>();
+        links = 0;
+        sorted = 0;
+        for (String source : map.keySet()) {
+            add(source, map.get(source));
+        }
+    }
+
+    @Override
+    public synchronized HashMap<Double, HashMap<String, TreeSet<String>>> getReversedMap() {
+        if (memory != null) {
+            memory.initReversedMap();
+            return memory.getReversedMap();
+        }
+        compact();
+        HashMap<Double, HashMap<String, TreeSet<String>>> reversed = new HashMap<>();
+        for (int i = 0; i < links; i++) {
+            String source = getSource(keys[i]);
+            if (!reversed.containsKey(confidences[i])) {
+                reversed.put(confidences[i], new HashMap<>());
+            }
+            if (!reversed.get(confidences[i]).containsKey(source)) {
+                reversed.get(confidences[i]).put(source, new TreeSet<>());
+            }
+            reversed.get(confidences[i]).get(source).add(getTarget(keys[i]));
+        }
+        return reversed;
+    }
+
+    /**
+     * The size is derived from the links and cannot be set.
+     */
+    @Override
+    public void setSize(int size) {
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (memory != null) {
+            return memory.toString();
+        }
+        compact();
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < links; i++) {
+            s.append("[").append(getSource(keys[i])).append(" -> (").append(getTarget(keys[i])).append("|")
+                    .append(confidences[i]).append(")]\n");
+        }
+        return s.toString();
+    }
+
+    /**
+     * Consistent with {@link AMapping#hashCode()}, i.e. the hash of the links
+     * as nested maps, which are not built.
+     */
+    @Override
+    public synchronized int hashCode() {
+        int linksHash;
+        if (memory != null) {
+            linksHash = memory.getMap().hashCode();
+        } else {
+            compact();
+            linksHash = 0;
+            int first = 0;
+            // links are sorted by source, so that each source is a block
+            while (first < links) {
+                int source = sourceId(keys[first]);
+                int targetsHash = 0;
+                int last = first;
+                for (; last < links && sourceId(keys[last]) == source; last++) {
+                    targetsHash += getTarget(keys[last]).hashCode() ^ Double.hashCode(confidences[last]);
+                }
+                linksHash += getSource(keys[first]).hashCode() ^ targetsHash;
+                first = last;
+            }
+        }
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + linksHash;
+        result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+        return result;
+    }
+
+    /**
+     * A mapping is equal to any mapping with the same predicate and the same
+     * links.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof AMapping))
+            return false;
+        AMapping other = (AMapping) obj;
+        if (predicate == null) {
+            if (other.predicate != null)
+                return false;
+        } else if (!predicate.equals(other.predicate))
+            return false;
+        if (size() != other.getNumberofMappings())
+            return false;
+        // the links of both mappings are read without holding both locks
+        IndexedMapping m1 = indexed();
+        if (other instanceof IndexedMapping) {
+            IndexedMapping m2 = ((IndexedMapping) other).indexed();
+            if (m1.hasSameDictionaries(m2)) {
+                for (int i = 0; i < m1.links; i++) {
+                    if (m1.keys[i] != m2.keys[i] || m1.confidences[i] != m2.confidences[i])
+                        return false;
+                }
+                return true;
+            }
+        }
+        for (int i = 0; i < m1.links; i++) {
+            String source = m1.getSource(m1.keys[i]);
+            String target = m1.getTarget(m1.keys[i]);
+            if (!other.contains(source, target) || other.getConfidence(source, target) != m1.confidences[i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -1,6 +1,9 @@
 package org.aksw.limes.core.io.mapping;
 
 
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.ColumnarCache;
+import org.aksw.limes.core.io.cache.StringDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,15 +36,82 @@ public class MappingFactory {
             return new HybridMapping();
         if (type == MappingType.FILE_MAPPING)
             return new FileMapping();
+        if (type == MappingType.INDEXED_MAPPING)
+            return new IndexedMapping();
         logger.warn("Sorry, " + type + " is not yet implemented. Generating " + MappingType.DEFAULT + " map ...");
         return createDefaultMapping();
     }
 
+    /**
+     * @param sourceUris dictionary of the source URIs, e.g. of a {@link ColumnarCache}
+     * @param targetUris dictionary of the target URIs, e.g. of a {@link ColumnarCache}
+     * @return an {@link IndexedMapping} keyed to the given dictionaries
+     */
+    public static IndexedMapping createIndexedMapping(StringDictionary sourceUris, StringDictionary targetUris) {
+        return new IndexedMapping(sourceUris, targetUris);
+    }
+
+    /**
+     * @param source cache of the source instances
+     * @param target cache of the target instances
+     * @return an {@link IndexedMapping} keyed to the URI dictionaries of the caches
+     */
+    public static IndexedMapping createIndexedMapping(ColumnarCache source, ColumnarCache target) {
+        return new IndexedMapping(source.getUriDictionary(), target.getUriDictionary());
+    }
+
+    /**
+     * @param source cache of the source instances
+     * @param target cache of the target instances
+     * @return an {@link IndexedMapping} keyed to the caches if both are
+     *         {@link ColumnarCache}s, else the default mapping
+     */
+    public static AMapping createMapping(ACache source, ACache target) {
+        if (source instanceof ColumnarCache && target instanceof ColumnarCache) {
+            return createIndexedMapping((ColumnarCache) source, (ColumnarCache) target);
+        }
+        return createDefaultMapping();
+    }
+
+    /**
+     * @param mapping a mapping
+     * @return an empty mapping of the same kind, i.e. an {@link IndexedMapping}
+     *         with the same dictionaries for an {@link IndexedMapping}, else
+     *         the default mapping
+     */
+    public static AMapping createMapping(AMapping mapping) {
+        if (mapping instanceof IndexedMapping) {
+            return ((IndexedMapping) mapping).createSibling(16);
+        }
+        return createDefaultMapping();
+    }
+
+    /**
+     * @param mapping a mapping
+     * @param source cache of the source instances
+     * @param target cache of the target instances
+     * @return the mapping if it is the kind of mapping created by
+     *         {@link #createMapping(ACache, ACache)} for the caches, else a copy
+     *         of the mapping of that kind
+     */
+    public static AMapping toMapping(AMapping mapping, ACache source, ACache target) {
+        if (!(source instanceof ColumnarCache && target instanceof ColumnarCache)
+                || mapping instanceof IndexedMapping) {
+            return mapping;
+        }
+        AMapping result = createMapping(source, target);
+        for (String s : mapping.getMap().keySet()) {
+            result.add(s, mapping.getMap().get(s));
+        }
+        return result;
+    }
+
     public enum MappingType {
         DEFAULT, // currently memory mapping
         MEMORY_MAPPING,
         HYBIRD_MAPPING,
-        FILE_MAPPING
+        FILE_MAPPING,
+        INDEXED_MAPPING
     }
 
 
@@ -329,8 +329,9 @@ public class MemoryMapping extends AMapping{
         AMapping result = MappingFactory.createDefaultMapping();
         result.map.putAll(this.map);
         result.size = size();
-        for (String s : other.map.keySet()) {
-            result.add(s, other.map.get(s));
+        HashMap<String, HashMap<String, Double>> otherMap = other.getMap();
+        for (String s : otherMap.keySet()) {
+            result.add(s, otherMap.get(s));
             // for(Entry<String, Double> t : other.map.get(s).entrySet()) {
             // if(result.contains(s, t.getKey())) {
             // double val = Math.max(result.getSimilarity(s,
@@ -1,9 +1,13 @@
 package org.aksw.limes.core.io.preprocessing;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.ColumnarCache;
 import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +18,16 @@ import org.slf4j.LoggerFactory;
  */
 public class Preprocessor {
 	static Logger logger = LoggerFactory.getLogger(Preprocessor.class.getName());
+
+	/**
+	 * Minimal number of instances that are processed in one task
+	 */
+	static final int MIN_PARTITION_SIZE = 1024;
+
+	/**
+	 * Number of instances of a {@link ColumnarCache} that are materialized at once
+	 */
+	static final int COLUMNAR_CHUNK_SIZE = 64 * MIN_PARTITION_SIZE;
 	
 
 	/**
@@ -40,32 +54,111 @@ public class Preprocessor {
 		}else{
 			cacheClone = cache;
 		}
+		//The chains only change the instance they are applied to, so the instances are processed in parallel
+		List<FunctionChain> chains = compileFunctions(functions);
+		if (cacheClone instanceof ColumnarCache) {
+			applyFunctionsToColumnarCache((ColumnarCache) cacheClone, chains);
+			return cacheClone;
+		}
+		List<Instance> instances = cacheClone.getAllInstances();
+		applyChains(instances, chains);
+		cacheClone.modified();
+		return cacheClone;
+	}
+
+	/**
+	 * The instances of a columnar cache are copies of its columns, so the
+	 * processed instances are written back. The instances are processed in
+	 * chunks to avoid materializing the whole cache at once.
+	 */
+	private static void applyFunctionsToColumnarCache(ColumnarCache cache, List<FunctionChain> chains) {
+		if (chains.isEmpty()) {
+			return;
+		}
+		List<String> uris = cache.getAllUris();
+		for (int start = 0; start < uris.size(); start += COLUMNAR_CHUNK_SIZE) {
+			List<Instance> instances = new ArrayList<>();
+			for (String uri : uris.subList(start, Math.min(start + COLUMNAR_CHUNK_SIZE, uris.size()))) {
+				instances.add(cache.getInstance(uri));
+			}
+			applyChains(instances, chains);
+			// the columns must not be written concurrently
+			for (Instance inst : instances) {
+				cache.replaceInstance(inst.getUri(), inst);
+			}
+		}
+	}
+
+	private static void applyChains(List<Instance> instances, List<FunctionChain> chains) {
+		ComputeExecutor.invokePartitioned(instances.size(), MIN_PARTITION_SIZE, (from, to) -> {
+			for (Instance inst : instances.subList(from, to)) {
+				for (FunctionChain chain : chains) {
+					chain.apply(inst);
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Resolves the functions of each function chain and their arguments once, in the order in which the chains are applied
+	 * @param functions preprocessing functions that will be applied
+	 * @return the compiled function chains
+	 */
+	public static List<FunctionChain> compileFunctions(Map<String, Map<String, String>> functions) {
+		List<FunctionChain> chains = new ArrayList<>();
 		functions.forEach((property, innerMap) -> {
 			innerMap.forEach((propertyDub, functionChain) -> {
-				for(Instance inst : cacheClone.getAllInstances()){
-                    logger.debug("Function chain = " + functionChain);
-                    applyRenameIfNecessary(inst, property, propertyDub);
-                    if (functionChain != null) {
-                        if (!functionChain.equals("")) {
-                            String split[] = functionChain.split("->");
-                            for (int i = 0; i < split.length; i++) {
-                                String functionId = getFunctionId(split[i]);
-                                PreprocessingFunctionType type = PreprocessingFunctionFactory
-                                        .getPreprocessingType(functionId);
-                                APreprocessingFunction func = PreprocessingFunctionFactory.getPreprocessingFunction(type);
-                                String[] arguments = func.retrieveArguments(split[i]);
-                                if (arguments.length > 0) {
-                                    func.applyFunction(inst, propertyDub, arguments);
-                                } else {
-                                    func.applyFunction(inst, propertyDub);
-                                }
-                            }
-                        }
-                    }
-				}
+				logger.debug("Function chain = " + functionChain);
+				chains.add(new FunctionChain(property, propertyDub, functionChain));
 			});
 		});
-		return cacheClone;
+		return chains;
+	}
+
+	/**
+	 * Function chain of a property whose functions and arguments are resolved once, so that it can be applied to many instances
+	 * concurrently
+	 */
+	public static class FunctionChain {
+		private final String property;
+		private final String propertyDub;
+		private final List<APreprocessingFunction> functions = new ArrayList<>();
+		private final List<String[]> arguments = new ArrayList<>();
+
+		/**
+		 * @param property property that is renamed to propertyDub if they differ
+		 * @param propertyDub property on which the functions are applied
+		 * @param functionChain functions separated by <code>-&gt;</code>, may be null or empty
+		 */
+		public FunctionChain(String property, String propertyDub, String functionChain) {
+			this.property = property;
+			this.propertyDub = propertyDub;
+			if (functionChain != null && !functionChain.equals("")) {
+				for (String function : functionChain.split("->")) {
+					PreprocessingFunctionType type = PreprocessingFunctionFactory
+							.getPreprocessingType(getFunctionId(function));
+					APreprocessingFunction func = PreprocessingFunctionFactory.getPreprocessingFunction(type);
+					functions.add(func);
+					arguments.add(func.retrieveArguments(function));
+				}
+			}
+		}
+
+		/**
+		 * Applies the renaming and the functions of the chain to an instance
+		 * @param inst the instance that will be preprocessed
+		 */
+		public void apply(Instance inst) {
+			applyRenameIfNecessary(inst, property, propertyDub);
+			for (int i = 0; i < functions.size(); i++) {
+				if (arguments.get(i).length > 0) {
+					functions.get(i).applyFunction(inst, propertyDub, arguments.get(i));
+				} else {
+					functions.get(i).applyFunction(inst, propertyDub);
+				}
+			}
+		}
 	}
 
 	public static void applyRenameIfNecessary(Instance inst, String property, String propertyDub) {
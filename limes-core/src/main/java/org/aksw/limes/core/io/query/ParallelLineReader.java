@@ -0,0 +1,174 @@
+package org.aksw.limes.core.io.query;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads a line-based file in chunks. The file is split into chunks of about
+ * chunkSize bytes at line boundaries, each chunk is memory-mapped and its
+ * lines are parsed into a batch by one of parallelism worker threads. The
+ * batches are handed to the calling thread in the order of the chunks, and
+ * at most parallelism chunks are parsed at any time so that the memory
+ * footprint does not depend on the size of the file.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+class ParallelLineReader {
+
+    static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Parses a single line into a batch. Implementations are called
+     * concurrently for different batches.
+     */
+    interface LineParser<B> {
+        void parse(String line, B batch);
+    }
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    ParallelLineReader(int parallelism, int chunkSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * @param file
+     *         File to read
+     * @param start
+     *         Position of the first line to read, must be at a line boundary
+     * @param batches
+     *         Creates an empty batch for each chunk
+     * @param parser
+     *         Parses the lines of a chunk into its batch
+     * @param consumer
+     *         Receives the parsed batches in the order of the chunks
+     * @throws IOException
+     *         if the file could not be read
+     */
+    <B> void read(File file, long start, Supplier<B> batches, LineParser<B> parser, Consumer<B> consumer)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            Deque<Future<B>> inFlight = new ArrayDeque<>();
+            long position = start;
+            try {
+                while (position < size || !inFlight.isEmpty()) {
+                    while (position < size && inFlight.size() < parallelism) {
+                        long end = nextLineStart(channel, Math.min(size, position + chunkSize), size);
+                        if (end - position > Integer.MAX_VALUE) {
+                            throw new IOException("Line at position " + position + " of " + file + " is too long");
+                        }
+                        final long from = position;
+                        inFlight.add(executor.submit(() -> parse(channel, from, end, batches.get(), parser)));
+                        position = end;
+                    }
+                    consumer.accept(inFlight.poll().get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + file, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IOException("Could not read " + file, e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static <B> B parse(FileChannel channel, long from, long to, B batch, LineParser<B> parser)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int limit = buffer.limit();
+        byte[] line = new byte[1024];
+        int lineStart = 0;
+        // skip the byte order mark of UTF-8 files
+        if (from == 0 && limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF) {
+            lineStart = 3;
+        }
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - lineStart;
+            if (length > 0 && buffer.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+            if (length > line.length) {
+                line = new byte[Math.max(length, 2 * line.length)];
+            }
+            buffer.position(lineStart);
+            buffer.get(line, 0, length);
+            parser.parse(new String(line, 0, length, StandardCharsets.UTF_8), batch);
+            lineStart = lineEnd + 1;
+        }
+        return batch;
+    }
+
+    /**
+     * @return the position after the next line break at or after position, or
+     *         size if there is none
+     */
+    static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * @return the first line of the channel without its line break
+     */
+    static String readFirstLine(FileChannel channel) throws IOException {
+        long end = nextLineStart(channel, 0, channel.size());
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(end, Integer.MAX_VALUE));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) <= 0) {
+                break;
+            }
+        }
+        int length = buffer.position();
+        while (length > 0 && (buffer.get(length - 1) == '\n' || buffer.get(length - 1) == '\r')) {
+            length--;
+        }
+        int offset = 0;
+        if (length >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            offset = 3;
+        }
+        return new String(buffer.array(), offset, length - offset, StandardCharsets.UTF_8);
+    }
+}
@@ -16,6 +16,10 @@ public class QueryModuleFactory {
 
     public static IQueryModule getQueryModule(String name, KBInfo kbinfo) {
         logger.info("Generating <" + name + "> reader");
+        //streams large files into the cache
+        if (name.toLowerCase().startsWith("stream-")) {
+            return getStreamingQueryModule(name.toLowerCase().substring("stream-".length()), kbinfo);
+        }
         if (name.toLowerCase().startsWith("csv")) {
             return new CsvQueryModule(kbinfo);
         }
@@ -38,6 +42,8 @@ public class QueryModuleFactory {
         else if (name.toLowerCase().startsWith("rdf") || name.toLowerCase().startsWith("xml")) {
             kbinfo.setType("RDF/XML");
             return new FileQueryModule(kbinfo);
+        } else if (name.toLowerCase().startsWith("sparql-parallel")) {
+            return new SparqlQueryModule(kbinfo, SparqlQueryModule.getDefaultParallelism());
         } else if (name.toLowerCase().startsWith("sparql")) {
             return new SparqlQueryModule(kbinfo);
         } else if (name.toLowerCase().startsWith("vector")) {
@@ -46,4 +52,22 @@ public class QueryModuleFactory {
         //default
         return new ResilientSparqlQueryModule(kbinfo);
     }
+
+    private static IQueryModule getStreamingQueryModule(String name, KBInfo kbinfo) {
+        if (name.startsWith("csv")) {
+            return new StreamingCsvQueryModule(kbinfo);
+        } else if (name.startsWith("tsv") || name.startsWith("tab")) {
+            StreamingCsvQueryModule module = new StreamingCsvQueryModule(kbinfo);
+            module.setSeparation("\t");
+            return module;
+        } else if (name.startsWith("nt") || name.startsWith("n-triple")) {
+            kbinfo.setType("N-TRIPLE");
+        } else if (name.startsWith("turtle") || name.startsWith("ttl") || name.startsWith("n3")) {
+            kbinfo.setType("TURTLE");
+        } else {
+            logger.warn("Cannot stream <" + name + ">, generating default reader");
+            return getQueryModule(name, kbinfo);
+        }
+        return new StreamingFileQueryModule(kbinfo);
+    }
 }
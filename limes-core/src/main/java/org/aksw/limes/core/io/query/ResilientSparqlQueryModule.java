@@ -29,8 +29,6 @@ public class ResilientSparqlQueryModule extends SparqlQueryModule implements IQu
    
     protected Logger logger = LoggerFactory.getLogger(ResilientSparqlQueryModule.class);
     
-    protected int retryCount = 5;
-    protected int retryDelayInMS = 500;
     protected int requestDelayInMs = 50;
     protected int pageSize = 900;
     protected long timeToLive = 24l * 60l * 60l * 1000l;
@@ -1,8 +1,16 @@
 package org.aksw.limes.core.io.query;
 
 import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.KBInfo;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecution;
@@ -17,17 +25,71 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Reads the data of a knowledge base from a SPARQL endpoint (or a registered
+ * Jena model) page by page using LIMIT and OFFSET. With a parallelism greater
+ * than 1, several pages are retrieved concurrently. At most parallelism pages
+ * are in flight or waiting to be written at any time, failed pages are
+ * retried as configured by retryCount and retryDelayInMS, and the pages are
+ * written into the cache by the calling thread either in the order of their
+ * offsets or in the order in which they arrive.
+ *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class SparqlQueryModule implements IQueryModule {
 
+    /**
+     * Number of concurrent requests used by the sparql-parallel type, unless
+     * it is set by the system property {@value #PARALLELISM_PROPERTY}
+     */
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    public static final String PARALLELISM_PROPERTY = "limes.sparql.parallelism";
+
     protected KBInfo kb;
     private Logger logger = LoggerFactory.getLogger(SparqlQueryModule.class.getName());
 
+    protected int retryCount = 5;
+    protected int retryDelayInMS = 500;
+    // number of pages retrieved concurrently
+    protected int parallelism = 1;
+    // write pages into the cache in the order of their offsets
+    protected boolean orderedMerge = true;
+
     public SparqlQueryModule(KBInfo kbinfo) {
         kb = kbinfo;
     }
 
+    /**
+     * @param kbinfo
+     *         Info of the knowledge base to query
+     * @param parallelism
+     *         Number of pages that are retrieved concurrently
+     */
+    public SparqlQueryModule(KBInfo kbinfo, int parallelism) {
+        this(kbinfo);
+        setParallelism(parallelism);
+    }
+
+    /**
+     * @return the number of concurrent requests used by the sparql-parallel
+     *         type
+     */
+    public static int getDefaultParallelism() {
+        String parallelism = System.getProperty(PARALLELISM_PROPERTY);
+        if (parallelism != null) {
+            try {
+                if (Integer.parseInt(parallelism.trim()) > 0) {
+                    return Integer.parseInt(parallelism.trim());
+                }
+            } catch (NumberFormatException e) {
+                // falls through to the default
+            }
+            LoggerFactory.getLogger(SparqlQueryModule.class.getName()).warn("Invalid value " + parallelism + " of "
+                    + PARALLELISM_PROPERTY + ", using " + DEFAULT_PARALLELISM + " concurrent requests.");
+        }
+        return DEFAULT_PARALLELISM;
+    }
+
     /**
      * Reads from a SPARQL endpoint and writes the results in a cache
      *
@@ -60,6 +122,14 @@ public class SparqlQueryModule implements IQueryModule {
             offset = kb.getMinOffset();
         }
 
+        // pages can only be retrieved concurrently if there are pages
+        if (parallelism > 1 && kb.getPageSize() > 0) {
+            int counter = fillCacheInParallel(cache, isSparql, query, offset);
+            logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
+            logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+            return;
+        }
+
         boolean moreResults = false;
         int counter = 0;
         String basicQuery = query;
@@ -72,11 +142,7 @@ public class SparqlQueryModule implements IQueryModule {
             logger.info("Getting statements " + offset + " to " + nextOffset);
 
             if (kb.getPageSize() > 0) {
-                int limit = kb.getPageSize();
-                if(kb.getMaxOffset() > 0) {
-                    limit = nextOffset - offset;
-                }
-                query = basicQuery + " LIMIT " + limit + " OFFSET " + offset;
+                query = basicQuery + " LIMIT " + getLimit(offset) + " OFFSET " + offset;
             } else {
                 query = basicQuery;
                 if(kb.getMaxOffset() > 0) {
@@ -84,30 +150,10 @@ public class SparqlQueryModule implements IQueryModule {
                 }
             }
 
-            Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
-            QueryExecution qexec;
-
-            // take care of graph issues. Only takes one graph. Seems like some
-            // sparql endpoint do
-            // not like the FROM option.
-            if (!isSparql) {
-                Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
-                if (model == null) {
-                    throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
-                }
-                qexec = QueryExecutionFactory.create(sparqlQuery, model);
-            } else {
-                if (kb.getGraph() != null) {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
-                } //
-                else {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
-                }
-            }
+            QueryExecution qexec = createQueryExecution(query, isSparql);
             ResultSet results = qexec.execSelect();
 
             // write
-            String uri, value;
             try {
                 if (results.hasNext()) {
                     moreResults = true;
@@ -117,32 +163,7 @@ public class SparqlQueryModule implements IQueryModule {
                 }
 
                 while (results.hasNext()) {
-                    QuerySolution soln = results.nextSolution();
-                    try {
-                        uri = soln.get(kb.getVar().substring(1)).toString();
-                        int i = 1;
-                        for (String propertyLabel : kb.getProperties()) {
-                            if (soln.contains("v" + i)) {
-                                value = soln.get("v" + i).toString();
-                                cache.addTriple(uri, propertyLabel, value);
-                            }
-                            i++;
-                        }
-                        if(kb.getOptionalProperties() != null){
-                            for (String propertyLabel : kb.getOptionalProperties()) {
-                                if (soln.contains("v" + i)) {
-                                    value = soln.get("v" + i).toString();
-                                    cache.addTriple(uri, propertyLabel, value);
-                                }
-                            }
-                            i++;
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Error while processing: " + soln.toString());
-                        logger.warn("Following exception occurred: " + e.getMessage());
-                        e.printStackTrace();
-                        throw new RuntimeException();
-                    }
+                    addSolution(results.nextSolution(), cache);
                     counter++;
                 }
             } catch (Exception e) {
@@ -159,6 +180,219 @@ public class SparqlQueryModule implements IQueryModule {
         logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
     }
 
+    /**
+     * @return the LIMIT of the page starting at offset
+     */
+    private int getLimit(int offset) {
+        if (kb.getMaxOffset() > 0) {
+            return Math.min(kb.getMaxOffset(), offset + kb.getPageSize()) - offset;
+        }
+        return kb.getPageSize();
+    }
+
+    /**
+     * Retrieves the pages of the query concurrently. New pages are requested
+     * until a page is empty or the maximal offset is reached. Pages that
+     * arrived ahead of an earlier page count towards the parallelism, so that
+     * at most parallelism pages are held in memory.
+     *
+     * @return the number of retrieved solutions
+     */
+    private int fillCacheInParallel(ACache cache, boolean isSparql, String basicQuery, int firstOffset) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        CompletionService<Page> pages = new ExecutorCompletionService<>(executor);
+        int end = kb.getMaxOffset() > 0 ? kb.getMaxOffset() : Integer.MAX_VALUE;
+        TreeMap<Integer, Page> arrived = new TreeMap<>();
+        int nextOffset = firstOffset;
+        int nextToMerge = firstOffset;
+        int inFlight = 0;
+        int counter = 0;
+        boolean exhausted = false;
+        try {
+            while (true) {
+                while (!exhausted && inFlight + arrived.size() < parallelism && nextOffset < end) {
+                    final int offset = nextOffset;
+                    pages.submit(() -> fetchPage(basicQuery, offset, isSparql));
+                    inFlight++;
+                    // avoids an overflow if there is no maximal offset
+                    nextOffset = nextOffset > end - kb.getPageSize() ? end : nextOffset + kb.getPageSize();
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                Page page = pages.take().get();
+                inFlight--;
+                if (page.solutions == 0) {
+                    // later pages are empty as well
+                    exhausted = true;
+                }
+                if (orderedMerge) {
+                    arrived.put(page.offset, page);
+                    while (!arrived.isEmpty() && arrived.firstKey() == nextToMerge) {
+                        counter += arrived.pollFirstEntry().getValue().mergeInto(cache);
+                        nextToMerge += kb.getPageSize();
+                    }
+                } else {
+                    counter += page.mergeInto(cache);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while querying " + kb.getEndpoint(), e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not retrieve the data of " + kb.getEndpoint(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return counter;
+    }
+
+    /**
+     * Retrieves the page starting at offset, retrying up to retryCount times.
+     */
+    private Page fetchPage(String basicQuery, int offset, boolean isSparql) throws InterruptedException {
+        int limit = getLimit(offset);
+        String query = basicQuery + " LIMIT " + limit + " OFFSET " + offset;
+        for (int attempt = 0;; attempt++) {
+            logger.info("Getting statements " + offset + " to " + (offset + limit));
+            QueryExecution qexec = null;
+            try {
+                qexec = createQueryExecution(query, isSparql);
+                Page page = new Page(offset);
+                ResultSet results = qexec.execSelect();
+                while (results.hasNext()) {
+                    addSolution(results.nextSolution(), page.data);
+                    page.solutions++;
+                }
+                return page;
+            } catch (RuntimeException e) {
+                if (attempt >= retryCount) {
+                    throw e;
+                }
+                logger.warn("Retrieving statements " + offset + " to " + (offset + limit) + " failed ("
+                        + e.getMessage() + "), retrying in " + retryDelayInMS + " ms");
+            } finally {
+                if (qexec != null) {
+                    qexec.close();
+                }
+            }
+            Thread.sleep(retryDelayInMS);
+        }
+    }
+
+    /**
+     * Solutions of one page, which are kept in a separate cache until they
+     * are written into the target cache.
+     */
+    private static class Page {
+        final int offset;
+        final MemoryCache data = new MemoryCache();
+        int solutions = 0;
+
+        Page(int offset) {
+            this.offset = offset;
+        }
+
+        int mergeInto(ACache cache) {
+            for (Instance instance : data.getAllInstances()) {
+                for (String property : instance.getAllProperties()) {
+                    for (String value : instance.getProperty(property)) {
+                        cache.addTriple(instance.getUri(), property, value);
+                    }
+                }
+            }
+            return solutions;
+        }
+    }
+
+    private QueryExecution createQueryExecution(String query, boolean isSparql) {
+        Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
+        // take care of graph issues. Only takes one graph. Seems like some
+        // sparql endpoint do
+        // not like the FROM option.
+        if (!isSparql) {
+            Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
+            if (model == null) {
+                throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
+            }
+            return QueryExecutionFactory.create(sparqlQuery, model);
+        } else {
+            if (kb.getGraph() != null) {
+                return QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
+            } //
+            else {
+                return QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+            }
+        }
+    }
+
+    /**
+     * Writes the property values of a solution into a cache.
+     */
+    private void addSolution(QuerySolution soln, ACache cache) {
+        String uri, value;
+        try {
+            uri = soln.get(kb.getVar().substring(1)).toString();
+            int i = 1;
+            for (String propertyLabel : kb.getProperties()) {
+                if (soln.contains("v" + i)) {
+                    value = soln.get("v" + i).toString();
+                    cache.addTriple(uri, propertyLabel, value);
+                }
+                i++;
+            }
+            if(kb.getOptionalProperties() != null){
+                for (String propertyLabel : kb.getOptionalProperties()) {
+                    if (soln.contains("v" + i)) {
+                        value = soln.get("v" + i).toString();
+                        cache.addTriple(uri, propertyLabel, value);
+                    }
+                }
+                i++;
+            }
+        } catch (Exception e) {
+            logger.warn("Error while processing: " + soln.toString());
+            logger.warn("Following exception occurred: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * @param parallelism
+     *         Number of pages that are retrieved concurrently, 1 to retrieve
+     *         the pages one after the other
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param orderedMerge
+     *         True to write concurrently retrieved pages into the cache in
+     *         the order of their offsets, false to write them as soon as they
+     *         arrive
+     */
+    public void setOrderedMerge(boolean orderedMerge) {
+        this.orderedMerge = orderedMerge;
+    }
+
+    public boolean isOrderedMerge() {
+        return orderedMerge;
+    }
+
+    public void setRetryCount(int retryCount) {
+        this.retryCount = retryCount;
+    }
+
+    public void setRetryDelayInMS(int retryDelayInMS) {
+        this.retryDelayInMS = retryDelayInMS;
+    }
+
     protected String generateQuery() {
         // write prefixes
         Iterator<String> iter = kb.getPrefixes().keySet().iterator();
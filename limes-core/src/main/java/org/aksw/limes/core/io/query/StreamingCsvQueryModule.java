@@ -0,0 +1,113 @@
+package org.aksw.limes.core.io.query;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.util.DataCleaner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Reads a CSV file into a cache like the {@link CsvQueryModule}, but maps the
+ * file into memory and parses chunks of lines on several threads. The columns
+ * of the properties are looked up once from the header instead of once per
+ * cell. Resources that are not files are read by the {@link CsvQueryModule}.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+public class StreamingCsvQueryModule implements IQueryModule {
+
+    private Logger logger = LoggerFactory.getLogger(StreamingCsvQueryModule.class.getName());
+    KBInfo kb;
+    private String SEP = ",";
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = ParallelLineReader.DEFAULT_CHUNK_SIZE;
+
+    public StreamingCsvQueryModule(KBInfo kbinfo) {
+        kb = kbinfo;
+    }
+
+    public void setSeparation(String s) {
+        SEP = s;
+    }
+
+    /**
+     * @param parallelism
+     *         Number of threads that parse the file
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param chunkSize
+     *         Number of bytes that are parsed at once
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Read a CSV file and write the content in a cache. The first line is the
+     * name of the properties.
+     *
+     * @param c
+     *         Cache in which the content is to be written
+     */
+    public void fillCache(ACache c) {
+        File file = new File(kb.getEndpoint());
+        if (!file.isFile()) {
+            CsvQueryModule csv = new CsvQueryModule(kb);
+            csv.setSeparation(SEP);
+            csv.fillCache(c);
+            return;
+        }
+        try {
+            String header;
+            long dataStart;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                header = ParallelLineReader.readFirstLine(channel);
+                dataStart = ParallelLineReader.nextLineStart(channel, 0, channel.size());
+            }
+            if (header.isEmpty()) {
+                logger.warn("Input file " + kb.getEndpoint() + " was empty or faulty");
+                return;
+            }
+            // first read name of properties. URI = first column
+            List<String> properties = Arrays.asList(header.split(SEP));
+            final int columns = properties.size();
+            final String[] labels = kb.getProperties().toArray(new String[0]);
+            final int[] indexes = new int[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                indexes[i] = properties.indexOf(labels[i]);
+                if (indexes[i] < 0) {
+                    logger.error(MarkerFactory.getMarker("FATAL"), "Property " + labels[i] + " not found in "
+                            + kb.getEndpoint());
+                    return;
+                }
+            }
+            long[] counter = new long[1];
+            new ParallelLineReader(parallelism, chunkSize).read(file, dataStart, TripleBatch::new, (line, batch) -> {
+                if (line.isEmpty()) {
+                    return;
+                }
+                String[] split = DataCleaner.separate(line, SEP, columns);
+                for (int i = 0; i < labels.length; i++) {
+                    if (indexes[i] < split.length && split[indexes[i]] != null) {
+                        batch.add(split[0], labels[i], split[indexes[i]]);
+                    }
+                }
+            }, batch -> counter[0] += batch.addTo(c));
+            logger.info("Retrieved " + counter[0] + " statements and " + c.size() + " entities.");
+        } catch (Exception e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Exception:" + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
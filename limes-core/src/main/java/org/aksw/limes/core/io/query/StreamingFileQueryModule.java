@@ -0,0 +1,438 @@
+package org.aksw.limes.core.io.query;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Reads N-Triples and Turtle files into a cache without loading them into a
+ * Jena model first. N-Triples files are memory-mapped, split at line
+ * boundaries and parsed on several threads, Turtle files are parsed as a
+ * stream of triples. Only the triples of the configured properties are kept.
+ * If restrictions or more than one property have to be checked, the file is
+ * read twice: the first pass collects the instances that satisfy the query,
+ * the second one writes their properties into the cache.
+ * <p>
+ * The module supports restrictions of the form <code>?x property class</code>
+ * and properties without property paths. For all other queries as well as
+ * for resources that are not files, it falls back to the
+ * {@link FileQueryModule}.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+public class StreamingFileQueryModule implements IQueryModule {
+
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final String XSD_STRING = "http://www.w3.org/2001/XMLSchema#string";
+    // number of triples parsed from a Turtle file before they are written
+    private static final int TURTLE_BATCH_SIZE = 100000;
+
+    KBInfo kb;
+    private Logger logger = LoggerFactory.getLogger(StreamingFileQueryModule.class.getName());
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = ParallelLineReader.DEFAULT_CHUNK_SIZE;
+
+    // property labels to be written for each predicate
+    private Map<String, List<String>> labels;
+    // required properties and restrictions, one bit each
+    private Map<String, Long> propertyBits;
+    private Map<String, Map<String, Long>> restrictionBits;
+    private long allBits;
+    private boolean singlePass;
+
+    public StreamingFileQueryModule(KBInfo kbinfo) {
+        kb = kbinfo;
+    }
+
+    /**
+     * @param parallelism
+     *         Number of threads that parse N-Triples files
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param chunkSize
+     *         Number of bytes of an N-Triples file that are parsed at once
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Reads the file and writes the properties of all instances that satisfy
+     * the restrictions in a cache
+     *
+     * @param c
+     *         Cache to be filled
+     */
+    public void fillCache(ACache c) {
+        File file = new File(kb.getEndpoint());
+        boolean nTriples = isNTriples();
+        if (!file.isFile() || !(nTriples || isTurtle()) || !compile()) {
+            logger.info("Cannot stream " + kb.getEndpoint() + ", loading it into a model");
+            new FileQueryModule(kb).fillCache(c);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            Set<String> instances = null;
+            if (!singlePass) {
+                Map<String, Long> bits = new HashMap<>();
+                if (nTriples) {
+                    new ParallelLineReader(parallelism, chunkSize).read(file, 0, HashMap<String, Long>::new,
+                            (line, batch) -> {
+                                String[] triple = parseTriple(line);
+                                if (triple != null) {
+                                    mark(triple[0], triple[1], triple[2], batch);
+                                }
+                            }, batch -> batch.forEach((s, b) -> bits.merge(s, b, (x, y) -> x | y)));
+                } else {
+                    readTurtle(file, (s, p, o) -> mark(s, p, o, bits));
+                }
+                instances = new HashSet<>();
+                for (Map.Entry<String, Long> e : bits.entrySet()) {
+                    if (e.getValue() == allBits) {
+                        instances.add(e.getKey());
+                    }
+                }
+                bits.clear();
+                logger.info("Found " + instances.size() + " instances that satisfy the restrictions");
+            }
+            final Set<String> accepted = instances;
+            long[] counter = new long[1];
+            if (nTriples) {
+                new ParallelLineReader(parallelism, chunkSize).read(file, 0, TripleBatch::new, (line, batch) -> {
+                    String[] triple = parseTriple(line);
+                    if (triple != null) {
+                        emit(triple[0], triple[1], triple[2], accepted, batch);
+                    }
+                }, batch -> counter[0] += batch.addTo(c));
+            } else {
+                TripleBatch batch = new TripleBatch();
+                readTurtle(file, (s, p, o) -> {
+                    emit(s, p, o, accepted, batch);
+                    if (batch.size() >= TURTLE_BATCH_SIZE) {
+                        counter[0] += batch.addTo(c);
+                    }
+                });
+                counter[0] += batch.addTo(c);
+            }
+            logger.info("Retrieved " + counter[0] + " triples and " + c.size() + " entities.");
+            logger.info("Reading " + kb.getEndpoint() + " took " + (System.currentTimeMillis() - startTime) / 1000.0
+                    + " seconds.");
+        } catch (Exception e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error loading endpoint", e);
+        }
+    }
+
+    private boolean isNTriples() {
+        String type = kb.getType() == null ? "" : kb.getType().toUpperCase();
+        return type.startsWith("N-TRIPLE") || type.equals("NT") || type.equals("NTRIPLES");
+    }
+
+    private boolean isTurtle() {
+        String type = kb.getType() == null ? "" : kb.getType().toUpperCase();
+        return type.equals("TURTLE") || type.equals("TTL") || type.equals("N3");
+    }
+
+    /**
+     * Translates properties and restrictions into lookup tables.
+     *
+     * @return false if the query cannot be answered by streaming the file
+     */
+    private boolean compile() {
+        labels = new HashMap<>();
+        propertyBits = new HashMap<>();
+        restrictionBits = new HashMap<>();
+        allBits = 0;
+        int bit = 0;
+        if (kb.getProperties() == null || kb.getProperties().isEmpty()) {
+            return false;
+        }
+        for (String property : kb.getProperties()) {
+            String predicate = resolve(property.trim());
+            if (predicate == null || bit == Long.SIZE) {
+                return false;
+            }
+            labels.computeIfAbsent(predicate, p -> new ArrayList<>()).add(property);
+            propertyBits.merge(predicate, 1L << bit, (x, y) -> x | y);
+            allBits |= 1L << bit++;
+        }
+        int optionalProperties = 0;
+        if (kb.getOptionalProperties() != null) {
+            for (String property : kb.getOptionalProperties()) {
+                String predicate = resolve(property.trim());
+                if (predicate == null) {
+                    return false;
+                }
+                labels.computeIfAbsent(predicate, p -> new ArrayList<>()).add(property);
+                optionalProperties++;
+            }
+        }
+        int restrictions = 0;
+        for (String restriction : kb.getRestrictions()) {
+            String where = restriction.trim();
+            // mirrors SparqlQueryModule, which ignores such restrictions
+            if (where.length() <= 3) {
+                continue;
+            }
+            if (where.endsWith(".")) {
+                where = where.substring(0, where.length() - 1).trim();
+            }
+            String[] terms = where.split("\\s+");
+            if (terms.length != 3 || !terms[0].equals(kb.getVar()) || bit == Long.SIZE) {
+                return false;
+            }
+            String predicate = resolve(terms[1]);
+            String object = resolve(terms[2]);
+            if (predicate == null || object == null) {
+                return false;
+            }
+            restrictionBits.computeIfAbsent(predicate, p -> new HashMap<>()).merge(object, 1L << bit, (x, y) -> x | y);
+            allBits |= 1L << bit++;
+            restrictions++;
+        }
+        singlePass = restrictions == 0 && kb.getProperties().size() == 1 && optionalProperties == 0;
+        return true;
+    }
+
+    /**
+     * @return the URI of an IRI or prefixed name, null if the term is
+     *         neither or is a property path
+     */
+    private String resolve(String term) {
+        if (term.equals("a")) {
+            return RDF_TYPE;
+        }
+        if (term.startsWith("<") && term.endsWith(">")) {
+            return term.substring(1, term.length() - 1);
+        }
+        int colon = term.indexOf(':');
+        if (colon < 0 || term.contains("/") || kb.getPrefixes() == null) {
+            return null;
+        }
+        String namespace = kb.getPrefixes().get(term.substring(0, colon));
+        return namespace == null ? null : namespace + term.substring(colon + 1);
+    }
+
+    private void mark(String subject, String predicate, String object, Map<String, Long> bits) {
+        long b = 0;
+        Long property = propertyBits.get(predicate);
+        if (property != null) {
+            b |= property;
+        }
+        Map<String, Long> objects = restrictionBits.get(predicate);
+        if (objects != null) {
+            Long restriction = objects.get(object);
+            if (restriction != null) {
+                b |= restriction;
+            }
+        }
+        if (b != 0) {
+            bits.merge(subject, b, (x, y) -> x | y);
+        }
+    }
+
+    private void emit(String subject, String predicate, String object, Set<String> accepted, TripleBatch batch) {
+        List<String> properties = labels.get(predicate);
+        if (properties != null && (accepted == null || accepted.contains(subject))) {
+            for (String property : properties) {
+                batch.add(subject, property, object);
+            }
+        }
+    }
+
+    private interface TripleHandler {
+        void handle(String subject, String predicate, String object);
+    }
+
+    private void readTurtle(File file, TripleHandler handler) {
+        RDFDataMgr.parse(new StreamRDFBase() {
+            @Override
+            public void triple(Triple triple) {
+                handler.handle(value(triple.getSubject()), triple.getPredicate().getURI(),
+                        value(triple.getObject()));
+            }
+
+            private String value(Node node) {
+                if (node.isURI()) {
+                    return node.getURI();
+                }
+                if (node.isBlank()) {
+                    return node.getBlankNodeLabel();
+                }
+                return literal(node.getLiteralLexicalForm(), node.getLiteralLanguage(),
+                        node.getLiteralDatatypeURI());
+            }
+        }, file.getAbsolutePath(), Lang.TURTLE);
+    }
+
+    /**
+     * Writes a literal as Jena does when the cache is filled from a model.
+     */
+    static String literal(String lexicalForm, String language, String datatype) {
+        String value = lexicalForm.replace("\"", "\\\"");
+        if (language != null && !language.isEmpty()) {
+            return value + "@" + language;
+        }
+        if (datatype != null && !datatype.equals(XSD_STRING)) {
+            return value + "^^" + datatype;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a line of an N-Triples file.
+     *
+     * @param line
+     *         Line to parse
+     * @return subject, predicate and object of the triple or null if the line
+     *         is empty or a comment
+     */
+    static String[] parseTriple(String line) {
+        int[] pos = {skipWhitespace(line, 0)};
+        if (pos[0] == line.length() || line.charAt(pos[0]) == '#') {
+            return null;
+        }
+        String subject = readResource(line, pos);
+        pos[0] = skipWhitespace(line, pos[0]);
+        if (pos[0] == line.length() || line.charAt(pos[0]) != '<') {
+            throw new IllegalArgumentException("Predicate expected: " + line);
+        }
+        String predicate = readResource(line, pos);
+        pos[0] = skipWhitespace(line, pos[0]);
+        String object;
+        if (pos[0] < line.length() && line.charAt(pos[0]) == '"') {
+            object = readLiteral(line, pos);
+        } else {
+            object = readResource(line, pos);
+        }
+        pos[0] = skipWhitespace(line, pos[0]);
+        if (pos[0] == line.length() || line.charAt(pos[0]) != '.') {
+            throw new IllegalArgumentException("'.' expected: " + line);
+        }
+        return new String[] { subject, predicate, object };
+    }
+
+    private static int skipWhitespace(String line, int pos) {
+        while (pos < line.length() && (line.charAt(pos) == ' ' || line.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Reads an IRI or a blank node.
+     */
+    private static String readResource(String line, int[] pos) {
+        int start = pos[0];
+        if (line.startsWith("_:", start)) {
+            int end = start + 2;
+            while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                end++;
+            }
+            // a blank node label may end with the '.' of the statement
+            if (end == line.length() && line.charAt(end - 1) == '.') {
+                end--;
+            }
+            pos[0] = end;
+            return line.substring(start + 2, end);
+        }
+        if (start < line.length() && line.charAt(start) == '<') {
+            int end = line.indexOf('>', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated IRI: " + line);
+            }
+            pos[0] = end + 1;
+            return unescape(line, start + 1, end);
+        }
+        throw new IllegalArgumentException("IRI or blank node expected: " + line);
+    }
+
+    private static String readLiteral(String line, int[] pos) {
+        int start = pos[0] + 1;
+        int end = start;
+        while (end < line.length() && line.charAt(end) != '"') {
+            end += line.charAt(end) == '\\' ? 2 : 1;
+        }
+        if (end >= line.length()) {
+            throw new IllegalArgumentException("Unterminated literal: " + line);
+        }
+        String lexicalForm = unescape(line, start, end);
+        String language = null, datatype = null;
+        pos[0] = end + 1;
+        if (pos[0] < line.length() && line.charAt(pos[0]) == '@') {
+            int tagEnd = pos[0] + 1;
+            while (tagEnd < line.length() && (Character.isLetterOrDigit(line.charAt(tagEnd)) || line.charAt(tagEnd) == '-')) {
+                tagEnd++;
+            }
+            language = line.substring(pos[0] + 1, tagEnd);
+            pos[0] = tagEnd;
+        } else if (line.startsWith("^^", pos[0])) {
+            pos[0] += 2;
+            datatype = readResource(line, pos);
+        }
+        return literal(lexicalForm, language, datatype);
+    }
+
+    private static String unescape(String line, int start, int end) {
+        if (line.indexOf('\\', start) < 0 || line.indexOf('\\', start) >= end) {
+            return line.substring(start, end);
+        }
+        StringBuilder result = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c != '\\' || i + 1 == end) {
+                result.append(c);
+                continue;
+            }
+            c = line.charAt(++i);
+            switch (c) {
+            case 't':
+                result.append('\t');
+                break;
+            case 'b':
+                result.append('\b');
+                break;
+            case 'n':
+                result.append('\n');
+                break;
+            case 'r':
+                result.append('\r');
+                break;
+            case 'f':
+                result.append('\f');
+                break;
+            case 'u':
+                result.appendCodePoint(Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                i += 4;
+                break;
+            case 'U':
+                result.appendCodePoint(Integer.parseInt(line.substring(i + 1, i + 9), 16));
+                i += 8;
+                break;
+            default:
+                // \" \' \\
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
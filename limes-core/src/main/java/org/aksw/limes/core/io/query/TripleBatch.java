@@ -0,0 +1,43 @@
+package org.aksw.limes.core.io.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.limes.core.io.cache.ACache;
+
+/**
+ * Triples parsed by a worker thread that are yet to be written into a cache.
+ * Caches are not thread-safe, hence the batches are written by a single
+ * thread.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+class TripleBatch {
+
+    // subject, property and value of each triple
+    private final List<String> triples = new ArrayList<>();
+
+    void add(String subject, String property, String value) {
+        triples.add(subject);
+        triples.add(property);
+        triples.add(value);
+    }
+
+    int size() {
+        return triples.size() / 3;
+    }
+
+    /**
+     * Writes the triples into the cache and empties the batch.
+     *
+     * @return the number of written triples
+     */
+    int addTo(ACache cache) {
+        for (int i = 0; i < triples.size(); i += 3) {
+            cache.addTriple(triples.get(i), triples.get(i + 1), triples.get(i + 2));
+        }
+        int size = size();
+        triples.clear();
+        return size;
+    }
+}
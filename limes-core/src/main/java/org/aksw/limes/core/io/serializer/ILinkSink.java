@@ -0,0 +1,27 @@
+package org.aksw.limes.core.io.serializer;
+
+/**
+ * Interface for sinks that receive the links of a linking task one by one,
+ * e.g. to write them to the output files without building further mappings.
+ *
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version Jul 12, 2016
+ */
+public interface ILinkSink {
+
+    /**
+     * Adds a link to the sink
+     *
+     * @param source Source resource of the link
+     * @param target Target resource of the link
+     * @param confidence value
+     */
+    public void addLink(String source, String target, double confidence);
+
+    /**
+     * Closes the sink
+     *
+     * @return true if the sink was closed successfully, else false
+     */
+    public boolean close();
+}
@@ -24,6 +24,27 @@ public interface ISerializer {
      */
     public void writeToFile(AMapping m, String predicate, String file);
 
+    /**
+     * Opens the output file for the links of a mapping that are written one by
+     * one with writeLink, in the same format as writeToFile. The file is
+     * completed by the method close
+     *
+     * @param predicate of the mapping
+     * @param file Output file, where the links are to be written
+     * @return true if opening was carried out successfully, else false.
+     */
+    public boolean openLinks(String predicate, String file);
+
+    /**
+     * Writes a link of a mapping to the output file. Requires the method
+     * openLinks to have been carried out
+     *
+     * @param source Source resource of the link
+     * @param target Target resource of the link
+     * @param confidence value
+     */
+    public void writeLink(String source, String target, double confidence);
+
     /**
      * Sets the prefixes to be used in the file.
      *
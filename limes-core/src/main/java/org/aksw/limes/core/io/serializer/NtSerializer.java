@@ -28,6 +28,7 @@ public class NtSerializer implements ISerializer {
     protected Set<String> statements;
     protected Map<String, String> prefixMap;
     protected File folder = new File("");
+    protected String linkPredicate;
 
     public NtSerializer() {
         prefixMap = new HashMap<String, String>();
@@ -80,21 +81,24 @@ public class NtSerializer implements ISerializer {
      * @param file File in which the mapping is to be serialized
      */
     public void writeToFile(AMapping mapping, String predicate, String file) {
-        open(file);
-        String predicatePrefix = getPrefix(predicate);
-
-        if (mapping.size() > 0) {
-            for (String s : mapping.getMap().keySet()) {
-                for (String t : mapping.getMap().get(s).keySet()) {
-                    writer.println("<" + s + "> "
-                            + "<" + expand(predicate, predicatePrefix) + "> "
-                            + "<" + t + "> .");
-                }
+        openLinks(predicate, file);
+        for (Entry<String, HashMap<String, Double>> links : mapping.getMap().entrySet()) {
+            for (Entry<String, Double> link : links.getValue().entrySet()) {
+                writeLink(links.getKey(), link.getKey(), link.getValue());
             }
         }
         close();
     }
 
+    public boolean openLinks(String predicate, String file) {
+        linkPredicate = expand(predicate, getPrefix(predicate));
+        return open(file);
+    }
+
+    public void writeLink(String source, String target, double confidence) {
+        writer.println("<" + source + "> <" + linkPredicate + "> <" + target + "> .");
+    }
+
     /**
      * Writes in the file statement by statement. Rather slow, not to be used
      *
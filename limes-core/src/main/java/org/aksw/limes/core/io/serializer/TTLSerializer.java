@@ -11,6 +11,7 @@ import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.TreeSet;
 
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -29,6 +30,7 @@ public class TTLSerializer implements ISerializer {
     TreeSet<String> statements; //List of statements to be printed
     Map<String, String> prefixList;
     File folder = new File("");
+    String linkPredicate;
 
     /**
      * Constructor
@@ -74,17 +76,35 @@ public class TTLSerializer implements ISerializer {
      * @param file Output file
      */
     public void writeToFile(AMapping mapping, String predicate, String file) {
-        open(file);
-        printPrefixes();
-        statements = new TreeSet<String>();
-        for (String s : mapping.getMap().keySet()) {
-            for (String t : mapping.getMap().get(s).keySet()) {
-                writer.println("<" + s + "> <" + predicate + "> <" + t + "> .");
+        openLinks(predicate, file);
+        for (Entry<String, HashMap<String, Double>> links : mapping.getMap().entrySet()) {
+            for (Entry<String, Double> link : links.getValue().entrySet()) {
+                writeLink(links.getKey(), link.getKey(), link.getValue());
             }
         }
         close();
     }
 
+    /* (non-Javadoc)
+     * @see org.aksw.limes.core.io.serializer.ISerializer#openLinks(java.lang.String, java.lang.String)
+     */
+    public boolean openLinks(String predicate, String file) {
+        if (!open(file)) {
+            return false;
+        }
+        printPrefixes();
+        statements = new TreeSet<String>();
+        linkPredicate = predicate;
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see org.aksw.limes.core.io.serializer.ISerializer#writeLink(java.lang.String, java.lang.String, double)
+     */
+    public void writeLink(String source, String target, double confidence) {
+        writer.println("<" + source + "> <" + linkPredicate + "> <" + target + "> .");
+    }
+
     /**
      * Print prefixes
      */
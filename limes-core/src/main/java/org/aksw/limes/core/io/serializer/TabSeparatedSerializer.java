@@ -1,6 +1,5 @@
 package org.aksw.limes.core.io.serializer;
 
-import org.aksw.limes.core.io.mapping.AMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,26 +42,12 @@ public class TabSeparatedSerializer extends NtSerializer {
     }
 
 
-    /**
-     * Gets a mapping and serializes it to a file in the N3 format. The method
-     * assume that the class already knows all the prefixes used in the uris and
-     * expands those.
-     *
-     * @param mapping Mapping to serialize
-     * @param predicate Predicate to use while serializing
-     * @param file File in which the mapping is to be serialized
+    /* (non-Javadoc)
+     * @see org.aksw.limes.core.io.serializer.NtSerializer#writeLink(java.lang.String, java.lang.String, double)
      */
-    public void writeToFile(AMapping mapping, String predicate, String file) {
-        open(file);
-
-        if (mapping.size() > 0) {
-            for (String s : mapping.getMap().keySet()) {
-                for (String t : mapping.getMap().get(s).keySet()) {
-                    writer.println("<" + s + ">\t<" + t + ">\t" + mapping.getConfidence(s, t));
-                }
-            }
-        }
-        close();
+    @Override
+    public void writeLink(String source, String target, double confidence) {
+        writer.println("<" + source + ">\t<" + target + ">\t" + confidence);
     }
 
     /* (non-Javadoc)
@@ -0,0 +1,113 @@
+package org.aksw.limes.core.io.serializer;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sink that writes each link directly to the acceptance or to the
+ * verification file, depending on its confidence. Links whose confidence is
+ * not lower than the acceptance threshold are accepted, links whose
+ * confidence is lower than the acceptance threshold but not lower than the
+ * verification threshold need verification, and all other links are dropped.
+ * Links may be added from several threads.
+ *
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version Jul 12, 2016
+ */
+public class ThresholdLinkSink implements ILinkSink {
+
+    private static Logger logger = LoggerFactory.getLogger(ThresholdLinkSink.class.getName());
+
+    private final ISerializer acceptance;
+    private final ISerializer verification;
+    private final double acceptanceThreshold;
+    private final double verificationThreshold;
+    private long acceptedLinks = 0;
+    private long verificationLinks = 0;
+
+    /**
+     * Constructor
+     *
+     * @param acceptance Serializer of the accepted links, opened with openLinks
+     * @param acceptanceThreshold Lowest confidence of the accepted links
+     * @param verification Serializer of the links that need verification,
+     *            opened with openLinks
+     * @param verificationThreshold Lowest confidence of the links that need
+     *            verification
+     */
+    public ThresholdLinkSink(ISerializer acceptance, double acceptanceThreshold, ISerializer verification,
+            double verificationThreshold) {
+        this.acceptance = acceptance;
+        this.acceptanceThreshold = acceptanceThreshold;
+        this.verification = verification;
+        this.verificationThreshold = verificationThreshold;
+    }
+
+    /**
+     * Opens a sink that writes the accepted links and the links that need
+     * verification in the given format
+     *
+     * @param format Output format, see {@link SerializerFactory}
+     * @param acceptanceRelation Predicate of the accepted links
+     * @param acceptanceFile File of the accepted links
+     * @param acceptanceThreshold Lowest confidence of the accepted links
+     * @param verificationRelation Predicate of the links that need verification
+     * @param verificationFile File of the links that need verification
+     * @param verificationThreshold Lowest confidence of the links that need
+     *            verification
+     * @param prefixes Prefixes to be used in the files
+     * @return the opened sink
+     * @throws RuntimeException if one of the files cannot be opened
+     */
+    public static ThresholdLinkSink open(String format, String acceptanceRelation, String acceptanceFile,
+            double acceptanceThreshold, String verificationRelation, String verificationFile,
+            double verificationThreshold, Map<String, String> prefixes) {
+        ISerializer acceptance = SerializerFactory.createSerializer(format);
+        acceptance.setPrefixes(prefixes);
+        if (!acceptance.openLinks(acceptanceRelation, acceptanceFile)) {
+            throw new RuntimeException("Not able to open the acceptance file " + acceptanceFile);
+        }
+        ISerializer verification = SerializerFactory.createSerializer(format);
+        verification.setPrefixes(prefixes);
+        if (!verification.openLinks(verificationRelation, verificationFile)) {
+            acceptance.close();
+            throw new RuntimeException("Not able to open the verification file " + verificationFile);
+        }
+        return new ThresholdLinkSink(acceptance, acceptanceThreshold, verification, verificationThreshold);
+    }
+
+    @Override
+    public synchronized void addLink(String source, String target, double confidence) {
+        if (confidence >= acceptanceThreshold) {
+            acceptance.writeLink(source, target, confidence);
+            acceptedLinks++;
+        } else if (confidence >= verificationThreshold) {
+            verification.writeLink(source, target, confidence);
+            verificationLinks++;
+        }
+    }
+
+    @Override
+    public synchronized boolean close() {
+        logger.info("Written links: " + acceptedLinks + " (accepted) + " + verificationLinks
+                + " (need verification)");
+        boolean closed = acceptance.close();
+        return verification.close() && closed;
+    }
+
+    /**
+     * @return the number of accepted links written so far
+     */
+    public synchronized long getAcceptedLinks() {
+        return acceptedLinks;
+    }
+
+    /**
+     * @return the number of links that need verification written so far
+     */
+    public synchronized long getVerificationLinks() {
+        return verificationLinks;
+    }
+}
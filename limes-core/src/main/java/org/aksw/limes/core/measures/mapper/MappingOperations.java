@@ -1,6 +1,7 @@
 package org.aksw.limes.core.measures.mapper;
 
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.IndexedMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 /**
  * Implements the mapping operations abstract class.
@@ -20,7 +21,10 @@ public class MappingOperations {
      * @return map1 \ map2
      */
     public static AMapping difference(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        if (map1 instanceof IndexedMapping && map2 instanceof IndexedMapping) {
+            return ((IndexedMapping) map1).difference((IndexedMapping) map2);
+        }
+        AMapping map = MappingFactory.createMapping(map1);
         
         // go through all the keys in map1
         for (String key : map1.getMap().keySet()) {
@@ -52,10 +56,13 @@ public class MappingOperations {
      * @return Intersection of map1 and map2
      */
     public static AMapping intersection(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        if (map1 instanceof IndexedMapping && map2 instanceof IndexedMapping) {
+            return ((IndexedMapping) map1).intersection((IndexedMapping) map2);
+        }
+        AMapping map = MappingFactory.createMapping(map1 instanceof IndexedMapping ? map1 : map2);
         // takes care of not running the filter if some set is empty
         if (map1.size() == 0 || map2.size() == 0) {
-            return MappingFactory.createDefaultMapping();
+            return map;
         }
         // go through all the keys in map1
         for (String key : map1.getMap().keySet()) {
@@ -89,7 +96,10 @@ public class MappingOperations {
      * @return Union of map1 and map2
      */
     public static AMapping union(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        if (map1 instanceof IndexedMapping && map2 instanceof IndexedMapping) {
+            return ((IndexedMapping) map1).union((IndexedMapping) map2);
+        }
+        AMapping map = MappingFactory.createMapping(map1 instanceof IndexedMapping ? map1 : map2);
         // go through all the keys in map1
         for (String key : map1.getMap().keySet()) {
             for (String value : map1.getMap().get(key).keySet()) {
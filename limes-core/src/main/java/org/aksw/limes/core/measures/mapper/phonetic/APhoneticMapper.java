@@ -0,0 +1,121 @@
+package org.aksw.limes.core.measures.mapper.phonetic;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.aksw.limes.core.exceptions.InvalidThresholdException;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.util.ComputeExecutor;
+
+/**
+ * Abstract class of the phonetic mappers. The values of the source and of the
+ * target property are encoded with a phonetic encoding, and a source and a
+ * target instance are linked if the code of a target value differs from the
+ * prefix of the same length of the code of a source value in at most a number
+ * of characters that depends on the threshold. The codes are taken from the
+ * {@link PhoneticIndex} of each cache, which is shared by all atoms and
+ * learning iterations, and the source codes are searched in parallel.
+ *
+ * @author Kevin Dreßler
+ */
+public abstract class APhoneticMapper extends AMapper {
+
+    /**
+     * Minimal number of source codes that are searched in one task.
+     */
+    static final int MIN_PARTITION_SIZE = 256;
+
+    /**
+     * Computes a mapping between a source and a target.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Variable for the source dataset
+     * @param targetVar
+     *            Variable for the target dataset
+     * @param expression
+     *            Expression to process.
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping which contains links between the source instances and
+     *         the target instances
+     */
+    @Override
+    public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold) {
+        if (threshold <= 0) {
+            throw new InvalidThresholdException(threshold);
+        }
+        List<String> properties = PropertyFetcher.getProperties(expression, threshold);
+        PhoneticIndex sourceIndex = PhoneticIndex.getIndex(source, properties.get(0), getName(), this::getCode);
+        PhoneticIndex targetIndex = PhoneticIndex.getIndex(target, properties.get(1), getName(), this::getCode);
+        int maxDistance = getMaxDistance(threshold);
+        double codeLength = getCodeLength();
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(sourceIndex.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    AMapping result = MappingFactory.createMapping(source, target);
+                    int[] seen = new int[targetIndex.size()];
+                    for (int id = from; id < to; id++) {
+                        String[] sourceUris = sourceIndex.getUris(id);
+                        targetIndex.search(sourceIndex, id, maxDistance, seen, (targetId, distance) -> {
+                            double similarity = 1.0d - distance / codeLength;
+                            for (String sourceUri : sourceUris) {
+                                for (String targetUri : targetIndex.getUris(targetId)) {
+                                    result.add(sourceUri, targetUri, similarity);
+                                }
+                            }
+                        });
+                    }
+                    return result;
+                });
+        if (partitions.size() == 1) {
+            return partitions.get(0);
+        }
+        AMapping result = MappingFactory.createMapping(source, target);
+        for (AMapping partition : partitions) {
+            for (String s : partition.getMap().keySet()) {
+                for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                    result.add(s, t.getKey(), t.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Encodes a value with the phonetic encoding of the mapper.
+     *
+     * @param value
+     *            Value to encode
+     * @return the code of the value
+     */
+    protected abstract String getCode(String value);
+
+    /**
+     * @return the number of characters by which the distance of two codes is
+     *         divided to compute their similarity
+     */
+    protected abstract int getCodeLength();
+
+    /**
+     * @param threshold
+     *            Similarity threshold
+     * @return the maximal number of different characters of two linked codes
+     */
+    protected abstract int getMaxDistance(double threshold);
+
+    public double getRuntimeApproximation(int sourceSize, int targetSize, double theta, Language language) {
+        return 1000d;
+    }
+
+    public double getMappingSizeApproximation(int sourceSize, int targetSize, double theta, Language language) {
+        return 1000d;
+    }
+}
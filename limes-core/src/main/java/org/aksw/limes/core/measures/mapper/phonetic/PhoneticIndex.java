@@ -0,0 +1,359 @@
+package org.aksw.limes.core.measures.mapper.phonetic;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.util.ComputeExecutor;
+
+/**
+ * Index of the phonetic codes of the values of a property of a cache. Each
+ * distinct code is stored once with the uris of the instances that have a
+ * value with this code, and is packed into words of eight 8-bit characters,
+ * so that the characters of two codes are compared a word at a time. The ids
+ * of the codes are ordered by the length of the codes.
+ * <p>
+ * The values are encoded in parallel, once per cache, property and encoding:
+ * the indexes are shared by all phonetic mappers and reused as long as the
+ * values of the property do not change, see
+ * {@link #getIndex(ACache, String, String, Function)}.
+ *
+ * @author Kevin Dreßler
+ */
+class PhoneticIndex {
+
+    /**
+     * Minimal number of instances that are encoded in one task.
+     */
+    static final int MIN_PARTITION_SIZE = 1024;
+
+    private static final int CHARS_PER_WORD = 8;
+    // lowest bit of each character of a word
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    // shared indexes by cache, and by encoding and property
+    private static final Map<CacheKey, Map<String, PhoneticIndex>> sharedIndexes = new HashMap<>();
+    private static final ReferenceQueue<ACache> collectedCaches = new ReferenceQueue<>();
+
+    private final long fingerprint;
+    // codes by id, ordered by length
+    private final String[] codes;
+    // uris of the instances of each code
+    private final String[][] uris;
+    // packed codes, and the first word of each code
+    private final long[] words;
+    private final int[] offsets;
+    // first id of the codes of each length
+    private final int[] firstIdOfLength;
+    // tables of the ids of the codes of a length by the characters of one of
+    // their segments, by length and number of segments
+    private final Map<Long, List<Map<String, int[]>>> segmentTables = new ConcurrentHashMap<>();
+
+    /**
+     * Encodes and indexes the values of a property of a cache
+     *
+     * @param cache
+     *            Cache of the instances
+     * @param property
+     *            Property whose values are encoded
+     * @param encoder
+     *            Phonetic encoding of a value. Null or empty codes are left
+     *            out
+     * @param fingerprint
+     *            Fingerprint of the values of the property
+     */
+    PhoneticIndex(ACache cache, String property, Function<String, String> encoder, long fingerprint) {
+        this.fingerprint = fingerprint;
+        List<Instance> instances = cache.getAllInstances();
+        List<Map<String, Set<String>>> partitions = ComputeExecutor.invokePartitioned(instances.size(),
+                MIN_PARTITION_SIZE, (from, to) -> {
+                    Map<String, String> valueCodes = new HashMap<>();
+                    Map<String, Set<String>> codeUris = new HashMap<>();
+                    for (Instance instance : instances.subList(from, to)) {
+                        for (String value : instance.getProperty(property)) {
+                            String code = valueCodes.computeIfAbsent(value, encoder);
+                            if (code != null && !code.isEmpty()) {
+                                codeUris.computeIfAbsent(code, c -> new HashSet<>()).add(instance.getUri());
+                            }
+                        }
+                    }
+                    return codeUris;
+                });
+        Map<String, Set<String>> codeUris = partitions.get(0);
+        for (Map<String, Set<String>> partition : partitions.subList(1, partitions.size())) {
+            for (Entry<String, Set<String>> entry : partition.entrySet()) {
+                Set<String> codeUrisOfPartition = codeUris.putIfAbsent(entry.getKey(), entry.getValue());
+                if (codeUrisOfPartition != null) {
+                    codeUrisOfPartition.addAll(entry.getValue());
+                }
+            }
+        }
+
+        codes = codeUris.keySet().toArray(new String[codeUris.size()]);
+        Arrays.sort(codes, Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+        uris = new String[codes.length][];
+        offsets = new int[codes.length + 1];
+        for (int id = 0; id < codes.length; id++) {
+            Set<String> codeUrisOfId = codeUris.get(codes[id]);
+            uris[id] = codeUrisOfId.toArray(new String[codeUrisOfId.size()]);
+            offsets[id + 1] = offsets[id] + getWordCount(codes[id].length());
+        }
+        words = new long[offsets[codes.length]];
+        for (int id = 0; id < codes.length; id++) {
+            pack(codes[id], words, offsets[id]);
+        }
+        int maxLength = codes.length == 0 ? 0 : codes[codes.length - 1].length();
+        firstIdOfLength = new int[maxLength + 2];
+        int id = 0;
+        for (int length = 0; length < firstIdOfLength.length; length++) {
+            while (id < codes.length && codes[id].length() < length) {
+                id++;
+            }
+            firstIdOfLength[length] = id;
+        }
+    }
+
+    /**
+     * Retrieves the shared index of the codes of the values of a property of a
+     * cache. The index is created on first use, and created again if the
+     * values of the property have changed since. The indexes of a cache are
+     * released when the cache is garbage collected.
+     *
+     * @param cache
+     *            Cache of the instances
+     * @param property
+     *            Property whose values are encoded
+     * @param encoding
+     *            Name of the phonetic encoding
+     * @param encoder
+     *            Phonetic encoding of a value
+     * @return the index of the codes
+     */
+    static PhoneticIndex getIndex(ACache cache, String property, String encoding,
+            Function<String, String> encoder) {
+        Map<String, PhoneticIndex> indexes;
+        synchronized (sharedIndexes) {
+            Reference<? extends ACache> collected;
+            while ((collected = collectedCaches.poll()) != null) {
+                sharedIndexes.remove(collected);
+            }
+            indexes = sharedIndexes.computeIfAbsent(new CacheKey(cache, collectedCaches),
+                    key -> new ConcurrentHashMap<>());
+        }
+        long fingerprint = getFingerprint(cache, property);
+        return indexes.compute(encoding + "|" + property,
+                (key, index) -> index != null && index.fingerprint == fingerprint ? index
+                        : new PhoneticIndex(cache, property, encoder, fingerprint));
+    }
+
+    /**
+     * @return a hash of the uris of the instances of a cache and of the values
+     *         of a property of the instances
+     */
+    private static long getFingerprint(ACache cache, String property) {
+        long fingerprint = 0;
+        for (Instance instance : cache.getAllInstances()) {
+            fingerprint = 31 * fingerprint + 31L * instance.getUri().hashCode()
+                    + instance.getProperty(property).hashCode();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the number of distinct codes
+     */
+    int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param id
+     *            Id of a code
+     * @return the code
+     */
+    String getCode(int id) {
+        return codes[id];
+    }
+
+    /**
+     * @param id
+     *            Id of a code
+     * @return the uris of the instances that have a value with the code
+     */
+    String[] getUris(int id) {
+        return uris[id];
+    }
+
+    /**
+     * Reports the codes of this index that are not longer than a code of
+     * another index and that differ from its prefix of the same length in at
+     * most maxDistance characters. If maxDistance is lower than the length of
+     * the codes, at least one of maxDistance + 1 segments of the codes is equal
+     * to the one of the prefix, so that only the codes with an equal segment
+     * are compared.
+     *
+     * @param other
+     *            Index of the code
+     * @param id
+     *            Id of the code in the other index
+     * @param maxDistance
+     *            Maximal number of different characters
+     * @param seen
+     *            Marks of the codes of this index that were compared, with one
+     *            entry per code. The entries are set to id + 1 and must be
+     *            lower than id + 1 before the first search for the code
+     * @param matches
+     *            Consumer of the ids of the reported codes and of their
+     *            distances
+     */
+    void search(PhoneticIndex other, int id, int maxDistance, int[] seen, Matches matches) {
+        String code = other.codes[id];
+        int stamp = id + 1;
+        int maxLength = Math.min(code.length(), firstIdOfLength.length - 2);
+        for (int length = 1; length <= maxLength; length++) {
+            int first = firstIdOfLength[length];
+            int last = firstIdOfLength[length + 1];
+            if (first == last) {
+                continue;
+            }
+            if (maxDistance >= length) {
+                for (int candidate = first; candidate < last; candidate++) {
+                    matches.accept(candidate, getDistance(other, id, candidate, length, maxDistance));
+                }
+                continue;
+            }
+            int segments = maxDistance + 1;
+            List<Map<String, int[]>> tables = getSegmentTables(length, segments);
+            for (int segment = 0; segment < segments; segment++) {
+                int[] candidates = tables.get(segment)
+                        .get(code.substring(length * segment / segments, length * (segment + 1) / segments));
+                if (candidates == null) {
+                    continue;
+                }
+                for (int candidate : candidates) {
+                    if (seen[candidate] != stamp) {
+                        seen[candidate] = stamp;
+                        int distance = getDistance(other, id, candidate, length, maxDistance);
+                        if (distance <= maxDistance) {
+                            matches.accept(candidate, distance);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of different characters of a code of this index and
+     *         of the prefix of a code of another index, or a number higher
+     *         than maxDistance
+     */
+    private int getDistance(PhoneticIndex other, int otherId, int id, int length, int maxDistance) {
+        int distance = 0;
+        for (int word = 0; word * CHARS_PER_WORD < length && distance <= maxDistance; word++) {
+            long difference = other.words[other.offsets[otherId] + word] ^ words[offsets[id] + word];
+            int rest = length - word * CHARS_PER_WORD;
+            if (rest < CHARS_PER_WORD) {
+                difference &= (1L << (8 * rest)) - 1;
+            }
+            // fold the bits of each character into its lowest bit
+            difference |= difference >>> 4;
+            difference |= difference >>> 2;
+            difference |= difference >>> 1;
+            distance += Long.bitCount(difference & LOW_BITS);
+        }
+        return distance;
+    }
+
+    private List<Map<String, int[]>> getSegmentTables(int length, int segments) {
+        return segmentTables.computeIfAbsent(((long) length << 32) | segments, key -> {
+            List<Map<String, int[]>> tables = new ArrayList<>(segments);
+            for (int segment = 0; segment < segments; segment++) {
+                int from = length * segment / segments;
+                int to = length * (segment + 1) / segments;
+                Map<String, List<Integer>> ids = new HashMap<>();
+                for (int id = firstIdOfLength[length]; id < firstIdOfLength[length + 1]; id++) {
+                    ids.computeIfAbsent(codes[id].substring(from, to), s -> new ArrayList<>()).add(id);
+                }
+                Map<String, int[]> table = new HashMap<>(2 * ids.size());
+                for (Entry<String, List<Integer>> entry : ids.entrySet()) {
+                    table.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+                }
+                tables.add(table);
+            }
+            return tables;
+        });
+    }
+
+    private static int getWordCount(int length) {
+        return (length + CHARS_PER_WORD - 1) / CHARS_PER_WORD;
+    }
+
+    /**
+     * Packs the characters of a code into words, the first character into the
+     * lowest 8 bits of the first word. The phonetic codes are ASCII strings.
+     */
+    private static void pack(String code, long[] words, int offset) {
+        for (int i = 0; i < code.length(); i++) {
+            words[offset + i / CHARS_PER_WORD] |= (long) (code.charAt(i) & 0xFF) << (8 * (i % CHARS_PER_WORD));
+        }
+    }
+
+    /**
+     * Consumer of the codes found by a search.
+     */
+    interface Matches {
+
+        /**
+         * @param id
+         *            Id of a code
+         * @param distance
+         *            Number of different characters
+         */
+        void accept(int id, int distance);
+    }
+
+    /**
+     * Weak key of a cache in the shared indexes, that compares caches by
+     * identity.
+     */
+    private static class CacheKey extends WeakReference<ACache> {
+
+        private final int hash;
+
+        CacheKey(ACache cache, ReferenceQueue<ACache> queue) {
+            super(cache, queue);
+            hash = System.identityHashCode(cache);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            ACache cache = get();
+            return cache != null && cache == ((CacheKey) obj).get();
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package org.aksw.limes.core.measures.mapper.semantic.edgecounting;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -15,13 +23,29 @@ import org.aksw.limes.core.measures.measure.semantic.edgecounting.factory.Semant
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.factory.SemanticType;
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.AIndex;
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.memory.MemoryIndex;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 
+import edu.mit.jwi.item.ISynset;
+import weka.core.Stopwords;
+
+/**
+ * Computes edge-counting semantic similarities between instances. The
+ * hypernym paths of wordnet are taken from the shared {@link MemoryIndex}.
+ * The instances are blocked by the families of the concepts of their tokens,
+ * and the similarities of the tokens are computed once. Both the tokens and
+ * the source instances are compared on the {@link ComputeExecutor}.
+ */
 public class EdgeCountingSemanticMapper extends AMapper {
     static Logger logger = LoggerFactory.getLogger(EdgeCountingSemanticMapper.class);
 
+    /**
+     * Minimal number of tokens or instances of a partition.
+     */
+    static final int MIN_PARTITION_SIZE = 64;
+
     AEdgeCountingSemanticMeasure measure = null;
     AIndex Indexer = null;
 
@@ -63,39 +87,152 @@ public class EdgeCountingSemanticMapper extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        AMapping m = MappingFactory.createDefaultMapping();
-        // create index before anything
-        Indexer = new MemoryIndex();
-        Indexer.preIndex();
+        // the index is built once and shared by all semantic measures
+        Indexer = MemoryIndex.getSharedIndex();
         // create semantic similarity, pass indexer as parameter
         SemanticType type = SemanticFactory.getMeasureType(expression);
         measure = SemanticFactory.createMeasure(type, Indexer);
 
-        for (Instance sourceInstance : source.getAllInstances()) {
-            // System.out.println("Source URI "+sourceInstance.getUri());
-            for (Instance targetInstance : target.getAllInstances()) {
-                // System.out.println("-->Target URI "+targetInstance.getUri());
-                double similarity = measure.getSimilarity(sourceInstance, targetInstance, properties.get(0),
-                        properties.get(1));
-                if (similarity >= threshold) {
-                    m.add(sourceInstance.getUri(), targetInstance.getUri(), similarity);
+        List<Instance> sources = source.getAllInstances();
+        List<Instance> targets = target.getAllInstances();
+        List<Set<String>> sourceTokens = getTokens(sources, properties.get(0));
+        List<Set<String>> targetTokens = getTokens(targets, properties.get(1));
+
+        // index the target instances by their tokens, and the target tokens
+        // by their families
+        Map<String, List<Integer>> tokenTargets = new HashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            for (String token : targetTokens.get(i)) {
+                tokenTargets.computeIfAbsent(token, t -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, List<String>> familyTokens = new HashMap<>();
+        for (String token : tokenTargets.keySet()) {
+            for (String family : getFamilies(token)) {
+                familyTokens.computeIfAbsent(family, f -> new ArrayList<>()).add(token);
+            }
+        }
+
+        /*
+         * The similarity of two instances is at most the highest similarity
+         * of their tokens. Hence, only the target instances that contain a
+         * token whose similarity with a token of a source instance reaches
+         * the threshold are compared with it. Tokens of different families
+         * are not similar.
+         */
+        List<String> tokens = new ArrayList<>(new HashSet<>(flatten(sourceTokens)));
+        Map<String, List<String>> similarTokens = new ConcurrentHashMap<>();
+        ComputeExecutor.invokePartitioned(tokens.size(), MIN_PARTITION_SIZE, (from, to) -> {
+            for (String token : tokens.subList(from, to)) {
+                Set<String> candidates = new HashSet<>();
+                for (String family : getFamilies(token)) {
+                    candidates.addAll(familyTokens.getOrDefault(family, Collections.emptyList()));
+                }
+                List<String> similar = new ArrayList<>();
+                for (String candidate : candidates) {
+                    if (measure.getTokenSimilarity(token, candidate) >= threshold) {
+                        similar.add(candidate);
+                    }
                 }
+                similarTokens.put(token, similar);
+            }
+            return null;
+        });
 
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(sources.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    AMapping m = MappingFactory.createDefaultMapping();
+                    for (int i = from; i < to; i++) {
+                        Instance sourceInstance = sources.get(i);
+                        Set<Integer> candidates = new HashSet<>();
+                        for (String token : sourceTokens.get(i)) {
+                            for (String similar : similarTokens.get(token)) {
+                                candidates.addAll(tokenTargets.get(similar));
+                            }
+                        }
+                        for (int candidate : candidates) {
+                            Instance targetInstance = targets.get(candidate);
+                            double similarity = measure.getSimilarity(sourceInstance, targetInstance,
+                                    properties.get(0), properties.get(1));
+                            if (similarity >= threshold) {
+                                m.add(sourceInstance.getUri(), targetInstance.getUri(), similarity);
+                            }
+                        }
+                    }
+                    return m;
+                });
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (AMapping partition : partitions) {
+            for (String s : partition.getMap().keySet()) {
+                for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                    m.add(s, t.getKey(), t.getValue());
+                }
             }
         }
 
-        // in case of a db, you close the connection
-        Indexer.close();
         // dictionary gets open once, during the creation of the semantic
         // similarity.
         // then, it stays open until all comparisons between instances are
         // carried out. once the comparisons are over, the dictionary must be
-        // closed.
+        // closed. the shared index stays in memory.
         measure.close();
 
         return m;
     }
 
+    /**
+     * Tokenizes the values of a property of instances like the measure does.
+     *
+     * @return the tokens of the instances that are not stop words
+     */
+    private List<Set<String>> getTokens(List<Instance> instances, String property) {
+        List<Set<String>> tokens = new ArrayList<>();
+        for (List<Set<String>> partition : ComputeExecutor.invokePartitioned(instances.size(),
+                MIN_PARTITION_SIZE, (from, to) -> {
+                    List<Set<String>> result = new ArrayList<>();
+                    for (Instance instance : instances.subList(from, to)) {
+                        Set<String> instanceTokens = new HashSet<>();
+                        for (String value : instance.getProperty(property)) {
+                            String[] valueTokens = value.equals("") ? null
+                                    : measure.tokenize(new String[] { value });
+                            if (valueTokens != null) {
+                                for (String token : valueTokens) {
+                                    if (!Stopwords.isStopword(token)) {
+                                        instanceTokens.add(token);
+                                    }
+                                }
+                            }
+                        }
+                        result.add(instanceTokens);
+                    }
+                    return result;
+                })) {
+            tokens.addAll(partition);
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the families of the concepts of a token, and the token itself,
+     *         as equal tokens are similar
+     */
+    private Set<String> getFamilies(String token) {
+        Set<String> families = new HashSet<>();
+        families.add("=" + token);
+        for (ISynset synset : measure.getSynsets(token)) {
+            families.addAll(measure.getFamilies(synset));
+        }
+        return families;
+    }
+
+    private static List<String> flatten(List<Set<String>> tokens) {
+        List<String> result = new ArrayList<>();
+        for (Set<String> instanceTokens : tokens) {
+            result.addAll(instanceTokens);
+        }
+        return result;
+    }
+
     @Override
     public double getRuntimeApproximation(int sourceSize, int targetSize, double theta, Language language) {
         return 1000d;
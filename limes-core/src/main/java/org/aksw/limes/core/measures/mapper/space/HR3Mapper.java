@@ -6,6 +6,8 @@ package org.aksw.limes.core.measures.mapper.space;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.TreeSet;
 // * Previously call ToralOrderBlockingMapper
 
@@ -18,14 +20,23 @@ import org.aksw.limes.core.measures.mapper.space.blocking.BlockingFactory;
 import org.aksw.limes.core.measures.mapper.space.blocking.IBlockingModule;
 import org.aksw.limes.core.measures.measure.space.ISpaceMeasure;
 import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
+import org.aksw.limes.core.util.ComputeExecutor;
 
 /**
- * Uses metric spaces to create blocks.
+ * Uses metric spaces to create blocks. The Euclidean and Manhattan measures
+ * search the points of the instances in a {@link PointIndex} of primitive
+ * columns of the target values, the other space measures the blocks of an
+ * {@link IBlockingModule}.
  *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class HR3Mapper extends AMapper {
 
+    /**
+     * Minimal number of source points that are searched in one task.
+     */
+    static final int MIN_PARTITION_SIZE = 1024;
+
     public int granularity = 4;
 
     // this might only work for substraction. Need to create something that
@@ -95,6 +106,14 @@ public class HR3Mapper extends AMapper {
             property2 = term2;
         }
 
+        String operator = p.getOperator().toLowerCase();
+        if (operator.startsWith("euclidean")) {
+            return getMinkowskiMapping(source, target, property1, property2, 2, threshold);
+        }
+        if (operator.startsWith("manhattan")) {
+            return getMinkowskiMapping(source, target, property1, property2, 1, threshold);
+        }
+
         // get number of dimensions we are dealing with
         int dimensions = property2.split("\\|").length;
         // important. The Blocking module takes care of the transformation from
@@ -163,6 +182,64 @@ public class HR3Mapper extends AMapper {
         return mapping;
     }
 
+    /**
+     * Computes the links of a Minkowski measure. The similarity of two points
+     * is 1/(1+d) for their distance d, so that linked points differ in at most
+     * (1 - threshold)/threshold in each dimension. The points of the target
+     * are indexed in a {@link PointIndex} whose cells have this width, and the
+     * points of the source are searched in parallel.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceProperties
+     *            Source properties of the dimensions, separated by |
+     * @param targetProperties
+     *            Target properties of the dimensions, separated by |
+     * @param p
+     *            Order of the Minkowski distance, 1 for the Manhattan and 2 for
+     *            the Euclidean distance
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping which contains links between the source instances and
+     *         the target instances
+     */
+    protected AMapping getMinkowskiMapping(ACache source, ACache target, String sourceProperties,
+            String targetProperties, int p, double threshold) {
+        double maxDistance = (1 - threshold) / threshold;
+        double cellWidth = threshold <= 0 ? Double.POSITIVE_INFINITY : maxDistance > 0 ? maxDistance : 1;
+        PointIndex sourceIndex = new PointIndex(source, sourceProperties.split("\\|"), cellWidth);
+        PointIndex targetIndex = new PointIndex(target, targetProperties.split("\\|"), cellWidth);
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(sourceIndex.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    AMapping result = MappingFactory.createMapping(source, target);
+                    double[] distances = targetIndex.createDistanceBuffer();
+                    for (int point = from; point < to; point++) {
+                        String sourceUri = sourceIndex.getUri(point);
+                        targetIndex.search(sourceIndex, point, p, maxDistance, distances, (targetPoint, distance) -> {
+                            double sim = 1.0 / (1.0 + distance);
+                            if (sim >= threshold) {
+                                result.add(sourceUri, targetIndex.getUri(targetPoint), sim);
+                            }
+                        });
+                    }
+                    return result;
+                });
+        if (partitions.size() == 1) {
+            return partitions.get(0);
+        }
+        AMapping result = MappingFactory.createMapping(source, target);
+        for (AMapping partition : partitions) {
+            for (String s : partition.getMap().keySet()) {
+                for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                    result.add(s, t.getKey(), t.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
     // need to change this
     public double getRuntimeApproximation(int sourceSize, int targetSize, double threshold, Language language) {
         if (language.equals(Language.DE)) {
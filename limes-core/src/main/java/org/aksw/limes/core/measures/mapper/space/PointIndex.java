@@ -0,0 +1,314 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the points of the instances of a cache in a space whose dimensions
+ * are numeric properties. The values of each property are parsed once into a
+ * primitive column, and an instance with several values has one point per
+ * combination of its values. The points are ordered by the cells of a grid
+ * whose cells have the same width in all dimensions, first by their cell in
+ * the first dimension, then in the second and so on, so that the points of a
+ * range of cells are contiguous and found by binary search. The coordinates
+ * are stored by dimension, so that the distances of a point to the points of
+ * a cell are computed by simple loops over arrays.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+class PointIndex {
+
+    static Logger logger = LoggerFactory.getLogger(PointIndex.class);
+
+    private final double cellWidth;
+    // uris of the instances, and the instance of each point
+    private final String[] uris;
+    private final int[] instances;
+    // coordinates and cells of the points by dimension
+    private final double[][] coordinates;
+    private final long[][] cells;
+    // highest number of points in a cell
+    private final int maxCellSize;
+
+    /**
+     * Parses the values of the properties of the instances of a cache and
+     * indexes their points. Values that are not numbers are left out.
+     *
+     * @param cache
+     *            Cache of the instances
+     * @param properties
+     *            Properties of the dimensions
+     * @param cellWidth
+     *            Width of the cells of the grid in each dimension
+     */
+    PointIndex(ACache cache, String[] properties, double cellWidth) {
+        this.cellWidth = cellWidth;
+        List<Instance> cacheInstances = cache.getAllInstances();
+        int dimensions = properties.length;
+        uris = new String[cacheInstances.size()];
+        for (int instance = 0; instance < uris.length; instance++) {
+            uris[instance] = cacheInstances.get(instance).getUri();
+        }
+        // values of each dimension by instance
+        int[][] offsets = new int[dimensions][cacheInstances.size() + 1];
+        double[][] values = new double[dimensions][];
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            double[] column = new double[16];
+            int size = 0;
+            for (int instance = 0; instance < cacheInstances.size(); instance++) {
+                for (String value : cacheInstances.get(instance).getProperty(properties[dimension])) {
+                    try {
+                        double number = Double.parseDouble(value);
+                        if (size == column.length) {
+                            column = Arrays.copyOf(column, 2 * size);
+                        }
+                        column[size++] = number;
+                    } catch (NumberFormatException e) {
+                        logger.warn(value + " is not a number. Will be ignored.");
+                    }
+                }
+                offsets[dimension][instance + 1] = size;
+            }
+            values[dimension] = column;
+        }
+
+        // one point per combination of the values of an instance
+        int size = 0;
+        for (int instance = 0; instance < uris.length; instance++) {
+            size += getCombinationCount(offsets, instance);
+        }
+        int[] unsortedInstances = new int[size];
+        double[][] unsortedCoordinates = new double[dimensions][size];
+        int point = 0;
+        int[] combination = new int[dimensions];
+        for (int instance = 0; instance < uris.length; instance++) {
+            int count = getCombinationCount(offsets, instance);
+            for (int i = 0; i < count; i++, point++) {
+                // the i-th combination, with the values of the last dimension
+                // changing fastest
+                int rest = i;
+                for (int dimension = dimensions - 1; dimension >= 0; dimension--) {
+                    int valueCount = offsets[dimension][instance + 1] - offsets[dimension][instance];
+                    combination[dimension] = offsets[dimension][instance] + rest % valueCount;
+                    rest /= valueCount;
+                }
+                unsortedInstances[point] = instance;
+                for (int dimension = 0; dimension < dimensions; dimension++) {
+                    unsortedCoordinates[dimension][point] = values[dimension][combination[dimension]];
+                }
+            }
+        }
+        long[][] unsortedCells = new long[dimensions][size];
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            for (point = 0; point < size; point++) {
+                unsortedCells[dimension][point] = getCell(unsortedCoordinates[dimension][point]);
+            }
+        }
+
+        int[] order = new int[size];
+        for (point = 0; point < size; point++) {
+            order[point] = point;
+        }
+        sort(order, new int[size], 0, size, unsortedCells);
+        instances = new int[size];
+        coordinates = new double[dimensions][size];
+        cells = new long[dimensions][size];
+        for (point = 0; point < size; point++) {
+            instances[point] = unsortedInstances[order[point]];
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                coordinates[dimension][point] = unsortedCoordinates[dimension][order[point]];
+                cells[dimension][point] = unsortedCells[dimension][order[point]];
+            }
+        }
+        int max = 0;
+        for (int first = 0, last; first < size; first = last) {
+            last = first + 1;
+            while (last < size && compare(cells, first, last) == 0) {
+                last++;
+            }
+            max = Math.max(max, last - first);
+        }
+        maxCellSize = max;
+    }
+
+    private static int getCombinationCount(int[][] offsets, int instance) {
+        int count = 1;
+        for (int[] offsetsOfDimension : offsets) {
+            count *= offsetsOfDimension[instance + 1] - offsetsOfDimension[instance];
+        }
+        return count;
+    }
+
+    private long getCell(double coordinate) {
+        return (long) Math.floor(coordinate / cellWidth);
+    }
+
+    /**
+     * Sorts the points from (inclusive) to (exclusive) of an order by their
+     * cells, with a merge sort.
+     */
+    private static void sort(int[] order, int[] buffer, int from, int to, long[][] cells) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(order, buffer, from, middle, cells);
+        sort(order, buffer, middle, to, cells);
+        if (compare(cells, order[middle - 1], order[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right >= to || left < middle && compare(cells, buffer[left], buffer[right]) <= 0) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static int compare(long[][] cells, int point1, int point2) {
+        for (long[] cellsOfDimension : cells) {
+            int comparison = Long.compare(cellsOfDimension[point1], cellsOfDimension[point2]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of points
+     */
+    int size() {
+        return instances.length;
+    }
+
+    /**
+     * @param point
+     *            Number of a point
+     * @return the uri of the instance of the point
+     */
+    String getUri(int point) {
+        return uris[instances[point]];
+    }
+
+    /**
+     * @return a buffer for the distances computed by
+     *         {@link #search(PointIndex, int, int, double, double[], Matches)}
+     */
+    double[] createDistanceBuffer() {
+        return new double[maxCellSize];
+    }
+
+    /**
+     * Reports the points of this index whose cells are in the range of a
+     * point of another index, i.e. all the points that differ from the point
+     * in at most maxDistance in each dimension, with their Minkowski
+     * distances to the point.
+     *
+     * @param other
+     *            Index of the point, with the same number of dimensions
+     * @param point
+     *            Number of the point in the other index
+     * @param p
+     *            Order of the Minkowski distance, 1 for the Manhattan and 2
+     *            for the Euclidean distance
+     * @param maxDistance
+     *            Maximal distance of the reported points
+     * @param distances
+     *            Buffer of {@link #createDistanceBuffer()}
+     * @param matches
+     *            Consumer of the numbers of the reported points and of their
+     *            distances
+     */
+    void search(PointIndex other, int point, int p, double maxDistance, double[] distances, Matches matches) {
+        search(other, point, p, maxDistance, 0, 0, size(), distances, matches);
+    }
+
+    private void search(PointIndex other, int point, int p, double maxDistance, int dimension, int from, int to,
+            double[] distances, Matches matches) {
+        double coordinate = other.coordinates[dimension][point];
+        // allow for the rounding of the distances and of the cells
+        double slack = 2 * Math.ulp(Math.abs(coordinate) + maxDistance);
+        long lowestCell = getCell(coordinate - maxDistance - slack);
+        long highestCell = getCell(coordinate + maxDistance + slack);
+        long[] cellsOfDimension = cells[dimension];
+        int first = getFirstPoint(cellsOfDimension, from, to, lowestCell);
+        while (first < to && cellsOfDimension[first] <= highestCell) {
+            long cell = cellsOfDimension[first];
+            int last = cell == Long.MAX_VALUE ? to : getFirstPoint(cellsOfDimension, first, to, cell + 1);
+            if (dimension + 1 < cells.length) {
+                search(other, point, p, maxDistance, dimension + 1, first, last, distances, matches);
+            } else {
+                computeDistances(other, point, p, first, last, distances, matches);
+            }
+            first = last;
+        }
+    }
+
+    /**
+     * @return the first point from (inclusive) to (exclusive) whose cell is
+     *         not lower than the cell, in the order of the cells
+     */
+    private static int getFirstPoint(long[] cellsOfDimension, int from, int to, long cell) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cellsOfDimension[middle] < cell) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Computes the distances of a point of another index to the points of a
+     * cell a dimension at a time, in the same order of operations as the
+     * Minkowski measures.
+     */
+    private void computeDistances(PointIndex other, int point, int p, int from, int to, double[] distances,
+            Matches matches) {
+        int count = to - from;
+        Arrays.fill(distances, 0, count, 0d);
+        for (int dimension = 0; dimension < coordinates.length; dimension++) {
+            double coordinate = other.coordinates[dimension][point];
+            double[] column = coordinates[dimension];
+            if (p == 1) {
+                for (int i = 0; i < count; i++) {
+                    distances[i] += Math.abs(coordinate - column[from + i]);
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    double difference = coordinate - column[from + i];
+                    distances[i] += difference * difference;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            matches.accept(from + i, p == 1 ? distances[i] : Math.sqrt(distances[i]));
+        }
+    }
+
+    /**
+     * Consumer of the points found by a search.
+     */
+    interface Matches {
+
+        /**
+         * @param point
+         *            Number of a point
+         * @param distance
+         *            Distance of the point
+         */
+        void accept(int point, double distance);
+    }
+}
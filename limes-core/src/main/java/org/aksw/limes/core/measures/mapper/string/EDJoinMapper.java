@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map.Entry;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
@@ -14,6 +15,7 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -25,18 +27,28 @@ import algorithms.edjoin.QGram;
 import algorithms.edjoin.Record;
 
 /**
+ * Computes Levenshtein joins with EdJoin. The source and target values are
+ * joined as one set of records that is sorted by length. The prefix q-grams
+ * of all records are indexed first, then the records are split into
+ * partitions of similar length whose candidates are generated and verified on
+ * the {@link ComputeExecutor}. The state of a join is local to the call of
+ * {@link #getMapping}, so that several joins can run at the same time.
+ *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class EDJoinMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(EDJoinMapper.class);
-    private static int Q = -1;
-    private static AMapping mapping = null;
-    private static HashMap<Integer, String> sourceMap;
-    private static HashMap<Integer, String> targetMap;
-    @SuppressWarnings("unused")
-    private int comparisons = 0;
-    
+    /**
+     * Length of the q-grams.
+     */
+    private static final int Q = 3;
+    /**
+     * Minimal number of records of a partition, smaller joins are run by the
+     * calling thread.
+     */
+    static final int MIN_PARTITION_SIZE = 512;
+
     private static Record[] qTokenizer(String[] objects, int q) {
         StoppUhr s = new StoppUhr();
         s.Starten();
@@ -71,10 +83,10 @@ public class EDJoinMapper extends AMapper {
         return records;
     }
 
-    private static int verification(Record currentRec, HashMap<Integer, Record> candidates, ArrayList<String> objects,
-            int q, int threshold) {
-        int count = 0;
-        String id1, id2;
+    private static void verification(Record currentRec, HashMap<Integer, Record> candidates, Join join,
+            AMapping mapping) {
+        int q = Q;
+        int threshold = join.tau;
         Iterator<Record> iter = candidates.values().iterator();
         while (iter.hasNext()) {
             Record y = iter.next();
@@ -89,31 +101,16 @@ public class EDJoinMapper extends AMapper {
                  * location-based mismatch filtering
                  */
                 if (e2 <= threshold) {
-                    int e3 = contentFilter(objects.get(currentRec.id), objects.get(y.id), compResult.Q, threshold, q);
+                    int e3 = contentFilter(join.entries[currentRec.id], join.entries[y.id], compResult.Q, threshold, q);
                     if (e3 <= 2 * threshold) {
-                        int ed = editDistance(objects.get(currentRec.id), objects.get(y.id));
+                        int ed = editDistance(join.entries[currentRec.id], join.entries[y.id]);
                         if (ed <= threshold) {
-                            if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(y.id))) {
-                                id1 = sourceMap.get(currentRec.id);
-                                id2 = targetMap.get(y.id);
-                                // CORRECT
-                                mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                            } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(y.id)) {
-                                // get uris for ids
-                                {
-                                    id1 = sourceMap.get(y.id);
-                                    id2 = targetMap.get(currentRec.id);
-                                    // CORRECT
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                }
-                                count++;
-                            }
+                            join.add(currentRec.id, y.id, ed, mapping);
                         }
                     }
                 }
             }
         }
-        return count;
     }
 
     private static int calcPrefixLen(Record x, int tau, int q) {
@@ -369,17 +366,12 @@ public class EDJoinMapper extends AMapper {
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
 
-        if (Q <= 1) {
-            Q = 3;
-        }
         // convert similarity in distance threshold
         threshold = (1 - threshold) / threshold;
 
-        this.comparisons = 0;
-        mapping = MappingFactory.createDefaultMapping();
         if (threshold < 0) {
             logger.info("Wrong threshold setting. Returning empty mapping.");
-            return mapping;
+            return MappingFactory.createDefaultMapping();
         }
 
         // get property labels
@@ -402,106 +394,155 @@ public class EDJoinMapper extends AMapper {
         }
 
         // 3.1 fill objects from source in entry. This is for indexing and
-        // sorting
-        // later on
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<Integer, String>();
-        ArrayList<String> uris = source.getAllUris();
+        // sorting later on
+        ArrayList<String> entryUris = new ArrayList<String>();
         ArrayList<String> entries = new ArrayList<String>();
+        ArrayList<String> uris = source.getAllUris();
         Instance instance;
-        int counter = 0;
         for (int i = 0; i < uris.size(); i++) {
             instance = source.getInstance(uris.get(i));
             for (String s : instance.getProperty(properties.get(0))) {
-                sourceMap.put(counter, uris.get(i));
+                entryUris.add(uris.get(i));
                 entries.add(s);
-                counter++;
             }
         }
+        int sourceSize = entries.size();
 
         // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
         uris = target.getAllUris();
         for (int i = 0; i < uris.size(); i++) {
             instance = target.getInstance(uris.get(i));
             for (String s : instance.getProperty(properties.get(1))) {
-                targetMap.put(counter, uris.get(i));
+                entryUris.add(uris.get(i));
                 entries.add(s);
-                counter++;
             }
         }
 
-        // transform entries into array so that tokenizer will work
-        // we will use entries later on as they do not lead to RAM errors
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+        Join join = new Join(entries.toArray(new String[entries.size()]),
+                entryUris.toArray(new String[entryUris.size()]), sourceSize, threshold);
+        return join.run();
+    }
+
+    /**
+     * State of a single join.
+     */
+    private static class Join {
+
+        // values of the records, the ids of the records are the indexes
+        final String[] entries;
+        // uris of the values
+        final String[] uris;
+        // ids below sourceSize are source values, all others target values
+        final int sourceSize;
+        final double threshold;
+        final int tau;
+        Record[] records;
+        int[] prefixLengths;
+        // maps each token to the positions of the records whose prefix
+        // contains it, in ascending order
+        HashMap<Integer, ArrayList<EdPosition>> index;
+
+        Join(String[] entries, String[] uris, int sourceSize, double threshold) {
+            this.entries = entries;
+            this.uris = uris;
+            this.sourceSize = sourceSize;
+            this.threshold = threshold;
+            this.tau = (int) threshold;
+        }
+
+        boolean isSource(int id) {
+            return id < sourceSize;
+        }
+
+        /**
+         * Adds the link between two records if one of them is a source and
+         * the other one a target record.
+         */
+        void add(int id1, int id2, int ed, AMapping mapping) {
+            if (isSource(id1) && !isSource(id2)) {
+                mapping.add(uris[id1], uris[id2], 1.0 / (1 + (double) ed));
+            } else if (!isSource(id1) && isSource(id2)) {
+                mapping.add(uris[id2], uris[id1], 1.0 / (1 + (double) ed));
+            }
         }
 
-        // Begin EdJoin. First run the tokenization
-        Record[] records = qTokenizer(entryArray, Q);
-        HashMap<Integer, LinkedList<EdPosition>> index = new HashMap<Integer, LinkedList<EdPosition>>(); // I
-        int count = 0;
-        // run the core of EdJoin
-        String id1, id2;
-        for (int i = 0; i < records.length; i++) {
-            /*
-             * if the length of a record is smaller than q, then we cannot use
-             * the q-gram approach and have to go for comparison without q-gram
-             * filtering
-             */
-            if (records[i].qGrams.length == 0 && records[i].s.length() > 0) {
-                String x = records[i].s;
-                for (int j = i + 1; j < records.length; j++) {
-                    if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))
-                            || (targetMap.containsKey(records[i].id) && sourceMap.containsKey(records[j].id))) {
-                        String y = records[j].s;
-
-                        // length filtering
-                        if (Math.abs(x.length() - y.length()) <= threshold) {
-                            int ed = editDistance(x, y);
-                            if (ed <= threshold) {
-                                if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))) {
-                                    id1 = sourceMap.get(records[i].id);
-                                    id2 = targetMap.get(records[j].id);
-                                    // CORRECT
-                                    // if ((1.0 / (1 + (double) ed)) >=
-                                    // threshold)
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                } else // should not be necessary
-                                {
-                                    // get uris for ids
-                                    {
-                                        id1 = sourceMap.get(records[j].id);
-                                        id2 = targetMap.get(records[i].id);
-
-                                        // CORRECT
-                                        // if ((1.0 / (1 + (double) ed)) >=
-                                        // threshold)
-                                        mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                        // mapping.add(id2, id1, similarity);
-                                    }
+        AMapping run() {
+            // Begin EdJoin. First run the tokenization
+            records = qTokenizer(entries, Q);
+            // then index the prefixes of all records, so that the partitions
+            // can probe the records that precede them
+            prefixLengths = new int[records.length];
+            index = new HashMap<Integer, ArrayList<EdPosition>>();
+            for (int i = 0; i < records.length; i++) {
+                if (records[i].qGrams.length == 0) {
+                    continue;
+                }
+                prefixLengths[i] = calcPrefixLen(records[i], tau, Q);
+                for (int j = 0; j < prefixLengths[i]; j++) {
+                    ArrayList<EdPosition> l = index.get(records[i].qGrams[j].token.id);
+                    if (l == null) {
+                        l = new ArrayList<EdPosition>();
+                        index.put(records[i].qGrams[j].token.id, l);
+                    }
+                    l.add(new EdPosition(records[i], records[i].qGrams[j].loc, i));
+                }
+            }
+            List<AMapping> partitions = ComputeExecutor.invokePartitioned(records.length, MIN_PARTITION_SIZE,
+                    this::probe);
+            if (partitions.size() == 1) {
+                return partitions.get(0);
+            }
+            // merge the mappings of the partitions
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            for (AMapping partition : partitions) {
+                for (String s : partition.getMap().keySet()) {
+                    for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                        mapping.add(s, t.getKey(), t.getValue());
+                    }
+                }
+            }
+            return mapping;
+        }
+
+        /**
+         * Joins the records at the positions from (inclusive) to (exclusive)
+         * with all preceding records.
+         */
+        AMapping probe(int from, int to) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            for (int i = from; i < to; i++) {
+                /*
+                 * if the length of a record is smaller than q, then we cannot
+                 * use the q-gram approach and have to go for comparison
+                 * without q-gram filtering
+                 */
+                if (records[i].qGrams.length == 0 && records[i].s.length() > 0) {
+                    String x = records[i].s;
+                    for (int j = i + 1; j < records.length; j++) {
+                        if (isSource(records[i].id) != isSource(records[j].id)) {
+                            String y = records[j].s;
+                            // length filtering
+                            if (Math.abs(x.length() - y.length()) <= threshold) {
+                                int ed = editDistance(x, y);
+                                if (ed <= threshold) {
+                                    add(records[i].id, records[j].id, ed, mapping);
                                 }
-                                count++;
+                            } else {
+                                break;
                             }
-                        } else {
-                            break;
                         }
                     }
-                }
-            } else {
-                HashMap<Integer, Record> candidates = new HashMap<Integer, Record>(); // A
-                Record currentRec = records[i]; // record x
-                int prefixLength = calcPrefixLen(currentRec, (int) threshold, Q);
-                for (int j = 0; j < prefixLength; j++) {
-                    Integer tokenID = currentRec.qGrams[j].token.id; // w
-                    Integer loc = currentRec.qGrams[j].loc; // locx
-                    LinkedList<EdPosition> l = index.get(tokenID);
-                    if (l != null) {
-                        Iterator<EdPosition> iter = l.iterator();
-                        while (iter.hasNext()) {
-                            EdPosition pos = iter.next();
+                } else {
+                    HashMap<Integer, Record> candidates = new HashMap<Integer, Record>(); // A
+                    Record currentRec = records[i]; // record x
+                    for (int j = 0; j < prefixLengths[i]; j++) {
+                        int loc = currentRec.qGrams[j].loc; // locx
+                        // w
+                        for (EdPosition pos : index.get(currentRec.qGrams[j].token.id)) {
+                            // only records that precede x
+                            if (pos.position >= i) {
+                                break;
+                            }
                             if (pos.record.qGrams.length >= currentRec.qGrams.length - threshold
                                     && candidates.get(pos.record.id) == null) {
                                 if (Math.abs(loc - pos.EdPosition) <= threshold) {
@@ -509,29 +550,14 @@ public class EDJoinMapper extends AMapper {
                                 }
                             }
                         }
-                        l.add(new EdPosition(currentRec, loc)); // index the
-                        // current
-                        // prefix
-                    } else {
-                        l = new LinkedList<EdPosition>();
-                        l.add(new EdPosition(currentRec, loc));
-                        index.put(tokenID, l);
                     }
-                }
-                if (candidates.size() > 0) {
-                    count = count + verification(currentRec, candidates, entries, Q, (int) threshold);
+                    if (candidates.size() > 0) {
+                        verification(currentRec, candidates, this, mapping);
+                    }
                 }
             }
+            return mapping;
         }
-        /*
-         * AMapping tempMapping = MappingFactory.createDefaultMapping(); for
-         * (String key : mapping.getMap().keySet()) { for (String value :
-         * mapping.getMap().get(key).keySet()) { double confidence =
-         * mapping.getConfidence(key, value); if (confidence < threshold) {
-         * tempMapping.add(key, value, confidence); } } } mapping = tempMapping;
-         */
-
-        return mapping;
     }
 
     @Override
@@ -598,9 +624,12 @@ class EdPosition {
 
     Record record = null;
     int EdPosition = -1;
+    // position of the record in the sorted records
+    int position = -1;
 
-    public EdPosition(Record record, int EdPosition) {
+    public EdPosition(Record record, int EdPosition, int position) {
         this.record = record;
         this.EdPosition = EdPosition;
+        this.position = position;
     }
 }
@@ -1,9 +1,11 @@
 package org.aksw.limes.core.measures.mapper.string;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
@@ -13,12 +15,30 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.measure.string.TrigramMeasure;
+import org.aksw.limes.core.util.ComputeExecutor;
 
 /**
+ * Computes Monge-Elkan similarities with trigram similarities of the tokens.
+ * The values are tokenized once and their tokens are indexed by their
+ * trigrams. For each token of the source values, the target tokens whose
+ * similarity is at least half of the threshold are computed once. A source
+ * value is only compared with the target values that contain such a token of
+ * enough of its source tokens to reach the threshold, the remaining target
+ * values cannot reach it. The source values are split into partitions that
+ * are run on the {@link ComputeExecutor}.
+ *
  * @author Peggy Lucke
  */
 public class MongeElkanMapper extends AMapper {
 
+    /**
+     * Minimal number of values of a partition, smaller joins are run by the
+     * calling thread.
+     */
+    static final int MIN_PARTITION_SIZE = 256;
+    // tolerance for rounding errors of the bound of the candidates
+    private static final double EPSILON = 1e-9;
+
     // Tokens are divide by space
     private String split = " ";
     // underlying trigram measure provided
@@ -44,82 +64,371 @@ public class MongeElkanMapper extends AMapper {
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
-        Iterator<String> sit = sourceMap.keySet().iterator();
-        double resultDouble;
-        Map<String, Map<String, Double>> similarityBook = new HashMap<>();
-        while (sit.hasNext()) {
-            Iterator<String> tit = targetMap.keySet().iterator();
-            String sourceString = sit.next();
-            HashMap<String, Double> resultB = new HashMap<>();
-            while (tit.hasNext()) {
-                String targetString = tit.next();
-                resultDouble = oneMongeElkan(sourceString.split(split), targetString.split(split), threshold);
-                if (threshold <= resultDouble) {
-                    resultB.put(targetString, resultDouble);
-                }
-            }
-            similarityBook.put(sourceString, resultB);
+        List<AMapping> partitions = new Join(sourceMap, targetMap, threshold).run();
+        if (partitions.size() == 1) {
+            return partitions.get(0);
         }
-
         AMapping result = MappingFactory.createDefaultMapping();
-        for (String s : similarityBook.keySet()) {
-            for (String t : similarityBook.get(s).keySet()) {
-                for (String sourceUri : sourceMap.get(s)) {
-                    for (String targetUri : targetMap.get(t)) {
-                        result.add(sourceUri, targetUri, similarityBook.get(s).get(t));
-                    }
+        for (AMapping partition : partitions) {
+            for (String s : partition.getMap().keySet()) {
+                for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                    result.add(s, t.getKey(), t.getValue());
                 }
             }
         }
         return result;
     }
 
-    /*
-     * compare one text with another
+    /**
+     * State of a single join. Tokens and trigrams are identified by their
+     * index in the dictionaries.
      */
-    private double oneMongeElkan(String[] sourceToken, String[] targetToken, double threshold) {
-        double simB = 0;
-        double result = 0;
-        float maxNumber = sourceToken.length;
-        /*
-         * the minimum of the result to reach the threshold
+    private class Join {
+
+        final Map<String, Set<String>> sourceMap;
+        final Map<String, Set<String>> targetMap;
+        final double threshold;
+        // minimal similarity of the indexed pairs of tokens
+        final double tokenThreshold;
+
+        HashMap<String, Integer> tokenIds = new HashMap<>();
+        HashMap<String, Integer> trigramIds = new HashMap<>();
+        // sorted trigrams of each token
+        int[][] trigrams;
+        String[] sources;
+        // tokens of each source value, in the order of the value
+        int[][] sourceTokens;
+        String[] targets;
+        // distinct tokens of each target value
+        int[][] targetTokens;
+        // target values that contain a token
+        int[][] postings;
+        // target tokens that contain a trigram, ordered by their number of
+        // trigrams
+        int[][] trigramIndex;
+        // target tokens whose similarity with a source token is at least
+        // tokenThreshold, ordered by token
+        int[][] neighbourIds;
+        double[][] neighbourSims;
+        // number of target values that contain a neighbour of a source token
+        long[] reach;
+
+        Join(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap, double threshold) {
+            this.sourceMap = sourceMap;
+            this.targetMap = targetMap;
+            this.threshold = threshold;
+            this.tokenThreshold = threshold / 2;
+        }
+
+        List<AMapping> run() {
+            ArrayList<int[]> tokenTrigrams = new ArrayList<>();
+            sources = sourceMap.keySet().toArray(new String[sourceMap.size()]);
+            sourceTokens = new int[sources.length][];
+            for (int i = 0; i < sources.length; i++) {
+                sourceTokens[i] = tokenize(sources[i], tokenTrigrams);
+            }
+            int sourceTokenCount = tokenIds.size();
+            targets = targetMap.keySet().toArray(new String[targetMap.size()]);
+            targetTokens = new int[targets.length][];
+            for (int i = 0; i < targets.length; i++) {
+                int[] tokens = tokenize(targets[i], tokenTrigrams);
+                Arrays.sort(tokens);
+                int distinct = 0;
+                for (int j = 0; j < tokens.length; j++) {
+                    if (j == 0 || tokens[j] != tokens[j - 1]) {
+                        tokens[distinct++] = tokens[j];
+                    }
+                }
+                targetTokens[i] = Arrays.copyOf(tokens, distinct);
+            }
+            trigrams = tokenTrigrams.toArray(new int[tokenTrigrams.size()][]);
+            indexTargets();
+
+            // the tokens of the source values are the first ones of the
+            // dictionary
+            neighbourIds = new int[sourceTokenCount][];
+            neighbourSims = new double[sourceTokenCount][];
+            reach = new long[sourceTokenCount];
+            ComputeExecutor.invokePartitioned(sourceTokenCount, MIN_PARTITION_SIZE, (from, to) -> {
+                int[] overlaps = new int[trigrams.length];
+                int[] touched = new int[trigrams.length];
+                for (int token = from; token < to; token++) {
+                    computeNeighbours(token, overlaps, touched);
+                }
+                return null;
+            });
+            return ComputeExecutor.invokePartitioned(sources.length, MIN_PARTITION_SIZE, this::probe);
+        }
+
+        /**
+         * @return the tokens of value
          */
-        float treshMin = (float) (maxNumber * threshold);
-        for (String sourceString : sourceToken) {// ein a
-            double maxSim = 0;
-            for (String targetString : targetToken) {// ein b
-                double sim = tokenSim(sourceString, targetString);
-                if (maxSim < sim) {
-                    maxSim = sim;
-                }
-                if (maxSim == 1) {
-                    break;
+        int[] tokenize(String value, ArrayList<int[]> tokenTrigrams) {
+            String[] tokens = value.split(split);
+            int[] result = new int[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                Integer id = tokenIds.get(tokens[i]);
+                if (id == null) {
+                    id = tokenIds.size();
+                    tokenIds.put(tokens[i], id);
+                    // same padding as the trigram measure
+                    Set<String> grams = trigram.getTrigrams("  " + tokens[i] + "  ");
+                    int[] gramIds = new int[grams.size()];
+                    int j = 0;
+                    for (String gram : grams) {
+                        Integer gramId = trigramIds.get(gram);
+                        if (gramId == null) {
+                            gramId = trigramIds.size();
+                            trigramIds.put(gram, gramId);
+                        }
+                        gramIds[j++] = gramId;
+                    }
+                    Arrays.sort(gramIds);
+                    tokenTrigrams.add(gramIds);
+                }
+                result[i] = id;
+            }
+            return result;
+        }
+
+        /**
+         * Builds the postings of the target tokens and the index of their
+         * trigrams.
+         */
+        void indexTargets() {
+            int[] sizes = new int[trigrams.length];
+            for (int[] tokens : targetTokens) {
+                for (int token : tokens) {
+                    sizes[token]++;
+                }
+            }
+            postings = new int[trigrams.length][];
+            for (int token = 0; token < trigrams.length; token++) {
+                postings[token] = new int[sizes[token]];
+                sizes[token] = 0;
+            }
+            for (int i = 0; i < targetTokens.length; i++) {
+                for (int token : targetTokens[i]) {
+                    postings[token][sizes[token]++] = i;
+                }
+            }
+
+            // insert the target tokens by their number of trigrams, so that
+            // the lists of the index are ordered by it
+            Integer[] order = new Integer[trigrams.length];
+            for (int token = 0; token < order.length; token++) {
+                order[token] = token;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(trigrams[a].length, trigrams[b].length));
+            sizes = new int[trigramIds.size()];
+            for (int token = 0; token < trigrams.length; token++) {
+                if (postings[token].length > 0) {
+                    for (int gram : trigrams[token]) {
+                        sizes[gram]++;
+                    }
+                }
+            }
+            trigramIndex = new int[sizes.length][];
+            for (int gram = 0; gram < sizes.length; gram++) {
+                trigramIndex[gram] = new int[sizes[gram]];
+                sizes[gram] = 0;
+            }
+            for (int token : order) {
+                if (postings[token].length > 0) {
+                    for (int gram : trigrams[token]) {
+                        trigramIndex[gram][sizes[gram]++] = token;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Computes the target tokens whose similarity with a source token is
+         * at least tokenThreshold.
+         *
+         * @param overlaps
+         *            Array of zeros of the size of the dictionary, which are
+         *            restored afterwards
+         * @param touched
+         *            Buffer of the size of the dictionary
+         */
+        void computeNeighbours(int token, int[] overlaps, int[] touched) {
+            int[] grams = trigrams[token];
+            // length filter of the jaccard similarity
+            double minLength = tokenThreshold * grams.length;
+            double maxLength = grams.length / tokenThreshold;
+            int count = 0;
+            for (int gram : grams) {
+                for (int other : trigramIndex[gram]) {
+                    int length = trigrams[other].length;
+                    if (length > maxLength) {
+                        break;
+                    }
+                    if (length >= minLength && overlaps[other]++ == 0) {
+                        touched[count++] = other;
+                    }
+                }
+            }
+            Arrays.sort(touched, 0, count);
+            int[] ids = new int[count];
+            double[] sims = new double[count];
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int other = touched[i];
+                double sim = jaccard(overlaps[other], grams.length, trigrams[other].length);
+                overlaps[other] = 0;
+                if (sim >= tokenThreshold) {
+                    ids[n] = other;
+                    sims[n++] = sim;
+                    reach[token] += postings[other].length;
+                }
+            }
+            neighbourIds[token] = Arrays.copyOf(ids, n);
+            neighbourSims[token] = Arrays.copyOf(sims, n);
+        }
+
+        /**
+         * Compares the source values at the positions from (inclusive) to
+         * (exclusive) with their candidates.
+         */
+        AMapping probe(int from, int to) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            // the last source value that marked a target value as candidate
+            int[] marks = new int[targets.length];
+            Arrays.fill(marks, -1);
+            int[] candidates = new int[targets.length];
+            for (int i = from; i < to; i++) {
+                int[] tokens = sourceTokens[i];
+                if (tokens.length == 0) {
+                    continue;
+                }
+                // the distinct tokens, ordered by the number of target values
+                // they reach
+                Integer[] distinct = new Integer[tokens.length];
+                int n = 0;
+                for (int token : tokens) {
+                    boolean found = false;
+                    for (int j = 0; j < n && !found; j++) {
+                        found = distinct[j] == token;
+                    }
+                    if (!found) {
+                        distinct[n++] = token;
+                    }
+                }
+                Arrays.sort(distinct, 0, n, (a, b) -> Long.compare(reach[a], reach[b]));
+                /*
+                 * A target value that contains no neighbour of the tokens at
+                 * m positions of the source value reaches a similarity below
+                 * (m * tokenThreshold + tokens.length - m) / tokens.length.
+                 * The candidates are therefore collected until this bound is
+                 * at most the threshold.
+                 */
+                double bound = tokens.length * (1 - threshold) + EPSILON;
+                int covered = 0;
+                int count = 0;
+                for (int j = 0; j < n && covered * (1 - tokenThreshold) <= bound; j++) {
+                    for (int neighbour : neighbourIds[distinct[j]]) {
+                        for (int target : postings[neighbour]) {
+                            if (marks[target] != i) {
+                                marks[target] = i;
+                                candidates[count++] = target;
+                            }
+                        }
+                    }
+                    for (int token : tokens) {
+                        if (token == distinct[j]) {
+                            covered++;
+                        }
+                    }
+                }
+                for (int j = 0; j < count; j++) {
+                    double sim = mongeElkan(tokens, targetTokens[candidates[j]]);
+                    if (threshold <= sim) {
+                        for (String sourceUri : sourceMap.get(sources[i])) {
+                            for (String targetUri : targetMap.get(targets[candidates[j]])) {
+                                mapping.add(sourceUri, targetUri, sim);
+                            }
+                        }
+                    }
                 }
             }
-            maxNumber -= 1 - maxSim;
+            return mapping;
+        }
+
+        /*
+         * compare one text with another
+         */
+        double mongeElkan(int[] sourceToken, int[] targetToken) {
+            double simB = 0;
+            double result = 0;
+            float maxNumber = sourceToken.length;
             /*
-             * add 0.0001 for rounding errors. if the similarity of all source
-             * tokens with the target tokens don't reach the minimum threshold,
-             * there are no result, so break the algorithm.
+             * the minimum of the result to reach the threshold
              */
-            if (treshMin > maxNumber + 0.0001) {
-                result = 0;
-                break;
+            float treshMin = (float) (maxNumber * threshold);
+            for (int sourceString : sourceToken) {
+                double maxSim = 0;
+                for (int targetString : targetToken) {
+                    double sim = tokenSim(sourceString, targetString);
+                    if (maxSim < sim) {
+                        maxSim = sim;
+                    }
+                    if (maxSim == 1) {
+                        break;
+                    }
+                }
+                maxNumber -= 1 - maxSim;
+                /*
+                 * add 0.0001 for rounding errors. if the similarity of all
+                 * source tokens with the target tokens don't reach the minimum
+                 * threshold, there are no result, so break the algorithm.
+                 */
+                if (treshMin > maxNumber + 0.0001) {
+                    result = 0;
+                    break;
+                }
+                simB += maxSim;
             }
-            simB += maxSim;
+            if (simB != 0) {
+                result = simB / sourceToken.length;
+            }
+            return result;
         }
-        if (simB != 0) {
-            result = simB / sourceToken.length;
+
+        /*
+         * the trigram similarity of two tokens, looked up in the neighbours of
+         * the source token if possible
+         */
+        double tokenSim(int sourceToken, int targetToken) {
+            int i = Arrays.binarySearch(neighbourIds[sourceToken], targetToken);
+            if (i >= 0) {
+                return neighbourSims[sourceToken][i];
+            }
+            int[] a = trigrams[sourceToken];
+            int[] b = trigrams[targetToken];
+            int overlap = 0;
+            for (int x = 0, y = 0; x < a.length && y < b.length;) {
+                if (a[x] < b[y]) {
+                    x++;
+                } else if (a[x] > b[y]) {
+                    y++;
+                } else {
+                    overlap++;
+                    x++;
+                    y++;
+                }
+            }
+            return jaccard(overlap, a.length, b.length);
         }
-        return result;
     }
 
-    /*
-     * use the Trigramm Algorithm to compare the tokens
+    /**
+     * @return the similarity of the trigram measure for the given overlap of
+     *         the trigram sets
      */
-    private double tokenSim(String tokenA, String tokenB) {
-        double result = trigram.getSimilarity(tokenA, tokenB);
-        return result;
+    private static double jaccard(int overlap, int lengthA, int lengthB) {
+        double counter = overlap;
+        return counter / (lengthA + lengthB - counter);
     }
 
     @Override
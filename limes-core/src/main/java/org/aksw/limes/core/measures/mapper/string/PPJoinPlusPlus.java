@@ -539,7 +539,7 @@ public class PPJoinPlusPlus extends AMapper {
         }
         // logger.info("Mapping carried out using " + comparisons + "
         // comparisons.");
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
+        AMapping tempMapping = MappingFactory.createMapping(source, target);
         for (String key : mapping.getMap().keySet()) {
             for (String value : mapping.getMap().get(key).keySet()) {
                 double confidence = mapping.getConfidence(key, value);
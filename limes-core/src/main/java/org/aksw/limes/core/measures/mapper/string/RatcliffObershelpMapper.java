@@ -1,13 +1,13 @@
 package org.aksw.limes.core.measures.mapper.string;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -15,12 +15,8 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
-import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
-import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
 import org.aksw.limes.core.measures.measure.string.RatcliffObershelpMeasure;
-import org.apache.commons.lang3.tuple.ImmutableTriple;
-import org.apache.commons.lang3.tuple.MutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +24,11 @@ public class RatcliffObershelpMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(RatcliffObershelpMapper.class);
 
+    /**
+     * Minimal number of source values that are compared in one task.
+     */
+    static final int MIN_PARTITION_SIZE = 64;
+
     /**
      * Computes a mapping between a source and a target.
      *
@@ -59,79 +60,100 @@ public class RatcliffObershelpMapper extends AMapper {
         return getMapping(sourceMap, targetMap, threshold);
     }
 
+    /**
+     * Computes the links between the source and target values whose
+     * similarity is at least the threshold. The source values are compared in
+     * parallel. A pair of values is only compared if twice the length of the
+     * shorter value and twice the number of characters the values have in
+     * common, both upper bounds of twice the number of matching characters,
+     * reach the threshold times the sum of the lengths of the values.
+     *
+     * @param sourceMap
+     *            Source values and the uris of their instances
+     * @param targetMap
+     *            Target values and the uris of their instances
+     * @param threshold
+     *            Similarity threshold
+     * @return the links between the source and the target instances
+     */
     protected AMapping getMapping(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
             double threshold) {
-        List<String> listA, listB;
-        listA = new ArrayList<>(sourceMap.keySet());
-        listB = new ArrayList<>(targetMap.keySet());
-        RatcliffObershelpMeasure metric = new RatcliffObershelpMeasure();
-        ConcurrentHashMap<String, Map<String, Double>> similarityBook = new ConcurrentHashMap<>(listA.size(), 1.0f);
-        List<String> red, blue;
-        red = listA;
-        blue = listB;
-        LengthQuicksort.sort(red);
-        LengthQuicksort.sort(blue);
-        // red is the list with the longest string
-        boolean swapped = false;
-        if (red.get(red.size() - 1).length() < blue.get(blue.size() - 1).length()) {
-            List<String> temp = red;
-            red = blue;
-            blue = temp;
-            swapped = true;
+        Values sources = new Values(sourceMap);
+        Values targets = new Values(targetMap);
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(sources.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    AMapping result = MappingFactory.createDefaultMapping();
+                    int[] row = new int[targets.getMaxLength() + 1];
+                    for (int id = from; id < to; id++) {
+                        char[] s = sources.getCharacters(id);
+                        for (int length = 1; length <= targets.getMaxLength(); length++) {
+                            int sum = s.length + length;
+                            if (getSimilarity(Math.min(s.length, length), sum) < threshold) {
+                                continue;
+                            }
+                            for (int candidate = targets.getFirstId(length); candidate < targets
+                                    .getFirstId(length + 1); candidate++) {
+                                if (getSimilarity(getCommonCharacters(sources.getBag(id), targets.getBag(candidate)),
+                                        sum) < threshold) {
+                                    continue;
+                                }
+                                double similarity = getSimilarity(RatcliffObershelpMeasure
+                                        .getMatchingCharacters(s, targets.getCharacters(candidate), row), sum);
+                                if (similarity >= threshold) {
+                                    for (String sourceUri : sources.getUris(id)) {
+                                        for (String targetUri : targets.getUris(candidate)) {
+                                            result.add(sourceUri, targetUri, similarity);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    return result;
+                });
+        if (partitions.size() == 1) {
+            return partitions.get(0);
         }
-
-        List<Pair<List<String>, List<String>>> tempPairs = new LinkedList<>();
-        // generate length filtered partitions
-        if (metric.lengthUpperBound(1, threshold) != -1) {
-            List<ImmutableTriple<Integer, Integer, Integer>> sliceBoundaries = metric
-                    .getPartitionBounds(blue.get(blue.size() - 1).length(), threshold);
-            for (ImmutableTriple<Integer, Integer, Integer> sliceBoundary : sliceBoundaries) {
-                MutablePair<List<String>, List<String>> m = new MutablePair<>();
-                m.setLeft(new LinkedList<>());
-                m.setRight(new LinkedList<>());
-                for (String s : red)
-                    if (s.length() >= sliceBoundary.getMiddle() && s.length() <= sliceBoundary.getRight())
-                        m.getLeft().add(s);
-                    else if (s.length() > sliceBoundary.getRight())
-                        break;
-                for (String s : blue)
-                    if (s.length() == sliceBoundary.getLeft())
-                        m.getRight().add(s);
-                    else if (s.length() > sliceBoundary.getLeft())
-                        break;
-                if (m.getRight().size() > 0 && m.getLeft().size() > 0)
-                    tempPairs.add(m);
+        AMapping result = MappingFactory.createDefaultMapping();
+        for (AMapping partition : partitions) {
+            for (String s : partition.getMap().keySet()) {
+                for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                    result.add(s, t.getKey(), t.getValue());
+                }
             }
-        } else {
-            MutablePair<List<String>, List<String>> m = new MutablePair<>();
-            m.setLeft(red);
-            m.setRight(blue);
-            tempPairs.add(m);
         }
+        return result;
+    }
 
-        int poolSize = Runtime.getRuntime().availableProcessors();
-        if (tempPairs.size() == 0) {
-            return MappingFactory.createDefaultMapping();
-        }
-        poolSize = poolSize > tempPairs.size() ? tempPairs.size() : poolSize;
-
-        // create thread pool, one thread per partition
-        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
-        // executor = Executors.newFixedThreadPool(1);
-        for (Pair<List<String>, List<String>> tempPair : tempPairs) {
-            Runnable worker = new TrieFilter(tempPair, similarityBook, new RatcliffObershelpMeasure(), threshold);
-            executor.execute(worker);
-        }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+    /**
+     * @return the similarity of two strings with a number of matching
+     *         characters and a sum of lengths, computed as by
+     *         {@link RatcliffObershelpMeasure#proximity(String, String)}
+     */
+    private static double getSimilarity(int matches, int sum) {
+        return (double) (2 * matches) / sum;
+    }
+
+    /**
+     * @return the number of characters two strings have in common, counted
+     *         with multiplicity, by their sorted characters
+     */
+    private static int getCommonCharacters(char[] bag1, char[] bag2) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < bag1.length && j < bag2.length) {
+            if (bag1[i] < bag2[j]) {
+                i++;
+            } else if (bag1[i] > bag2[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
             }
         }
-
-        return getUriToUriMapping(similarityBook, sourceMap, targetMap, swapped);
+        return common;
     }
 
     @Override
@@ -148,4 +170,70 @@ public class RatcliffObershelpMapper extends AMapper {
     public double getMappingSizeApproximation(int sourceSize, int targetSize, double theta, Language language) {
         return 1000d;
     }
+
+    /**
+     * Distinct lower-cased values of a property, ordered by length, with the
+     * uris of their instances and their sorted characters.
+     */
+    private static class Values {
+
+        private final char[][] characters;
+        private final char[][] bags;
+        private final String[][] uris;
+        // first id of the values of each length
+        private final int[] firstIdOfLength;
+
+        Values(Map<String, Set<String>> valueMap) {
+            Map<String, Set<String>> lowerCaseValues = new HashMap<>();
+            for (Entry<String, Set<String>> entry : valueMap.entrySet()) {
+                lowerCaseValues.computeIfAbsent(entry.getKey().toLowerCase(), v -> new HashSet<>())
+                        .addAll(entry.getValue());
+            }
+            String[] values = lowerCaseValues.keySet().toArray(new String[lowerCaseValues.size()]);
+            Arrays.sort(values, Comparator.comparingInt(String::length));
+            characters = new char[values.length][];
+            bags = new char[values.length][];
+            uris = new String[values.length][];
+            for (int id = 0; id < values.length; id++) {
+                characters[id] = values[id].toCharArray();
+                bags[id] = values[id].toCharArray();
+                Arrays.sort(bags[id]);
+                Set<String> valueUris = lowerCaseValues.get(values[id]);
+                uris[id] = valueUris.toArray(new String[valueUris.size()]);
+            }
+            int maxLength = values.length == 0 ? 0 : values[values.length - 1].length();
+            firstIdOfLength = new int[maxLength + 2];
+            int id = 0;
+            for (int length = 0; length < firstIdOfLength.length; length++) {
+                while (id < values.length && values[id].length() < length) {
+                    id++;
+                }
+                firstIdOfLength[length] = id;
+            }
+        }
+
+        int size() {
+            return characters.length;
+        }
+
+        int getMaxLength() {
+            return firstIdOfLength.length - 2;
+        }
+
+        int getFirstId(int length) {
+            return firstIdOfLength[length];
+        }
+
+        char[] getCharacters(int id) {
+            return characters[id];
+        }
+
+        char[] getBag(int id) {
+            return bags[id];
+        }
+
+        String[] getUris(int id) {
+            return uris[id];
+        }
+    }
 }
@@ -6,9 +6,12 @@
 package org.aksw.limes.core.measures.mapper.string.fastngram;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -18,7 +21,7 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
-import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -30,66 +33,87 @@ public class FastNGramMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(FastNGramMapper.class);
     static int q = 3;
+    /**
+     * Minimal number of source strings of a partition, smaller joins are run
+     * by the calling thread.
+     */
+    static final int MIN_PARTITION_SIZE = 1024;
 
+    /**
+     * Computes the q-gram similarities of the source and target strings
+     * that reach the threshold. The target strings are indexed in a
+     * {@link NGramIndex}. The candidates of a source string are the target
+     * strings whose size is within the bounds of the threshold, and their
+     * common q-grams are counted in an array that is reused for all source
+     * strings of a partition.
+     *
+     * @param source
+     *            Source strings
+     * @param target
+     *            Target strings
+     * @param q
+     *            value of n for n-grams
+     * @param threshold
+     *            Similarity threshold
+     * @return mapping of the source and target strings
+     */
     public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold) {
-        Index index = new Index(q);
-        double kappa = (1 + threshold) / threshold;
-        QGramSimilarityMeasure sim = new QGramSimilarityMeasure(q);
-        ITokenizer tokenizer = new NGramTokenizer();
-        Map<String, Set<String>> targetTokens = new HashMap<String, Set<String>>();
+        NGramIndex index = new NGramIndex(target, q);
+        String[] sources = source.toArray(new String[source.size()]);
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(sources.length, MIN_PARTITION_SIZE,
+                (from, to) -> compute(sources, from, to, index, threshold));
+        if (partitions.size() == 1) {
+            return partitions.get(0);
+        }
         AMapping result = MappingFactory.createDefaultMapping();
-        // index target
-        for (String t : target) {
-            targetTokens.put(t, index.addString(t));
+        for (AMapping partition : partitions) {
+            for (String s : partition.getMap().keySet()) {
+                for (Entry<String, Double> t : partition.getMap().get(s).entrySet()) {
+                    result.add(s, t.getKey(), t.getValue());
+                }
+            }
         }
-        // run similarity computation
+        return result;
+    }
 
-        for (String s : source) {
-            Set<Integer> allSizes = index.getAllSizes();
-            Set<String> sourceTokens = tokenizer.tokenize(s, q);
+    private static AMapping compute(String[] sources, int from, int to, NGramIndex index, double threshold) {
+        ITokenizer tokenizer = new NGramTokenizer();
+        AMapping result = MappingFactory.createDefaultMapping();
+        // number of common tokens of the candidates of a source string
+        int[] counts = new int[index.size()];
+        int[] candidates = new int[index.size()];
+        for (int i = from; i < to; i++) {
+            String s = sources[i];
+            Set<String> sourceTokens = tokenizer.tokenize(s, index.getQ());
             double sourceSize = (double) sourceTokens.size();
-            for (int size = (int) Math.ceil(sourceSize * threshold); size <= (int) Math
-                    .floor(sourceSize / threshold); size++) {
-                if (allSizes.contains(size)) {
-                    // maps tokens to strings
-                    Map<String, Set<String>> stringsOfSize = index.getStrings(size);
-                    Map<String, Integer> countMap = new HashMap<String, Integer>();
-                    for (String token : sourceTokens) {
-                        if (stringsOfSize.containsKey(token)) {
-                            // take each string and add it to the count map
-                            Set<String> candidates = stringsOfSize.get(token);
-                            for (String candidate : candidates) {
-                                if (!countMap.containsKey(candidate)) {
-                                    countMap.put(candidate, 0);
-                                }
-                                countMap.put(candidate, countMap.get(candidate) + 1);
-                            }
-                        }
-                    }
-                    // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
-                    for (String candidate : countMap.keySet()) {
-                        double count = (double) countMap.get(candidate);
-                        if (kappa * count >= (sourceSize + size)) {
-                            double similarity = sim.getSimilarity(targetTokens.get(candidate), sourceTokens);
-                            if (similarity >= threshold) {
-                                result.add(s, candidate, similarity);
-                            }
-                        }
+            // the ids of the target strings whose size is within the bounds
+            int first = index.getFirstIdOfSize((int) Math.ceil(sourceSize * threshold));
+            int last = index.getFirstIdOfSize((int) Math.floor(sourceSize / threshold) + 1);
+            int candidateCount = 0;
+            for (int token : index.getTokenIds(sourceTokens)) {
+                int[] postings = index.getPostings(token);
+                int start = Arrays.binarySearch(postings, first);
+                for (int j = start < 0 ? -start - 1 : start; j < postings.length && postings[j] < last; j++) {
+                    if (counts[postings[j]]++ == 0) {
+                        candidates[candidateCount++] = postings[j];
                     }
                 }
             }
-
-        }
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : result.getMap().keySet()) {
-            for (String value : result.getMap().get(key).keySet()) {
-                double confidence = result.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
+            // the filtering |X \cap Y| \geq \kappa(|X| + |Y|) is equivalent to
+            // the similarity check, which is not subject to the rounding of
+            // kappa at the threshold
+            for (int j = 0; j < candidateCount; j++) {
+                int candidate = candidates[j];
+                double count = (double) counts[candidate];
+                counts[candidate] = 0;
+                double size = index.getSize(candidate);
+                // q-gram similarity of the token sets
+                double similarity = count / (sourceSize + size - count);
+                if (similarity >= threshold) {
+                    result.add(s, index.getString(candidate), similarity);
                 }
             }
         }
-        result = tempMapping;
         return result;
     }
 
@@ -218,7 +242,7 @@ public class FastNGramMapper extends AMapper {
         // run the algorithm
         // logger.info("Computing mappings");
         AMapping m = FastNGramMapper.compute(sourceMap.keySet(), targetMap.keySet(), q, threshold);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(source, target);
         for (String s : m.getMap().keySet()) {
             for (String t : m.getMap().get(s).keySet()) {
                 for (String sourceUri : sourceMap.get(s)) {
@@ -11,7 +11,9 @@ import java.util.Set;
 
 /**
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @deprecated {@link FastNGramMapper} uses the {@link NGramIndex}
  */
+@Deprecated
 public class Index {
 
     private Map<Integer, Map<String, Set<String>>> sizeTokenIndex;
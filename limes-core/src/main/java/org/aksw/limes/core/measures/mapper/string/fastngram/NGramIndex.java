@@ -0,0 +1,162 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Inverted index of the n-grams of a set of strings, in which n-grams and
+ * strings are identified by ints. The ids of the strings are ordered by their
+ * number of n-grams, so that the strings of a range of sizes have a range of
+ * ids, and the posting lists are sorted arrays of these ids.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+public class NGramIndex {
+
+    private ITokenizer tokenizer = new NGramTokenizer();
+    private int q;
+    private HashMap<String, Integer> tokenIds = new HashMap<String, Integer>();
+    // indexed strings by id
+    private String[] strings;
+    // number of n-grams of each string, ascending
+    private int[] sizes;
+    // ids of the strings that contain an n-gram, ascending
+    private int[][] postings;
+
+    /**
+     * Tokenizes and indexes strings
+     *
+     * @param values
+     *            Strings to index
+     * @param q
+     *            value of n for n-grams
+     */
+    public NGramIndex(Collection<String> values, int q) {
+        this.q = q;
+        String[] input = values.toArray(new String[values.size()]);
+        int[][] tokens = new int[input.length][];
+        Integer[] order = new Integer[input.length];
+        for (int i = 0; i < input.length; i++) {
+            tokens[i] = addTokens(tokenizer.tokenize(input[i], q));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(tokens[a].length, tokens[b].length));
+
+        strings = new String[input.length];
+        sizes = new int[input.length];
+        int[] counts = new int[tokenIds.size()];
+        for (int id = 0; id < order.length; id++) {
+            strings[id] = input[order[id]];
+            sizes[id] = tokens[order[id]].length;
+            for (int token : tokens[order[id]]) {
+                counts[token]++;
+            }
+        }
+        postings = new int[counts.length][];
+        for (int token = 0; token < counts.length; token++) {
+            postings[token] = new int[counts[token]];
+            counts[token] = 0;
+        }
+        // the ids are inserted in ascending order
+        for (int id = 0; id < order.length; id++) {
+            for (int token : tokens[order[id]]) {
+                postings[token][counts[token]++] = id;
+            }
+        }
+    }
+
+    private int[] addTokens(Set<String> tokens) {
+        int[] ids = new int[tokens.size()];
+        int i = 0;
+        for (String token : tokens) {
+            Integer id = tokenIds.get(token);
+            if (id == null) {
+                id = tokenIds.size();
+                tokenIds.put(token, id);
+            }
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * @return value of n for n-grams
+     */
+    public int getQ() {
+        return q;
+    }
+
+    /**
+     * @return number of indexed strings
+     */
+    public int size() {
+        return strings.length;
+    }
+
+    /**
+     * @param id
+     *            Id of a string
+     * @return the string
+     */
+    public String getString(int id) {
+        return strings[id];
+    }
+
+    /**
+     * @param id
+     *            Id of a string
+     * @return the number of n-grams of the string
+     */
+    public int getSize(int id) {
+        return sizes[id];
+    }
+
+    /**
+     * @param size
+     *            Number of n-grams
+     * @return the id of the first string with at least size n-grams, or
+     *         {@link #size()} if there is none
+     */
+    public int getFirstIdOfSize(int size) {
+        int low = 0;
+        int high = sizes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sizes[mid] < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param tokens
+     *            n-grams of a string
+     * @return the ids of the n-grams that occur in the index
+     */
+    public int[] getTokenIds(Set<String> tokens) {
+        int[] ids = new int[tokens.size()];
+        int n = 0;
+        for (String token : tokens) {
+            Integer id = tokenIds.get(token);
+            if (id != null) {
+                ids[n++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * @param token
+     *            Id of an n-gram
+     * @return the ascending ids of the strings that contain the n-gram. The
+     *         array must not be modified.
+     */
+    public int[] getPostings(int token) {
+        return postings[token];
+    }
+}
@@ -1,10 +1,19 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.AAtomicAllenAlgebraMapper;
+import org.aksw.limes.core.util.ComputeExecutor;
 
 /**
  * Abstract class of Allen's temporal relations mapper. It computes basic
@@ -15,6 +24,11 @@ import org.aksw.limes.core.measures.mapper.AMapper;
  * @version 1.0
  */
 public abstract class AllenAlgebraMapper extends AMapper implements IAllenAlgebraMapper {
+    /**
+     * Minimal number of source events that are related in one task.
+     */
+    static final int MIN_PARTITION_SIZE = 1024;
+
     /**
      * List of atomic relations required to compute a complex Allen temporal
      * relation.
@@ -70,6 +84,56 @@ public abstract class AllenAlgebraMapper extends AMapper implements IAllenAlgebr
 
     }
 
+    /**
+     * Maps each source instance to the set of target instances that are in an
+     * Allen's temporal relation with it. Instead of combining the maps of the
+     * required atomic relations, the target events are indexed once by their
+     * begin and end dates, and the related target events of each source event
+     * are retrieved from the index. The source events are related in
+     * parallel.
+     *
+     * @param source,
+     *            The source cache
+     * @param target,
+     *            The target cache
+     * @param expression,
+     *            The metric expression
+     * @param relation,
+     *            The Allen's temporal relation
+     * @return a mapping, the resulting mapping
+     */
+    protected static AMapping getMapping(ACache source, ACache target, String expression, AllenRelation relation) {
+        Parser p = new Parser(expression, 1.0d);
+        Intervals sources = Intervals.read(source, AAtomicAllenAlgebraMapper.getBeginProperty(p.getLeftTerm()),
+                AAtomicAllenAlgebraMapper.getEndProperty(p.getLeftTerm()));
+        IntervalIndex targets = new IntervalIndex(
+                Intervals.read(target, AAtomicAllenAlgebraMapper.getBeginProperty(p.getRightTerm()),
+                        AAtomicAllenAlgebraMapper.getEndProperty(p.getRightTerm())));
+
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(sources.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    AMapping m = MappingFactory.createDefaultMapping();
+                    for (int i = from; i < to; i++) {
+                        String sourceUri = sources.getUri(i);
+                        relation.getRelatedEvents(targets, sources.getBegin(i), sources.getEnd(i),
+                                t -> m.add(sourceUri, targets.getUri(t), 1));
+                    }
+                    return m;
+                });
+        if (partitions.size() == 1) {
+            return partitions.get(0);
+        }
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (AMapping partition : partitions) {
+            for (Map.Entry<String, HashMap<String, Double>> entry : partition.getMap().entrySet()) {
+                for (Map.Entry<String, Double> targetEntry : entry.getValue().entrySet()) {
+                    m.add(entry.getKey(), targetEntry.getKey(), targetEntry.getValue());
+                }
+            }
+        }
+        return m;
+    }
+
     /**
      * Returns the set of atomic relations.
      *
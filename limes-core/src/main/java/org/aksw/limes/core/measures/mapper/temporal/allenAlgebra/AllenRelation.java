@@ -0,0 +1,147 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Enum class of Allen's temporal relations. Each relation reports the target
+ * events that are related to a source event X by range queries on an
+ * {@link IntervalIndex} of the target events Y. b(X) and e(X) denote the begin
+ * and end date of X.
+ *
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public enum AllenRelation {
+
+    /**
+     * e(X) &lt; b(Y)
+     */
+    BEFORE {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsBetween(end, false, Long.MAX_VALUE, true, events);
+        }
+    },
+    /**
+     * b(X) &gt; e(Y)
+     */
+    AFTER {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.endsBetween(Long.MIN_VALUE, true, begin, false, events);
+        }
+    },
+    /**
+     * e(X) = b(Y)
+     */
+    MEETS {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsBetween(end, true, end, true, events);
+        }
+    },
+    /**
+     * b(X) = e(Y)
+     */
+    IS_MET_BY {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.endsBetween(begin, true, begin, true, events);
+        }
+    },
+    /**
+     * b(X) = b(Y) and e(X) = e(Y)
+     */
+    EQUALS {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsAtAndEndsBetween(begin, end, true, end, true, events);
+        }
+    },
+    /**
+     * b(X) = b(Y) and e(X) &lt; e(Y)
+     */
+    STARTS {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsAtAndEndsBetween(begin, end, false, Long.MAX_VALUE, true, events);
+        }
+    },
+    /**
+     * b(X) = b(Y) and e(X) &gt; e(Y)
+     */
+    IS_STARTED_BY {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsAtAndEndsBetween(begin, Long.MIN_VALUE, true, end, false, events);
+        }
+    },
+    /**
+     * e(X) = e(Y) and b(X) &gt; b(Y)
+     */
+    FINISHES {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.endsAtAndBeginsBetween(end, Long.MIN_VALUE, true, begin, false, events);
+        }
+    },
+    /**
+     * e(X) = e(Y) and b(X) &lt; b(Y)
+     */
+    IS_FINISHED_BY {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.endsAtAndBeginsBetween(end, begin, false, Long.MAX_VALUE, true, events);
+        }
+    },
+    /**
+     * b(X) &gt; b(Y) and e(X) &lt; e(Y)
+     */
+    DURING {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsBetweenAndEndsAfter(Long.MIN_VALUE, begin, end, events);
+        }
+    },
+    /**
+     * b(X) &lt; b(Y) and e(X) &gt; e(Y)
+     */
+    DURING_REVERSE {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsBetweenAndEndsBefore(begin, Long.MAX_VALUE, end, events);
+        }
+    },
+    /**
+     * b(X) &lt; b(Y) &lt; e(X) &lt; e(Y)
+     */
+    OVERLAPS {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.beginsBetweenAndEndsAfter(begin, end, end, events);
+        }
+    },
+    /**
+     * b(Y) &lt; b(X) &lt; e(Y) &lt; e(X)
+     */
+    IS_OVERLAPPED_BY {
+        @Override
+        void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events) {
+            targets.endsBetweenAndBeginsBefore(begin, end, begin, events);
+        }
+    };
+
+    /**
+     * Reports the target events that are related to a source event.
+     *
+     * @param targets,
+     *            The index of the target events
+     * @param begin,
+     *            The begin date of the source event
+     * @param end,
+     *            The end date of the source event
+     * @param events,
+     *            Consumer of the numbers of the related target events
+     */
+    abstract void getRelatedEvents(IntervalIndex targets, long begin, long end, IntConsumer events);
+}
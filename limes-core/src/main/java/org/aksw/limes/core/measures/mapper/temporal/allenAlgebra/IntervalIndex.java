@@ -0,0 +1,297 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Index of the events of a cache for the computation of Allen's temporal
+ * relations. The events are sorted once by their begin and end dates, and once
+ * by their end and begin dates. Each atomic relation between a time point of a
+ * source event and the begin or end date of the target events is a range of
+ * one of these orders. The relations that combine two ranges, such as "During"
+ * or "Overlaps", are answered with segment trees over the other date, so that
+ * the cost of a query depends on the number of events it returns and not on
+ * the number of events in the range.
+ *
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+class IntervalIndex {
+
+    private final Intervals intervals;
+
+    // events ordered by begin and end date, and their dates in this order
+    private final int[] beginOrder;
+    private final long[] beginOrderBegins;
+    private final long[] beginOrderEnds;
+    // events ordered by end and begin date, and their dates in this order
+    private final int[] endOrder;
+    private final long[] endOrderEnds;
+    private final long[] endOrderBegins;
+
+    // maxima of the end dates in the begin order
+    private final long[] maxEnds;
+    // maxima of the negated end dates in the begin order
+    private final long[] minEnds;
+    // maxima of the negated begin dates in the end order
+    private final long[] minBegins;
+
+    /**
+     * Constructor of IntervalIndex class.
+     *
+     * @param intervals,
+     *            The events to index
+     */
+    IntervalIndex(Intervals intervals) {
+        this.intervals = intervals;
+        int size = intervals.size();
+        long[] begins = new long[size];
+        long[] ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            begins[i] = intervals.getBegin(i);
+            ends[i] = intervals.getEnd(i);
+        }
+
+        beginOrder = sort(begins, ends);
+        beginOrderBegins = permute(begins, beginOrder);
+        beginOrderEnds = permute(ends, beginOrder);
+        endOrder = sort(ends, begins);
+        endOrderEnds = permute(ends, endOrder);
+        endOrderBegins = permute(begins, endOrder);
+
+        maxEnds = buildTree(beginOrderEnds, false);
+        minEnds = buildTree(beginOrderEnds, true);
+        minBegins = buildTree(endOrderBegins, true);
+    }
+
+    /**
+     * @return the number of indexed events
+     */
+    int size() {
+        return intervals.size();
+    }
+
+    /**
+     * @param event,
+     *            The number of an indexed event
+     * @return the uri of the event
+     */
+    String getUri(int event) {
+        return intervals.getUri(event);
+    }
+
+    /**
+     * Reports the events whose begin date is between two dates.
+     *
+     * @param from,
+     *            The lowest begin date
+     * @param fromInclusive,
+     *            true if events that begin at from are reported
+     * @param to,
+     *            The highest begin date
+     * @param toInclusive,
+     *            true if events that begin at to are reported
+     * @param events,
+     *            Consumer of the numbers of the events
+     */
+    void beginsBetween(long from, boolean fromInclusive, long to, boolean toInclusive, IntConsumer events) {
+        report(beginOrder, lowerBound(beginOrderBegins, 0, size(), from, fromInclusive),
+                lowerBound(beginOrderBegins, 0, size(), to, !toInclusive), events);
+    }
+
+    /**
+     * Reports the events whose end date is between two dates.
+     *
+     * @see #beginsBetween(long, boolean, long, boolean, IntConsumer)
+     */
+    void endsBetween(long from, boolean fromInclusive, long to, boolean toInclusive, IntConsumer events) {
+        report(endOrder, lowerBound(endOrderEnds, 0, size(), from, fromInclusive),
+                lowerBound(endOrderEnds, 0, size(), to, !toInclusive), events);
+    }
+
+    /**
+     * Reports the events that begin at a date and whose end date is between
+     * two dates.
+     *
+     * @see #beginsBetween(long, boolean, long, boolean, IntConsumer)
+     */
+    void beginsAtAndEndsBetween(long begin, long from, boolean fromInclusive, long to, boolean toInclusive,
+            IntConsumer events) {
+        int low = lowerBound(beginOrderBegins, 0, size(), begin, true);
+        int high = lowerBound(beginOrderBegins, low, size(), begin, false);
+        report(beginOrder, lowerBound(beginOrderEnds, low, high, from, fromInclusive),
+                lowerBound(beginOrderEnds, low, high, to, !toInclusive), events);
+    }
+
+    /**
+     * Reports the events that end at a date and whose begin date is between
+     * two dates.
+     *
+     * @see #beginsBetween(long, boolean, long, boolean, IntConsumer)
+     */
+    void endsAtAndBeginsBetween(long end, long from, boolean fromInclusive, long to, boolean toInclusive,
+            IntConsumer events) {
+        int low = lowerBound(endOrderEnds, 0, size(), end, true);
+        int high = lowerBound(endOrderEnds, low, size(), end, false);
+        report(endOrder, lowerBound(endOrderBegins, low, high, from, fromInclusive),
+                lowerBound(endOrderBegins, low, high, to, !toInclusive), events);
+    }
+
+    /**
+     * Reports the events whose begin date is strictly between two dates and
+     * whose end date is strictly after a date.
+     *
+     * @param from,
+     *            The begin dates are higher than from
+     * @param to,
+     *            The begin dates are lower than to
+     * @param end,
+     *            The end dates are higher than end
+     * @param events,
+     *            Consumer of the numbers of the events
+     */
+    void beginsBetweenAndEndsAfter(long from, long to, long end, IntConsumer events) {
+        reportGreater(maxEnds, beginOrder, lowerBound(beginOrderBegins, 0, size(), from, false),
+                lowerBound(beginOrderBegins, 0, size(), to, true), end, events);
+    }
+
+    /**
+     * Reports the events whose begin date is strictly between two dates and
+     * whose end date is strictly before a date.
+     *
+     * @see #beginsBetweenAndEndsAfter(long, long, long, IntConsumer)
+     */
+    void beginsBetweenAndEndsBefore(long from, long to, long end, IntConsumer events) {
+        reportGreater(minEnds, beginOrder, lowerBound(beginOrderBegins, 0, size(), from, false),
+                lowerBound(beginOrderBegins, 0, size(), to, true), -end, events);
+    }
+
+    /**
+     * Reports the events whose end date is strictly between two dates and
+     * whose begin date is strictly before a date.
+     *
+     * @see #beginsBetweenAndEndsAfter(long, long, long, IntConsumer)
+     */
+    void endsBetweenAndBeginsBefore(long from, long to, long begin, IntConsumer events) {
+        reportGreater(minBegins, endOrder, lowerBound(endOrderEnds, 0, size(), from, false),
+                lowerBound(endOrderEnds, 0, size(), to, true), -begin, events);
+    }
+
+    /**
+     * @return the positions of the events ordered by the first and then by
+     *         the second date
+     */
+    private static int[] sort(long[] first, long[] second) {
+        int[] order = new int[first.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, new int[order.length], 0, order.length, first, second);
+        return order;
+    }
+
+    private static void mergeSort(int[] order, int[] buffer, int from, int to, long[] first, long[] second) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, buffer, from, middle, first, second);
+        mergeSort(order, buffer, middle, to, first, second);
+        System.arraycopy(order, from, buffer, from, to - from);
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+            if (j == to || (i < middle && compare(buffer[i], buffer[j], first, second) <= 0)) {
+                order[k] = buffer[i++];
+            } else {
+                order[k] = buffer[j++];
+            }
+        }
+    }
+
+    private static int compare(int a, int b, long[] first, long[] second) {
+        int c = Long.compare(first[a], first[b]);
+        return c != 0 ? c : Long.compare(second[a], second[b]);
+    }
+
+    private static long[] permute(long[] values, int[] order) {
+        long[] result = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Builds a segment tree of maxima. Node 1 is the root, the children of
+     * node k are 2k and 2k + 1, and the leaves start at the smallest power of
+     * two that is not lower than the number of values.
+     *
+     * @param negate,
+     *            true for a tree of the maxima of the negated values, i.e. of
+     *            the minima of the values
+     */
+    private static long[] buildTree(long[] values, boolean negate) {
+        int leaves = Integer.highestOneBit(Math.max(1, values.length - 1)) << 1;
+        long[] tree = new long[2 * leaves];
+        Arrays.fill(tree, Long.MIN_VALUE);
+        for (int i = 0; i < values.length; i++) {
+            tree[leaves + i] = negate ? -values[i] : values[i];
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+        return tree;
+    }
+
+    /**
+     * Reports the events at the positions from (inclusive) to to (exclusive)
+     * whose value in a segment tree is higher than a bound.
+     */
+    private static void reportGreater(long[] tree, int[] order, int from, int to, long bound, IntConsumer events) {
+        if (from < to) {
+            reportGreater(tree, order, 1, 0, tree.length / 2, from, to, bound, events);
+        }
+    }
+
+    private static void reportGreater(long[] tree, int[] order, int node, int nodeFrom, int nodeTo, int from, int to,
+            long bound, IntConsumer events) {
+        if (nodeTo <= from || to <= nodeFrom || tree[node] <= bound) {
+            return;
+        }
+        if (nodeTo - nodeFrom == 1) {
+            events.accept(order[nodeFrom]);
+            return;
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        reportGreater(tree, order, 2 * node, nodeFrom, middle, from, to, bound, events);
+        reportGreater(tree, order, 2 * node + 1, middle, nodeTo, from, to, bound, events);
+    }
+
+    private static void report(int[] order, int from, int to, IntConsumer events) {
+        for (int i = from; i < to; i++) {
+            events.accept(order[i]);
+        }
+    }
+
+    /**
+     * @param inclusive,
+     *            true for the first position whose value is not lower than
+     *            the date, false for the first position whose value is higher
+     *            than the date
+     * @return a position between from and to in an ascending range of values
+     */
+    private static int lowerBound(long[] values, int from, int to, long date, boolean inclusive) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < date || (!inclusive && values[middle] == date)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,122 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.util.ComputeExecutor;
+import org.aksw.limes.core.util.datetime.DateTimeFormat;
+
+/**
+ * Begin and end dates of the events of a cache, as epochs. Like the Allen's
+ * temporal measures, the first value of the begin and end date properties of
+ * an instance is used. Instances without begin or end date are left out.
+ *
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+class Intervals {
+
+    /**
+     * Minimal number of instances whose dates are parsed in one task.
+     */
+    static final int MIN_PARTITION_SIZE = 4096;
+
+    private final String[] uris;
+    private final long[] begins;
+    private final long[] ends;
+
+    /**
+     * Constructor of Intervals class.
+     *
+     * @param uris,
+     *            The uris of the events
+     * @param begins,
+     *            The begin dates of the events
+     * @param ends,
+     *            The end dates of the events
+     */
+    Intervals(String[] uris, long[] begins, long[] ends) {
+        this.uris = uris;
+        this.begins = begins;
+        this.ends = ends;
+    }
+
+    /**
+     * Reads the events of a cache. The dates are parsed in parallel.
+     *
+     * @param cache,
+     *            The cache of instances
+     * @param beginProperty,
+     *            The begin date property
+     * @param endProperty,
+     *            The end date property
+     * @return the events of the cache
+     */
+    static Intervals read(ACache cache, String beginProperty, String endProperty) {
+        List<Instance> instances = cache.getAllInstances();
+        int size = instances.size();
+        String[] uris = new String[size];
+        long[] begins = new long[size];
+        long[] ends = new long[size];
+        List<int[]> partitions = ComputeExecutor.invokePartitioned(size, MIN_PARTITION_SIZE, (from, to) -> {
+            // the events of a partition are moved to its beginning
+            int n = from;
+            for (Instance instance : instances.subList(from, to)) {
+                TreeSet<String> begin = instance.getProperty(beginProperty);
+                TreeSet<String> end = instance.getProperty(endProperty);
+                if (!begin.isEmpty() && !end.isEmpty()) {
+                    uris[n] = instance.getUri();
+                    begins[n] = DateTimeFormat.getDate(begin.first()).getTime();
+                    ends[n] = DateTimeFormat.getDate(end.first()).getTime();
+                    n++;
+                }
+            }
+            return new int[] { from, n - from };
+        });
+        int n = 0;
+        for (int[] partition : partitions) {
+            System.arraycopy(uris, partition[0], uris, n, partition[1]);
+            System.arraycopy(begins, partition[0], begins, n, partition[1]);
+            System.arraycopy(ends, partition[0], ends, n, partition[1]);
+            n += partition[1];
+        }
+        return new Intervals(Arrays.copyOf(uris, n), Arrays.copyOf(begins, n), Arrays.copyOf(ends, n));
+    }
+
+    /**
+     * @return the number of events
+     */
+    int size() {
+        return uris.length;
+    }
+
+    /**
+     * @param i,
+     *            The number of an event
+     * @return the uri of the event
+     */
+    String getUri(int i) {
+        return uris[i];
+    }
+
+    /**
+     * @param i,
+     *            The number of an event
+     * @return the begin date of the event
+     */
+    long getBegin(int i) {
+        return begins[i];
+    }
+
+    /**
+     * @param i,
+     *            The number of an event
+     * @return the end date of the event
+     */
+    long getEnd(int i) {
+        return ends[i];
+    }
+}
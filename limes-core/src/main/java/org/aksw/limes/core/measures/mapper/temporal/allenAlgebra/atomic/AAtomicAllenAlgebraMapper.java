@@ -46,7 +46,7 @@ public abstract class AAtomicAllenAlgebraMapper {
      *            The metric expression
      * @return first property of metric expression as string
      */
-    protected static String getBeginProperty(String expression) {
+    public static String getBeginProperty(String expression) {
         // expression = x.beginDate1|endDate1
         expression = expression.substring(expression.indexOf(".") + 1, expression.length());
         // expression beginDate1|endDate1
@@ -68,7 +68,7 @@ public abstract class AAtomicAllenAlgebraMapper {
      * @throws IllegalArgumentException
      *             if endDate property is not declared
      */
-    protected static String getEndProperty(String expression) throws IllegalArgumentException {
+    public static String getEndProperty(String expression) throws IllegalArgumentException {
         // expression = x.beginDate1|endDate1
         expression = expression.substring(expression.indexOf(".") + 1, expression.length());
         // expression beginDate1|endDate1
@@ -1,18 +1,16 @@
 package org.aksw.limes.core.measures.mapper.topology;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -20,12 +18,15 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.aksw.limes.core.util.LimesWktReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.io.ParseException;
 
 /**
@@ -40,9 +41,15 @@ public class RADON {
         public final static String MIN = "min";
         public final static String MAX = "max";
         public final static String MED = "median";
-        public static boolean swap = false;
 
-        public static double[] decideForTheta(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
+        /**
+         * Decides the grid size of two data sets and whether they are
+         * swapped, so that the source is the data set with the smallest
+         * area coverage.
+         *
+         * @return the grid size and swap decision
+         */
+        public static Theta decideForTheta(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
             double[] stats;
             switch (measure) {
             case MAX:
@@ -62,8 +69,8 @@ public class RADON {
             double estAreaT = stats[2] * stats[3] * t.size;
             // we want to swap towards the smallest area coverage to optimizethe
             // number of comparisons
-            swap = estAreaS > estAreaT;
-            return new double[] { (2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]) };
+            boolean swap = estAreaS > estAreaT;
+            return new Theta((2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]), swap);
         }
 
         private double size;
@@ -144,6 +151,18 @@ public class RADON {
 
     }
 
+    public static class Theta {
+
+        public final double x, y;
+        public final boolean swap;
+
+        public Theta(double x, double y, boolean swap) {
+            this.x = x;
+            this.y = y;
+            this.swap = swap;
+        }
+    }
+
     public static class MBBIndex {
 
         public int lat1, lat2, lon1, lon2;
@@ -227,47 +246,12 @@ public class RADON {
         }
     }
 
-    public static class Matcher implements Runnable {
-
-        public static int maxSize = 1000;
-        private String relation;
-        private final List<Map<String, Set<String>>> result;
-        private List<MBBIndex> scheduled;
+    /**
+     * Verifies the topological relations of pairs of geometries.
+     */
+    public static class Matcher {
 
-        public Matcher(String relation, List<Map<String, Set<String>>> result) {
-            this.relation = relation;
-            this.result = result;
-            this.scheduled = new ArrayList<>();
-        }
-
-        @Override
-        public void run() {
-            Map<String, Set<String>> temp = new HashMap<>();
-            for (int i = 0; i < scheduled.size(); i += 2) {
-                MBBIndex s = scheduled.get(i);
-                MBBIndex t = scheduled.get(i + 1);
-                if (relate(s.polygon, t.polygon, relation)) {
-                    if (!temp.containsKey(s.origin_uri)) {
-                        temp.put(s.origin_uri, new HashSet<>());
-                    }
-                    temp.get(s.origin_uri).add(t.origin_uri);
-                }
-            }
-            synchronized (result) {
-                result.add(temp);
-            }
-        }
-
-        public void schedule(MBBIndex s, MBBIndex t) {
-            scheduled.add(s);
-            scheduled.add(t);
-        }
-
-        public int size() {
-            return scheduled.size();
-        }
-
-        private static Boolean relate(Geometry geometry1, Geometry geometry2, String relation) {
+        private static boolean relate(Geometry geometry1, Geometry geometry2, String relation) {
             switch (relation) {
             case EQUALS:
                 return geometry1.equals(geometry2);
@@ -293,37 +277,102 @@ public class RADON {
                 return geometry1.relate(geometry2, relation);
             }
         }
+
+        private static boolean relate(PreparedGeometry geometry1, Geometry geometry2, String relation) {
+            switch (relation) {
+            case DISJOINT:
+                return geometry1.disjoint(geometry2);
+            case INTERSECTS:
+                return geometry1.intersects(geometry2);
+            case TOUCHES:
+                return geometry1.touches(geometry2);
+            case CROSSES:
+                return geometry1.crosses(geometry2);
+            case WITHIN:
+                return geometry1.within(geometry2);
+            case CONTAINS:
+                return geometry1.contains(geometry2);
+            case COVERS:
+                return geometry1.covers(geometry2);
+            case COVEREDBY:
+                return geometry1.coveredBy(geometry2);
+            case OVERLAPS:
+                return geometry1.overlaps(geometry2);
+            default:
+                return relate(geometry1.getGeometry(), geometry2, relation);
+            }
+        }
     }
 
-    public static class Merger implements Runnable {
+    /**
+     * Geometries of the instances of a cache, and the prepared geometries of
+     * those that were probed, which are kept for further relations.
+     */
+    public static class Geometries {
 
-        private AMapping m;
-        private List<Map<String, Set<String>>> localResults = new ArrayList<>();
+        private final Map<String, Geometry> geometries;
+        private final Map<String, PreparedGeometry> prepared = new ConcurrentHashMap<>();
 
-        public Merger(List<Map<String, Set<String>>> results, AMapping m) {
-            this.m = m;
-            // copy over entries to local list
-            synchronized (results) {
-                for (Iterator<Map<String, Set<String>>> iterator = results.listIterator(); iterator.hasNext();) {
-                    localResults.add(iterator.next());
-                    iterator.remove();
-                }
-            }
+        public Geometries(Map<String, Geometry> geometries) {
+            this.geometries = geometries;
+        }
+
+        public Map<String, Geometry> getGeometries() {
+            return geometries;
+        }
+
+        public PreparedGeometry getPreparedGeometry(String uri) {
+            return prepared.computeIfAbsent(uri, u -> PreparedGeometryFactory.prepare(geometries.get(u)));
+        }
+    }
+
+    /**
+     * Identifies the values of a property of the instances of a cache by the
+     * identity of the cache.
+     */
+    private static class CacheProperty {
+
+        private final WeakReference<ACache> cache;
+        private final String property;
+        private final int hash;
+
+        CacheProperty(ACache cache, String property, ReferenceQueue<ACache> queue) {
+            this.cache = new WeakReference<>(cache, queue);
+            this.property = property;
+            this.hash = 31 * System.identityHashCode(cache) + property.hashCode();
         }
 
         @Override
-        public void run() {
-            // merge back to m
-            for (Map<String, Set<String>> result : localResults) {
-                for (String s : result.keySet()) {
-                    for (String t : result.get(s)) {
-                        if (GridSizeHeuristics.swap)
-                            m.add(t, s, 1.0d);
-                        else
-                            m.add(s, t, 1.0d);
-                    }
-                }
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
             }
+            if (!(obj instanceof CacheProperty)) {
+                return false;
+            }
+            CacheProperty other = (CacheProperty) obj;
+            ACache c = cache.get();
+            return c != null && c == other.cache.get() && property.equals(other.property);
+        }
+    }
+
+    /**
+     * The geometries of a property of a cache for the values the property had
+     * after a number of modifications of the cache.
+     */
+    private static class CachedGeometries {
+
+        private final long modifications;
+        private final Geometries geometries;
+
+        CachedGeometries(long modifications, Geometries geometries) {
+            this.modifications = modifications;
+            this.geometries = geometries;
         }
     }
 
@@ -342,21 +391,73 @@ public class RADON {
 
     private static final Logger logger = LoggerFactory.getLogger(RADON.class);
 
+    static final int MIN_PARTITION_SIZE = 16;
+
+    // geometries of the properties of the caches
+    private static final ReferenceQueue<ACache> collectedCaches = new ReferenceQueue<>();
+    private static final Map<CacheProperty, CachedGeometries> geometryCache = new HashMap<>();
+
     public static Map<String, Geometry> getGeometryMapFromCache(ACache c, String property) {
-        LimesWktReader wktReader = new LimesWktReader();
+        List<String> uris = new ArrayList<>(c.getAllUris());
+        List<Map<String, Geometry>> partitions = ComputeExecutor.invokePartitioned(uris.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    LimesWktReader wktReader = new LimesWktReader();
+                    Map<String, Geometry> gMap = new HashMap<>();
+                    for (String uri : uris.subList(from, to)) {
+                        Set<String> values = c.getInstance(uri).getProperty(property);
+                        if (values.size() > 0) {
+                            String wkt = values.iterator().next();
+                            try {
+                                gMap.put(uri, wktReader.read(wkt));
+                            } catch (ParseException e) {
+                                logger.warn("Skipping malformed geometry at " + uri + "...");
+                            }
+                        }
+                    }
+                    return gMap;
+                });
+        if (partitions.size() == 1) {
+            return partitions.get(0);
+        }
         Map<String, Geometry> gMap = new HashMap<>();
-        for (String uri : c.getAllUris()) {
-            Set<String> values = c.getInstance(uri).getProperty(property);
-            if (values.size() > 0) {
-                String wkt = values.iterator().next();
-                try {
-                    gMap.put(uri, wktReader.read(wkt));
-                } catch (ParseException e) {
-                    logger.warn("Skipping malformed geometry at " + uri + "...");
+        for (Map<String, Geometry> partition : partitions) {
+            gMap.putAll(partition);
+        }
+        return gMap;
+    }
+
+    /**
+     * Retrieves the geometries of a property of the instances of a cache,
+     * which are parsed once and kept, with their prepared geometries, until
+     * the cache is garbage collected or modified, see
+     * {@link ACache#modified()}.
+     *
+     * @param c
+     *            Cache
+     * @param property
+     *            Property with WKT values
+     * @return the geometries of the instances
+     */
+    public static Geometries getGeometries(ACache c, String property) {
+        long modifications = c.getModifications();
+        CacheProperty key = new CacheProperty(c, property, collectedCaches);
+        synchronized (geometryCache) {
+            if (collectedCaches.poll() != null) {
+                while (collectedCaches.poll() != null) {
+                    // drain
                 }
+                geometryCache.keySet().removeIf(k -> k.cache.get() == null);
+            }
+            CachedGeometries cached = geometryCache.get(key);
+            if (cached != null && cached.modifications == modifications) {
+                return cached.geometries;
             }
         }
-        return gMap;
+        Geometries geometries = new Geometries(getGeometryMapFromCache(c, property));
+        synchronized (geometryCache) {
+            geometryCache.put(key, new CachedGeometries(modifications, geometries));
+        }
+        return geometries;
     }
 
     public static AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar,
@@ -365,9 +466,9 @@ public class RADON {
             throw new InvalidThresholdException(threshold);
         }
         List<String> properties = PropertyFetcher.getProperties(expression, threshold);
-        Map<String, Geometry> sourceMap = getGeometryMapFromCache(source, properties.get(0));
-        Map<String, Geometry> targetMap = getGeometryMapFromCache(target, properties.get(1));
-        return getMapping(sourceMap, targetMap, relation);
+        Geometries sourceGeometries = getGeometries(source, properties.get(0));
+        Geometries targetGeometries = getGeometries(target, properties.get(1));
+        return getMapping(sourceGeometries, targetGeometries, relation);
     }
 
     public static AMapping getMapping(Set<Polygon> sourceData, Set<Polygon> targetData, String relation) {
@@ -393,8 +494,28 @@ public class RADON {
 
     public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
             String relation) {
+        return getMapping(new Geometries(sourceData), new Geometries(targetData), relation);
+    }
+
+    /**
+     * Computes the links of a topological relation. The geometries of the
+     * (swapped) source are indexed in grid squares, and those of the target
+     * in the squares the source occupies. A pair of geometries is verified in
+     * the square of the lower left corner of the intersection of their
+     * squares only, so that it is verified once without keeping track of the
+     * verified pairs. The squares are verified in parallel, with the prepared
+     * geometries of the source.
+     *
+     * @param sourceData
+     *            Source geometries
+     * @param targetData
+     *            Target geometries
+     * @param relation
+     *            Topological relation
+     * @return Mapping
+     */
+    public static AMapping getMapping(Geometries sourceData, Geometries targetData, String relation) {
         double thetaX, thetaY;
-        int numThreads = new Double(Math.ceil((double) Runtime.getRuntime().availableProcessors() / 2.0d)).intValue();
         // Relation thats actually used for computation.
         // Might differ from input relation when swapping occurs or the input
         // relation is 'disjoint'.
@@ -407,15 +528,15 @@ public class RADON {
         if (disjointStrategy)
             rel = INTERSECTS;
 
-        GridSizeHeuristics heuristicsS = new GridSizeHeuristics(sourceData.values());
-        GridSizeHeuristics heuristicsT = new GridSizeHeuristics(targetData.values());
-        double[] theta = GridSizeHeuristics.decideForTheta(heuristicsS, heuristicsT, heuristicStatMeasure);
-        thetaX = theta[0];
-        thetaY = theta[1];
+        GridSizeHeuristics heuristicsS = new GridSizeHeuristics(sourceData.getGeometries().values());
+        GridSizeHeuristics heuristicsT = new GridSizeHeuristics(targetData.getGeometries().values());
+        Theta theta = GridSizeHeuristics.decideForTheta(heuristicsS, heuristicsT, heuristicStatMeasure);
+        thetaX = theta.x;
+        thetaY = theta.y;
         // swap smaller dataset to source
-        // if swap is necessary is decided in Stats.decideForTheta([...])!
-        Map<String, Geometry> swap;
-        boolean swapped = GridSizeHeuristics.swap;
+        // if swap is necessary is decided in GridSizeHeuristics.decideForTheta([...])!
+        Geometries swap;
+        boolean swapped = theta.swap;
         if (swapped) {
             swap = sourceData;
             sourceData = targetData;
@@ -437,83 +558,56 @@ public class RADON {
         }
 
         // set up indexes
-        SquareIndex sourceIndex = index(sourceData, null, thetaX, thetaY);
-        SquareIndex targetIndex = index(targetData, sourceIndex, thetaX, thetaY);
+        SquareIndex sourceIndex = index(sourceData.getGeometries(), null, thetaX, thetaY);
+        SquareIndex targetIndex = index(targetData.getGeometries(), sourceIndex, thetaX, thetaY);
+        List<int[]> squares = new ArrayList<>();
+        for (Integer lat : targetIndex.map.keySet()) {
+            for (Integer lon : targetIndex.map.get(lat).keySet()) {
+                squares.add(new int[] { lat, lon });
+            }
+        }
 
         // execute matching
-        ExecutorService matchExec = Executors.newFixedThreadPool(numThreads);
-        ExecutorService mergerExec = Executors.newFixedThreadPool(1);
-        AMapping m = MappingFactory.createDefaultMapping();
-        List<Map<String, Set<String>>> results = Collections.synchronizedList(new ArrayList<>());
-        Map<String, Set<String>> computed = new HashMap<>();
-        Matcher matcher = new Matcher(rel, results);
-
-        for (Integer lat : sourceIndex.map.keySet()) {
-            for (Integer lon : sourceIndex.map.get(lat).keySet()) {
-                List<MBBIndex> source = sourceIndex.getSquare(lat, lon);
-                List<MBBIndex> target = targetIndex.getSquare(lat, lon);
-                if (target != null && target.size() > 0) {
-                    for (MBBIndex a : source) {
-                        if (!computed.containsKey(a.uri))
-                            computed.put(a.uri, new HashSet<>());
-                        for (MBBIndex b : target) {
-                            if (!computed.get(a.uri).contains(b.uri)) {
-                                computed.get(a.uri).add(b.uri);
-                                boolean compute = (rel.equals(COVERS) && a.covers(b))
-                                        || (rel.equals(COVEREDBY) && b.covers(a))
-                                        || (rel.equals(CONTAINS) && a.contains(b))
-                                        || (rel.equals(WITHIN) && b.contains(a)) || (rel.equals(EQUALS) && a.equals(b))
-                                        || rel.equals(INTERSECTS) || rel.equals(CROSSES) || rel.equals(TOUCHES)
-                                        || rel.equals(OVERLAPS);
-                                if (compute) {
-                                    if (numThreads == 1) {
-                                        if (Matcher.relate(a.polygon, b.polygon, rel)) {
-                                            if (swapped)
-                                                m.add(b.origin_uri, a.origin_uri, 1.0);
-                                            else
-                                                m.add(a.origin_uri, b.origin_uri, 1.0);
-                                        }
-                                    } else {
-                                        matcher.schedule(a, b);
-                                        if (matcher.size() == Matcher.maxSize) {
-                                            matchExec.execute(matcher);
-                                            matcher = new Matcher(rel, results);
-                                            if (results.size() > 0) {
-                                                mergerExec.execute(new Merger(results, m));
-                                            }
-                                        }
-                                    }
+        Geometries probed = sourceData;
+        String r = rel;
+        List<AMapping> partitions = ComputeExecutor.invokePartitioned(squares.size(), MIN_PARTITION_SIZE,
+                (from, to) -> {
+                    AMapping result = MappingFactory.createDefaultMapping();
+                    for (int[] square : squares.subList(from, to)) {
+                        List<MBBIndex> source = sourceIndex.getSquare(square[0], square[1]);
+                        List<MBBIndex> target = targetIndex.getSquare(square[0], square[1]);
+                        for (MBBIndex a : source) {
+                            for (MBBIndex b : target) {
+                                if (Math.max(a.lat1, b.lat1) != square[0] || Math.max(a.lon1, b.lon1) != square[1]) {
+                                    continue;
+                                }
+                                boolean compute = (r.equals(COVERS) && a.covers(b))
+                                        || (r.equals(COVEREDBY) && b.covers(a))
+                                        || (r.equals(CONTAINS) && a.contains(b))
+                                        || (r.equals(WITHIN) && b.contains(a)) || (r.equals(EQUALS) && a.equals(b))
+                                        || r.equals(INTERSECTS) || r.equals(CROSSES) || r.equals(TOUCHES)
+                                        || r.equals(OVERLAPS);
+                                if (compute && Matcher.relate(probed.getPreparedGeometry(a.origin_uri), b.polygon, r)) {
+                                    if (swapped)
+                                        result.add(b.origin_uri, a.origin_uri, 1.0);
+                                    else
+                                        result.add(a.origin_uri, b.origin_uri, 1.0);
                                 }
                             }
                         }
                     }
-                }
-            }
-        }
-        if (numThreads > 1) {
-            if (matcher.size() > 0) {
-                matchExec.execute(matcher);
-            }
-            matchExec.shutdown();
-            while (!matchExec.isTerminated()) {
-                try {
-                    if (results.size() > 0) {
-                        mergerExec.execute(new Merger(results, m));
+                    return result;
+                });
+        AMapping m;
+        if (partitions.size() == 1) {
+            m = partitions.get(0);
+        } else {
+            m = MappingFactory.createDefaultMapping();
+            for (AMapping partition : partitions) {
+                for (String s : partition.getMap().keySet()) {
+                    for (String t : partition.getMap().get(s).keySet()) {
+                        m.add(s, t, 1.0d);
                     }
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (results.size() > 0) {
-                mergerExec.execute(new Merger(results, m));
-            }
-            mergerExec.shutdown();
-            while (!mergerExec.isTerminated()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
                 }
             }
         }
@@ -521,8 +615,8 @@ public class RADON {
         // Compute M = (S x T) \ M' for disjoint relation
         if (disjointStrategy) {
             AMapping disjoint = MappingFactory.createDefaultMapping();
-            for (String s : sourceData.keySet()) {
-                for (String t : targetData.keySet()) {
+            for (String s : sourceData.getGeometries().keySet()) {
+                for (String t : targetData.getGeometries().keySet()) {
                     if (swapped) {
                         if (!m.contains(t, s)) {
                             disjoint.add(t, s, 1.0d);
@@ -0,0 +1,254 @@
+package org.aksw.limes.core.measures.measure;
+
+import org.aksw.limes.core.exceptions.InvalidThresholdException;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.parser.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Implements a metric expression that is parsed once and can then be
+ * evaluated for any number of instance pairs. The expression is compiled into
+ * a tree whose leaves hold the mapper and the properties of an atomic measure
+ * and whose inner nodes hold the operator, the coefficients and the thresholds
+ * of a complex measure. The similarities returned are the same as the ones of
+ * {@link MeasureProcessor#getSimilarity(Instance, Instance, String, double, String, String)},
+ * which compiles the expression on every call.
+ *
+ * A compiled expression re-uses its measures and is therefore not
+ * thread-safe.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
+ * @version 1.0
+ */
+public abstract class CompiledExpression {
+
+    private static final String ADD = "ADD";
+    private static final String XOR = "XOR";
+    private static final String MAX = "MAX";
+    private static final String MIN = "MIN";
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    static Logger logger = LoggerFactory.getLogger(CompiledExpression.class);
+
+    /**
+     * Returns the similarity between two instances.
+     *
+     * @param sourceInstance,
+     *            the source instance
+     * @param targetInstance,
+     *            the target instance
+     * @return the similarity of sourceInstance and targetInstance
+     */
+    public abstract double getSimilarity(Instance sourceInstance, Instance targetInstance);
+
+    /**
+     * Compiles a metric expression.
+     *
+     * @param expression,
+     *            the metric expression
+     * @param threshold,
+     *            the threshold
+     * @param sourceVar,
+     *            the source variable
+     * @param targetVar,
+     *            the target variable
+     * @return the compiled expression
+     */
+    public static CompiledExpression compile(String expression, double threshold, String sourceVar,
+            String targetVar) {
+        Parser p = new Parser(expression, threshold);
+        if (p.isAtomic()) {
+            try {
+                return new Atomic(p, expression, threshold, sourceVar, targetVar);
+            } catch (RuntimeException e) {
+                logger.error("Could not compile " + expression + ". Similarities are set to 0.", e);
+                return new Constant(0d);
+            }
+        }
+        try {
+            return new Complex(p, sourceVar, targetVar);
+        } catch (RuntimeException e) {
+            logger.error("Could not compile " + expression + ". Similarities are set to 0.", e);
+            return new Constant(0d);
+        }
+    }
+
+    /**
+     * Extracts the property of a term of an atomic expression, e.g. "name"
+     * from "x.name".
+     *
+     * @param term,
+     *            the term with the leading variable
+     * @return the property of the term
+     */
+    private static String getProperty(String term) {
+        String[] split = term.split("\\.");
+        String property = split[1];
+        for (int i = 2; i < split.length; i++) {
+            property = property + "." + split[i];
+        }
+        return property;
+    }
+
+    /**
+     * Expression whose similarity does not depend on the instances.
+     */
+    private static class Constant extends CompiledExpression {
+
+        private final double similarity;
+
+        Constant(double similarity) {
+            this.similarity = similarity;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            return similarity;
+        }
+    }
+
+    /**
+     * Atomic expression. The similarity is computed by the measure on the
+     * property values of the two instances.
+     */
+    private static class Atomic extends CompiledExpression {
+
+        private final AMeasure measure;
+        private final String expression;
+        private final double threshold;
+        private final String property1;
+        private final String property2;
+
+        Atomic(Parser p, String expression, double threshold, String sourceVar, String targetVar) {
+            MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+            this.measure = MeasureFactory.createMeasure(type);
+            this.expression = expression;
+            this.threshold = threshold;
+
+            String property1 = null, property2 = null;
+            String term1 = "?" + p.getLeftTerm();
+            String term2 = "?" + p.getRightTerm();
+            if (term1.contains(".")) {
+                if (term1.split("\\.")[0].equals(sourceVar)) {
+                    property1 = getProperty(term1);
+                } else {
+                    property2 = getProperty(term1);
+                }
+            } else {
+                property1 = term1;
+            }
+            if (term2.contains(".")) {
+                if (term2.split("\\.")[0].equals(sourceVar)) {
+                    property1 = getProperty(term2);
+                } else {
+                    property2 = getProperty(term2);
+                }
+            } else {
+                property2 = term2;
+            }
+            // if no properties then terminate
+            if (property1 == null || property2 == null) {
+                logger.error(MarkerFactory.getMarker("FATAL"), "Property values could not be read. Exiting");
+                throw new RuntimeException();
+            }
+            if (threshold <= 0) {
+                throw new InvalidThresholdException(threshold);
+            }
+            this.property1 = property1;
+            this.property2 = property2;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            double similarity;
+            try {
+                similarity = measure.getSimilarity(sourceInstance, targetInstance, property1, property2);
+            } catch (RuntimeException e) {
+                logger.error("Could not compute " + expression + " for " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri() + ".", e);
+                return 0;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Complex expression, i.e. an operator with two sub-expressions.
+     */
+    private static class Complex extends CompiledExpression {
+
+        private final String operator;
+        private final double parentThreshold;
+        private final double threshold1;
+        private final double threshold2;
+        private final double leftCoefficient;
+        private final double rightCoefficient;
+        private final CompiledExpression left;
+        private final CompiledExpression right;
+
+        Complex(Parser p, String sourceVar, String targetVar) {
+            this.operator = p.getOperator();
+            this.parentThreshold = p.getThreshold();
+            this.threshold1 = p.getThreshold1();
+            this.threshold2 = p.getThreshold2();
+            if (operator.equalsIgnoreCase(ADD)) {
+                // strips the coefficients from the terms
+                this.leftCoefficient = p.getLeftCoefficient();
+                this.rightCoefficient = p.getRightCoefficient();
+            } else {
+                this.leftCoefficient = 1d;
+                this.rightCoefficient = 1d;
+            }
+            this.left = compile(p.getLeftTerm(), threshold1, sourceVar, targetVar);
+            this.right = compile(p.getRightTerm(), threshold2, sourceVar, targetVar);
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            if (operator.equalsIgnoreCase(MAX) || operator.equalsIgnoreCase(OR) || operator.equalsIgnoreCase(XOR)) {
+                double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+                double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+                // parentThreshold is 0 and (s,t) are not part of the union
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                // find max value between or terms
+                double maxSimilarity = Math.max(firstChild, secondChild);
+                return maxSimilarity >= parentThreshold ? maxSimilarity : 0;
+            }
+            if (operator.equalsIgnoreCase(MIN) || operator.equalsIgnoreCase(AND)) {
+                double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+                double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+                // parentThreshold is 0 and (s,t) are not part of the
+                // intersection
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                // find min value between or terms
+                double minSimilarity = Math.min(firstChild, secondChild);
+                return minSimilarity >= parentThreshold ? minSimilarity : 0;
+            }
+            if (operator.equalsIgnoreCase(ADD)) {
+                double firstChild = leftCoefficient * left.getSimilarity(sourceInstance, targetInstance);
+                double secondChild = rightCoefficient * right.getSimilarity(sourceInstance, targetInstance);
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                return firstChild + secondChild >= parentThreshold ? firstChild + secondChild : 0;
+            }
+            // the first similarity must pass both thresholds, otherwise the
+            // second one does not need to be computed
+            double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+            if (firstChild < threshold1 || firstChild < parentThreshold) {
+                return 0;
+            }
+            // the second similarity must be 0 in order for the instance to
+            // have a change to be included at the final result
+            double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+            return secondChild == 0 ? firstChild : 0;
+        }
+    }
+}
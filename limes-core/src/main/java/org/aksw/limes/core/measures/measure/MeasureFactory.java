@@ -592,9 +592,7 @@ public class MeasureFactory {
     }
 
     public static AIndex createIndexer() {
-        AIndex Indexer = new MemoryIndex();
-        Indexer.preIndex();
-        return Indexer;
+        return MemoryIndex.getSharedIndex();
     }
 
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package org.aksw.limes.core.measures.measure.semantic.edgecounting;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.measures.measure.AMeasure;
@@ -40,12 +43,20 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
     protected AIndex Indexer = null;
     protected SemanticDictionary dictionary = null;
 
+    // memoized concepts of the tokens and similarities, shared by all
+    // measures of the same index
+    private final Map<String, List<ISynset>> tokenSynsets;
+    private final Map<String, Double> tokenSimilarities;
+    private final Map<Long, Double> conceptSimilarities;
+
     public AEdgeCountingSemanticMeasure(AIndex indexer) {
         dictionary = new SemanticDictionary();
         dictionary.exportDictionaryToFile();
         dictionary.openDictionaryFromFile();
         Indexer = indexer;
-
+        tokenSynsets = indexer.getTokenSynsets();
+        tokenSimilarities = indexer.getTokenSimilarities(getName());
+        conceptSimilarities = indexer.getConceptSimilarities(getName());
     }
 
     public SemanticDictionary getSemanticDictionary() {
@@ -145,8 +156,14 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
      * @return the actual semantic similarity between synset1 and synset2
      */
     public double getSimilarity(ISynset synset1, ISynset synset2) {
-        double sim = 0.0;
-        sim = getSimilarityBetweenConcepts(synset1, synset2);
+        // the offsets of wordnet are below 2^29
+        long key = ((long) synset1.getType() << 61) | ((long) synset2.getType() << 58)
+                | ((long) synset1.getOffset() << 29) | synset2.getOffset();
+        Double sim = conceptSimilarities.get(key);
+        if (sim == null) {
+            sim = getSimilarityBetweenConcepts(synset1, synset2);
+            conceptSimilarities.put(key, sim);
+        }
         return sim;
     }
 
@@ -291,8 +308,6 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
         }
 
         ///////////////////////////////////////////////////////////////////
-        HashMap<String, Double> similaritiesMap = new HashMap<String, Double>();
-
         for (String sourceValue : instance1.getProperty(property1)) {
             if (sourceValue.equals(""))
                 continue;
@@ -320,16 +335,7 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
 
                             if (!flagTarget) {
 
-                                double targetTokenSim = 0.0d;
-
-                                double tempSim = checkSimilarity(similaritiesMap, sourceToken, targetToken);
-                                if (tempSim == Double.MAX_VALUE) {
-                                    targetTokenSim = (sourceToken.equals(targetToken) == true) ? 1d
-                                            : getSimilarity(sourceToken, targetToken);
-                                    similaritiesMap.put(sourceToken + "||" + targetToken, targetTokenSim);
-                                } else {
-                                    targetTokenSim = tempSim;
-                                }
+                                double targetTokenSim = getTokenSimilarity(sourceToken, targetToken);
                                 if (targetTokenSim > maxTargetTokenSim) {
                                     maxTargetTokenSim = targetTokenSim;
                                 }
@@ -367,6 +373,99 @@ public abstract class AEdgeCountingSemanticMeasure extends AMeasure implements I
         return maxSim;
     }
 
+    /**
+     * Calculates the semantic similarity between two tokens. The similarities
+     * of the tokens and of their concepts are memoized.
+     * 
+     * @param sourceToken,
+     *            the source input token
+     * @param targetToken,
+     *            the target input token
+     * @return the semantic similarity of the tokens, 1 if they are equal
+     */
+    public double getTokenSimilarity(String sourceToken, String targetToken) {
+        if (sourceToken.equals(targetToken)) {
+            return 1d;
+        }
+        // the similarity is symmetric
+        String together = sourceToken.compareTo(targetToken) < 0 ? sourceToken + "||" + targetToken
+                : targetToken + "||" + sourceToken;
+        Double similarity = tokenSimilarities.get(together);
+        if (similarity == null) {
+            similarity = getMaxSimilarity(getSynsets(sourceToken), getSynsets(targetToken));
+            tokenSimilarities.put(together, similarity);
+        }
+        return similarity;
+    }
+
+    /**
+     * Calculates the semantic similarity between the concepts of two tokens,
+     * like {@link #getSimilarity(IIndexWord, IIndexWord)}.
+     */
+    private double getMaxSimilarity(List<ISynset> synsets1, List<ISynset> synsets2) {
+        double maxSim = 0.0d;
+        for (ISynset synset1 : synsets1) {
+            for (ISynset synset2 : synsets2) {
+                double sim = this.getSimilarity(synset1, synset2);
+                if (sim > maxSim) {
+                    maxSim = sim;
+                }
+                if (maxSim == 1.0d) {
+                    return maxSim;
+                }
+            }
+        }
+        return maxSim;
+    }
+
+    /**
+     * Retrieves the concepts of a token, in the order of its IWordIDs. The
+     * concepts are memoized.
+     * 
+     * @param token,
+     *            the input token
+     * @return the concepts of the IIndexWord of the token, an empty list if
+     *         there is none
+     */
+    public List<ISynset> getSynsets(String token) {
+        List<ISynset> synsets = tokenSynsets.get(token);
+        if (synsets == null) {
+            synsets = new ArrayList<ISynset>();
+            IIndexWord idxWord = getIIndexWord(token);
+            List<IWordID> wordIDs = idxWord == null ? null : getWordIDs(idxWord);
+            if (wordIDs != null) {
+                for (IWordID wordID : wordIDs) {
+                    ISynset synset = getSynset(getIWord(wordID));
+                    if (synset != null) {
+                        synsets.add(synset);
+                    }
+                }
+            }
+            tokenSynsets.put(token, synsets);
+        }
+        return synsets;
+    }
+
+    /**
+     * Retrieves the families of a concept. Two concepts whose similarity is
+     * above 0 belong to a common family. By default, the families of a concept
+     * are the roots of its hypernym paths, i.e. the similarity of two concepts
+     * without a common subsumer is 0.
+     * 
+     * @param synset,
+     *            the input concept
+     * @return the families of the concept
+     */
+    public Set<String> getFamilies(ISynset synset) {
+        Set<String> families = new HashSet<String>();
+        for (ArrayList<ISynsetID> path : getPaths(synset)) {
+            if (!path.isEmpty()) {
+                families.add(synset.getType() + ":" + path.get(0).getOffset());
+            }
+        }
+        return families;
+    }
+
     /**
      * Closes and removes the semantic dictionary from memory
      * 
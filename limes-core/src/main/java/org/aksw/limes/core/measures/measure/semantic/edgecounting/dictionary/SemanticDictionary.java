@@ -140,6 +140,15 @@ public class SemanticDictionary {
         return dictionary.getSynset(hypernymId);
     }
 
+    /**
+     * Retrieves the folder of the wordnet database files
+     * 
+     * @return the folder
+     */
+    public String getWordNetFolder() {
+        return wordNetFolder;
+    }
+
     /**
      * Retrieves the semantic wordnet dictionary
      * 
@@ -1,6 +1,9 @@
 package org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.mit.jwi.item.ISynset;
 import edu.mit.jwi.item.ISynsetID;
@@ -13,6 +16,13 @@ import edu.mit.jwi.item.ISynsetID;
  */
 public abstract class AIndex {
 
+    // concepts of the tokens, an empty list for tokens that are not in
+    // wordnet
+    private final Map<String, List<ISynset>> tokenSynsets = new ConcurrentHashMap<String, List<ISynset>>();
+    // similarities of the pairs of tokens and of concepts, per measure
+    private final Map<String, Map<String, Double>> tokenSimilarities = new ConcurrentHashMap<String, Map<String, Double>>();
+    private final Map<String, Map<Long, Double>> conceptSimilarities = new ConcurrentHashMap<String, Map<Long, Double>>();
+
     /**
      * Stores all necessary information into memory
      *
@@ -41,4 +51,38 @@ public abstract class AIndex {
      *
      */
     public abstract ArrayList<ArrayList<ISynsetID>> getHypernymPaths(ISynset synset);
+
+    /**
+     * Retrieves the memoized concepts of tokens, shared by all measures that
+     * use this index
+     * 
+     * @return the concepts of the tokens
+     */
+    public Map<String, List<ISynset>> getTokenSynsets() {
+        return tokenSynsets;
+    }
+
+    /**
+     * Retrieves the memoized similarities of pairs of tokens of a measure,
+     * shared by all instances of the measure that use this index
+     * 
+     * @param measure,
+     *            the name of the measure
+     * @return the similarities of the pairs of tokens
+     */
+    public Map<String, Double> getTokenSimilarities(String measure) {
+        return tokenSimilarities.computeIfAbsent(measure, m -> new ConcurrentHashMap<String, Double>());
+    }
+
+    /**
+     * Retrieves the memoized similarities of pairs of concepts of a measure,
+     * shared by all instances of the measure that use this index
+     * 
+     * @param measure,
+     *            the name of the measure
+     * @return the similarities of the pairs of concepts
+     */
+    public Map<Long, Double> getConceptSimilarities(String measure) {
+        return conceptSimilarities.computeIfAbsent(measure, m -> new ConcurrentHashMap<Long, Double>());
+    }
 }
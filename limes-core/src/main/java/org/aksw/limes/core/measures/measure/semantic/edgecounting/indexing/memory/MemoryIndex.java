@@ -1,8 +1,18 @@
 package org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.memory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map.Entry;
 
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.dictionary.SemanticDictionary;
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.finders.HypernymPathsFinder;
@@ -13,10 +23,14 @@ import org.slf4j.LoggerFactory;
 import edu.mit.jwi.item.ISynset;
 import edu.mit.jwi.item.ISynsetID;
 import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.SynsetID;
 
 /**
  * Implements the memory index class that computes, stores and loads the
- * hypernym paths of every synset in wordnet.
+ * hypernym paths of every synset in wordnet. The paths are written to a file
+ * in the wordnet folder once they are computed, and are read from this file
+ * afterwards, unless the wordnet files have changed since. The index shared
+ * by all semantic measures is retrieved by {@link #getSharedIndex()}.
  *
  * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version 1.0
@@ -24,6 +38,13 @@ import edu.mit.jwi.item.POS;
 public class MemoryIndex extends AIndex {
     private static final Logger logger = LoggerFactory.getLogger(MemoryIndex.class);
 
+    // file of the hypernym paths in the wordnet folder
+    public static final String PATHS_FILE = "JWI_Hypernym_Paths_.bin";
+    // version of the format of the paths file
+    private static final int PATHS_VERSION = 1;
+
+    private static MemoryIndex sharedIndex = null;
+
     HashMap<String, HashMap<Integer, Integer>> minDepths = new HashMap<String, HashMap<Integer, Integer>>();
     HashMap<String, HashMap<Integer, Integer>> maxDepths = new HashMap<String, HashMap<Integer, Integer>>();
 
@@ -31,6 +52,9 @@ public class MemoryIndex extends AIndex {
 
     protected SemanticDictionary dictionary = null;
 
+    // fingerprint of the wordnet files the paths are computed from
+    private long fingerprint;
+
     /**
      * {@inheritDoc}
      */
@@ -46,12 +70,153 @@ public class MemoryIndex extends AIndex {
     }
 
     /**
-     * {@inheritDoc}
+     * Retrieves the index shared by all semantic measures. It is created and
+     * pre-indexed on first use, and again if the wordnet files have changed.
+     * 
+     * @return the shared index
+     */
+    public static synchronized MemoryIndex getSharedIndex() {
+        if (sharedIndex == null || sharedIndex.fingerprint != getFingerprint(getWordNetFolder())) {
+            MemoryIndex index = new MemoryIndex();
+            index.preIndex();
+            sharedIndex = index;
+        }
+        return sharedIndex;
+    }
+
+    /**
+     * Loads the hypernym paths from the paths file if it exists and was
+     * written for the current wordnet files. Otherwise, computes them and
+     * writes them to the file.
      */
     @Override
     public void preIndex() {
+        // the paths are computed from the exported dictionary, which is part
+        // of the fingerprint
+        new SemanticDictionary().exportDictionaryToFile();
+        File folder = getWordNetFolder();
+        fingerprint = getFingerprint(folder);
+        File file = new File(folder, PATHS_FILE);
+        if (file.exists()) {
+            try {
+                this.loadPaths(file);
+                return;
+            } catch (IOException e) {
+                logger.warn("Couldn't read hypernym paths from " + file + ": " + e.getMessage() + " Indexing again.");
+                paths.clear();
+            }
+        }
         this.preIndexPaths();
+        try {
+            this.savePaths(file);
+        } catch (IOException e) {
+            logger.warn("Couldn't write hypernym paths to " + file + ".");
+        }
+    }
+
+    private static File getWordNetFolder() {
+        return new File(new SemanticDictionary().getWordNetFolder());
+    }
+
+    /**
+     * Computes a fingerprint of the files of a wordnet folder, i.e. of their
+     * names, sizes and modification times. The paths file is not part of it.
+     * 
+     * @param folder,
+     *            the wordnet folder
+     * @return the fingerprint of the files
+     */
+    public static long getFingerprint(File folder) {
+        long fingerprint = PATHS_VERSION;
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return fingerprint;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isFile() && !file.getName().equals(PATHS_FILE)) {
+                fingerprint = 31 * fingerprint + file.getName().hashCode();
+                fingerprint = 31 * fingerprint + file.length();
+                fingerprint = 31 * fingerprint + file.lastModified();
+            }
+        }
+        return fingerprint;
+    }
 
+    /**
+     * Writes the hypernym paths to a file. The file starts with the version
+     * of its format and the fingerprint of the wordnet files. A path is
+     * stored as the offsets of its synsets, which belong to the POS of the
+     * indexed synset.
+     * 
+     * @param file,
+     *            the output file
+     * @throws IOException
+     *             if the file could not be written
+     */
+    public void savePaths(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(PATHS_VERSION);
+            out.writeLong(fingerprint);
+            for (POS pos : POS.values()) {
+                HashMap<Integer, ArrayList<ArrayList<ISynsetID>>> posPaths = paths.get(pos.toString());
+                out.writeInt(posPaths.size());
+                for (Entry<Integer, ArrayList<ArrayList<ISynsetID>>> entry : posPaths.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (ArrayList<ISynsetID> path : entry.getValue()) {
+                        out.writeInt(path.size());
+                        for (ISynsetID id : path) {
+                            out.writeInt(id.getOffset());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the hypernym paths from a file written by
+     * {@link #savePaths(File)}.
+     * 
+     * @param file,
+     *            the input file
+     * @throws IOException
+     *             if the file could not be read, or was written in another
+     *             format or for other wordnet files
+     */
+    public void loadPaths(File file) throws IOException {
+        logger.info("Loading hypernym paths from " + file + ".");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != PATHS_VERSION) {
+                throw new IOException("The file has an outdated format.");
+            }
+            if (in.readLong() != fingerprint) {
+                throw new IOException("The wordnet files have changed.");
+            }
+            for (POS pos : POS.values()) {
+                int synsets = in.readInt();
+                HashMap<Integer, ArrayList<ArrayList<ISynsetID>>> posPaths = new HashMap<Integer, ArrayList<ArrayList<ISynsetID>>>(
+                        2 * synsets);
+                for (int i = 0; i < synsets; i++) {
+                    int offset = in.readInt();
+                    int trees = in.readInt();
+                    ArrayList<ArrayList<ISynsetID>> synsetPaths = new ArrayList<ArrayList<ISynsetID>>(trees);
+                    for (int j = 0; j < trees; j++) {
+                        int length = in.readInt();
+                        ArrayList<ISynsetID> path = new ArrayList<ISynsetID>(length);
+                        for (int k = 0; k < length; k++) {
+                            path.add(new SynsetID(in.readInt(), pos));
+                        }
+                        synsetPaths.add(path);
+                    }
+                    posPaths.put(offset, synsetPaths);
+                }
+                paths.put(pos.toString(), posPaths);
+            }
+        }
+        logger.info("Loading done.");
     }
 
     /**
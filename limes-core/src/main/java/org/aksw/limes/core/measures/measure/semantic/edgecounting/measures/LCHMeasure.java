@@ -1,6 +1,8 @@
 package org.aksw.limes.core.measures.measure.semantic.edgecounting.measures;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
 
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.AEdgeCountingSemanticMeasure;
 import org.aksw.limes.core.measures.measure.semantic.edgecounting.finders.ShortestPathFinder;
@@ -76,6 +78,22 @@ public class LCHMeasure extends AEdgeCountingSemanticMeasure {
 
     }
 
+    /**
+     * Concepts without a common subsumer are similar if their hierarchy is
+     * deep enough, hence the family of such a concept is its hierarchy.
+     * 
+     * @param synset,
+     *            the input concept
+     * @return the families of the concept
+     */
+    @Override
+    public Set<String> getFamilies(ISynset synset) {
+        if (getHierarchyDepth(synset.getType()) > 1 && !getPaths(synset).isEmpty()) {
+            return Collections.singleton(String.valueOf(synset.getType()));
+        }
+        return super.getFamilies(synset);
+    }
+
     @Override
     public double getRuntimeApproximation(double mappingSize) {
         return mappingSize / 1000d;
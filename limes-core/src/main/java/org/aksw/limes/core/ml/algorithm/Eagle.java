@@ -116,8 +116,10 @@ public class Eagle extends ACoreMLAlgorithm {
 
         Integer nGen = (Integer) getParameter(GENERATIONS);
         
+        fitness.evaluatePopulation(gp.getGPPopulation());
         for (int gen = 1; gen <= nGen; gen++) {
             gp.evolve();
+            fitness.evaluatePopulation(gp.getGPPopulation());
             bestSolutions.add(determineFittest(gp, gen));
         }
 
@@ -143,8 +145,10 @@ public class Eagle extends ACoreMLAlgorithm {
         
         specifications = new LinkedList<LinkSpecification>();
         logger.info("Start learning");
+        fitness.evaluatePopulation(gp.getGPPopulation());
         for (int gen = 1; gen <= nGen; gen++) {
             gp.evolve();
+            fitness.evaluatePopulation(gp.getGPPopulation());
             IGPProgram currentBest = determineFittestUnsup(gp, gen);
             LinkSpecification currentBestMetric = getLinkSpecification(currentBest);
             //TODO: save the best LS of each generation
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.aksw.limes.core.datastrutures.LogicOperator;
 import org.aksw.limes.core.datastrutures.Tree;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
@@ -17,6 +18,7 @@ import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.wombat.AWombat;
 import org.aksw.limes.core.ml.algorithm.wombat.ExtendedRefinementNode;
+import org.aksw.limes.core.ml.algorithm.wombat.LazyMapping;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -147,6 +149,7 @@ public class WombatComplete extends AWombat {
             logger.debug("Most promising node: " + mostPromisingNode.getValue());
         }
         ExtendedRefinementNode bestSolution = findMostPromisingNode(refinementTreeRoot, true).getValue();
+        bestSolution.materializeMapping();
         logger.debug("Overall Best Solution: " + bestSolution);
         if (!saveMapping()) {
             bestSolution.setMap(getMappingOfMetricExpression(bestSolution.getMetricExpression(), refinementTreeRoot));
@@ -274,6 +277,9 @@ public class WombatComplete extends AWombat {
      * @author sherif
      */
     private Tree<ExtendedRefinementNode> expandNode(Tree<ExtendedRefinementNode> node) {
+        if (lazyMapping()) {
+            node.getValue().materializeMapping();
+        }
         // Add children
         List<ExtendedRefinementNode> childrenNodes = refine(node);
         for (ExtendedRefinementNode n : childrenNodes) {
@@ -384,6 +390,12 @@ public class WombatComplete extends AWombat {
         for (String diffExpr : diffs.keySet()) {
             AMapping diffMapping = diffs.get(diffExpr);
             String childMetricExpr = "OR(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
+            if (lazyMapping()) {
+                // the mapping of the expanded node is materialized
+                result.add(createNode(new LazyMapping(LogicOperator.OR, node.getValue().getMapping(), diffMapping),
+                        childMetricExpr));
+                continue;
+            }
             AMapping nodeMaping;
             if (saveMapping()) {
                 nodeMaping = node.getValue().getMapping();
@@ -431,13 +443,19 @@ public class WombatComplete extends AWombat {
         List<ExtendedRefinementNode> result = new ArrayList<>();
         for (String diffExpr : diffs.keySet()) {
             AMapping diffMapping = diffs.get(diffExpr);
+            String childMetricExpr = "AND(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
+            if (lazyMapping()) {
+                // the mapping of the expanded node is materialized
+                result.add(createNode(new LazyMapping(LogicOperator.AND, node.getValue().getMapping(), diffMapping),
+                        childMetricExpr));
+                continue;
+            }
             AMapping nodeMaping = MappingFactory.createDefaultMapping();
             if (saveMapping()) {
                 nodeMaping = node.getValue().getMapping();
             } else {
                 nodeMaping = getMappingOfMetricExpression(node.getValue().getMetricExpression(), refinementTreeRoot);
             }
-            String childMetricExpr = "AND(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
             AMapping childMap = MappingOperations.intersection(nodeMaping, diffMapping);
             result.add(createNode(childMap, childMetricExpr));
         }
@@ -590,4 +608,20 @@ public class WombatComplete extends AWombat {
         return new ExtendedRefinementNode(fMeasure(mapping), mapping, metricExpr, trainingData, getBeta(), maxRecall);
     }
 
+    /**
+     * Create new lazy ExtendedRefinementNode using either real or
+     * pseudo-F-Measure
+     *
+     * @param mapping operation and inputs of the mapping of the node
+     * @param metricExpr learning specifications
+     * @return new ExtendedRefinementNode
+     */
+    @Override
+    protected ExtendedRefinementNode createNode(LazyMapping mapping, String metricExpr) {
+        if (isUnsupervised) {
+            return new ExtendedRefinementNode(fMeasure(mapping), mapping, metricExpr);
+        }
+        return new ExtendedRefinementNode(fMeasure(mapping), mapping, metricExpr, trainingData, getBeta(), maxRecall);
+    }
+
 }
@@ -15,6 +15,7 @@ import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.eagle.util.PropertyMapping;
 import org.aksw.limes.core.ml.algorithm.wombat.AWombat;
+import org.aksw.limes.core.ml.algorithm.wombat.LazyMapping;
 import org.aksw.limes.core.ml.algorithm.wombat.LinkEntropy;
 import org.aksw.limes.core.ml.algorithm.wombat.RefinementNode;
 import org.slf4j.Logger;
@@ -114,9 +115,14 @@ public class WombatSimple extends AWombat {
         AMapping intersectionMapping = MappingFactory.createDefaultMapping();
         AMapping unionMapping = MappingFactory.createDefaultMapping();
 
+        // computed once for lazy nodes
+        List<AMapping> bestMappings = new ArrayList<>();
         for(RefinementNode sn : bestNodes){
-            intersectionMapping = MappingOperations.intersection(intersectionMapping, sn.getMapping());
-            unionMapping = MappingOperations.union(unionMapping, sn.getMapping());
+            bestMappings.add(sn.getMapping());
+        }
+        for(AMapping m : bestMappings){
+            intersectionMapping = MappingOperations.intersection(intersectionMapping, m);
+            unionMapping = MappingOperations.union(unionMapping, m);
         }
         AMapping posEntropyMapping = MappingOperations.difference(unionMapping, intersectionMapping);
 
@@ -125,8 +131,8 @@ public class WombatSimple extends AWombat {
         for(String s : posEntropyMapping.getMap().keySet()){
             for(String t : posEntropyMapping.getMap().get(s).keySet()){
                 // compute Entropy(s,t)
-                for(RefinementNode sn : bestNodes){
-                    if(sn.getMapping().contains(s, t)){
+                for(AMapping m : bestMappings){
+                    if(m.contains(s, t)){
                         entropyPos++;
                     }else{
                         entropyNeg++;
@@ -182,12 +188,12 @@ public class WombatSimple extends AWombat {
      */
     protected void updateScores(Tree<RefinementNode> r) {
         if (r.getchildren() == null || r.getchildren().size() == 0) {
-            r.getValue().setfMeasure(fMeasure(r.getValue().getMapping()));
+            r.getValue().setfMeasure(fMeasure(r.getValue()));
             return;
         }
         for (Tree<RefinementNode> child : r.getchildren()) {
             if (child.getValue().getFMeasure() >= 0) {
-                r.getValue().setfMeasure(fMeasure(r.getValue().getMapping()));
+                r.getValue().setfMeasure(fMeasure(r.getValue()));
                 updateScores(child);
             }
         }
@@ -215,6 +221,7 @@ public class WombatSimple extends AWombat {
             i++;
         }
         RefinementNode bestSolution = getBestNode(refinementTreeRoot).getValue();
+        bestSolution.materializeMapping();
         logger.debug("Overall Best Solution: " + bestSolution);
         return bestSolution;
     }
@@ -270,19 +277,30 @@ public class WombatSimple extends AWombat {
      * @author sherif
      */
     private void expandNode(Tree<RefinementNode> node) {
+        boolean lazy = lazyMapping();
+        if (lazy) {
+            node.getValue().materializeMapping();
+        }
         AMapping map = MappingFactory.createDefaultMapping();
         for (ExtendedClassifier c : classifiers) {
             for (LogicOperator op : LogicOperator.values()) {
                 if (!node.getValue().getMetricExpression().equals(c.getMetricExpression())) { // do not create the same metricExpression again
-                    if (op.equals(LogicOperator.AND)) {
-                        map = MappingOperations.intersection(node.getValue().getMapping(), c.getMapping());
-                    } else if (op.equals(LogicOperator.OR)) {
-                        map = MappingOperations.union(node.getValue().getMapping(), c.getMapping());
-                    } else if (op.equals(LogicOperator.MINUS)) {
-                        map = MappingOperations.difference(node.getValue().getMapping(), c.getMapping());
-                    }
                     String metricExpr = op + "(" + node.getValue().getMetricExpression() + "," + c.getMetricExpression() + ")|0";
-                    RefinementNode child = createNode(map, metricExpr);
+                    RefinementNode child;
+                    if (lazy) {
+                        // as below, XOR children get the mapping of the difference
+                        LogicOperator mappingOp = op.equals(LogicOperator.XOR) ? LogicOperator.MINUS : op;
+                        child = createNode(new LazyMapping(mappingOp, node.getValue().getMapping(), c.getMapping()), metricExpr);
+                    } else {
+                        if (op.equals(LogicOperator.AND)) {
+                            map = MappingOperations.intersection(node.getValue().getMapping(), c.getMapping());
+                        } else if (op.equals(LogicOperator.OR)) {
+                            map = MappingOperations.union(node.getValue().getMapping(), c.getMapping());
+                        } else if (op.equals(LogicOperator.MINUS)) {
+                            map = MappingOperations.difference(node.getValue().getMapping(), c.getMapping());
+                        }
+                        child = createNode(map, metricExpr);
+                    }
                     node.addChild(new Tree<RefinementNode>(child));
                 }
             }
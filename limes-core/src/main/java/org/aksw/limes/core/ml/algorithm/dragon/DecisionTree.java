@@ -9,6 +9,7 @@ import java.util.Map;
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -31,7 +32,6 @@ public class DecisionTree {
 	protected static Logger logger = LoggerFactory.getLogger(DecisionTree.class);
 
 	private final Dragon dtl;
-	private static Map<String, AMapping> calculatedMappings = new HashMap<>();
 	private static Map<String, AMapping> pathMappings = new HashMap<>();
 	public static double totalFMeasure = 0.0;
 	public static int maxDepth = 0;
@@ -61,7 +61,6 @@ public class DecisionTree {
 	public DecisionTree(Dragon dtl, ACache sourceCache, ACache targetCache, PseudoFMeasure pseudoFMeasure,
 			double minPropertyCoverage, double propertyLearningRate, double pruningConfidence, AMapping refMapping,
 			PropertyMapping propertyMapping) {
-		calculatedMappings = new HashMap<>();
 		pathMappings = new HashMap<>();
 		totalFMeasure = 0.0;
 		this.dtl = dtl;
@@ -442,17 +441,10 @@ public class DecisionTree {
 
 	public AMapping getMeasureMapping(String measureExpression, ExtendedClassifier cp) {
 		if (this.root) {
-			final AMapping mapping = this.executeAtomicMeasure(measureExpression, cp.getThreshold());
-			calculatedMappings.put(cp.getMetricExpression(), mapping);
-			return mapping;
+			return this.executeAtomicMeasure(measureExpression, cp.getThreshold());
 		}
 		this.classifier = cp;
-		AMapping classifierMapping = calculatedMappings.get(cp.getMetricExpression());
-		if (classifierMapping == null) {
-			classifierMapping = this.executeAtomicMeasure(measureExpression, cp.getThreshold());
-			calculatedMappings.put(cp.getMetricExpression(), classifierMapping);
-		}
-		this.classifier.setMapping(classifierMapping);
+		this.classifier.setMapping(this.executeAtomicMeasure(measureExpression, cp.getThreshold()));
 		return this.getTotalMapping();
 	}
 
@@ -461,6 +453,7 @@ public class DecisionTree {
 				-1);
 		final ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, this.sourceCache,
 				this.targetCache, "?x", "?y", 0, 1.0);
+		ee.setAtomicMappingCache(AtomicMappingCache.getInstance());
 		final Plan plan = new Plan();
 		plan.addInstruction(inst);
 		return ((SimpleExecutionEngine) ee).executeInstructions(plan);
@@ -1,7 +1,18 @@
 package org.aksw.limes.core.ml.algorithm.eagle.core;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.jgap.gp.GPFitnessFunction;
+import org.jgap.gp.IGPProgram;
+import org.jgap.gp.impl.GPPopulation;
+import org.jgap.gp.impl.ProgramChromosome;
 
 /**
  * @author Tommaso Soru (tsoru@informatik.uni-leipzig.de)
@@ -18,4 +29,71 @@ public abstract class IGPFitnessFunction extends GPFitnessFunction implements IF
 	
 	public abstract void fillCachesIncrementally(AMapping matches);
 	
+	/**
+	 * Calculates the fitness of the link specification of a GP program.
+	 *
+	 * @param spec
+	 *            Link specification
+	 * @return Double value. The closer to 0 the better.
+	 */
+	public abstract double calculateRawFitness(LinkSpecification spec);
+
+	/**
+	 * Computes the fitness values of the programs of a population, so that
+	 * JGAP does not evaluate them one after another. The programs share the
+	 * stack and the memory of their configuration, so their link
+	 * specifications are computed sequentially. The fitness values of the
+	 * distinct specifications are then computed concurrently by the
+	 * {@link ComputeExecutor}, at most {@link #getMaxCandidatesInFlight()} at
+	 * a time, so that the mappings of the candidates do not exhaust the
+	 * memory.
+	 *
+	 * @param population
+	 *            Population of GP programs
+	 */
+	public void evaluatePopulation(GPPopulation population) {
+		List<IGPProgram> programs = new ArrayList<>();
+		List<String> keys = new ArrayList<>();
+		Map<String, LinkSpecification> specs = new LinkedHashMap<>();
+		Object[] args = {};
+		for (IGPProgram program : population.getGPPrograms()) {
+			if (program == null) {
+				continue;
+			}
+			program.getGPConfiguration().clearStack();
+			program.getGPConfiguration().clearMemory();
+			ProgramChromosome pc = program.getChromosome(0);
+			LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+			String key = spec.toString();
+			specs.putIfAbsent(key, spec);
+			programs.add(program);
+			keys.add(key);
+		}
+		List<Callable<Double>> tasks = new ArrayList<>();
+		for (LinkSpecification spec : specs.values()) {
+			tasks.add(() -> calculateRawFitness(spec));
+		}
+		List<Double> values = new ArrayList<>(tasks.size());
+		int batchSize = getMaxCandidatesInFlight();
+		for (int from = 0; from < tasks.size(); from += batchSize) {
+			values.addAll(ComputeExecutor.invokeAll(tasks.subList(from, Math.min(tasks.size(), from + batchSize))));
+		}
+		Map<String, Double> fitness = new LinkedHashMap<>();
+		int i = 0;
+		for (String key : specs.keySet()) {
+			fitness.put(key, values.get(i++));
+		}
+		for (i = 0; i < programs.size(); i++) {
+			programs.get(i).setFitnessValue(fitness.get(keys.get(i)));
+		}
+	}
+
+	/**
+	 * @return the maximal number of specifications whose fitness is computed
+	 *         concurrently
+	 */
+	protected int getMaxCandidatesInFlight() {
+		return ComputeExecutor.getParallelism();
+	}
+	
 }
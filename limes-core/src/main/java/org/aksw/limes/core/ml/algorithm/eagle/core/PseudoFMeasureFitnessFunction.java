@@ -1,10 +1,15 @@
 package org.aksw.limes.core.ml.algorithm.eagle.core;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
@@ -39,6 +44,15 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     double beta = 1.0d;
 
     PseudoFMeasure pfm;
+    /**
+     * Mappings of the specifications and sub-specifications of the
+     * individuals.
+     */
+    private final SpecificationMemo memo = new SpecificationMemo();
+    /**
+     * Fitness values by specification.
+     */
+    private final Map<String, Double> fitnessValues = new ConcurrentHashMap<>();
 
     private PseudoFMeasureFitnessFunction(LinkSpecGeneticLearnerConfig a_config, PseudoFMeasure pfm, ACache c1,
             ACache c2) {
@@ -48,6 +62,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
         this.pfm = pfm;
         engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, c1, c2, a_config.source.getVar(),
                 a_config.target.getVar(), 0, 1.0);
+        engine.setAtomicMappingCache(AtomicMappingCache.getInstance());
     }
 
     /**
@@ -87,12 +102,49 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      *         memory error.
      */
     public double calculateRawFitness(IGPProgram p) {
-        double pseudoFMeasure = calculatePseudoMeasure(p);
+        Object[] args = {};
+        ProgramChromosome pc = null;
+        pc = p.getChromosome(0);
+        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+        return calculateRawFitness(spec);
+    }
+
+    /**
+     * Determine fitness of a link specification, see
+     * {@link #calculateRawFitness(IGPProgram)}. The fitness values are
+     * memoized until the measure changes.
+     *
+     * @param spec
+     *            Link specification
+     * @return 1-PseudoFMeasure. Or 8d if the mapping of the specification
+     *         exceeds the budget of the {@link SpecificationMemo}, or if
+     *         executing it results in a memory error.
+     */
+    @Override
+    public double calculateRawFitness(LinkSpecification spec) {
+        String key = spec.toString();
+        Double fitness = fitnessValues.get(key);
+        if (fitness == null) {
+            fitness = computeRawFitness(spec);
+            fitnessValues.put(key, fitness);
+        }
+        return fitness;
+    }
+
+    private double computeRawFitness(LinkSpecification spec) {
+        double pseudoFMeasure;
+        try {
+            AMapping mapping = getMemoizedMapping(spec);
+            if (mapping == null) {
+                return 8d;
+            }
+            pseudoFMeasure = calculatePseudoMeasure(mapping);
+        } catch (OutOfMemoryError e) {
+            // the budget of the memo was underestimated
+            logger.warn("Out of memory while executing " + spec + ".");
+            return 8d;
+        }
         if (!(pseudoFMeasure >= 0d && pseudoFMeasure <= 1d)) {
-            Object[] args = {};
-            ProgramChromosome pc = null;
-            pc = p.getChromosome(0);
-            LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
             logger.info("LS: " + spec);
             logger.error("Pseudo Measure was not in [0,1]");
             System.out.println("Pseudo Measure for (" + spec + ") was not in [0,1]");
@@ -131,6 +183,10 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     public Double calculatePseudoMeasure(IGPProgram p) {
         // mapping
         AMapping mapping = calculateMapping(p);
+        return calculatePseudoMeasure(mapping);
+    }
+
+    private double calculatePseudoMeasure(AMapping mapping) {
         // gold standard is not needed by pseudoFM
         GoldStandard gold = new GoldStandard(mapping, sourceCache, targetCache);
         return pfm.calculate(mapping, gold, beta);
@@ -159,6 +215,34 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     }
 
+    /**
+     * Retrieves the mapping of a link specification from the memo.
+     *
+     * @param spec
+     *            Link specification
+     * @return the shared mapping, or null if it exceeds the budget of a
+     *         candidate
+     */
+    private AMapping getMemoizedMapping(LinkSpecification spec) {
+        try {
+            SimpleExecutionEngine engine = (SimpleExecutionEngine) ExecutionEngineFactory.getEngine(
+                    ExecutionEngineType.DEFAULT, sourceCache, targetCache, config.source.getVar(),
+                    config.target.getVar(), 0, 1.0);
+            engine.setAtomicMappingCache(AtomicMappingCache.getInstance());
+            return memo.getMapping(spec, engine);
+        } catch (Exception e) {
+            String out = "Error getMapping() in PFM (" + config.source.getId() + " - " + config.target.getId()
+                    + ") with metric: " + spec + " \n" + e.getMessage();
+            logger.error(out);
+            return MappingFactory.createDefaultMapping();
+        }
+    }
+
+    @Override
+    protected int getMaxCandidatesInFlight() {
+        return memo.getMaxCandidatesInFlight();
+    }
+
     /**
      * Needed between several runs
      */
@@ -172,6 +256,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public void setMeasure(PseudoFMeasure pfm) {
         this.pfm = pfm;
+        fitnessValues.clear();
     }
 
     public double getBeta() {
@@ -180,6 +265,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public void setBeta(double beta) {
         this.beta = beta;
+        fitnessValues.clear();
     }
 
     public double calculateRawMeasure(IGPProgram p) {
@@ -0,0 +1,338 @@
+package org.aksw.limes.core.ml.algorithm.eagle.core;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.util.ComputeExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memo of the mappings of the link specifications of the individuals of EAGLE
+ * and of their sub-specifications. The individuals of a population, and of
+ * successive generations, share many sub-specifications, whose mappings are
+ * thus computed once for all of them. A specification is executed like its
+ * canonical plan by
+ * {@link SimpleExecutionEngine#executeStatic(org.aksw.limes.core.execution.planning.plan.NestedPlan)},
+ * with the mappings of its children taken from the memo. A specification that
+ * is being executed by another thread is waited for.
+ * <p>
+ * The memoized mappings are shared and must not be modified. The number of
+ * their links is bounded, and the least recently used mappings are evicted.
+ * Candidates with a mapping or a sub-mapping of more links than a budget are
+ * aborted, so that they do not exhaust the memory. The budget is checked
+ * before a mapping is built: the size of an atomic mapping is estimated by
+ * running the atom on a sample of the source instances, and the size of a
+ * union is counted from the mappings of the children. The number of
+ * candidates that are evaluated concurrently is bounded as well. The bounds
+ * are set by the system properties {@value #MAX_LINKS_PROPERTY},
+ * {@value #MAX_CANDIDATE_LINKS_PROPERTY} and
+ * {@value #MAX_CANDIDATES_IN_FLIGHT_PROPERTY}.
+ * <p>
+ * A memo belongs to the caches it was used with, and has to be replaced when
+ * they change.
+ *
+ * @author Klaus Lyko (lyko@informatik.uni-leipzig.de)
+ */
+class SpecificationMemo {
+
+    static Logger logger = LoggerFactory.getLogger(SpecificationMemo.class);
+
+    public static final String MAX_LINKS_PROPERTY = "limes.eagle.maxLinks";
+    public static final String MAX_CANDIDATE_LINKS_PROPERTY = "limes.eagle.maxCandidateLinks";
+    public static final long DEFAULT_MAX_LINKS = 5000000L;
+    public static final String MAX_CANDIDATES_IN_FLIGHT_PROPERTY = "limes.eagle.maxCandidatesInFlight";
+    public static final long DEFAULT_MAX_CANDIDATE_LINKS = 1000000L;
+
+    private final long maxLinks;
+    private final long maxCandidateLinks;
+    private final int maxCandidatesInFlight;
+
+    // memos by specification, least recently used first
+    private final LinkedHashMap<String, Memo> memos = new LinkedHashMap<>(16, 0.75f, true);
+    private long links = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor with the bounds of the system properties.
+     */
+    SpecificationMemo() {
+        this(getProperty(MAX_LINKS_PROPERTY, DEFAULT_MAX_LINKS),
+                getProperty(MAX_CANDIDATE_LINKS_PROPERTY, DEFAULT_MAX_CANDIDATE_LINKS));
+    }
+
+    /**
+     * Constructor. At most as many candidates are evaluated concurrently as
+     * the memoized mappings could hold, unless
+     * {@value #MAX_CANDIDATES_IN_FLIGHT_PROPERTY} is set, and not more than
+     * the {@link ComputeExecutor} runs in parallel.
+     *
+     * @param maxLinks
+     *            Maximal number of links of the memoized mappings
+     * @param maxCandidateLinks
+     *            Maximal number of links of the mapping of a specification
+     *            and of each of its sub-specifications
+     */
+    SpecificationMemo(long maxLinks, long maxCandidateLinks) {
+        this.maxLinks = maxLinks;
+        this.maxCandidateLinks = maxCandidateLinks;
+        long inFlight = getProperty(MAX_CANDIDATES_IN_FLIGHT_PROPERTY,
+                Math.min(ComputeExecutor.getParallelism(), maxLinks / Math.max(1, maxCandidateLinks)));
+        this.maxCandidatesInFlight = (int) Math.max(1, Math.min(Integer.MAX_VALUE, inFlight));
+    }
+
+    private static long getProperty(String name, long defaultValue) {
+        String value = System.getProperty(name);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value " + value + " of " + name + ", using the default of " + defaultValue
+                        + ".");
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Retrieves the mapping of a link specification, and executes the
+     * specification if it is not memoized.
+     *
+     * @param spec
+     *            Link specification
+     * @param engine
+     *            Engine of the caches of the memo, which runs the atoms and
+     *            filters
+     * @return the shared mapping of the specification, or null if it or the
+     *         mapping of one of its sub-specifications exceeds the budget of
+     *         a candidate
+     */
+    AMapping getMapping(LinkSpecification spec, SimpleExecutionEngine engine) {
+        String key = spec.toString();
+        Memo memo;
+        synchronized (this) {
+            memo = memos.get(key);
+            if (memo != null) {
+                hits++;
+            } else {
+                misses++;
+                memo = new Memo();
+                memos.put(key, memo);
+            }
+        }
+        if (memo.owner != Thread.currentThread()) {
+            try {
+                return memo.mapping.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        AMapping mapping;
+        try {
+            mapping = execute(spec, engine);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                memos.remove(key, memo);
+            }
+            memo.mapping.completeExceptionally(e);
+            throw e;
+        }
+        if (mapping != null && mapping.size() > maxCandidateLinks) {
+            logger.debug("Aborting " + spec.getFullExpression() + " with " + mapping.size() + " links.");
+            mapping = null;
+        }
+        synchronized (this) {
+            memo.size = mapping == null ? 0 : mapping.size();
+            memo.owner = null;
+            memo.mapping.complete(mapping);
+            if (memos.get(key) == memo) {
+                links += memo.size;
+                evict();
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * Executes a specification like its canonical plan.
+     *
+     * @return the mapping, or null if a sub-mapping exceeds the budget
+     */
+    private AMapping execute(LinkSpecification spec, SimpleExecutionEngine engine) {
+        if (spec.isEmpty()) {
+            return MappingFactory.createDefaultMapping();
+        }
+        if (spec.isAtomic()) {
+            Instruction run = new Instruction(Command.RUN, spec.getFilterExpression(), spec.getThreshold() + "", -1,
+                    -1, 0);
+            if (estimateSize(run, engine) > maxCandidateLinks) {
+                logger.debug("Aborting " + spec.getFullExpression() + " before it is run.");
+                return null;
+            }
+            return engine.executeRun(run);
+        }
+        AMapping m = null;
+        for (LinkSpecification child : spec.getChildren()) {
+            AMapping m2 = getMapping(child, engine);
+            if (m2 == null) {
+                return null;
+            }
+            if (m == null) {
+                m = m2;
+                continue;
+            }
+            switch (spec.getOperator()) {
+            case AND:
+                m = engine.executeIntersection(m, m2);
+                break;
+            case OR:
+                if (unionExceedsBudget(m, m2)) {
+                    return null;
+                }
+                m = engine.executeUnion(m, m2);
+                break;
+            case MINUS:
+                m = engine.executeDifference(m, m2);
+                break;
+            case XOR:
+                // the union is the largest of the mappings
+                if (unionExceedsBudget(m, m2)) {
+                    return null;
+                }
+                LinearFilter f = new LinearFilter();
+                AMapping mleft = f.filter(engine.executeUnion(m, m2), spec.getThreshold());
+                AMapping mright = f.filter(engine.executeIntersection(m, m2), spec.getThreshold());
+                m = engine.executeDifference(mleft, mright);
+                break;
+            default:
+                throw new IllegalArgumentException("Wrong operator: " + spec.getOperator() + ". at LS: " + spec);
+            }
+            // intersections and differences are not larger than their
+            // children
+        }
+        return engine.executeFilter(
+                new Instruction(Command.FILTER, spec.getFilterExpression(), spec.getThreshold() + "", -1, -1, 0), m);
+    }
+
+    /**
+     * Estimates the number of links of an atom. If the atom compares more
+     * pairs than the budget, it is run on evenly spaced source instances, of
+     * which at most the budget of pairs are compared, and the number of their
+     * links is scaled to the whole source.
+     *
+     * @return the estimated number of links, or 0 if the atom does not
+     *         compare more pairs than the budget
+     */
+    private double estimateSize(Instruction run, SimpleExecutionEngine engine) {
+        ACache source = engine.getSourceCache();
+        ACache target = engine.getTargetCache();
+        if ((long) source.size() * target.size() <= maxCandidateLinks) {
+            return 0;
+        }
+        int sampleSize = (int) Math.max(1, maxCandidateLinks / Math.max(1, target.size()));
+        List<String> uris = source.getAllUris();
+        ACache sample = new MemoryCache();
+        for (int i = 0; i < sampleSize; i++) {
+            sample.addInstance(source.getInstance(uris.get((int) ((long) i * uris.size() / sampleSize))));
+        }
+        SimpleExecutionEngine sampleEngine = new SimpleExecutionEngine(sample, target, engine.getSourceVariable(),
+                engine.getTargetVariable());
+        return (double) sampleEngine.executeRun(run).size() * source.size() / sample.size();
+    }
+
+    /**
+     * Checks if the union of two mappings exceeds the budget, without building
+     * it. The links of both mappings are counted once.
+     */
+    private boolean unionExceedsBudget(AMapping m1, AMapping m2) {
+        long size = m1.size();
+        if (size + m2.size() <= maxCandidateLinks) {
+            return false;
+        }
+        for (Entry<String, HashMap<String, Double>> links : m2.getMap().entrySet()) {
+            for (String target : links.getValue().keySet()) {
+                if (!m1.contains(links.getKey(), target)) {
+                    size++;
+                }
+            }
+        }
+        return size > maxCandidateLinks;
+    }
+
+    /**
+     * @return the maximal number of candidates that are evaluated concurrently
+     */
+    int getMaxCandidatesInFlight() {
+        return maxCandidatesInFlight;
+    }
+
+    /**
+     * Evicts the least recently used mappings until the bound is met.
+     */
+    private void evict() {
+        Iterator<Memo> it = memos.values().iterator();
+        while (links > maxLinks && it.hasNext()) {
+            Memo memo = it.next();
+            if (memo.owner == null) {
+                it.remove();
+                links -= memo.size;
+            }
+        }
+    }
+
+    /**
+     * @return the number of specifications whose mapping was memoized
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of specifications that were executed
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of links of the memoized mappings
+     */
+    synchronized long getLinks() {
+        return links;
+    }
+
+    /**
+     * The mapping of a specification, which is completed by the thread that
+     * executes the specification.
+     */
+    private static class Memo {
+
+        private final CompletableFuture<AMapping> mapping = new CompletableFuture<>();
+        // executing thread until the mapping is completed
+        private volatile Thread owner = Thread.currentThread();
+        private long size = 0;
+    }
+}
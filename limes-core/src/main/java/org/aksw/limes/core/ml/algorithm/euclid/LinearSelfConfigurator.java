@@ -12,6 +12,7 @@ import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.evaluator.EvaluatorFactory;
 import org.aksw.limes.core.evaluation.evaluator.EvaluatorType;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.ls.LinkSpecification;
@@ -497,7 +498,8 @@ public class LinearSelfConfigurator implements ISelfConfigurator {
      */
     public AMapping execute(String sourceProperty, String targetProperty, String measure, double threshold) {
         String measureExpression = measure + "(x." + sourceProperty + ", y." + targetProperty + ")";
-        return LSPipeline.execute(source, target, new LinkSpecification(measureExpression, threshold));
+        return AtomicMappingCache.getInstance().getMapping(source, target, measureExpression, threshold,
+                () -> LSPipeline.execute(source, target, new LinkSpecification(measureExpression, threshold)));
     }
 
     /**
@@ -10,6 +10,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.datastrutures.Tree;
@@ -17,6 +18,7 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.Precision;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.Recall;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -39,6 +41,7 @@ import org.aksw.limes.core.ml.algorithm.LearningParameter;
 import org.aksw.limes.core.ml.algorithm.MLResults;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.euclid.LinearSelfConfigurator;
+import org.aksw.limes.core.util.ComputeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,6 +68,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     public static final String PARAMETER_VERBOSE = "verbose";
     public static final String PARAMETER_ATOMIC_MEASURES = "atomic measures";
     public static final String PARAMETER_SAVE_MAPPING = "save mapping";
+    public static final String PARAMETER_LAZY_MAPPING = "lazy mapping";
     public static final String PARAMETER_FMEASURE_BETA = "beta";
     public static List<String> sourceUris;
     public static List<String> targetUris;
@@ -110,6 +114,19 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return new RefinementNode(fMeasure(mapping), mapping, metricExpr);
     }
 
+    /**
+     * Create new lazy RefinementNode using either real or pseudo-F-Measure
+     *
+     * @param mapping
+     *            operation and inputs of the mapping of the node
+     * @param metricExpr
+     *            learning specifications
+     * @return new RefinementNode
+     */
+    protected RefinementNode createNode(LazyMapping mapping, String metricExpr) {
+        return new RefinementNode(fMeasure(mapping), mapping, metricExpr);
+    }
+
     /**
      * @param sourceProperty
      *            URI
@@ -129,6 +146,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         Instruction inst = new Instruction(Instruction.Command.RUN, measureExpression, threshold + "", -1, -1, -1);
         ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache, targetCache,
                 "?" + sourceVariable, "?" + targetVariable, 0, 1.0);
+        ee.setAtomicMappingCache(AtomicMappingCache.getInstance());
         Plan plan = new Plan();
         plan.addInstruction(inst);
         return ((SimpleExecutionEngine) ee).executeInstructions(plan);
@@ -150,6 +168,37 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return new FMeasure().calculate(predictions, new GoldStandard(trainingData), getBeta());
     }
 
+    /**
+     * calculate either a real or a pseudo-F-Measure of a lazy mapping. The
+     * real F-Measure is computed from the counts of the links of the mapping,
+     * the pseudo-F-Measure from its transiently materialized mapping.
+     *
+     * @param predictions
+     *            lazy Mapping
+     * @return F-measure
+     */
+    protected final double fMeasure(LazyMapping predictions) {
+        if (isUnsupervised) {
+            return fMeasure(predictions.materialize());
+        }
+        return predictions.getFMeasure(trainingData, getBeta());
+    }
+
+    /**
+     * calculate either a real or a pseudo-F-Measure of a node, from the
+     * counts of its links if it is still lazy
+     *
+     * @param node
+     *            RefinementNode
+     * @return F-measure
+     */
+    protected final double fMeasure(RefinementNode node) {
+        if (node.getLazyMapping() != null) {
+            return fMeasure(node.getLazyMapping());
+        }
+        return fMeasure(node.getMapping());
+    }
+
     /**
      * Looks first for the input metricExpression in the already constructed
      * tree, if found the corresponding mapping is returned. Otherwise, the
@@ -221,6 +270,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sCache, tCache,
                 "?" + sourceVariable, "?" + targetVariable, 0, 1.0);
         assert engine != null;
+        engine.setAtomicMappingCache(AtomicMappingCache.getInstance());
         AMapping resultMap = engine.execute(rwLs, planner);
         return resultMap.getSubMap(ls.getThreshold());
     }
@@ -284,20 +334,22 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     }
 
     /**
+     * Computes the initial classifiers of all pairs of source and target
+     * properties and atomic measures in parallel.
+     *
      * @return initial classifiers
      */
     protected final List<ExtendedClassifier> findInitialClassifiers() {
         logger.debug("Geting all initial classifiers ...");
-        List<ExtendedClassifier> initialClassifiers = new ArrayList<>();
+        List<Callable<ExtendedClassifier>> tasks = new ArrayList<>();
         for (String p : sourcePropertiesCoverageMap.keySet()) {
             for (String q : targetPropertiesCoverageMap.keySet()) {
                 for (String m : getAtomicMeasures()) {
-                    ExtendedClassifier cp = findInitialClassifier(p, q, m);
-                    // only add if classifier covers all entries
-                    initialClassifiers.add(cp);
+                    tasks.add(() -> findInitialClassifier(p, q, m));
                 }
             }
         }
+        List<ExtendedClassifier> initialClassifiers = ComputeExecutor.invokeAll(tasks);
         logger.debug("Done computing all initial classifiers.");
         return initialClassifiers;
     }
@@ -312,7 +364,10 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 
     /**
      * Computes the atomic classifiers by finding the highest possible F-measure
-     * achievable on a given property pair
+     * achievable on a given property pair. The threshold is lowered by the
+     * property learning rate from 1 down to the threshold of the measure. The
+     * measure is executed once at the lowest of these thresholds, and the
+     * mappings of the higher thresholds are its sub-mappings.
      *
      * @param sourceProperty
      *            Property of source to use
@@ -328,13 +383,23 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         AMapping bestMapping = MappingFactory.createDefaultMapping();
 
         double minThreshold = this.getThreshold(measure);
+        List<Double> thresholds = new ArrayList<>();
         for (double threshold = 1d; threshold > minThreshold; threshold = threshold * getPropertyLearningRate()) {
-            AMapping mapping = executeAtomicMeasure(sourceProperty, targetProperty, measure, threshold);
-            double overlap = fMeasure(mapping);
-            if (maxOverlap < overlap) {
-                theta = threshold;
-                maxOverlap = overlap;
-                bestMapping = mapping;
+            thresholds.add(threshold);
+        }
+        if (!thresholds.isEmpty()) {
+            double[] sweep = thresholds.stream().mapToDouble(Double::doubleValue).toArray();
+            AMapping mapping = executeAtomicMeasure(sourceProperty, targetProperty, measure,
+                    sweep[sweep.length - 1]);
+            double[] overlaps = fMeasures(mapping, sweep);
+            for (int i = 0; i < sweep.length; i++) {
+                if (maxOverlap < overlaps[i]) {
+                    theta = sweep[i];
+                    maxOverlap = overlaps[i];
+                }
+            }
+            if (maxOverlap > 0) {
+                bestMapping = theta == sweep[sweep.length - 1] ? mapping : mapping.getSubMap(theta);
             }
         }
         ExtendedClassifier cp = new ExtendedClassifier(measure, theta, sourceProperty, targetProperty);
@@ -343,6 +408,27 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return cp;
     }
 
+    /**
+     * calculate either the real or the pseudo-F-Measures of the sub-mappings
+     * of a mapping
+     *
+     * @param mapping
+     *            Mapping of the lowest threshold
+     * @param thresholds
+     *            Thresholds of the sub-mappings
+     * @return F-measure of the sub-mapping of each threshold
+     */
+    private double[] fMeasures(AMapping mapping, double[] thresholds) {
+        if (!isUnsupervised) {
+            return ThresholdSweep.getFMeasures(mapping, trainingData, thresholds, getBeta());
+        }
+        double[] overlaps = new double[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            overlaps[i] = fMeasure(mapping.getSubMap(thresholds[i]));
+        }
+        return overlaps;
+    }
+
     /**
      * Get the most promising node as the node with the best F-score
      *
@@ -434,6 +520,16 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return Boolean.parseBoolean(getParameter(PARAMETER_SAVE_MAPPING).toString());
     }
 
+    /**
+     * @return true if the mappings of the refinement nodes are saved and the
+     *         nodes created by set operations keep only their operation and
+     *         inputs, so that only the mappings of the expanded and returned
+     *         nodes are materialized
+     */
+    protected final boolean lazyMapping() {
+        return saveMapping() && Boolean.parseBoolean(getParameter(PARAMETER_LAZY_MAPPING).toString());
+    }
+
     @Override
     public void setDefaultParameters() {
         // default parameters
@@ -446,6 +542,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         double complexityPenaltyWeight = 1;
         double beta = 1;
         boolean saveMapping = true;
+        boolean lazyMapping = false;
         double minPropertyCoverage = 0.4;
         double propertyLearningRate = 0.9;
         double overallPenaltyWeight = 0.5d;
@@ -481,6 +578,8 @@ public abstract class AWombat extends ACoreMLAlgorithm {
                 PARAMETER_ATOMIC_MEASURES));
         learningParameters.add(new LearningParameter(PARAMETER_SAVE_MAPPING, saveMapping, Boolean.class, 0, 1, 0,
                 PARAMETER_SAVE_MAPPING));
+        learningParameters.add(new LearningParameter(PARAMETER_LAZY_MAPPING, lazyMapping, Boolean.class, 0, 1, 0,
+                PARAMETER_LAZY_MAPPING));
     }
 
     protected boolean isVerbose() {
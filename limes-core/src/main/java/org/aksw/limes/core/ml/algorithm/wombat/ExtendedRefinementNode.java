@@ -26,6 +26,16 @@ public class ExtendedRefinementNode extends RefinementNode {
         maxFMeasure = (1+Math.pow(beta,2)) * pMax * rMax / (Math.pow(beta,2) * pMax + rMax);
     }
 
+    public ExtendedRefinementNode(double fMeasure, LazyMapping lazyMapping, String metricExpression) {
+        super(fMeasure, lazyMapping, metricExpression);
+    }
+
+    public ExtendedRefinementNode(double fMeasure, LazyMapping lazyMapping, String metricExpression, AMapping refMap, double beta, double rMax) {
+        super(fMeasure, lazyMapping, metricExpression);
+        double pMax = lazyMapping.getMaxPrecision(refMap);
+        maxFMeasure = (1+Math.pow(beta,2)) * pMax * rMax / (Math.pow(beta,2) * pMax + rMax);
+    }
+
     private double computeMaxPrecision(AMapping map, AMapping refMap) {
         AMapping falsePos = MappingFactory.createDefaultMapping();
         for (String key : map.getMap().keySet()) {
@@ -0,0 +1,154 @@
+package org.aksw.limes.core.ml.algorithm.wombat;
+
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+
+/**
+ * Mapping of a refinement node that is stored as the set operation on the
+ * mappings of its inputs, e.g. the mappings of the expanded node and of an
+ * initial classifier. The links of the result are counted against a reference
+ * mapping by streaming over the inputs, so that the F-measure of the node is
+ * computed without materializing its mapping. The counts of the last
+ * reference are kept.
+ *
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ */
+public class LazyMapping {
+
+    private final LogicOperator operator;
+    private final AMapping left;
+    private final AMapping right;
+
+    private AMapping reference = null;
+    private int size = 0;
+    private int positives = 0;
+    private int truePositives = 0;
+    // links whose source is in the reference without them
+    private int falsePositiveCandidates = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param operator
+     *            AND, OR or MINUS
+     * @param left
+     *            Left input mapping, which is not copied
+     * @param right
+     *            Right input mapping, which is not copied
+     */
+    public LazyMapping(LogicOperator operator, AMapping left, AMapping right) {
+        if (operator != LogicOperator.AND && operator != LogicOperator.OR && operator != LogicOperator.MINUS) {
+            throw new IllegalArgumentException("Unsupported operator: " + operator);
+        }
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * @return a new mapping with the result of the operation, like
+     *         {@link MappingOperations}
+     */
+    public AMapping materialize() {
+        switch (operator) {
+        case AND:
+            return MappingOperations.intersection(left, right);
+        case OR:
+            return MappingOperations.union(left, right);
+        default:
+            return MappingOperations.difference(left, right);
+        }
+    }
+
+    /**
+     * Computes the F-measure of the mapping, with the same result as
+     * {@link org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure}
+     * on the materialized mapping.
+     *
+     * @param reference
+     *            Reference mapping, e.g. the training data
+     * @param beta
+     *            Beta of the F-measure
+     * @return F-measure
+     */
+    public double getFMeasure(AMapping reference, double beta) {
+        count(reference);
+        double p = size == 0 ? 0 : truePositives / (double) positives;
+        double r = size == 0 ? 0 : truePositives / (double) reference.getNumberofPositiveMappings();
+        double beta2 = Math.pow(beta, 2);
+        return p + r > 0d ? (1 + beta2) * p * r / ((beta2 * p) + r) : 0d;
+    }
+
+    /**
+     * @param reference
+     *            Reference mapping, e.g. the training data
+     * @return the maximal precision that a refinement of the mapping can
+     *         reach, as computed by {@link ExtendedRefinementNode}
+     */
+    public double getMaxPrecision(AMapping reference) {
+        count(reference);
+        return (double) reference.size() / (double) (reference.size() + falsePositiveCandidates);
+    }
+
+    /**
+     * Counts the links of the result of the operation with the semantics of
+     * {@link MappingOperations}: the intersection keeps the lower confidence,
+     * the union the higher one and the difference the one of the left input.
+     */
+    private void count(AMapping reference) {
+        if (this.reference == reference) {
+            return;
+        }
+        size = 0;
+        positives = 0;
+        truePositives = 0;
+        falsePositiveCandidates = 0;
+        for (Entry<String, HashMap<String, Double>> source : left.getMap().entrySet()) {
+            HashMap<String, Double> targets2 = right.getMap().get(source.getKey());
+            HashMap<String, Double> referenceTargets = reference.getMap().get(source.getKey());
+            for (Entry<String, Double> target : source.getValue().entrySet()) {
+                double confidence = target.getValue();
+                Double confidence2 = targets2 == null ? null : targets2.get(target.getKey());
+                if (operator == LogicOperator.AND && confidence2 != null) {
+                    count(target.getKey(), confidence <= confidence2 ? confidence : confidence2, referenceTargets);
+                } else if (operator == LogicOperator.OR) {
+                    count(target.getKey(), confidence2 != null && confidence2 > confidence ? confidence2 : confidence,
+                            referenceTargets);
+                } else if (operator == LogicOperator.MINUS && confidence2 == null) {
+                    count(target.getKey(), confidence, referenceTargets);
+                }
+            }
+        }
+        if (operator == LogicOperator.OR) {
+            for (Entry<String, HashMap<String, Double>> source : right.getMap().entrySet()) {
+                HashMap<String, Double> targets1 = left.getMap().get(source.getKey());
+                HashMap<String, Double> referenceTargets = reference.getMap().get(source.getKey());
+                for (Entry<String, Double> target : source.getValue().entrySet()) {
+                    if (targets1 == null || !targets1.containsKey(target.getKey())) {
+                        count(target.getKey(), target.getValue(), referenceTargets);
+                    }
+                }
+            }
+        }
+        this.reference = reference;
+    }
+
+    private void count(String target, double confidence, HashMap<String, Double> referenceTargets) {
+        size++;
+        if (confidence > 0) {
+            positives++;
+        }
+        if (referenceTargets != null) {
+            Double referenceConfidence = referenceTargets.get(target);
+            if (referenceConfidence == null) {
+                falsePositiveCandidates++;
+            } else if (referenceConfidence > 0) {
+                truePositives++;
+            }
+        }
+    }
+}
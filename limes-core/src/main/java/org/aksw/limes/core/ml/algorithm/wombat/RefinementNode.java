@@ -8,6 +8,8 @@ public class RefinementNode implements Comparable<RefinementNode> {
     private double fMeasure = -Double.MAX_VALUE;
     protected AMapping map = MappingFactory.createDefaultMapping();
     protected String metricExpression = "";
+    // operation and inputs of the mapping of a lazy node
+    protected LazyMapping lazyMapping = null;
 
     public RefinementNode(double fMeasure, AMapping map, String metricExpression) {
         this.setfMeasure(fMeasure);
@@ -15,6 +17,22 @@ public class RefinementNode implements Comparable<RefinementNode> {
         this.setMetricExpression(metricExpression);
     }
 
+    /**
+     * Constructor of a lazy node, whose mapping is computed from its inputs
+     * when it is requested.
+     *
+     * @param fMeasure
+     *            F-measure of the node
+     * @param lazyMapping
+     *            Operation and inputs of the mapping
+     * @param metricExpression
+     *            Metric expression of the node
+     */
+    public RefinementNode(double fMeasure, LazyMapping lazyMapping, String metricExpression) {
+        this(fMeasure, (AMapping) null, metricExpression);
+        this.lazyMapping = lazyMapping;
+    }
+
     @Override
     public int compareTo(RefinementNode o) {
         return (int) (fMeasure - o.getFMeasure());
@@ -24,10 +42,35 @@ public class RefinementNode implements Comparable<RefinementNode> {
         return fMeasure;
     }
 
+    /**
+     * @return the mapping of the node, which is computed anew for a lazy node
+     *         that is not materialized
+     */
     public AMapping getMapping() {
+        if (map == null && lazyMapping != null) {
+            return lazyMapping.materialize();
+        }
         return map;
     }
 
+    /**
+     * @return the operation and inputs of the mapping of a lazy node that is
+     *         not materialized, else null
+     */
+    public LazyMapping getLazyMapping() {
+        return lazyMapping;
+    }
+
+    /**
+     * Keeps the mapping of a lazy node, e.g. before the node is expanded.
+     */
+    public void materializeMapping() {
+        if (map == null && lazyMapping != null) {
+            map = lazyMapping.materialize();
+            lazyMapping = null;
+        }
+    }
+
     public String getMetricExpression() {
         return metricExpression;
     }
@@ -42,6 +85,7 @@ public class RefinementNode implements Comparable<RefinementNode> {
 
     public void setMap(AMapping map) {
         this.map = map;
+        this.lazyMapping = null;
     }
 
     @Override
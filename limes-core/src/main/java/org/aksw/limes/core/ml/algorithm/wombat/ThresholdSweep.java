@@ -0,0 +1,93 @@
+package org.aksw.limes.core.ml.algorithm.wombat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+
+/**
+ * Computes the F-measures of the sub-mappings of a mapping for several
+ * thresholds at once. The results of an atomic measure are monotone in the
+ * threshold, so that the mapping of a higher threshold is the sub-mapping of
+ * the links of the mapping of the lowest threshold whose confidence reaches
+ * it. The confidences of all links and of the correct links are sorted once,
+ * and the numbers of links and of correct links of each threshold are found
+ * by binary search.
+ *
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ */
+class ThresholdSweep {
+
+    private ThresholdSweep() {
+    }
+
+    /**
+     * Computes the F-measures of the sub-mappings of a mapping, with the same
+     * results as
+     * {@link org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure}
+     * on {@link AMapping#getSubMap(double)}.
+     *
+     * @param mapping
+     *            Mapping of the lowest threshold
+     * @param reference
+     *            Reference mapping, e.g. the training data
+     * @param thresholds
+     *            Positive thresholds
+     * @param beta
+     *            Beta of the F-measure
+     * @return the F-measure of the sub-mapping of each threshold
+     */
+    static double[] getFMeasures(AMapping mapping, AMapping reference, double[] thresholds, double beta) {
+        double[] confidences = new double[mapping.size()];
+        double[] correctConfidences = new double[mapping.size()];
+        int links = 0;
+        int correctLinks = 0;
+        for (Entry<String, HashMap<String, Double>> source : mapping.getMap().entrySet()) {
+            HashMap<String, Double> referenceTargets = reference.getMap().get(source.getKey());
+            for (Entry<String, Double> target : source.getValue().entrySet()) {
+                if (links == confidences.length) {
+                    confidences = Arrays.copyOf(confidences, 2 * links + 1);
+                    correctConfidences = Arrays.copyOf(correctConfidences, 2 * links + 1);
+                }
+                confidences[links++] = target.getValue();
+                Double referenceConfidence = referenceTargets == null ? null : referenceTargets.get(target.getKey());
+                if (referenceConfidence != null && referenceConfidence > 0) {
+                    correctConfidences[correctLinks++] = target.getValue();
+                }
+            }
+        }
+        Arrays.sort(confidences, 0, links);
+        Arrays.sort(correctConfidences, 0, correctLinks);
+        int referenceLinks = reference.getNumberofPositiveMappings();
+
+        double beta2 = Math.pow(beta, 2);
+        double[] fMeasures = new double[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            int size = links - getFirstIndex(confidences, links, thresholds[i]);
+            double truePositives = correctLinks - getFirstIndex(correctConfidences, correctLinks, thresholds[i]);
+            double p = size == 0 ? 0 : truePositives / (double) size;
+            double r = size == 0 ? 0 : truePositives / (double) referenceLinks;
+            fMeasures[i] = p + r > 0d ? (1 + beta2) * p * r / ((beta2 * p) + r) : 0d;
+        }
+        return fMeasures;
+    }
+
+    /**
+     * @return the index of the first of the sorted values from 0 to to
+     *         (exclusive) that is not lower than the threshold
+     */
+    private static int getFirstIndex(double[] values, int to, double threshold) {
+        int low = 0;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < threshold) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
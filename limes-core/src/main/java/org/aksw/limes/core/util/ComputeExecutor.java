@@ -0,0 +1,223 @@
+package org.aksw.limes.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The work-stealing pool shared by all multithreaded parts of LIMES, i.e. the
+ * mappers and the {@link org.aksw.limes.core.execution.engine.ParallelExecutionEngine}.
+ * Tasks that are submitted from a worker of the pool are forked, and a worker
+ * that waits for them executes queued tasks in the meantime. Mappers that are
+ * run by a parallel engine can therefore partition their work without
+ * creating further threads or blocking the engine.
+ * <p>
+ * The parallelism is the number of available processors, unless it is set by
+ * the system property {@value #PARALLELISM_PROPERTY} or by
+ * {@link #setParallelism(int)}.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ */
+public class ComputeExecutor {
+
+    static Logger logger = LoggerFactory.getLogger(ComputeExecutor.class);
+
+    public static final String PARALLELISM_PROPERTY = "limes.parallelism";
+
+    private static ForkJoinPool pool;
+
+    /**
+     * @return the shared pool
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(getDefaultParallelism());
+        }
+        return pool;
+    }
+
+    private static int getDefaultParallelism() {
+        String parallelism = System.getProperty(PARALLELISM_PROPERTY);
+        if (parallelism != null) {
+            try {
+                if (Integer.parseInt(parallelism.trim()) > 0) {
+                    return Integer.parseInt(parallelism.trim());
+                }
+            } catch (NumberFormatException e) {
+                // falls through to the default
+            }
+            logger.warn("Invalid value " + parallelism + " of " + PARALLELISM_PROPERTY
+                    + ", using the number of available processors.");
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return the number of worker threads of the shared pool
+     */
+    public static int getParallelism() {
+        return getPool().getParallelism();
+    }
+
+    /**
+     * Replaces the shared pool by a pool with the given number of worker
+     * threads. Tasks that were submitted to the old pool are completed.
+     *
+     * @param parallelism
+     *            Number of worker threads, at least 1
+     */
+    public static synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        if (pool != null) {
+            if (pool.getParallelism() == parallelism) {
+                return;
+            }
+            pool.shutdown();
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Submits a task to the shared pool. The result is retrieved by
+     * {@link ForkJoinTask#join()}, which rethrows unchecked exceptions of the
+     * task and wraps checked ones into a {@link RuntimeException}.
+     *
+     * @param task
+     *            Task to execute
+     * @return the future of the task
+     */
+    public static <T> ForkJoinTask<T> submit(Callable<T> task) {
+        return submit(ForkJoinTask.adapt(task));
+    }
+
+    /**
+     * Submits a task to the shared pool.
+     *
+     * @param task
+     *            Task to execute
+     * @return the future of the task
+     */
+    public static ForkJoinTask<?> submit(Runnable task) {
+        return submit(ForkJoinTask.adapt(task));
+    }
+
+    private static <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+        ForkJoinPool pool = getPool();
+        if (ForkJoinTask.getPool() == pool) {
+            // pushed to the queue of the current worker, which executes it
+            // itself while joining unless it was stolen before
+            return task.fork();
+        }
+        return pool.submit(task);
+    }
+
+    /**
+     * Executes tasks in parallel and waits for all of them.
+     *
+     * @param tasks
+     *            Tasks to execute
+     * @return the results of the tasks in the order of the tasks
+     */
+    public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<ForkJoinTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(submit(task));
+        }
+        return joinAll(futures);
+    }
+
+    /**
+     * Executes tasks in parallel and waits for all of them.
+     *
+     * @param tasks
+     *            Tasks to execute
+     */
+    public static void runAll(List<? extends Runnable> tasks) {
+        List<ForkJoinTask<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            futures.add(submit(task));
+        }
+        joinAll(futures);
+    }
+
+    /**
+     * Splits the indexes from 0 (inclusive) to size (exclusive) into
+     * contiguous ranges of at least minPartitionSize indexes and executes a
+     * task for each range in parallel. A single range is executed by the
+     * calling thread.
+     *
+     * @param size
+     *            Number of indexes
+     * @param minPartitionSize
+     *            Minimal number of indexes of a range
+     * @param task
+     *            Task to execute for each range
+     * @return the results of the tasks in the order of the ranges
+     */
+    public static <T> List<T> invokePartitioned(int size, int minPartitionSize, RangeTask<T> task) {
+        int partitions = Math.min(size / Math.max(1, minPartitionSize), 4 * getParallelism());
+        if (partitions <= 1) {
+            return Collections.singletonList(task.apply(0, size));
+        }
+        List<Callable<T>> tasks = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            final int from = (int) ((long) size * i / partitions);
+            final int to = (int) ((long) size * (i + 1) / partitions);
+            tasks.add(() -> task.apply(from, to));
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Task of {@link ComputeExecutor#invokePartitioned(int, int, RangeTask)}.
+     */
+    public interface RangeTask<T> {
+
+        /**
+         * @param from
+         *            First index of the range
+         * @param to
+         *            Index after the last index of the range
+         * @return the result for the range
+         */
+        T apply(int from, int to);
+    }
+
+    /**
+     * Waits for tasks in the reverse order of their submission, so that a
+     * worker of the shared pool executes the tasks it forked first. If a task
+     * failed, the remaining tasks are awaited before its exception is thrown.
+     *
+     * @param futures
+     *            Futures of submitted tasks
+     * @return the results of the tasks in the order of futures
+     */
+    public static <T> List<T> joinAll(List<? extends ForkJoinTask<? extends T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        RuntimeException failure = null;
+        for (int i = futures.size() - 1; i >= 0; i--) {
+            try {
+                futures.get(i).join();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        for (ForkJoinTask<? extends T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,99 @@
+package org.aksw.limes.core.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LimesResultTest {
+
+    private ACache source, target;
+    private AMapping mapping;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 40; i++) {
+            source.addTriple("s" + i, "p", "v" + i);
+            target.addTriple("t" + i, "p", "v" + i);
+        }
+        mapping = MappingFactory.createDefaultMapping();
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            mapping.add("s" + random.nextInt(40), "t" + random.nextInt(40), random.nextInt(11) / 10d);
+        }
+    }
+
+    @Test
+    public void testStatisticsOfSplitMapping() {
+        LimesResult result = new LimesResult(mapping, 0.8, 0.5, source, target, 0);
+        assertEquals(expectedStatistics(result), result.getStatistics());
+    }
+
+    @Test
+    public void testStatisticsOfGivenParts() {
+        AMapping verification = MappingOperations.difference(mapping.getSubMap(0.5), mapping.getSubMap(0.8));
+        LimesResult result = new LimesResult(verification, mapping.getSubMap(0.8), source, target, 0);
+        assertEquals(expectedStatistics(result), result.getStatistics());
+    }
+
+    @Test
+    public void testStatisticsWithoutPositiveLinks() {
+        AMapping zeros = MappingFactory.createDefaultMapping();
+        zeros.add("s1", "t1", 0);
+        LimesResult result = new LimesResult(zeros, 0.8, 0, source, target, 0);
+        assertEquals(expectedStatistics(result), result.getStatistics());
+    }
+
+    /**
+     * The statistics computed from copies of the parts
+     */
+    private String expectedStatistics(LimesResult result) {
+        GoldStandard goldStandard = new GoldStandard(null, source, target);
+        AMapping acceptance = result.getAcceptanceMapping();
+        AMapping all = MappingOperations.union(acceptance, result.getVerificationMapping());
+        PseudoFMeasure measure = new PseudoFMeasure();
+        return String.format(
+                "{" +
+                "\n\t\"mappingTime\" : %d," +
+                "\n\t\"inputSizes\" : {" +
+                "\n\t\t\"source\" : %d," +
+                "\n\t\t\"target\" : %d" +
+                "\n\t}," +
+                "\n\t\"outputSizes\" : {" +
+                "\n\t\t\"verification\" : %d," +
+                "\n\t\t\"acceptance\" : %d" +
+                "\n\t}," +
+                "\n\t\"pseudoPRF\" : {" +
+                "\n\t\t\"acceptance\" : {" +
+                "\n\t\t\t\"precision\" : %s," +
+                "\n\t\t\t\"recall\" : %s," +
+                "\n\t\t\t\"f-measure\" : %s" +
+                "\n\t\t}," +
+                "\n\t\t\"all\" : {" +
+                "\n\t\t\t\"precision\" : %s," +
+                "\n\t\t\t\"recall\" : %s," +
+                "\n\t\t\t\"f-measure\" : %s" +
+                "\n\t\t}" +
+                "\n\t}" +
+                "\n}",
+                0, source.size(), target.size(),
+                result.getVerificationMapping().size(), acceptance.size(),
+                Double.toString(measure.precision(acceptance, goldStandard)),
+                Double.toString(measure.recall(acceptance, goldStandard)),
+                Double.toString(measure.calculate(acceptance, goldStandard)),
+                Double.toString(measure.precision(all, goldStandard)),
+                Double.toString(measure.recall(all, goldStandard)),
+                Double.toString(measure.calculate(all, goldStandard)));
+    }
+}
@@ -0,0 +1,183 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
+import org.aksw.limes.core.execution.planning.plan.Plan;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AtomicMappingCacheTest {
+
+    private static final String EXPRESSION = "jaccard(x.name,y.name)";
+
+    private ACache source;
+    private ACache target;
+    private AtomicInteger executions;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 10; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+            target.addTriple("T" + i, "name", "name" + i);
+        }
+        executions = new AtomicInteger();
+    }
+
+    /**
+     * @return a mapping with a link of confidence i / 10 from S_i to T_i for
+     *         each i / 10 that reaches the threshold
+     */
+    private AMapping execute(double threshold) {
+        executions.incrementAndGet();
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (int i = 1; i <= 10; i++) {
+            if (i / 10d >= threshold) {
+                m.add("S" + i, "T" + i, i / 10d);
+            }
+        }
+        return m;
+    }
+
+    private AMapping getMapping(AtomicMappingCache cache, String expression, double threshold) {
+        return cache.getMapping(source, target, expression, threshold, () -> execute(threshold));
+    }
+
+    @Test
+    public void testThresholds() {
+        AtomicMappingCache cache = new AtomicMappingCache(1000, null);
+        AMapping m = getMapping(cache, EXPRESSION, 0.5);
+        assertEquals(execute(0.5).getMap(), m.getMap());
+        // the returned mappings are copies
+        m.add("S0", "T0", 1d);
+        assertEquals(execute(0.5).getMap(), getMapping(cache, EXPRESSION, 0.5).getMap());
+        assertEquals(1, cache.getHits());
+
+        // higher thresholds are filtered from the lower one
+        assertEquals(execute(0.8).getMap(), getMapping(cache, "jaccard(x.name, y.name)", 0.8).getMap());
+        assertEquals(1, cache.getFilteredHits());
+        assertEquals(1, cache.getMisses());
+
+        // a lower threshold replaces the higher one
+        assertEquals(execute(0.2).getMap(), getMapping(cache, EXPRESSION, 0.2).getMap());
+        assertEquals(2, cache.getMisses());
+        assertEquals(9, cache.getLinks());
+        executions.set(0);
+        getMapping(cache, EXPRESSION, 0.5);
+        getMapping(cache, EXPRESSION, 0.2);
+        assertEquals(0, executions.get());
+
+        // other atoms and caches are executed
+        getMapping(cache, "jaccard(x.name,y.surname)", 0.5);
+        cache.getMapping(new MemoryCache(), target, EXPRESSION, 0.5, () -> execute(0.5));
+        assertEquals(2, executions.get());
+
+        // changed values of a property of the atom are detected
+        source.addTriple("S10", "name", "name10");
+        getMapping(cache, EXPRESSION, 0.5);
+        assertEquals(3, executions.get());
+        source.addTriple("S10", "surname", "surname10");
+        getMapping(cache, EXPRESSION, 0.5);
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    public void testFingerprints() {
+        AtomicInteger scans = new AtomicInteger();
+        source = new MemoryCache() {
+            @Override
+            public ArrayList<Instance> getAllInstances() {
+                scans.incrementAndGet();
+                return super.getAllInstances();
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+        }
+        AtomicMappingCache cache = new AtomicMappingCache(1000, null);
+        getMapping(cache, EXPRESSION, 0.5);
+        getMapping(cache, EXPRESSION, 0.5);
+        getMapping(cache, EXPRESSION, 0.7);
+        // the fingerprint of the source is computed once
+        assertEquals(1, scans.get());
+        assertEquals(1, executions.get());
+
+        // instances that are modified directly are detected after modified()
+        TreeSet<String> values = new TreeSet<>();
+        values.add("other");
+        source.getInstance("S1").replaceProperty("name", values);
+        source.modified();
+        getMapping(cache, EXPRESSION, 0.5);
+        assertEquals(2, scans.get());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testEviction() {
+        AtomicMappingCache cache = new AtomicMappingCache(10, null);
+        getMapping(cache, "jaccard(x.name,y.name)", 0.5);
+        getMapping(cache, "cosine(x.name,y.name)", 0.5);
+        // the first atom is the least recently used
+        assertEquals(1, cache.getEvictions());
+        assertEquals(6, cache.getLinks());
+        getMapping(cache, "cosine(x.name,y.name)", 0.5);
+        assertEquals(1, cache.getHits());
+        getMapping(cache, "jaccard(x.name,y.name)", 0.5);
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        File directory = Files.createTempDirectory("mappings").toFile();
+        AtomicMappingCache cache = new AtomicMappingCache(10, directory);
+        getMapping(cache, "jaccard(x.name,y.name)", 0.5);
+        getMapping(cache, "cosine(x.name,y.name)", 0.5);
+        assertEquals(1, cache.getSpills());
+        assertEquals(0, cache.getEvictions());
+        assertEquals(1, directory.listFiles().length);
+
+        // read from the directory
+        executions.set(0);
+        AMapping m = getMapping(cache, "jaccard(x.name,y.name)", 0.7);
+        assertEquals(0, executions.get());
+        assertEquals(1, cache.getFilteredHits());
+        assertEquals(execute(0.7).getMap(), m.getMap());
+
+        cache.clear();
+        assertEquals(0, directory.listFiles().length);
+        assertEquals(0, cache.getLinks());
+        directory.delete();
+    }
+
+    @Test
+    public void testEngine() {
+        SimpleExecutionEngine engine = new SimpleExecutionEngine(source, target, "?x", "?y");
+        AtomicMappingCache cache = new AtomicMappingCache(1000, null);
+        engine.setAtomicMappingCache(cache);
+        Plan plan = new Plan();
+        plan.addInstruction(new Instruction(Command.RUN, EXPRESSION, "0.5", -1, -1, -1));
+        AMapping m = engine.executeInstructions(plan);
+        AMapping expected = new SimpleExecutionEngine(source, target, "?x", "?y").executeInstructions(plan);
+        assertEquals(expected.getMap(), m.getMap());
+
+        engine = new SimpleExecutionEngine(source, target, "?x", "?y");
+        engine.setAtomicMappingCache(cache);
+        assertEquals(expected.getMap(), engine.executeInstructions(plan).getMap());
+        assertEquals(1, cache.getHits());
+    }
+}
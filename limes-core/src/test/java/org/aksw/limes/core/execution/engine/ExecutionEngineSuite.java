@@ -5,7 +5,8 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-        ExecutionEngineFactoryTest.class, SimpleExecutionEngineTest.class
+        ExecutionEngineFactoryTest.class, SimpleExecutionEngineTest.class, ParallelExecutionEngineTest.class,
+        AtomicMappingCacheTest.class
 })
 public class ExecutionEngineSuite {
 
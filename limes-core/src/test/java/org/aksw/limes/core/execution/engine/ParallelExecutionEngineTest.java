@@ -0,0 +1,186 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.serializer.ILinkSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelExecutionEngineTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    private static final String[] SPECS = { "jaccard(x.surname, y.surname)|0.3",
+            "OR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)|0.4",
+            "AND(qgrams(x.surname,y.surname)|0.2,trigrams(x.name,y.name)|0.8)|0.5",
+            "MINUS(trigrams(x.surname, y.surname)|0.5,overlap(x.name, y.name)|0.5)|0.5",
+            "XOR(trigrams(x.surname, y.surname)|0.5,soundex(x.name, y.name)|0.5)|0.5",
+            "OR(AND(qgrams(x.surname,y.surname)|0.4,levenshtein(x.name,y.name)|0.3)|0.3,"
+                    + "MINUS(jaccard(x.name,y.name)|0.3,levenshtein(x.surname,y.surname)|0.8)|0.3)|0.3" };
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // create source cache
+        source.addTriple("S1", "surname", "georgala");
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "age", "26");
+
+        source.addTriple("S2", "surname", "sandra");
+        source.addTriple("S2", "name", "lukas");
+        source.addTriple("S2", "age", "13");
+
+        source.addTriple("S3", "surname", "depp");
+        source.addTriple("S3", "name", "johny");
+        source.addTriple("S3", "age", "52");
+
+        source.addTriple("S4", "surname", "swift");
+        source.addTriple("S4", "name", "taylor,maria");
+        source.addTriple("S4", "age", "25");
+
+        source.addTriple("S5", "surname", "paok");
+        source.addTriple("S5", "name", "ole");
+        source.addTriple("S5", "age", "56");
+
+        target.addTriple("T1", "surname", "georg");
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "age", "26");
+
+        target.addTriple("T2", "surname", "sandra");
+        target.addTriple("T2", "name", "lukas");
+        target.addTriple("T2", "age", "13");
+
+        target.addTriple("T3", "surname", "derp");
+        target.addTriple("T3", "name", "johnny");
+        target.addTriple("T3", "age", "52");
+
+        target.addTriple("T4", "surname", "swift");
+        target.addTriple("T4", "name", "taylor");
+        target.addTriple("T4", "age", "25");
+
+        target.addTriple("T5", "surname", "paok");
+        target.addTriple("T5", "name", "oleole");
+        target.addTriple("T5", "age", "56");
+
+    }
+
+    @After
+    public void tearDown() {
+        source = null;
+        target = null;
+    }
+
+    private LinkSpecification spec(String s) {
+        int split = s.lastIndexOf("|");
+        return new LinkSpecification(s.substring(0, split), Double.parseDouble(s.substring(split + 1)));
+    }
+
+    @Test
+    public void testCanonical() {
+        System.out.println("testCanonical");
+        for (String s : SPECS) {
+            SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+            ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 0, 1.0, 4);
+            AMapping m1 = simple.execute(spec(s), new CanonicalPlanner());
+            AMapping m2 = parallel.execute(spec(s), new CanonicalPlanner());
+            System.out.println(s + ": " + m2.getNumberofMappings());
+            assertTrue(m1.equals(m2));
+        }
+        System.out.println("---------------------------------");
+    }
+
+    @Test
+    public void testHelios() {
+        System.out.println("testHelios");
+        for (String s : SPECS) {
+            SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+            ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 0, 1.0, 4);
+            AMapping m1 = simple.execute(spec(s), new HeliosPlanner(source, target));
+            AMapping m2 = parallel.execute(spec(s), new HeliosPlanner(source, target));
+            System.out.println(s + ": " + m2.getNumberofMappings());
+            assertTrue(m1.equals(m2));
+        }
+        System.out.println("---------------------------------");
+    }
+
+    @Test
+    public void testDynamic() {
+        System.out.println("testDynamic");
+        for (String s : SPECS) {
+            SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+            ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y");
+            IPlanner p1 = new DynamicPlanner(source, target);
+            IPlanner p2 = new DynamicPlanner(source, target);
+            AMapping m1 = simple.execute(spec(s), p1);
+            AMapping m2 = parallel.execute(spec(s), p2);
+            assertTrue(m1.equals(m2));
+        }
+        System.out.println("---------------------------------");
+    }
+
+    private ILinkSink sink(AMapping links) {
+        return new ILinkSink() {
+            @Override
+            public void addLink(String source, String target, double confidence) {
+                links.add(source, target, confidence);
+            }
+
+            @Override
+            public boolean close() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    public void testLinkSink() {
+        for (String s : SPECS) {
+            AMapping links1 = MappingFactory.createDefaultMapping();
+            SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+            simple.setLinkSink(sink(links1));
+            AMapping m1 = simple.execute(spec(s), new CanonicalPlanner());
+            assertEquals(m1.getMap(), links1.getMap());
+
+            AMapping links2 = MappingFactory.createDefaultMapping();
+            ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 0, 1.0, 4);
+            parallel.setLinkSink(sink(links2));
+            AMapping m2 = parallel.execute(spec(s), new CanonicalPlanner());
+            assertEquals(m2.getMap(), links2.getMap());
+        }
+    }
+
+    @Test
+    public void testAtomicMappingCache() {
+        LinkSpecification ls = spec(SPECS[1]);
+        AtomicMappingCache cache = new AtomicMappingCache(1000, null);
+        ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 0, 1.0, 2);
+        parallel.setAtomicMappingCache(cache);
+        AMapping m1 = parallel.execute(ls, new CanonicalPlanner());
+        assertEquals(2, cache.getMisses());
+        AMapping m2 = parallel.execute(ls, new CanonicalPlanner());
+        // the atoms are executed by the engines of the sub-plans
+        assertEquals(2, cache.getHits());
+        assertEquals(m1.getMap(), m2.getMap());
+    }
+
+    @Test
+    public void testParallelism() {
+        ParallelExecutionEngine ee = new ParallelExecutionEngine(source, target, "?x", "?y", 0, 1.0, 3);
+        assertTrue(ee.getParallelism() == 3);
+        ee = new ParallelExecutionEngine(source, target, "?x", "?y", 0, 1.0, -1);
+        assertTrue(ee.getParallelism() >= 1);
+    }
+
+}
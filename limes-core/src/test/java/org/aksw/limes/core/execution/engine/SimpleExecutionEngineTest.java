@@ -1,7 +1,11 @@
 package org.aksw.limes.core.execution.engine;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.Recall;
 import org.aksw.limes.core.execution.engine.filter.LinearFilter;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
@@ -11,9 +15,11 @@ import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
 import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.ColumnarCache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.IndexedMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.junit.After;
 import org.junit.Before;
@@ -687,4 +693,29 @@ public class SimpleExecutionEngineTest {
 
     }
     
+    @Test
+    public void testColumnarCaches() {
+        ACache columnarSource = new ColumnarCache(source);
+        ACache columnarTarget = new ColumnarCache(target);
+        String[] specs = { "exactmatch(x.age,y.age)", "OR(exactmatch(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)",
+                "AND(exactmatch(x.age,y.age)|0.5,trigrams(x.name,y.name)|0.4)",
+                "MINUS(exactmatch(x.age,y.age)|0.5,exactmatch(x.surname,y.surname)|0.5)" };
+        for (String spec : specs) {
+            LinkSpecification ls = new LinkSpecification(spec, 0.4);
+            AMapping m = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls, new CanonicalPlanner());
+            AMapping indexed = new SimpleExecutionEngine(columnarSource, columnarTarget, "?x", "?y").execute(ls,
+                    new CanonicalPlanner());
+            assertTrue(spec, indexed instanceof IndexedMapping);
+            assertEquals(spec, m, indexed);
+            assertEquals(spec, indexed, m);
+            // the measures accept indexed predictions and references
+            GoldStandard goldStandard = new GoldStandard(m);
+            assertEquals(spec, new FMeasure().calculate(m, goldStandard),
+                    new FMeasure().calculate(indexed, goldStandard), 0d);
+            assertEquals(spec, new Recall().calculate(m, new GoldStandard(indexed)),
+                    new Recall().calculate(m, goldStandard), 0d);
+            assertEquals(spec, m.getMap(), indexed.getMap());
+        }
+    }
+
 }
@@ -0,0 +1,117 @@
+package org.aksw.limes.core.execution.planning.calibration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CostModelCalibratorTest {
+
+	private ACache source;
+	private ACache target;
+
+	@Before
+	public void setUp() {
+		source = new MemoryCache();
+		target = new MemoryCache();
+		String[] names = { "kleanthi", "axel", "mohamed", "daniel", "kevin", "tommaso", "abdullah", "lukas" };
+		for (int i = 0; i < 300; i++) {
+			source.addTriple("S" + i, "name", names[i % names.length] + i % 37);
+			source.addTriple("S" + i, "age", "" + i % 50);
+			target.addTriple("T" + i, "name", names[(i + 3) % names.length] + i % 41);
+			target.addTriple("T" + i, "age", "" + i % 60);
+		}
+	}
+
+	@Test
+	public void testCalibration() {
+		CostModelCalibrator calibrator = new CostModelCalibrator(source, target, "?x", "?y");
+		calibrator.setSampleSizes(50, 100, 200);
+		LinkSpecification ls = new LinkSpecification(
+				"AND(trigrams(x.name,y.name)|0.6,exactmatch(x.age,y.age)|1.0)", 0.6);
+		CostModel model = calibrator.calibrate(ls);
+		String trigrams = "trigrams(x.name,y.name)";
+		assertTrue(model.hasRuntime(trigrams));
+		assertTrue(model.hasRuntime("exactmatch(x.age, y.age)"));
+		assertTrue(model.hasFilterCost(trigrams));
+		// costs depend on the compared properties
+		assertFalse(model.hasRuntime("trigrams(x.age,y.age)"));
+		assertFalse(model.hasRuntime("trigrams"));
+		assertFalse(model.hasRuntime("levenshtein(x.name,y.name)"));
+		assertTrue(model.getRuntime(trigrams, 300, 300) > 0);
+		assertTrue(model.getRuntimeScale() > 0);
+		// exactmatch on the age links each source to 5 or 6 of 300 targets
+		double selectivity = model.getSelectivity("exactmatch(x.age,y.age)", 1.0);
+		assertTrue(selectivity > 0.01 && selectivity < 0.03);
+
+		// the planners use the measured costs
+		HeliosPlanner helios = (HeliosPlanner) ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.HELIOS,
+				source, target, model);
+		assertEquals(model.getRuntime(trigrams, 300, 300), helios.getAtomicRuntimeCosts(trigrams, 0.6), 0d);
+		assertEquals(selectivity * 300 * 300, helios.getAtomicMappingSizes("exactmatch(x.age,y.age)", 1.0), 1e-9);
+		DynamicPlanner dynamic = (DynamicPlanner) ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DYNAMIC,
+				source, target, model);
+		assertEquals(model.getFilterCost(trigrams, 100), dynamic.getFilterCosts(Arrays.asList(trigrams), 100), 0d);
+		// expressions that are not calibrated fall back to the approximations,
+		// scaled to milliseconds
+		assertEquals(new HeliosPlanner(source, target).getAtomicRuntimeCosts("levenshtein(x.name,y.name)", 0.6)
+				* model.getRuntimeScale(), helios.getAtomicRuntimeCosts("levenshtein(x.name,y.name)", 0.6), 1e-9);
+	}
+
+	@Test
+	public void testSelectivityInterpolation() {
+		CostModel model = new CostModel();
+		model.setSelectivity("trigrams", 0.5, 0.1);
+		model.setSelectivity("trigrams", 0.9, 0.02);
+		assertEquals(0.1, model.getSelectivity("trigrams", 0.3), 0d);
+		assertEquals(0.06, model.getSelectivity("trigrams", 0.7), 1e-9);
+		assertEquals(0.02, model.getSelectivity("trigrams", 1.0), 0d);
+	}
+
+	@Test
+	public void testFitPowerLaw() {
+		double[] pairs = { 100, 1000, 10000 };
+		double[] runtimes = { 2 * Math.pow(100, 1.5), 2 * Math.pow(1000, 1.5), 2 * Math.pow(10000, 1.5) };
+		double[] fit = CostModelCalibrator.fitPowerLaw(pairs, runtimes);
+		assertEquals(2, fit[0], 1e-6);
+		assertEquals(1.5, fit[1], 1e-9);
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		CostModel model = new CostModel();
+		model.setRuntime("trigrams", 0.003, 0.8);
+		model.setSelectivity("trigrams", 0.8, 0.001);
+		model.setFilterCost("jaccard", 0.0002);
+		model.setRuntime("trigrams(x.rdfs:label,y.name)", 0.004, 0.9);
+		model.setSelectivity("trigrams(x.rdfs:label,y.name)", 0.5, 0.01);
+		model.addRuntimeScale(30, 10);
+		model.addFilterScale(1, 4);
+		File file = File.createTempFile("costs", ".properties");
+		model.save(file);
+		CostModel loaded = CostModel.load(file);
+		file.delete();
+		assertEquals(model.getRuntime("trigrams", 1000, 2000), loaded.getRuntime("trigrams", 1000, 2000), 0d);
+		assertEquals(0.001, loaded.getSelectivity("trigrams", 0.8), 0d);
+		assertEquals(0.2, loaded.getFilterCost("jaccard", 1000), 1e-12);
+		assertFalse(loaded.hasSelectivity("jaccard"));
+		assertEquals(model.getRuntime("trigrams(x.rdfs:label,y.name)", 10, 20),
+				loaded.getRuntime("trigrams(x.rdfs:label,y.name)", 10, 20), 0d);
+		assertEquals(0.01, loaded.getSelectivity("trigrams(x.rdfs:label,y.name)", 0.5), 0d);
+		assertEquals(3, loaded.getRuntimeScale(), 0d);
+		assertEquals(0.25, loaded.getFilterScale(), 0d);
+	}
+}
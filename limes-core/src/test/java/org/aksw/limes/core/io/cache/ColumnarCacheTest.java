@@ -0,0 +1,120 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.TreeSet;
+
+import org.aksw.limes.core.evaluation.evaluationDataLoader.DataSetChooser;
+import org.aksw.limes.core.evaluation.evaluationDataLoader.DataSetChooser.DataSets;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarCacheTest {
+
+	public MemoryCache memoryCache = new MemoryCache();
+	public ColumnarCache cache = new ColumnarCache();
+
+	@Before
+	public void prepareData() {
+		HybridCache tmp = (HybridCache) DataSetChooser.getData(DataSets.DRUGS).getSourceCache();
+		tmp.getAllInstances().forEach(i -> {
+			memoryCache.addInstance(i);
+			cache.addInstance(i);
+		});
+	}
+
+	@Test
+	public void testSameContent() {
+		assertEquals(memoryCache.size(), cache.size());
+		assertEquals(memoryCache.getAllProperties(), cache.getAllProperties());
+		for (String uri : memoryCache.getAllUris()) {
+			Instance expected = memoryCache.getInstance(uri);
+			Instance actual = cache.getInstance(uri);
+			assertEquals(expected, actual);
+			for (String property : expected.getAllProperties()) {
+				assertEquals(expected.getProperty(property), cache.getProperty(uri, property));
+			}
+		}
+		assertEquals(memoryCache, cache.toMemoryCache());
+	}
+
+	@Test
+	public void testAddTriple() {
+		ColumnarCache c = new ColumnarCache();
+		c.addTriple("S1", "name", "kleanthi");
+		c.addTriple("S2", "name", "lukas");
+		assertEquals("kleanthi", c.getInstance("S1").getProperty("name").first());
+		// values added after a read are seen by the next read
+		c.addTriple("S1", "name", "klea");
+		c.addTriple("S1", "age", "26");
+		assertEquals(2, c.getInstance("S1").getProperty("name").size());
+		assertEquals("26", c.getInstance("S1").getProperty("age").first());
+		assertTrue(c.getProperty("S2", "age").isEmpty());
+		assertNull(c.getInstance("S3"));
+		assertFalse(c.containsUri("S3"));
+		assertEquals(2, c.size());
+	}
+
+	@Test
+	public void testReplaceInstance() {
+		ColumnarCache c = new ColumnarCache();
+		c.addTriple("S1", "name", "kleanthi");
+		c.addTriple("S1", "surname", "georgala");
+		Instance i = c.getInstance("S1");
+		i.replaceProperty("name", new TreeSet<String>());
+		i.addProperty("name", "klea");
+		c.replaceInstance("S1", i);
+		assertEquals("klea", c.getInstance("S1").getProperty("name").first());
+		assertEquals(1, c.getInstance("S1").getProperty("name").size());
+		assertEquals("georgala", c.getInstance("S1").getProperty("surname").first());
+	}
+
+	@Test
+	public void testInterleavedReplaceInstance() {
+		ColumnarCache c = new ColumnarCache();
+		MemoryCache expected = new MemoryCache();
+		for (int n = 0; n < 3000; n++) {
+			c.addTriple("S" + n, "name", "name" + n);
+			expected.addTriple("S" + n, "name", "name" + n);
+		}
+		// enough replacements to merge the pending values several times
+		for (int n = 0; n < 6000; n++) {
+			String uri = "S" + (n * 7 % 3000);
+			Instance i = c.getInstance(uri);
+			i.replaceProperty("name", new TreeSet<String>());
+			i.addProperty("name", "name" + n);
+			i.addProperty("id", "" + n);
+			c.replaceInstance(uri, i);
+			expected.replaceInstance(uri, i.copy());
+			assertEquals(expected.getInstance(uri), c.getInstance(uri));
+		}
+		assertEquals(expected, c.toMemoryCache());
+	}
+
+	@Test
+	public void testSample() {
+		assertEquals(10, cache.getSample(10).size());
+		assertEquals(cache.size(), cache.getSample(cache.size() + 10).size());
+	}
+
+	@Test
+	public void testIterator() {
+		int count = 0;
+		cache.resetIterator();
+		while (cache.getNextInstance() != null) {
+			count++;
+		}
+		assertEquals(cache.size(), count);
+	}
+
+	@Test
+	public void testClone() {
+		ColumnarCache cloned = cache.clone();
+		assertTrue(cloned.getClass() == cache.getClass());
+		assertTrue(cloned != cache);
+		assertEquals(cache, cloned);
+	}
+}
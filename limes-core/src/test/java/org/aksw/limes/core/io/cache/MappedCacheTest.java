@@ -0,0 +1,149 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedCacheTest {
+
+	private HybridCache cache;
+	private File folder;
+	private File snapshot;
+
+	@Before
+	public void setUp() throws IOException {
+		cache = new HybridCache();
+		cache.addTriple("http://example.org/S1", "name", "kleanthi");
+		cache.addTriple("http://example.org/S1", "name", "klea");
+		cache.addTriple("http://example.org/S1", "surname", "georgala");
+		cache.addTriple("http://example.org/S2", "name", "lukas");
+		cache.addTriple("http://example.org/S3", "city", "Leipzig");
+		cache.addTriple("http://example.org/S4", "city", "Düsseldorf");
+		folder = Files.createTempDirectory("limes").toFile();
+		new File(folder, "cache").mkdir();
+		snapshot = new File(new File(folder, "cache"), "test" + MappedCache.SNAPSHOT_EXTENSION);
+		MappedCache.write(cache, snapshot);
+	}
+
+	@After
+	public void tearDown() {
+		snapshot.delete();
+		new File(folder, "cache").delete();
+		folder.delete();
+	}
+
+	@Test
+	public void testSameContent() throws IOException {
+		MappedCache mapped = MappedCache.open(snapshot);
+		assertEquals(cache.size(), mapped.size());
+		assertEquals(cache.getAllUris(), mapped.getAllUris());
+		assertEquals(cache.getAllProperties(), mapped.getAllProperties());
+		for (String uri : cache.getAllUris()) {
+			assertEquals(cache.getInstance(uri), mapped.getInstance(uri));
+			assertEquals(cache.getInstance(uri).getProperty("name"), mapped.getProperty(uri, "name"));
+		}
+		assertNull(mapped.getInstance("http://example.org/S5"));
+		assertFalse(mapped.containsUri("http://example.org/S5"));
+		assertEquals(folder.getAbsolutePath(), mapped.getFolder().getAbsolutePath());
+	}
+
+	@Test
+	public void testLazyLoading() throws IOException {
+		MappedCache mapped = MappedCache.open(snapshot);
+		Instance i = mapped.getInstance("http://example.org/S2");
+		assertEquals(0, mapped.getDecodedInstances());
+		assertEquals(1, i.getProperty("name").size());
+		assertEquals(0, mapped.getDecodedInstances());
+		// changes to instances are kept
+		i.addProperty("name", "luke");
+		assertEquals(1, mapped.getDecodedInstances());
+		assertEquals(2, mapped.getInstance("http://example.org/S2").getProperty("name").size());
+		mapped.addTriple("http://example.org/S5", "name", "axel");
+		assertEquals(1, mapped.getDecodedInstances());
+		assertTrue(mapped.containsUri("http://example.org/S5"));
+		assertEquals(cache.size() + 1, mapped.size());
+		assertEquals(2, mapped.getInstance("http://example.org/S2").getProperty("name").size());
+		assertEquals(cache.getInstance("http://example.org/S1"), mapped.getInstance("http://example.org/S1"));
+	}
+
+	@Test
+	public void testIteration() throws IOException {
+		MappedCache mapped = MappedCache.open(snapshot);
+		mapped.addTriple("http://example.org/S5", "name", "axel");
+		cache.addTriple("http://example.org/S5", "name", "axel");
+		assertEquals(cache.toString(), mapped.toString());
+		assertEquals(0, mapped.getDecodedInstances());
+		assertEquals(cache.getAllInstances(), mapped.getAllInstances());
+		assertEquals(cache.getAllUris(), mapped.getAllUris());
+		int instances = 0;
+		for (Instance i = mapped.getNextInstance(); i != null; i = mapped.getNextInstance()) {
+			assertEquals(cache.getInstance(i.getUri()), i);
+			instances++;
+		}
+		assertEquals(cache.size(), instances);
+		for (Instance i : mapped.getAllInstances()) {
+			assertEquals(cache.getInstance(i.getUri()).getAllProperties(), i.getAllProperties());
+		}
+		// iterating does not keep the instances in memory
+		assertEquals(0, mapped.getDecodedInstances());
+		// changes to instances of the view are kept
+		mapped.getAllInstances().get(1).addProperty("name", "luke");
+		assertEquals(2, mapped.getProperty("http://example.org/S2", "name").size());
+		mapped.getAllInstances().get(0).removePropery("surname");
+		assertEquals(2, mapped.getDecodedInstances());
+		assertEquals(0, mapped.getInstance("http://example.org/S1").getProperty("surname").size());
+		assertEquals(2, mapped.getInstance("http://example.org/S1").getProperty("name").size());
+	}
+
+	@Test
+	public void testConcurrentReads() throws Exception {
+		MappedCache mapped = MappedCache.open(snapshot);
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			tasks.add(() -> {
+				for (int n = 0; n < 200; n++) {
+					for (Instance i : mapped.getAllInstances()) {
+						if (!cache.getInstance(i.getUri()).equals(i)) {
+							return false;
+						}
+					}
+				}
+				return true;
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			for (Future<Boolean> result : executor.invokeAll(tasks)) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(0, mapped.getDecodedInstances());
+	}
+
+	@Test(expected = IOException.class)
+	public void testVersionMismatch() throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+			file.seek(4);
+			file.writeInt(MappedCache.VERSION + 1);
+		}
+		MappedCache.open(snapshot);
+	}
+}
@@ -0,0 +1,34 @@
+package org.aksw.limes.core.io.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class KBInfoTest {
+
+	private KBInfo createKBInfo(String id) {
+		KBInfo kb = new KBInfo("?x");
+		kb.setId(id);
+		kb.setEndpoint("http://dbpedia.org/sparql");
+		kb.addProperty("rdfs:label");
+		kb.addRestriction("?x rdf:type dbo:City");
+		kb.getPrefixes().put("rdfs", "http://www.w3.org/2000/01/rdf-schema#");
+		kb.getPrefixes().put("dbo", "http://dbpedia.org/ontology/");
+		return kb;
+	}
+
+	@Test
+	public void testContentHash() {
+		KBInfo kb = createKBInfo("source");
+		assertEquals(64, kb.getContentHash().length());
+		// the id does not change the retrieved data
+		assertEquals(kb.getContentHash(), createKBInfo("target").getContentHash());
+		KBInfo other = createKBInfo("source");
+		other.addProperty("dbo:populationTotal");
+		assertNotEquals(kb.getContentHash(), other.getContentHash());
+		other = createKBInfo("source");
+		other.setPageSize(1000);
+		assertNotEquals(kb.getContentHash(), other.getContentHash());
+	}
+}
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.io.config.reader.xml;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -173,6 +174,8 @@ public class RDFConfigurationReaderTest {
         
         assertTrue(config.getExpectedSelectivity() == 1.0);
         assertTrue(config.getOptimizationTime() == 0);
+        assertEquals(KBInfo.HYBRID_CACHE, config.getSourceInfo().getCache());
+        assertEquals(KBInfo.COLUMNAR_CACHE, config.getTargetInfo().getCache());
         
         
         
@@ -214,6 +214,8 @@ public class XMLConfigurationReaderTest {
         
         assertTrue(config.getOptimizationTime() == 1000);
         assertTrue(config.getExpectedSelectivity() == 0.65);
+        assertEquals(KBInfo.HYBRID_CACHE, config.getSourceInfo().getCache());
+        assertEquals(KBInfo.COLUMNAR_CACHE, config.getTargetInfo().getCache());
     }
 
 }
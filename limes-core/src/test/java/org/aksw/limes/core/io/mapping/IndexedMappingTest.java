@@ -0,0 +1,133 @@
+package org.aksw.limes.core.io.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.Precision;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.Recall;
+import org.aksw.limes.core.io.cache.ColumnarCache;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedMappingTest {
+
+	private AMapping memory1, memory2;
+	private IndexedMapping indexed1, indexed2;
+
+	@Before
+	public void setUp() {
+		ColumnarCache source = new ColumnarCache();
+		ColumnarCache target = new ColumnarCache();
+		for (int i = 0; i < 50; i++) {
+			source.addTriple("s" + i, "p", "v" + i);
+			target.addTriple("t" + i, "p", "v" + i);
+		}
+		memory1 = MappingFactory.createDefaultMapping();
+		memory2 = MappingFactory.createDefaultMapping();
+		indexed1 = MappingFactory.createIndexedMapping(source, target);
+		indexed2 = MappingFactory.createIndexedMapping(source, target);
+		Random random = new Random(42);
+		for (int i = 0; i < 3000; i++) {
+			// some uris are not in the caches
+			String s = "s" + random.nextInt(60), t = "t" + random.nextInt(60);
+			double sim = random.nextInt(10) / 10d;
+			if (random.nextBoolean()) {
+				memory1.add(s, t, sim);
+				indexed1.add(s, t, sim);
+			} else {
+				memory2.add(s, t, sim);
+				indexed2.add(s, t, sim);
+			}
+		}
+	}
+
+	@Test
+	public void testSameAsMemoryMapping() {
+		assertEquals(memory1.size(), indexed1.size());
+		assertEquals(memory1.getMap(), indexed1.getMap());
+		assertEquals(memory1.getNumberofPositiveMappings(), indexed1.getNumberofPositiveMappings());
+		assertEquals(memory1.getSubMap(0.5).getMap(), indexed1.getSubMap(0.5).getMap());
+		assertEquals(memory1.getBestOneToNMapping().getMap(), indexed1.getBestOneToNMapping().getMap());
+		assertEquals(memory1.reverseSourceTarget().getMap(), indexed1.reverseSourceTarget().getMap());
+		assertEquals(memory1.getOnlyPositiveExamples().getMap(), indexed1.getOnlyPositiveExamples().getMap());
+	}
+
+	@Test
+	public void testSetOperations() {
+		assertEquals(MappingOperations.union(memory1, memory2).getMap(),
+				MappingOperations.union(indexed1, indexed2).getMap());
+		assertEquals(MappingOperations.intersection(memory1, memory2).getMap(),
+				MappingOperations.intersection(indexed1, indexed2).getMap());
+		assertEquals(MappingOperations.difference(memory1, memory2).getMap(),
+				MappingOperations.difference(indexed1, indexed2).getMap());
+		// mappings with different dictionaries
+		IndexedMapping other = (IndexedMapping) MappingFactory.createMapping(MappingFactory.MappingType.INDEXED_MAPPING);
+		other.setMap(memory2.getMap());
+		assertEquals(MappingOperations.union(memory1, memory2).getMap(),
+				MappingOperations.union(indexed1, other).getMap());
+	}
+
+	@Test
+	public void testAddAndLookup() {
+		IndexedMapping m = (IndexedMapping) MappingFactory.createMapping(MappingFactory.MappingType.INDEXED_MAPPING);
+		m.add("Potter", "Harry", 0.7);
+		m.add("Potter", "Harry", 0.5);
+		m.add("Granger", "Hermione", 0.9);
+		assertTrue(m.contains("Potter", "Harry"));
+		assertEquals(0.7, m.getConfidence("Potter", "Harry"), 0d);
+		assertFalse(m.contains("Harry", "Potter"));
+		assertEquals(2, m.size());
+		m.add("Potter", "Harry", 0.8);
+		assertEquals(0.8, m.getConfidence("Potter", "Harry"), 0d);
+		assertEquals(2, m.size());
+		assertEquals(0.8, m.getMap().get("Potter").get("Harry"), 0d);
+	}
+
+	@Test
+	public void testMeasures() {
+		GoldStandard goldStandard = new GoldStandard(memory2);
+		for (IQualitativeMeasure measure : new IQualitativeMeasure[] { new Precision(), new Recall(), new FMeasure() }) {
+			assertEquals(measure.calculate(memory1, goldStandard), measure.calculate(indexed1, goldStandard), 0d);
+			assertEquals(measure.calculate(memory1, goldStandard),
+					measure.calculate(memory1, new GoldStandard(indexed2)), 0d);
+		}
+	}
+
+	@Test
+	public void testEquals() {
+		assertEquals(memory1, indexed1);
+		assertEquals(indexed1, memory1);
+		assertEquals(memory1.hashCode(), indexed1.hashCode());
+		assertFalse(indexed1.equals(indexed2));
+		assertFalse(memory2.equals(indexed1));
+		// mappings with different dictionaries
+		IndexedMapping other = (IndexedMapping) MappingFactory.createMapping(MappingFactory.MappingType.INDEXED_MAPPING);
+		other.setMap(memory1.getMap());
+		assertEquals(indexed1, other);
+		assertEquals(indexed1.hashCode(), other.hashCode());
+	}
+
+	@Test
+	public void testChangesThroughMap() {
+		int hashCode = indexed1.hashCode();
+		indexed1.getMap().get("s1").put("t99", 0.3);
+		assertTrue(indexed1.contains("s1", "t99"));
+		assertEquals(0.3, indexed1.getConfidence("s1", "t99"), 0d);
+		assertEquals(memory1.size() + 1, indexed1.size());
+		assertFalse(memory1.equals(indexed1));
+		indexed1.getMap().get("s1").remove("t99");
+		assertEquals(memory1, indexed1);
+		assertEquals(hashCode, indexed1.hashCode());
+		// and the set operations use the changed links
+		indexed1.getMap().get("s1").put("t99", 0.3);
+		assertTrue(MappingOperations.union(indexed1, indexed2).contains("s1", "t99"));
+		assertEquals(0.3, MappingOperations.difference(indexed1, indexed2).getConfidence("s1", "t99"), 0d);
+	}
+}
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.io.query;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -10,7 +11,13 @@ import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -64,4 +71,81 @@ public class SparqlQueryModuleTest {
         assertTrue(cache.size() > 0);
     }
 
+    private KBInfo registerModel(String name, int instances, int pageSize) {
+        Model model = ModelFactory.createDefaultModel();
+        Resource type = model.createResource("http://example.org/Drug");
+        for (int i = 0; i < instances; i++) {
+            model.createResource("http://example.org/drug" + i).addProperty(RDF.type, type)
+                    .addProperty(RDFS.label, "drug " + i);
+        }
+        ModelRegistry.register(name, model);
+        prefixes.put("ex", "http://example.org/");
+        return new KBInfo("drugs", name, null, "?x", new ArrayList<String>(Arrays.asList("rdfs:label")),
+                null,
+                new ArrayList<String>(Arrays.asList("?x rdf:type ex:Drug")), functions, prefixes, pageSize, "sparql");
+    }
+
+    @Test
+    public void parallelFillCacheTest() {
+        KBInfo kb = registerModel("parallelFillCacheTest", 1000, 37);
+        ACache expected = new MemoryCache();
+        new SparqlQueryModule(kb).fillCache(expected, false);
+        assertEquals(1000, expected.size());
+        for (boolean ordered : new boolean[] { true, false }) {
+            SparqlQueryModule sqm = new SparqlQueryModule(kb, 8);
+            sqm.setOrderedMerge(ordered);
+            ACache cache = new MemoryCache();
+            sqm.fillCache(cache, false);
+            assertEquals(expected, cache);
+        }
+        // bounded by the maximal offset
+        kb.setMinOffset(100);
+        kb.setMaxOffset(500);
+        expected = new MemoryCache();
+        new SparqlQueryModule(kb).fillCache(expected, false);
+        ACache cache = new MemoryCache();
+        new SparqlQueryModule(kb, 4).fillCache(cache, false);
+        assertEquals(400, cache.size());
+        assertEquals(expected, cache);
+        ModelRegistry.unregister("parallelFillCacheTest");
+    }
+
+    @Test
+    public void parallelRetryTest() throws InterruptedException {
+        KBInfo kb = registerModel("parallelRetryTest", 100, 10);
+        Model model = ModelRegistry.getInstance().getMap().get("parallelRetryTest");
+        ModelRegistry.unregister("parallelRetryTest");
+        // the model becomes available while the pages are retried
+        Thread register = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            ModelRegistry.register("parallelRetryTest", model);
+        });
+        register.start();
+        SparqlQueryModule sqm = new SparqlQueryModule(kb, 4);
+        sqm.setRetryDelayInMS(100);
+        sqm.setRetryCount(20);
+        ACache cache = new MemoryCache();
+        sqm.fillCache(cache, false);
+        register.join();
+        assertEquals(100, cache.size());
+        ModelRegistry.unregister("parallelRetryTest");
+    }
+
+    @Test
+    public void defaultParallelismTest() {
+        try {
+            System.setProperty(SparqlQueryModule.PARALLELISM_PROPERTY, "3");
+            assertEquals(3, SparqlQueryModule.getDefaultParallelism());
+            System.setProperty(SparqlQueryModule.PARALLELISM_PROPERTY, "many");
+            assertEquals(SparqlQueryModule.DEFAULT_PARALLELISM, SparqlQueryModule.getDefaultParallelism());
+        } finally {
+            System.clearProperty(SparqlQueryModule.PARALLELISM_PROPERTY);
+        }
+        assertEquals(SparqlQueryModule.DEFAULT_PARALLELISM, SparqlQueryModule.getDefaultParallelism());
+    }
+
 }
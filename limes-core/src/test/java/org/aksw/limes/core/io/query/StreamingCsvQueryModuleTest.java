@@ -0,0 +1,68 @@
+package org.aksw.limes.core.io.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingCsvQueryModuleTest {
+
+    private File file;
+    private KBInfo kb;
+
+    @Before
+    public void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder("id,name,city,zip\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append("p").append(i).append(",\"Name, ").append(i).append("\",City ").append(i % 13)
+                    .append(',').append(10000 + i).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        file = File.createTempFile("persons", ".csv");
+        Files.write(file.toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+        kb = new KBInfo("persons", file.getAbsolutePath(), null, "?x",
+                new ArrayList<String>(Arrays.asList("name", "zip")), null, new ArrayList<String>(),
+                new LinkedHashMap<String, Map<String, String>>(), new HashMap<String, String>(), -1, "CSV");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void sameAsCsvQueryModuleTest() {
+        ACache expected = new MemoryCache();
+        new CsvQueryModule(kb).fillCache(expected);
+        assertEquals(500, expected.size());
+        for (int chunkSize : new int[] { 1, 1000, 1 << 20 }) {
+            StreamingCsvQueryModule scqm = new StreamingCsvQueryModule(kb);
+            scqm.setParallelism(4);
+            scqm.setChunkSize(chunkSize);
+            ACache cache = new MemoryCache();
+            scqm.fillCache(cache);
+            assertEquals(expected, cache);
+        }
+        assertEquals("Name, 7", expected.getInstance("p7").getProperty("name").first());
+    }
+
+    @Test
+    public void factoryTest() {
+        assertEquals(StreamingCsvQueryModule.class, QueryModuleFactory.getQueryModule("stream-csv", kb).getClass());
+        assertEquals(StreamingFileQueryModule.class, QueryModuleFactory.getQueryModule("STREAM-NT", kb).getClass());
+        assertEquals("N-TRIPLE", kb.getType());
+    }
+}
@@ -0,0 +1,129 @@
+package org.aksw.limes.core.io.query;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingFileQueryModuleTest {
+
+    private static final String TRIPLES =
+            "# drugs\n"
+            + "<http://example.org/d1> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.org/Drug> .\n"
+            + "<http://example.org/d1> <http://www.w3.org/2000/01/rdf-schema#label> \"Aspirin\"@en .\n"
+            + "<http://example.org/d1> <http://www.w3.org/2000/01/rdf-schema#label> \"Aspirin\" .\n"
+            + "\n"
+            + "<http://example.org/d1> <http://example.org/dose> \"500\"^^<http://www.w3.org/2001/XMLSchema#integer> .\n"
+            + "<http://example.org/d2>\t<http://www.w3.org/2000/01/rdf-schema#label>\t\"Ibu\\\"profen\\u00E9\"@de .\r\n"
+            + "<http://example.org/d2> <http://example.org/dose> <http://example.org/dose400> .\n"
+            + "<http://example.org/d2> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.org/Drug> .\n"
+            // no dose
+            + "<http://example.org/d3> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.org/Drug> .\n"
+            + "<http://example.org/d3> <http://www.w3.org/2000/01/rdf-schema#label> \"Paracetamol\" .\n"
+            // no drug
+            + "<http://example.org/d4> <http://www.w3.org/2000/01/rdf-schema#label> \"Water\" .\n"
+            + "<http://example.org/d4> <http://example.org/dose> \"1\" .\n"
+            + "<http://example.org/d5> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.org/Drug> .\n"
+            + "<http://example.org/d5> <http://example.org/dose> \"1\" .\n"
+            + "<http://example.org/d5> <http://www.w3.org/2000/01/rdf-schema#label> \"Drug 5\" .";
+
+    private File file;
+    private KBInfo kb;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("drugs", ".nt");
+        Files.write(file.toPath(), TRIPLES.getBytes(StandardCharsets.UTF_8));
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("rdfs", "http://www.w3.org/2000/01/rdf-schema#");
+        prefixes.put("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#");
+        prefixes.put("ex", "http://example.org/");
+        kb = new KBInfo("drugs", file.getAbsolutePath(), null, "?x",
+                new ArrayList<String>(Arrays.asList("rdfs:label", "ex:dose")), null,
+                new ArrayList<String>(Arrays.asList("?x rdf:type ex:Drug")),
+                new LinkedHashMap<String, Map<String, String>>(), prefixes, -1, "N-TRIPLE");
+    }
+
+    @After
+    public void tearDown() {
+        ModelRegistry.unregister(file.getAbsolutePath());
+        file.delete();
+    }
+
+    @Test
+    public void sameAsFileQueryModuleTest() {
+        ACache expected = new MemoryCache();
+        new FileQueryModule(kb).fillCache(expected);
+        assertEquals(3, expected.size());
+        for (int chunkSize : new int[] { 1, 100, 1 << 20 }) {
+            StreamingFileQueryModule sfqm = new StreamingFileQueryModule(kb);
+            sfqm.setParallelism(4);
+            sfqm.setChunkSize(chunkSize);
+            ACache cache = new MemoryCache();
+            sfqm.fillCache(cache);
+            assertEquals(expected, cache);
+        }
+        // a single property without restrictions is read in one pass
+        kb.setProperties(new ArrayList<String>(Arrays.asList("rdfs:label")));
+        kb.setRestrictions(new ArrayList<String>());
+        expected = new MemoryCache();
+        new FileQueryModule(kb).fillCache(expected);
+        ACache cache = new MemoryCache();
+        new StreamingFileQueryModule(kb).fillCache(cache);
+        assertEquals(5, cache.size());
+        assertEquals(expected, cache);
+    }
+
+    @Test
+    public void ibuprofenTest() {
+        kb.setEndpoint(Thread.currentThread().getContextClassLoader().getResource("ibuprofen.nt").getPath());
+        kb.getPrefixes().put("dbpo", "http://dbpedia.org/ontology/");
+        kb.setProperties(new ArrayList<String>(Arrays.asList("rdfs:label", "dbpo:abstract")));
+        kb.setRestrictions(new ArrayList<String>(Arrays.asList("?x rdf:type dbpo:Drug")));
+        ACache expected = new MemoryCache();
+        new FileQueryModule(kb).fillCache(expected);
+        ACache cache = new MemoryCache();
+        new StreamingFileQueryModule(kb).fillCache(cache);
+        assertTrue(cache.size() > 0);
+        assertEquals(expected, cache);
+        ModelRegistry.unregister(kb.getEndpoint());
+    }
+
+    @Test
+    public void parseTripleTest() {
+        assertNull(StreamingFileQueryModule.parseTriple("  # comment"));
+        assertNull(StreamingFileQueryModule.parseTriple(""));
+        assertArrayEquals(new String[] { "b1", "http://example.org/p", "Tab\there \\\"quoted\\\"@en-GB" },
+                StreamingFileQueryModule.parseTriple("_:b1 <http://example.org/p> \"Tab\\there \\\"quoted\\\"\"@en-GB ."));
+        assertArrayEquals(new String[] { "http://example.org/s", "http://example.org/p", "b2" },
+                StreamingFileQueryModule.parseTriple("<http://example.org/s> <http://example.org/p> _:b2."));
+        assertArrayEquals(new String[] { "http://example.org/s", "http://example.org/p",
+                "1.5^^http://www.w3.org/2001/XMLSchema#double" },
+                StreamingFileQueryModule.parseTriple("<http://example.org/s> <http://example.org/p> "
+                        + "\"1.5\"^^<http://www.w3.org/2001/XMLSchema#double> ."));
+        assertEquals("\uD83D\uDE00", StreamingFileQueryModule.parseTriple(
+                "<http://example.org/s> <http://example.org/p> \"\\U0001F600\" .")[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedTripleTest() {
+        StreamingFileQueryModule.parseTriple("<http://example.org/s> <http://example.org/p> \"open");
+    }
+}
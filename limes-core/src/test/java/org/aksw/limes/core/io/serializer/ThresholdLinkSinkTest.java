@@ -0,0 +1,88 @@
+package org.aksw.limes.core.io.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ThresholdLinkSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Set<String> readLines(File file) throws IOException {
+        return new HashSet<>(Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    public void testRouting() throws IOException {
+        File accepted = folder.newFile("accepted.nt");
+        File review = folder.newFile("review.nt");
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("owl", "http://www.w3.org/2002/07/owl#");
+        ThresholdLinkSink sink = ThresholdLinkSink.open("nt", "owl:sameAs", accepted.getAbsolutePath(), 0.9,
+                "owl:sameAs", review.getAbsolutePath(), 0.5, prefixes);
+        sink.addLink("http://a.org/1", "http://b.org/1", 1d);
+        sink.addLink("http://a.org/2", "http://b.org/2", 0.9);
+        sink.addLink("http://a.org/3", "http://b.org/3", 0.7);
+        sink.addLink("http://a.org/4", "http://b.org/4", 0.4);
+        assertTrue(sink.close());
+        assertEquals(2, sink.getAcceptedLinks());
+        assertEquals(1, sink.getVerificationLinks());
+        assertEquals(new HashSet<>(Arrays.asList(
+                "<http://a.org/1> <http://www.w3.org/2002/07/owl#sameAs> <http://b.org/1> .",
+                "<http://a.org/2> <http://www.w3.org/2002/07/owl#sameAs> <http://b.org/2> .")), readLines(accepted));
+        assertEquals(new HashSet<>(Arrays.asList(
+                "<http://a.org/3> <http://www.w3.org/2002/07/owl#sameAs> <http://b.org/3> .")), readLines(review));
+    }
+
+    @Test
+    public void testSameOutputAsWriteToFile() throws IOException {
+        AMapping m = MappingFactory.createDefaultMapping();
+        m.add("http://a.org/1", "http://b.org/1", 1d);
+        m.add("http://a.org/1", "http://b.org/2", 0.8);
+        m.add("http://a.org/2", "http://b.org/2", 0.6);
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("owl", "http://www.w3.org/2002/07/owl#");
+        for (String format : new String[] { "nt", "csv", "tab", "ttl" }) {
+            ISerializer serializer = SerializerFactory.createSerializer(format);
+            File mappingFile = folder.newFile();
+            serializer.setPrefixes(prefixes);
+            serializer.writeToFile(m, "owl:sameAs", mappingFile.getAbsolutePath());
+
+            File accepted = folder.newFile();
+            File review = folder.newFile();
+            ThresholdLinkSink sink = ThresholdLinkSink.open(format, "owl:sameAs",
+                    accepted.getAbsolutePath(), 0.7, "owl:sameAs", review.getAbsolutePath(), 0, prefixes);
+            for (String s : m.getMap().keySet()) {
+                for (String t : m.getMap().get(s).keySet()) {
+                    sink.addLink(s, t, m.getConfidence(s, t));
+                }
+            }
+            sink.close();
+
+            Set<String> links = readLines(accepted);
+            links.addAll(readLines(review));
+            assertEquals(format, readLines(mappingFile), links);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnwritableFile() throws IOException {
+        File missing = new File(folder.getRoot(), "missing");
+        ThresholdLinkSink.open("nt", "owl:sameAs", folder.newFile().getAbsolutePath(), 0.9, "owl:sameAs",
+                new File(missing, "review.nt").getAbsolutePath(), 0.5, new HashMap<>());
+    }
+}
@@ -1,10 +1,17 @@
 package org.aksw.limes.core.measures.mapper;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
 
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.measure.AMeasure;
@@ -16,13 +23,114 @@ import org.aksw.limes.core.util.RandomStringGenerator;
  * @since 1.0
  */
 public class MapperTest {
+
+    /**
+     * Number of partitions of the inputs returned by
+     * {@link #getPartitionedSize(int)}
+     */
+    public static final int PARTITIONS = 3;
+
+    /**
+     * @param minPartitionSize
+     *            Minimal number of instances or values per partition of a
+     *            mapper
+     * @return a number of instances or values that is large enough for the
+     *         mapper to split its input into several partitions
+     */
+    public static int getPartitionedSize(int minPartitionSize) {
+        return minPartitionSize * PARTITIONS;
+    }
+
+    /**
+     * Links all pairs of instances of two caches whose similarity is at
+     * least the threshold.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param threshold
+     *            Threshold of the similarity
+     * @param similarity
+     *            Similarity of a source and a target instance
+     * @return the expected mapping of a mapper
+     */
+    public static AMapping bruteForce(ACache source, ACache target, double threshold,
+                                      ToDoubleBiFunction<Instance, Instance> similarity) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (Instance s : source.getAllInstances()) {
+            for (Instance t : target.getAllInstances()) {
+                double sim = similarity.applyAsDouble(s, t);
+                if (sim >= threshold) {
+                    m.add(s.getUri(), t.getUri(), sim);
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Mapping of a mapper for a threshold.
+     */
+    public interface ThresholdMapping {
+        AMapping getMapping(double threshold);
+    }
+
+    /**
+     * Asserts for each threshold that a mapper returns the links of
+     * {@link #bruteForce(ACache, ACache, double, ToDoubleBiFunction)}, and
+     * that there are such links.
+     *
+     * @param message
+     *            Message of the assertions, e.g. the name of the mapper
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param similarity
+     *            Similarity of a source and a target instance
+     * @param mapping
+     *            Mapping of the mapper for a threshold
+     * @param thresholds
+     *            Thresholds to check
+     */
+    public static void assertOracle(String message, ACache source, ACache target,
+                                    ToDoubleBiFunction<Instance, Instance> similarity, ThresholdMapping mapping,
+                                    double... thresholds) {
+        for (double threshold : thresholds) {
+            AMapping expected = bruteForce(source, target, threshold, similarity);
+            assertTrue(message + " " + threshold, expected.size() > 0);
+            assertEquals(message + " " + threshold, expected.getMap(), mapping.getMapping(threshold).getMap());
+        }
+    }
+
+    /**
+     * Asserts for each threshold that a mapper returns the links of
+     * {@link #bruteForce(Map, Map, double, ToDoubleBiFunction)}, and that
+     * there are such links.
+     */
+    public static void assertOracle(String message, Map<String, Set<String>> sourceMap,
+                                    Map<String, Set<String>> targetMap, ToDoubleBiFunction<String, String> similarity,
+                                    ThresholdMapping mapping, double... thresholds) {
+        for (double threshold : thresholds) {
+            AMapping expected = bruteForce(sourceMap, targetMap, threshold, similarity);
+            assertTrue(message + " " + threshold, expected.size() > 0);
+            assertEquals(message + " " + threshold, expected.getMap(), mapping.getMapping(threshold).getMap());
+        }
+    }
+
     public static AMapping bruteForce(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
                                       double threshold, AMeasure measure) {
+        return bruteForce(sourceMap, targetMap, threshold, (s, t) -> measure.getSimilarity(s, t));
+    }
+
+    public static AMapping bruteForce(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
+                                      double threshold, ToDoubleBiFunction<String, String> similarity) {
         AMapping m = MappingFactory.createDefaultMapping();
         double sim;
         for (String s : sourceMap.keySet()) {
             for (String t : targetMap.keySet()) {
-                sim = measure.getSimilarity(s, t);
+                sim = similarity.applyAsDouble(s, t);
                 if (sim >= threshold) {
                     for (@SuppressWarnings("unused")
                     String sourceUris : sourceMap.get(s)) {
@@ -37,15 +145,26 @@ public class MapperTest {
         return m;
     }
 
-    public Map<String, Set<String>> generateRandomMap(int size) {
+    /**
+     * @param size
+     *            Number of values
+     * @param generator
+     *            Generator of the values, duplicate values are skipped
+     * @return a map of size distinct values, each with itself as the only URI
+     */
+    public static Map<String, Set<String>> generateValues(int size, Supplier<String> generator) {
         Map<String, Set<String>> map = new HashMap<String, Set<String>>();
-        RandomStringGenerator rsg = new RandomStringGenerator(5, 20);
         while (map.size() < size) {
-            String s = rsg.generateString();
+            String s = generator.get();
             Set<String> set = new HashSet<String>();
             set.add(s);
             map.put(s, set);
         }
         return map;
     }
+
+    public Map<String, Set<String>> generateRandomMap(int size) {
+        RandomStringGenerator rsg = new RandomStringGenerator(5, 20);
+        return generateValues(size, rsg::generateString);
+    }
 }
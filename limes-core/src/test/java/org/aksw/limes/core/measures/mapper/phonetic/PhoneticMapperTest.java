@@ -0,0 +1,199 @@
+package org.aksw.limes.core.measures.mapper.phonetic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToDoubleBiFunction;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PhoneticMapperTest extends MapperTest {
+
+    private static final String[] SYLLABLES = { "ma", "mei", "er", "schu", "ster", "hof", "man", "mann", "ber", "ger",
+            "kat", "rin", "jo", "han", "nes", "son", "li", "lie", "ze", "tho", "mas", "ick", "o" };
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < getPartitionedSize(APhoneticMapper.MIN_PARTITION_SIZE); i++) {
+            source.addTriple("http://example.org/s" + i, "name", getName(random));
+            target.addTriple("http://example.org/t" + i, "name", getName(random));
+            if (i % 10 == 0) {
+                source.addTriple("http://example.org/s" + i, "name", getName(random));
+            }
+        }
+        // values without code
+        source.addTriple("http://example.org/empty", "name", "");
+        target.addTriple("http://example.org/empty", "name", "");
+        source.addTriple("http://example.org/noLetters", "name", "!!!");
+        target.addTriple("http://example.org/noLetters", "name", "!!!");
+    }
+
+    private String getName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    /**
+     * @return the similarity of the linked pairs of a mapper for a threshold.
+     *         Linked codes that differ in more characters than the code length
+     *         have a negative similarity, so that unlinked pairs have a
+     *         similarity of negative infinity
+     */
+    private ToDoubleBiFunction<Instance, Instance> similarity(APhoneticMapper mapper, double threshold) {
+        int maxDistance = mapper.getMaxDistance(threshold);
+        Map<String, String> codes = new HashMap<>();
+        return (s, t) -> {
+            double sim = Double.NEGATIVE_INFINITY;
+            for (String sourceValue : s.getProperty("name")) {
+                String sourceCode = codes.computeIfAbsent(sourceValue, mapper::getCode);
+                for (String targetValue : t.getProperty("name")) {
+                    String targetCode = codes.computeIfAbsent(targetValue, mapper::getCode);
+                    if (sourceCode == null || targetCode == null || targetCode.isEmpty()
+                            || targetCode.length() > sourceCode.length()) {
+                        continue;
+                    }
+                    int distance = 0;
+                    for (int i = 0; i < targetCode.length(); i++) {
+                        if (sourceCode.charAt(i) != targetCode.charAt(i)) {
+                            distance++;
+                        }
+                    }
+                    if (distance <= maxDistance) {
+                        sim = Math.max(sim, 1.0d - distance / (double) mapper.getCodeLength());
+                    }
+                }
+            }
+            return sim;
+        };
+    }
+
+    @Test
+    public void testMappers() {
+        APhoneticMapper[] mappers = { new Caverphone1Mapper(), new Caverphone2Mapper(), new DaitchMokotoffMapper(),
+                new DoubleMetaPhoneMapper(), new KoelnPhoneticMapper(), new MatchRatingMapper(),
+                new MetaPhoneMapper(), new NysiisMapper(), new RefinedSoundexMapper(), new SoundexMapper() };
+        for (APhoneticMapper mapper : mappers) {
+            for (double threshold : new double[] { 0.5, 0.75, 1.0 }) {
+                String expression = mapper.getName() + "(x.name,y.name)";
+                assertOracle(mapper.getName() + " " + threshold, source, target, similarity(mapper, threshold),
+                        t -> mapper.getMapping(source, target, "?x", "?y", expression, threshold), -Double.MAX_VALUE);
+            }
+        }
+    }
+
+    private AMapping getMapping(APhoneticMapper mapper, ACache source, ACache target, double threshold) {
+        return mapper.getMapping(source, target, "?x", "?y", mapper.getName() + "(x.name,y.name)", threshold);
+    }
+
+    @Test
+    public void testValuesWithoutCode() {
+        SoundexMapper mapper = new SoundexMapper();
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        for (String value : new String[] { "", "!!!", "42" }) {
+            String code = mapper.getCode(value);
+            assertTrue(value, code == null || code.isEmpty());
+            source.addTriple("http://example.org/" + value, "name", value);
+            target.addTriple("http://example.org/" + value, "name", value);
+        }
+        // the empty codes are neither linked to each other nor to other codes
+        assertEquals(0, getMapping(mapper, source, target, 0.25).size());
+        target.addTriple("http://example.org/robert", "name", "Robert");
+        assertEquals(0, getMapping(mapper, source, target, 0.25).size());
+    }
+
+    @Test
+    public void testLongerTargetCode() {
+        // the target code is compared to the prefix of the longer source code
+        RefinedSoundexMapper mapper = new RefinedSoundexMapper();
+        assertTrue(mapper.getCode("Robert").length() > mapper.getCode("Rob").length());
+        assertTrue(mapper.getCode("Robert").startsWith(mapper.getCode("Rob")));
+        ACache shortCode = new MemoryCache();
+        ACache longCode = new MemoryCache();
+        shortCode.addTriple("http://example.org/rob", "name", "Rob");
+        longCode.addTriple("http://example.org/robert", "name", "Robert");
+        AMapping m = getMapping(mapper, longCode, shortCode, 1.0);
+        assertEquals(1, m.size());
+        assertEquals(1.0d, m.getConfidence("http://example.org/robert", "http://example.org/rob"), 0d);
+        // but not a longer target code to a shorter source code
+        assertEquals(0, getMapping(mapper, shortCode, longCode, 0.25).size());
+    }
+
+    @Test
+    public void testMaxDistance() {
+        SoundexMapper mapper = new SoundexMapper();
+        assertEquals("R163", mapper.getCode("Robert"));
+        assertEquals("R150", mapper.getCode("Rubin"));
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("http://example.org/robert", "name", "Robert");
+        target.addTriple("http://example.org/rubin", "name", "Rubin");
+        // the codes differ in two characters, the maximal distance for 0.5
+        assertEquals(2, mapper.getMaxDistance(0.5));
+        AMapping m = getMapping(mapper, source, target, 0.5);
+        assertEquals(1, m.size());
+        assertEquals(0.5d, m.getConfidence("http://example.org/robert", "http://example.org/rubin"), 0d);
+        assertEquals(1, mapper.getMaxDistance(0.51));
+        assertEquals(0, getMapping(mapper, source, target, 0.51).size());
+        assertEquals(0, getMapping(mapper, target, source, 0.51).size());
+    }
+
+    @Test
+    public void testMultipleValues() {
+        // the links have the highest similarity of the values of an instance
+        SoundexMapper mapper = new SoundexMapper();
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("http://example.org/s", "name", "Rubin");
+        source.addTriple("http://example.org/s", "name", "Robert");
+        target.addTriple("http://example.org/t", "name", "Rupert");
+        target.addTriple("http://example.org/t", "name", "Smith");
+        target.addTriple("http://example.org/u", "name", "Rubens");
+        AMapping m = getMapping(mapper, source, target, 0.5);
+        assertEquals(2, m.size());
+        assertEquals(1.0d, m.getConfidence("http://example.org/s", "http://example.org/t"), 0d);
+        assertEquals(0.75d, m.getConfidence("http://example.org/s", "http://example.org/u"), 0d);
+        m = getMapping(mapper, target, source, 0.5);
+        assertEquals(1.0d, m.getConfidence("http://example.org/t", "http://example.org/s"), 0d);
+    }
+
+    @Test
+    public void testSharedIndex() {
+        SoundexMapper mapper = new SoundexMapper();
+        PhoneticIndex index = PhoneticIndex.getIndex(source, "name", mapper.getName(), mapper::getCode);
+        assertSame(index, PhoneticIndex.getIndex(source, "name", mapper.getName(), mapper::getCode));
+        assertNotSame(index, PhoneticIndex.getIndex(source, "name", "refinedsoundex", mapper::getCode));
+        assertNotSame(index, PhoneticIndex.getIndex(target, "name", mapper.getName(), mapper::getCode));
+
+        // the index is created again for changed values
+        source.addTriple("http://example.org/s0", "name", "Robert");
+        PhoneticIndex changed = PhoneticIndex.getIndex(source, "name", mapper.getName(), mapper::getCode);
+        assertNotSame(index, changed);
+        assertEquals(index.size() + 1, changed.size());
+        boolean found = false;
+        for (int id = 0; id < changed.size(); id++) {
+            found |= changed.getCode(id).equals("R163");
+        }
+        assertTrue(found);
+    }
+}
@@ -0,0 +1,189 @@
+package org.aksw.limes.core.measures.mapper.semantic.edgecounting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.AEdgeCountingSemanticMeasure;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.dictionary.SemanticDictionary;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.factory.SemanticFactory;
+import org.aksw.limes.core.measures.measure.semantic.edgecounting.indexing.memory.MemoryIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EdgeCountingSemanticMapperTest extends MapperTest {
+
+    private static final String[] WORDS = { "dog", "cat", "animal", "horse", "house", "building", "tower", "car",
+            "vehicle", "bicycle", "run", "walk", "move", "red", "blue", "quickly", "slowly", "tree", "plant",
+            "music", "song", "the", "of", "xyzzy", "" };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ACache source;
+    private ACache target;
+
+    /**
+     * Creates labels of one to three words, in the source and target, if the
+     * wordnet database files are installed, see the README.md.
+     */
+    private void createCaches() {
+        assumeTrue(new File(new SemanticDictionary().getWordNetFolder()).exists());
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < getPartitionedSize(EdgeCountingSemanticMapper.MIN_PARTITION_SIZE); i++) {
+            source.addTriple("http://example.org/s" + i, "label", getLabel(random));
+            target.addTriple("http://example.org/t" + i, "label", getLabel(random));
+        }
+    }
+
+    private String getLabel(Random random) {
+        StringBuilder label = new StringBuilder();
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            label.append(WORDS[random.nextInt(WORDS.length)]).append(i > 0 ? " " : "");
+        }
+        return label.toString();
+    }
+
+    /**
+     * @return a measure with a separate index, so that it does not use the
+     *         similarities memoized by the mapper
+     */
+    private AEdgeCountingSemanticMeasure createMeasure(String measureName) {
+        MemoryIndex index = new MemoryIndex();
+        index.preIndex();
+        return SemanticFactory.createMeasure(SemanticFactory.getMeasureType(measureName), index);
+    }
+
+    @Test
+    public void testGetMapping() {
+        createCaches();
+        EdgeCountingSemanticMapper mapper = new EdgeCountingSemanticMapper();
+        for (String measureName : new String[] { SemanticFactory.LCH, SemanticFactory.SHORTEST_PATH }) {
+            AEdgeCountingSemanticMeasure measure = createMeasure(measureName);
+            assertOracle(measureName, source, target, (s, t) -> measure.getSimilarity(s, t, "label", "label"),
+                    threshold -> mapper.getMapping(source, target, "?x", "?y", measureName + "(x.label,y.label)",
+                            threshold),
+                    0.3, 0.6, 1.0);
+            measure.close();
+        }
+    }
+
+    @Test
+    public void testFamilies() {
+        assumeTrue(new File(new SemanticDictionary().getWordNetFolder()).exists());
+        // the concepts of nouns and adverbs are in different hierarchies, so
+        // that their tokens are not compared, while nouns of one hierarchy
+        // are
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("http://example.org/dog", "label", "dog");
+        source.addTriple("http://example.org/quickly", "label", "quickly");
+        target.addTriple("http://example.org/cat", "label", "cat");
+        target.addTriple("http://example.org/slowly", "label", "slowly");
+        for (String measureName : new String[] { SemanticFactory.LCH, SemanticFactory.SHORTEST_PATH }) {
+            AEdgeCountingSemanticMeasure measure = createMeasure(measureName);
+            assertEquals(0d, measure.getSimilarity(source.getInstance("http://example.org/dog"),
+                    target.getInstance("http://example.org/slowly"), "label", "label"), 0d);
+            AMapping m = new EdgeCountingSemanticMapper().getMapping(source, target, "?x", "?y",
+                    measureName + "(x.label,y.label)", 0.01);
+            assertTrue(measureName, m.contains("http://example.org/dog", "http://example.org/cat"));
+            assertFalse(measureName, m.contains("http://example.org/dog", "http://example.org/slowly"));
+            assertFalse(measureName, m.contains("http://example.org/quickly", "http://example.org/cat"));
+            measure.close();
+        }
+    }
+
+    @Test
+    public void testPathsFile() throws IOException {
+        assumeTrue(new File(new SemanticDictionary().getWordNetFolder()).exists());
+        MemoryIndex index = new MemoryIndex();
+        index.preIndex();
+        File wordnet = new File(new SemanticDictionary().getWordNetFolder());
+        File paths = new File(wordnet, MemoryIndex.PATHS_FILE);
+        try (DataInputStream in = new DataInputStream(new FileInputStream(paths))) {
+            in.readInt();
+            assertEquals(MemoryIndex.getFingerprint(wordnet), in.readLong());
+        }
+        try {
+            // an index without fingerprint does not accept the file
+            new MemoryIndex().loadPaths(paths);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOutdatedPathsFile() throws IOException {
+        File paths = folder.newFile(MemoryIndex.PATHS_FILE);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(paths))) {
+            out.writeInt(0);
+            out.writeLong(0);
+        }
+        try {
+            new MemoryIndex().loadPaths(paths);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("outdated format"));
+        }
+    }
+
+    @Test
+    public void testMemos() {
+        MemoryIndex index = new MemoryIndex();
+        // the memos are shared by all measures of an index, the similarities
+        // per measure
+        assertSame(index.getTokenSynsets(), index.getTokenSynsets());
+        assertSame(index.getTokenSimilarities(SemanticFactory.LCH), index.getTokenSimilarities(SemanticFactory.LCH));
+        assertNotSame(index.getTokenSimilarities(SemanticFactory.LCH),
+                index.getTokenSimilarities(SemanticFactory.SHORTEST_PATH));
+        assertSame(index.getConceptSimilarities(SemanticFactory.LCH),
+                index.getConceptSimilarities(SemanticFactory.LCH));
+        assertNotSame(index.getConceptSimilarities(SemanticFactory.LCH),
+                index.getConceptSimilarities(SemanticFactory.SHORTEST_PATH));
+        assertNotSame(index.getTokenSynsets(), new MemoryIndex().getTokenSynsets());
+    }
+
+    @Test
+    public void testFingerprint() throws IOException {
+        File wordnet = folder.newFolder();
+        try (FileWriter writer = new FileWriter(new File(wordnet, "data.noun"))) {
+            writer.write("noun");
+        }
+        long fingerprint = MemoryIndex.getFingerprint(wordnet);
+        assertEquals(fingerprint, MemoryIndex.getFingerprint(wordnet));
+
+        // the paths file is not part of the fingerprint
+        new File(wordnet, MemoryIndex.PATHS_FILE).createNewFile();
+        assertEquals(fingerprint, MemoryIndex.getFingerprint(wordnet));
+
+        try (FileWriter writer = new FileWriter(new File(wordnet, "data.noun"), true)) {
+            writer.write("s");
+        }
+        assertNotEquals(fingerprint, MemoryIndex.getFingerprint(wordnet));
+        fingerprint = MemoryIndex.getFingerprint(wordnet);
+        new File(wordnet, "data.verb").createNewFile();
+        assertNotEquals(fingerprint, MemoryIndex.getFingerprint(wordnet));
+    }
+}
@@ -0,0 +1,120 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.measures.measure.space.EuclideanMeasure;
+import org.aksw.limes.core.measures.measure.space.ManhattanMeasure;
+import org.aksw.limes.core.measures.measure.space.ISpaceMeasure;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HR3MapperTest extends MapperTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        // few distinct values, so that some points are equal
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < getPartitionedSize(HR3Mapper.MIN_PARTITION_SIZE); i++) {
+            for (ACache cache : new ACache[] { source, target }) {
+                cache.addTriple("http://example.org/" + i, "x", String.valueOf(random.nextInt(100) / 4d - 10));
+                cache.addTriple("http://example.org/" + i, "y", String.valueOf(random.nextInt(100) / 4d));
+            }
+        }
+        // instances with values that are not numbers are not linked
+        source.addTriple("http://example.org/nan", "x", "one");
+        source.addTriple("http://example.org/nan", "y", "1");
+    }
+
+    private AMapping getMapping(String measure, ACache source, ACache target, double threshold) {
+        return new HR3Mapper().getMapping(source, target, "?x", "?y", measure + "(x.x|y,y.x|y)", threshold);
+    }
+
+    private void addPoint(ACache cache, String uri, double x, double y) {
+        cache.addTriple(uri, "x", String.valueOf(x));
+        cache.addTriple(uri, "y", String.valueOf(y));
+    }
+
+    @Test
+    public void testMinkowskiMeasures() {
+        ISpaceMeasure[] measures = { new EuclideanMeasure(), new ManhattanMeasure() };
+        for (ISpaceMeasure measure : measures) {
+            measure.setDimension(2);
+            assertOracle(measure.getName(), source, target, (s, t) -> measure.getSimilarity(s, t, "x|y", "x|y"),
+                    threshold -> getMapping(measure.getName(), source, target, threshold), 0.3, 0.8, 1.0);
+        }
+    }
+
+    /**
+     * Asserts that a source point is linked to all target points at a
+     * threshold equal to their similarity, and to none at the next higher
+     * threshold.
+     */
+    private void assertLinkedAt(String measure, ACache source, ACache target, double similarity) {
+        AMapping m = getMapping(measure, source, target, similarity);
+        assertEquals(measure, target.size(), m.size());
+        for (String uri : target.getAllUris()) {
+            assertEquals(measure + " " + uri, similarity, m.getConfidence("http://example.org/s", uri), 0d);
+        }
+        assertEquals(measure, 0, getMapping(measure, source, target, Math.nextUp(similarity)).size());
+    }
+
+    @Test
+    public void testManhattanDistanceAtThreshold() {
+        // the points have a distance of 3, i.e. the width of the cells, in
+        // all directions, and lie on the borders of the cells around zero
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        addPoint(source, "http://example.org/s", 0, 0);
+        addPoint(target, "http://example.org/east", 3, 0);
+        addPoint(target, "http://example.org/west", -3, 0);
+        addPoint(target, "http://example.org/north", 0, 3);
+        addPoint(target, "http://example.org/southWest", -1.5, -1.5);
+        addPoint(target, "http://example.org/northEast", 1, 2);
+        assertLinkedAt("manhattan", source, target, 0.25);
+    }
+
+    @Test
+    public void testEuclideanDistanceAtThreshold() {
+        // the points have a distance of 5 and are on both sides of zero
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        addPoint(source, "http://example.org/s", -1, -1);
+        addPoint(target, "http://example.org/northEast", 2, 3);
+        addPoint(target, "http://example.org/southWest", -4, -5);
+        addPoint(target, "http://example.org/east", 4, -1);
+        addPoint(target, "http://example.org/south", -1, -6);
+        assertLinkedAt("euclidean", source, target, 1d / 6d);
+    }
+
+    @Test
+    public void testValuesThatAreNotNumbers() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        addPoint(source, "http://example.org/s", 1, 1);
+        addPoint(source, "http://example.org/nan", Double.NaN, 1);
+        addPoint(target, "http://example.org/t", 1, 1);
+        addPoint(target, "http://example.org/nan", 1, Double.NaN);
+        // the other value of an instance with a value that is not a number
+        // is still indexed
+        target.addTriple("http://example.org/one", "x", "one");
+        target.addTriple("http://example.org/one", "x", "1");
+        target.addTriple("http://example.org/one", "y", "1");
+        for (String measure : new String[] { "euclidean", "manhattan" }) {
+            AMapping m = getMapping(measure, source, target, 0.1);
+            assertEquals(measure, 2, m.size());
+            assertEquals(1d, m.getConfidence("http://example.org/s", "http://example.org/t"), 0d);
+            assertEquals(1d, m.getConfidence("http://example.org/s", "http://example.org/one"), 0d);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.util.ComputeExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EDJoinMapperTest extends MapperTest {
+
+    private static final String LABEL = "label";
+    private static final String EXPRESSION = "levenshtein(x.label, y.label)";
+    private static final double THRESHOLD = 0.5;
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < getPartitionedSize(EDJoinMapper.MIN_PARTITION_SIZE); i++) {
+            String label = randomString(random);
+            source.addTriple("http://example.org/s" + i, LABEL, label);
+            target.addTriple("http://example.org/t" + i, LABEL,
+                    random.nextBoolean() ? label.substring(1) : randomString(random));
+        }
+        // values that are shorter than the q-grams
+        source.addTriple("http://example.org/s-short", LABEL, "ab");
+        target.addTriple("http://example.org/t-short", LABEL, "a");
+    }
+
+    private String randomString(Random random) {
+        // EdJoin only finds all links of values with more than q * tau
+        // q-grams, where tau is the distance threshold
+        char[] chars = new char[8 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private double similarity(Instance s, Instance t) {
+        return 1.0 / (1 + EDJoinMapper.editDistance(s.getProperty(LABEL).first(), t.getProperty(LABEL).first()));
+    }
+
+    @Test
+    public void testGetMapping() {
+        EDJoinMapper mapper = new EDJoinMapper();
+        assertOracle(mapper.getName(), source, target, this::similarity,
+                threshold -> mapper.getMapping(source, target, "?x", "?y", EXPRESSION, threshold), THRESHOLD);
+    }
+
+    @Test
+    public void testLinksAcrossPartitions() {
+        // the records are split into partitions by length and every source
+        // value is one character shorter than its target value, so that
+        // links cross the borders of the partitions
+        Random random = new Random(7);
+        ACache s = new MemoryCache();
+        ACache t = new MemoryCache();
+        int size = getPartitionedSize(EDJoinMapper.MIN_PARTITION_SIZE);
+        for (int i = 0; i < size; i++) {
+            String label = randomString(random);
+            s.addTriple("http://example.org/s" + i, LABEL, label);
+            t.addTriple("http://example.org/t" + i, LABEL, label + (char) ('a' + random.nextInt(26)));
+        }
+        AMapping mapping = new EDJoinMapper().getMapping(s, t, "?x", "?y", EXPRESSION, THRESHOLD);
+        for (int i = 0; i < size; i++) {
+            assertEquals(THRESHOLD, mapping.getConfidence("http://example.org/s" + i, "http://example.org/t" + i),
+                    0d);
+        }
+        assertEquals(size, mapping.size());
+    }
+
+    @Test
+    public void testSourcesAndTargets() {
+        // sources and targets are told apart by their record ids, not by
+        // their URIs, and equal sources are not linked to each other
+        ACache s = new MemoryCache();
+        ACache t = new MemoryCache();
+        s.addTriple("http://example.org/a", LABEL, "abcdefgh");
+        s.addTriple("http://example.org/b", LABEL, "abcdefgh");
+        t.addTriple("http://example.org/a", LABEL, "abcdefgh");
+        t.addTriple("http://example.org/c", LABEL, "abcdefghi");
+        t.addTriple("http://example.org/d", LABEL, "abcdefghi");
+        AMapping mapping = new EDJoinMapper().getMapping(s, t, "?x", "?y", EXPRESSION, THRESHOLD);
+        for (String source : new String[] { "http://example.org/a", "http://example.org/b" }) {
+            assertEquals(1d, mapping.getConfidence(source, "http://example.org/a"), 0d);
+            assertEquals(0.5d, mapping.getConfidence(source, "http://example.org/c"), 0d);
+            assertEquals(0.5d, mapping.getConfidence(source, "http://example.org/d"), 0d);
+        }
+        assertEquals(6, mapping.size());
+    }
+
+    @Test
+    public void testConcurrentGetMapping() {
+        AMapping expected = bruteForce(source, target, THRESHOLD, this::similarity);
+        EDJoinMapper mapper = new EDJoinMapper();
+        List<Callable<AMapping>> joins = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            joins.add(() -> mapper.getMapping(source, target, "?x", "?y", EXPRESSION, THRESHOLD));
+        }
+        for (AMapping mapping : ComputeExecutor.invokeAll(joins)) {
+            assertEquals(expected.getMap(), mapping.getMap());
+        }
+    }
+}
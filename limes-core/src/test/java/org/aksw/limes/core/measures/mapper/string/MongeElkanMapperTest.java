@@ -0,0 +1,63 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.measures.measure.string.MongeElkanMeasure;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.junit.Test;
+
+public class MongeElkanMapperTest extends MapperTest {
+
+    private Random random = new Random(42);
+
+    /**
+     * @return a value of one to four words of a small vocabulary, so that the
+     *         values share tokens, or in half of the cases a copy of one of
+     *         the similar values with one character replaced
+     */
+    private String generateValue(List<String> words, List<String> similar) {
+        if (similar != null && random.nextBoolean()) {
+            char[] chars = similar.get(random.nextInt(similar.size())).toCharArray();
+            int i = random.nextInt(chars.length);
+            if (chars[i] != ' ') {
+                chars[i] = (char) ('a' + random.nextInt(26));
+            }
+            return new String(chars);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            builder.append(words.get(random.nextInt(words.size())));
+            if (i > 0) {
+                builder.append(' ');
+            }
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testGetMapping() {
+        RandomStringGenerator rsg = new RandomStringGenerator(2, 10);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            words.add(rsg.generateString());
+        }
+        int size = getPartitionedSize(MongeElkanMapper.MIN_PARTITION_SIZE);
+        Map<String, Set<String>> s = generateValues(size, () -> generateValue(words, null));
+        List<String> similar = new ArrayList<>(s.keySet());
+        Map<String, Set<String>> t = generateValues(size, () -> generateValue(words, similar));
+        MongeElkanMapper mapper = new MongeElkanMapper();
+        for (double theta : new double[] { 0.3, 0.6, 0.9 }) {
+            AMapping m1 = mapper.getMapping(s, t, theta);
+            AMapping m2 = bruteForce(s, t, theta, new MongeElkanMeasure());
+            assertEquals(m2.getMap(), m1.getMap());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.measures.measure.string.RatcliffObershelpMeasure;
+import org.junit.Test;
+
+public class RatcliffObershelpMapperTest extends MapperTest {
+
+    private static final String[] WORDS = { "the", "The", "lord", "of", "rings", "ring", "return", "king", "kings",
+            "two", "towers", "tower", "a", "night", "at", "opera", "Opera", "" };
+
+    /**
+     * @return a title of one to four words of a small vocabulary, so that
+     *         titles share words or only differ in case
+     */
+    private String generateTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            title.append(WORDS[random.nextInt(WORDS.length)]).append(i > 0 ? " " : "");
+        }
+        return title.toString();
+    }
+
+    @Test
+    public void testGetMapping() {
+        Random random = new Random(42);
+        int size = getPartitionedSize(RatcliffObershelpMapper.MIN_PARTITION_SIZE);
+        Map<String, Set<String>> s = generateValues(size, () -> generateTitle(random));
+        Map<String, Set<String>> t = generateValues(size, () -> generateTitle(random));
+        RatcliffObershelpMapper mapper = new RatcliffObershelpMapper();
+        RatcliffObershelpMeasure measure = new RatcliffObershelpMeasure();
+        assertOracle(mapper.getName(), s, t, measure::getSimilarity, threshold -> mapper.getMapping(s, t, threshold),
+                0.5, 0.8, 1.0);
+    }
+
+    private Map<String, Set<String>> getValues(String... values) {
+        Map<String, Set<String>> map = new HashMap<>();
+        for (String value : values) {
+            map.put(value, Collections.singleton(value));
+        }
+        return map;
+    }
+
+    /**
+     * Asserts that two values are linked at a threshold equal to their
+     * similarity, but not at the next higher threshold.
+     */
+    private void assertLinkedAt(String s, String t, double similarity) {
+        RatcliffObershelpMapper mapper = new RatcliffObershelpMapper();
+        assertEquals(similarity, new RatcliffObershelpMeasure().proximity(s, t), 0d);
+        AMapping m = mapper.getMapping(getValues(s), getValues(t), similarity);
+        assertEquals(1, m.size());
+        assertEquals(similarity, m.getConfidence(s, t), 0d);
+        assertEquals(0, mapper.getMapping(getValues(s), getValues(t), Math.nextUp(similarity)).size());
+    }
+
+    @Test
+    public void testLengthBound() {
+        // all characters of the shorter value match, so that the similarity
+        // is equal to the bound of the lengths
+        assertLinkedAt("abcd", "ab", 4d / 6d);
+        assertLinkedAt("ab", "abcd", 4d / 6d);
+        assertLinkedAt("xabcdx", "abcd", 8d / 10d);
+    }
+
+    @Test
+    public void testCharacterBound() {
+        // all common characters match, so that the similarity is equal to the
+        // bound of the character bags
+        assertLinkedAt("abcx", "abcy", 6d / 8d);
+        assertLinkedAt("xyzab", "abuvw", 4d / 10d);
+        // no common characters
+        assertEquals(0, new RatcliffObershelpMapper().getMapping(getValues("abcd"), getValues("efgh"), Double.MIN_VALUE)
+                .size());
+    }
+
+    @Test
+    public void testCase() {
+        // the values are compared in lower case, and values that only differ
+        // in case keep their own links
+        Map<String, Set<String>> s = getValues("The Ring", "the ring");
+        Map<String, Set<String>> t = getValues("THE RING", "the rings");
+        AMapping m = new RatcliffObershelpMapper().getMapping(s, t, 0.9);
+        assertEquals(4, m.size());
+        for (String source : s.keySet()) {
+            assertEquals(1d, m.getConfidence(source, "THE RING"), 0d);
+            assertEquals(16d / 17d, m.getConfidence(source, "the rings"), 0d);
+        }
+    }
+
+    @Test
+    public void testEmptyValues() {
+        // empty values are not similar to any value, not even to each other
+        Map<String, Set<String>> values = getValues("", "a", "abc");
+        AMapping m = new RatcliffObershelpMapper().getMapping(values, values, Double.MIN_VALUE);
+        assertEquals(4, m.size());
+        assertEquals(1d, m.getConfidence("a", "a"), 0d);
+        assertEquals(1d, m.getConfidence("abc", "abc"), 0d);
+        assertEquals(0.5d, m.getConfidence("a", "abc"), 0d);
+        assertEquals(0.5d, m.getConfidence("abc", "a"), 0d);
+    }
+
+    @Test
+    public void testProximity() {
+        RatcliffObershelpMeasure measure = new RatcliffObershelpMeasure();
+        // WIKIMEDIA and WIKIMANIA match in WIKIM and IA
+        assertEquals(14d / 18d, measure.proximity("WIKIMEDIA", "wikimania"), 0d);
+        // the longest common substring is matched first
+        assertEquals(8d / 13d, measure.proximity("abcdxbcde", "bcde"), 0d);
+        assertEquals(0d, measure.proximity("abc", ""), 0d);
+    }
+}
@@ -0,0 +1,84 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.junit.Test;
+
+public class FastNGramMapperTest extends MapperTest {
+
+    private Random random = new Random(42);
+
+    private String randomString() {
+        char[] chars = new char[3 + random.nextInt(9)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    @Test
+    public void testCompute() {
+        Map<String, Set<String>> source = generateValues(getPartitionedSize(FastNGramMapper.MIN_PARTITION_SIZE),
+                this::randomString);
+        List<String> values = new ArrayList<>(source.keySet());
+        Map<String, Set<String>> target = generateValues(source.size(), () -> random.nextBoolean()
+                ? values.get(random.nextInt(values.size())).substring(1) : randomString());
+        source.put("", new HashSet<>(Arrays.asList("")));
+        target.put("", new HashSet<>(Arrays.asList("")));
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure();
+        assertOracle("FastNGram", source, target, measure::getSimilarity,
+                threshold -> FastNGramMapper.compute(source.keySet(), target.keySet(), 3, threshold), 0.3, 0.6, 0.9);
+    }
+
+    @Test
+    public void testBounds() {
+        // the similarity of each pair is the threshold, so that the pair is
+        // at the bounds of the candidate sizes and of the count filter. The
+        // tokens of a substring are mostly a subset of the tokens of the
+        // string, then the similarity is the ratio of their sizes.
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure();
+        for (int i = 0; i < 1000; i++) {
+            String s = randomString();
+            int from = random.nextInt(s.length());
+            String t = s.substring(from, from + 1 + random.nextInt(s.length() - from));
+            double similarity = measure.getSimilarity(s, t);
+            AMapping m = FastNGramMapper.compute(Collections.singleton(s), Collections.singleton(t), 3, similarity);
+            assertEquals(s + " " + t, similarity, m.getConfidence(s, t), 0d);
+            m = FastNGramMapper.compute(Collections.singleton(t), Collections.singleton(s), 3, similarity);
+            assertEquals(t + " " + s, similarity, m.getConfidence(t, s), 0d);
+        }
+    }
+
+    @Test
+    public void testIndex() {
+        NGramIndex index = new NGramIndex(Arrays.asList("abcd", "ab", "abc"), 3);
+        assertEquals(3, index.size());
+        // ids are ordered by the number of trigrams
+        assertEquals("ab", index.getString(0));
+        assertEquals("abc", index.getString(1));
+        assertEquals("abcd", index.getString(2));
+        assertEquals(6, index.getSize(2));
+        assertEquals(1, index.getFirstIdOfSize(5));
+        assertEquals(3, index.getFirstIdOfSize(7));
+        // "bcd", "cd " and "d  " are only in abcd, the other trigrams of bcd
+        // are not indexed
+        int[] tokens = index.getTokenIds(new NGramTokenizer().tokenize("bcd", 3));
+        assertEquals(3, tokens.length);
+        for (int token : tokens) {
+            assertEquals(1, index.getPostings(token).length);
+            assertEquals(2, index.getPostings(token)[0]);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperTest;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.AfterMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.BeforeMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.DuringMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.DuringReverseMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.EqualsMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.FinishesMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsFinishedByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsMetByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsOverlappedByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsStartedByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.MeetsMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.OverlapsMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.StartsMapper;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AllenRelationTest extends MapperTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        // few distinct dates, so that events share dates
+        Random random = new Random(42);
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < getPartitionedSize(AllenAlgebraMapper.MIN_PARTITION_SIZE); i++) {
+            for (ACache cache : new ACache[] { source, target }) {
+                long begin = 1432102864000L + 60000L * random.nextInt(60);
+                long end = begin + 60000L * random.nextInt(10);
+                cache.addTriple("http://example.org/" + i, "b", df.format(new Date(begin)));
+                cache.addTriple("http://example.org/" + i, "e", df.format(new Date(end)));
+            }
+        }
+        // events without end date are not related
+        source.addTriple("http://example.org/noEnd", "b", "2015-05-20T08:21:04+02:00");
+    }
+
+    /**
+     * Conditions of the Allen's temporal measures on the begin and end dates
+     * of two events.
+     */
+    private interface Condition {
+        boolean holds(long b1, long e1, long b2, long e2);
+    }
+
+    private long getEpoch(Instance instance, String property) throws ParseException {
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX").parse(instance.getProperty(property).first())
+                .getTime();
+    }
+
+    /**
+     * @return the begin and end dates of all events with an end date
+     */
+    private Map<String, long[]> getIntervals(ACache cache) throws ParseException {
+        Map<String, long[]> intervals = new HashMap<>();
+        for (Instance i : cache.getAllInstances()) {
+            if (!i.getProperty("e").isEmpty()) {
+                intervals.put(i.getUri(), new long[] { getEpoch(i, "b"), getEpoch(i, "e") });
+            }
+        }
+        return intervals;
+    }
+
+    private AMapping bruteForce(Condition condition) throws ParseException {
+        Map<String, long[]> sourceIntervals = getIntervals(source);
+        Map<String, long[]> targetIntervals = getIntervals(target);
+        return bruteForce(source, target, 1, (s, t) -> {
+            long[] i1 = sourceIntervals.get(s.getUri());
+            long[] i2 = targetIntervals.get(t.getUri());
+            return i1 != null && i2 != null && condition.holds(i1[0], i1[1], i2[0], i2[1]) ? 1 : 0;
+        });
+    }
+
+    private void check(AllenAlgebraMapper mapper, String measure, Condition condition) throws ParseException {
+        AMapping expected = bruteForce(condition);
+        AMapping m = mapper.getMapping(source, target, "?x", "?y", measure + "(x.b|e,y.b|e)", 1.0);
+        assertTrue(mapper.getName(), expected.size() > 0);
+        assertEquals(mapper.getName(), expected.getMap(), m.getMap());
+    }
+
+    @Test
+    public void testRelations() throws ParseException {
+        check(new AfterMapper(), MeasureFactory.TMP_AFTER, (b1, e1, b2, e2) -> b1 > e2);
+        check(new BeforeMapper(), MeasureFactory.TMP_BEFORE, (b1, e1, b2, e2) -> e1 < b2);
+        check(new DuringMapper(), MeasureFactory.TMP_DURING, (b1, e1, b2, e2) -> e1 < e2 && b1 > b2);
+        check(new DuringReverseMapper(), MeasureFactory.TMP_DURING_REVERSE, (b1, e1, b2, e2) -> e1 > e2 && b1 < b2);
+        check(new EqualsMapper(), MeasureFactory.TMP_EQUALS, (b1, e1, b2, e2) -> e1 == e2 && b1 == b2);
+        check(new FinishesMapper(), MeasureFactory.TMP_FINISHES, (b1, e1, b2, e2) -> e1 == e2 && b1 > b2);
+        check(new IsFinishedByMapper(), MeasureFactory.TMP_IS_FINISHED_BY, (b1, e1, b2, e2) -> e1 == e2 && b1 < b2);
+        check(new IsMetByMapper(), MeasureFactory.TMP_IS_MET_BY, (b1, e1, b2, e2) -> b1 == e2);
+        check(new IsOverlappedByMapper(), MeasureFactory.TMP_IS_OVERLAPPED_BY, (b1, e1, b2, e2) -> b1 < e2 && b1 > b2 && e1 > e2);
+        check(new IsStartedByMapper(), MeasureFactory.TMP_IS_STARTED_BY, (b1, e1, b2, e2) -> e1 > e2 && b1 == b2);
+        check(new MeetsMapper(), MeasureFactory.TMP_MEETS, (b1, e1, b2, e2) -> e1 == b2);
+        check(new OverlapsMapper(), MeasureFactory.TMP_OVERLAPS, (b1, e1, b2, e2) -> b1 < b2 && e1 < e2 && e1 > b2);
+        check(new StartsMapper(), MeasureFactory.TMP_STARTS, (b1, e1, b2, e2) -> e1 < e2 && b1 == b2);
+    }
+}
@@ -1,12 +1,27 @@
 package org.aksw.limes.core.measures.mapper.topology;
 
 import static org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper.getPoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashSet;
-
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.IntersectionMatrix;
 
 public class RADONTest {
 
@@ -62,4 +77,148 @@ public class RADONTest {
 
     }
 
+    /**
+     * Adds rectangles with integer corners, so that some of them touch or are
+     * equal. Most are small, some span several squares of the grid.
+     */
+    private void addRectangles(ACache cache, String prefix, Random random) {
+        for (int i = 0; i < 60; i++) {
+            int x = random.nextInt(50);
+            int y = random.nextInt(50);
+            int size = i % 10 == 0 ? 10 + random.nextInt(20) : 1 + random.nextInt(3);
+            int width = 1 + random.nextInt(size);
+            int height = 1 + random.nextInt(size);
+            cache.addTriple(prefix + i, "asWKT", "POLYGON ((" + x + " " + y + ", " + (x + width) + " " + y + ", "
+                    + (x + width) + " " + (y + height) + ", " + x + " " + (y + height) + ", " + x + " " + y + "))");
+        }
+    }
+
+    /**
+     * @return the links of all pairs of geometries that are in the relation,
+     *         according to their JTS intersection matrix
+     */
+    private AMapping bruteForce(Map<String, Geometry> source, Map<String, Geometry> target, String relation) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (Entry<String, Geometry> s : source.entrySet()) {
+            for (Entry<String, Geometry> t : target.entrySet()) {
+                IntersectionMatrix matrix = s.getValue().relate(t.getValue());
+                int dimensionS = s.getValue().getDimension();
+                int dimensionT = t.getValue().getDimension();
+                boolean related;
+                switch (relation) {
+                case RADON.EQUALS:
+                    related = matrix.isEquals(dimensionS, dimensionT);
+                    break;
+                case RADON.DISJOINT:
+                    related = matrix.isDisjoint();
+                    break;
+                case RADON.INTERSECTS:
+                    related = matrix.isIntersects();
+                    break;
+                case RADON.TOUCHES:
+                    related = matrix.isTouches(dimensionS, dimensionT);
+                    break;
+                case RADON.CROSSES:
+                    related = matrix.isCrosses(dimensionS, dimensionT);
+                    break;
+                case RADON.WITHIN:
+                    related = matrix.isWithin();
+                    break;
+                case RADON.CONTAINS:
+                    related = matrix.isContains();
+                    break;
+                case RADON.COVERS:
+                    related = matrix.isCovers();
+                    break;
+                case RADON.COVEREDBY:
+                    related = matrix.isCoveredBy();
+                    break;
+                default:
+                    related = matrix.isOverlaps(dimensionS, dimensionT);
+                }
+                if (related) {
+                    m.add(s.getKey(), t.getKey(), 1.0d);
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testSwapDecision() {
+        Random random = new Random(7);
+        ACache small = new MemoryCache();
+        ACache large = new MemoryCache();
+        addRectangles(small, "http://test.com/s/#", random);
+        for (int i = 0; i < 20; i++) {
+            int x = random.nextInt(40);
+            int y = random.nextInt(40);
+            large.addTriple("http://test.com/l/#" + i, "asWKT", "POLYGON ((" + x + " " + y + ", " + (x + 15) + " " + y
+                    + ", " + (x + 15) + " " + (y + 15) + ", " + x + " " + (y + 15) + ", " + x + " " + y + "))");
+        }
+        Map<String, Geometry> smallMap = RADON.getGeometryMapFromCache(small, "asWKT");
+        Map<String, Geometry> largeMap = RADON.getGeometryMapFromCache(large, "asWKT");
+        RADON.GridSizeHeuristics smallHeuristics = new RADON.GridSizeHeuristics(smallMap.values());
+        RADON.GridSizeHeuristics largeHeuristics = new RADON.GridSizeHeuristics(largeMap.values());
+        for (String measure : new String[] { RADON.GridSizeHeuristics.AVG, RADON.GridSizeHeuristics.MAX }) {
+            RADON.Theta theta = RADON.GridSizeHeuristics.decideForTheta(largeHeuristics, smallHeuristics, measure);
+            RADON.Theta reversed = RADON.GridSizeHeuristics.decideForTheta(smallHeuristics, largeHeuristics, measure);
+            assertTrue(measure, theta.swap);
+            assertFalse(measure, reversed.swap);
+            assertEquals(theta.x, reversed.x, 0d);
+            assertEquals(theta.y, reversed.y, 0d);
+        }
+
+        // atoms that swap and atoms that do not swap run concurrently
+        AMapping contains = bruteForce(largeMap, smallMap, RADON.CONTAINS);
+        AMapping within = bruteForce(smallMap, largeMap, RADON.WITHIN);
+        assertTrue(contains.size() > 0);
+        IntStream.range(0, 32).parallel().forEach(i -> {
+            if (i % 2 == 0) {
+                assertEquals(contains.getMap(), RADON.getMapping(largeMap, smallMap, RADON.CONTAINS).getMap());
+            } else {
+                assertEquals(within.getMap(), RADON.getMapping(smallMap, largeMap, RADON.WITHIN).getMap());
+            }
+        });
+    }
+
+    @Test
+    public void testGeometryCache() {
+        Random random = new Random(42);
+        ACache s = new MemoryCache();
+        ACache t = new MemoryCache();
+        addRectangles(s, "http://test.com/s/#", random);
+        addRectangles(t, "http://test.com/t/#", random);
+        // equal, touching and overlapping geometries
+        for (int i = 0; i < 5; i++) {
+            t.addTriple("http://test.com/t/#s" + i, "asWKT",
+                    s.getInstance("http://test.com/s/#" + i).getProperty("asWKT").first());
+        }
+        s.addTriple("http://test.com/s/#a", "asWKT", "POLYGON ((100 100, 102 100, 102 102, 100 102, 100 100))");
+        t.addTriple("http://test.com/t/#a", "asWKT", "POLYGON ((102 100, 104 100, 104 102, 102 102, 102 100))");
+        t.addTriple("http://test.com/t/#b", "asWKT", "POLYGON ((101 101, 103 101, 103 103, 101 103, 101 101))");
+
+        RADON.Geometries geometries = RADON.getGeometries(s, "asWKT");
+        // the geometries are parsed once
+        assertSame(geometries, RADON.getGeometries(s, "asWKT"));
+        Map<String, Geometry> source = RADON.getGeometryMapFromCache(s, "asWKT");
+        Map<String, Geometry> target = RADON.getGeometryMapFromCache(t, "asWKT");
+        for (String relation : new String[] { RADON.EQUALS, RADON.DISJOINT, RADON.INTERSECTS, RADON.TOUCHES,
+                RADON.CROSSES, RADON.WITHIN, RADON.CONTAINS, RADON.OVERLAPS, RADON.COVERS, RADON.COVEREDBY }) {
+            AMapping expected = bruteForce(source, target, relation);
+            if (!relation.equals(RADON.CROSSES)) {
+                assertTrue(relation, expected.size() > 0);
+            }
+            assertEquals(relation, expected.getMap(), RADON.getMapping(source, target, relation).getMap());
+            assertEquals(relation, expected.getMap(), RADON
+                    .getMapping(s, t, "?x", "?y", "top_" + relation + "(x.asWKT, y.asWKT)", 1.0d, relation).getMap());
+        }
+
+        // and again when the values change
+        s.addTriple("http://test.com/s/#b", "asWKT", "POLYGON ((20 20, 20 30, 30 30, 30 20, 20 20))");
+        RADON.Geometries changed = RADON.getGeometries(s, "asWKT");
+        assertNotSame(geometries, changed);
+        assertEquals(source.size() + 1, changed.getGeometries().size());
+    }
+
 }
@@ -0,0 +1,76 @@
+package org.aksw.limes.core.measures.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "pub", "test");
+        source.addTriple("S1", "conf", "conf one");
+        source.addTriple("S2", "pub", "test2");
+        source.addTriple("S2", "conf", "conf2");
+
+        target.addTriple("S1", "pub", "test");
+        target.addTriple("S1", "conf", "conf one");
+        target.addTriple("S3", "pub", "test1");
+        target.addTriple("S3", "conf", "conf three");
+    }
+
+    @Test
+    public void testSameAsMeasureProcessor() {
+        String[] expressions = { "trigram(x.conf, y.conf)", "ADD(0.5*trigram(x.conf, y.conf),0.5*cosine(y.conf, x.conf))",
+                "AND(jaccard(x.pub,y.pub)|0.4,overlap(x.conf,y.conf)|0.4)",
+                "OR(levenshtein(x.pub,y.pub)|0.5,qgrams(x.conf,y.conf)|0.7)",
+                "MINUS(trigram(x.conf,y.conf)|0.3,exactmatch(x.pub,y.pub)|0.5)" };
+        for (String expression : expressions) {
+            CompiledExpression compiled = CompiledExpression.compile(expression, 0.3, "?x", "?y");
+            for (Instance s : source.getAllInstances()) {
+                for (Instance t : target.getAllInstances()) {
+                    assertEquals(MeasureProcessor.getSimilarity(s, t, expression, 0.3, "?x", "?y"),
+                            compiled.getSimilarity(s, t), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAtomic() {
+        CompiledExpression compiled = CompiledExpression.compile("exactmatch(x.pub, y.pub)", 0.5, "?x", "?y");
+        assertEquals(1.0, compiled.getSimilarity(source.getInstance("S1"), target.getInstance("S1")), 0.0);
+        assertEquals(0.0, compiled.getSimilarity(source.getInstance("S2"), target.getInstance("S3")), 0.0);
+    }
+
+    @Test
+    public void testSameAsMeasure() {
+        String[] measures = { "trigram", "cosine", "jaccard", "overlap", "levenshtein", "exactmatch" };
+        for (String name : measures) {
+            AMeasure measure = MeasureFactory.createMeasure(MeasureFactory.getMeasureType(name));
+            CompiledExpression compiled = CompiledExpression.compile(name + "(x.conf, y.conf)", 0.3, "?x", "?y");
+            for (Instance s : source.getAllInstances()) {
+                for (Instance t : target.getAllInstances()) {
+                    double similarity = measure.getSimilarity(s, t, "conf", "conf");
+                    assertEquals(name, similarity >= 0.3 ? similarity : 0, compiled.getSimilarity(s, t), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        CompiledExpression compiled = CompiledExpression.compile("trigram(x.pub, y.pub)", -0.5, "?x", "?y");
+        assertTrue(compiled.getSimilarity(source.getInstance("S1"), target.getInstance("S1")) == 0.0);
+    }
+}
@@ -19,6 +19,7 @@ import org.aksw.limes.core.ml.algorithm.SupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.UnsupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.WombatComplete;
 import org.aksw.limes.core.ml.algorithm.eagle.util.PropertyMapping;
+import org.aksw.limes.core.ml.algorithm.wombat.AWombat;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -81,6 +82,23 @@ public class WombatCompleteTest {
         assert (resultMap.equals(refMap));
     }
 
+    @Test
+    public void testSupervisedBatchLazyMapping() throws UnsupportedMLImplementationException {
+        SupervisedMLAlgorithm wombatComplete = null;
+        try {
+            wombatComplete = MLAlgorithmFactory.createMLAlgorithm(WombatComplete.class,
+                    MLImplementationType.SUPERVISED_BATCH).asSupervised();
+        } catch (UnsupportedMLImplementationException e) {
+            e.printStackTrace();
+            fail();
+        }
+        wombatComplete.init(null, sc, tc);
+        wombatComplete.setParameter(AWombat.PARAMETER_LAZY_MAPPING, true);
+        MLResults mlModel = wombatComplete.learn(trainingMap);
+        AMapping resultMap = wombatComplete.predict(sc, tc, mlModel);
+        assert (resultMap.equals(refMap));
+    }
+
 
     @Test
     public void testUnsupervised() throws UnsupportedMLImplementationException {
@@ -20,6 +20,7 @@ import org.aksw.limes.core.ml.algorithm.SupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.UnsupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.WombatSimple;
 import org.aksw.limes.core.ml.algorithm.eagle.util.PropertyMapping;
+import org.aksw.limes.core.ml.algorithm.wombat.AWombat;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -82,6 +83,23 @@ public class WombatSimpleTest {
         assert (resultMap.equals(refMap));  
     }
 
+    @Test
+    public void testSupervisedBatchLazyMapping() throws UnsupportedMLImplementationException {
+        SupervisedMLAlgorithm wombatSimple = null;
+        try {
+            wombatSimple = MLAlgorithmFactory.createMLAlgorithm(WombatSimple.class,
+                    MLImplementationType.SUPERVISED_BATCH).asSupervised();
+        } catch (UnsupportedMLImplementationException e) {
+            e.printStackTrace();
+            fail();
+        }
+        wombatSimple.init(null, sc, tc);
+        wombatSimple.setParameter(AWombat.PARAMETER_LAZY_MAPPING, true);
+        MLResults mlModel = wombatSimple.learn(trainingMap);
+        AMapping resultMap = wombatSimple.predict(sc, tc, mlModel);
+        assert (resultMap.equals(refMap));
+    }
+
 
     @Test
     public void testUnsupervised() throws UnsupportedMLImplementationException {
@@ -0,0 +1,146 @@
+package org.aksw.limes.core.ml.algorithm.eagle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpecificationMemoTest {
+
+    private static final String[] SPECS = { "trigrams(x.name,y.name)|0.5",
+            "AND(trigrams(x.name,y.name)|0.5,jaccard(x.surname,y.surname)|0.3)|0.4",
+            "OR(trigrams(x.name,y.name)|0.5,jaccard(x.surname,y.surname)|0.3)|0.4",
+            "MINUS(trigrams(x.name,y.name)|0.5,jaccard(x.surname,y.surname)|0.3)|0.4",
+            "XOR(trigrams(x.name,y.name)|0.5,jaccard(x.surname,y.surname)|0.3)|0.6",
+            "OR(AND(trigrams(x.name,y.name)|0.5,jaccard(x.surname,y.surname)|0.3)|0.4,"
+                    + "trigrams(x.surname,y.surname)|0.7)|0.5" };
+
+    private ACache source;
+    private ACache target;
+    private AtomicInteger runs;
+    private AtomicInteger unions;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        String[] names = { "kleanthi", "lukas", "johny", "taylor", "ole", "klea", "luka", "johnny", "tailor" };
+        String[] surnames = { "georgala", "sandra", "depp", "swift", "paok", "georg", "sandro", "derp", "swifty" };
+        for (int i = 0; i < names.length; i++) {
+            source.addTriple("S" + i, "name", names[i]);
+            source.addTriple("S" + i, "surname", surnames[i]);
+            target.addTriple("T" + i, "name", names[(i + 4) % names.length]);
+            target.addTriple("T" + i, "surname", surnames[(i + 4) % names.length]);
+        }
+        runs = new AtomicInteger();
+        unions = new AtomicInteger();
+    }
+
+    private SimpleExecutionEngine getEngine() {
+        return new SimpleExecutionEngine(source, target, "?x", "?y") {
+            @Override
+            public AMapping executeRun(Instruction inst) {
+                runs.incrementAndGet();
+                return super.executeRun(inst);
+            }
+
+            @Override
+            public AMapping executeUnion(AMapping m1, AMapping m2) {
+                unions.incrementAndGet();
+                return super.executeUnion(m1, m2);
+            }
+        };
+    }
+
+    @Test
+    public void testGetMapping() {
+        SpecificationMemo memo = new SpecificationMemo(1000000, 1000000);
+        for (String spec : SPECS) {
+            String[] parts = { spec.substring(0, spec.lastIndexOf('|')), spec.substring(spec.lastIndexOf('|') + 1) };
+            LinkSpecification ls = new LinkSpecification(parts[0], Double.parseDouble(parts[1]));
+            AMapping expected = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new CanonicalPlanner());
+            assertEquals(spec, expected.getMap(), memo.getMapping(ls, getEngine()).getMap());
+        }
+        // each of the three atoms is run once
+        assertEquals(3, runs.get());
+        assertTrue(memo.getHits() > 0);
+
+        // a specification that was seen before is not executed again
+        long misses = memo.getMisses();
+        LinkSpecification ls = new LinkSpecification(
+                "AND(trigrams(x.name,y.name)|0.5,jaccard(x.surname,y.surname)|0.3)", 0.4);
+        memo.getMapping(ls, getEngine());
+        assertEquals(misses, memo.getMisses());
+    }
+
+    @Test
+    public void testBudget() {
+        LinkSpecification ls = new LinkSpecification(
+                "OR(trigrams(x.name,y.name)|0.1,jaccard(x.surname,y.surname)|0.1)", 0.1);
+        int size = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls, new CanonicalPlanner()).size();
+        assertTrue(size > 1);
+        // the candidate is aborted, and so is every specification that
+        // contains it
+        SpecificationMemo memo = new SpecificationMemo(1000000, size - 1);
+        assertNull(memo.getMapping(ls, getEngine()));
+        LinkSpecification parent = new LinkSpecification("AND(OR(trigrams(x.name,y.name)|0.1,"
+                + "jaccard(x.surname,y.surname)|0.1)|0.1,trigrams(x.surname,y.surname)|0.1)", 0.1);
+        assertNull(memo.getMapping(parent, getEngine()));
+    }
+
+    @Test
+    public void testAtomBudget() {
+        for (int i = 0; i < 9; i++) {
+            source.addTriple("S" + i, "type", "person");
+            target.addTriple("T" + i, "type", "person");
+        }
+        // all 81 pairs are links, which is estimated from a sample of two
+        // source instances
+        LinkSpecification ls = new LinkSpecification("exactmatch(x.type,y.type)", 1.0);
+        assertNull(new SpecificationMemo(1000000, 20).getMapping(ls, getEngine()));
+        assertEquals(0, runs.get());
+        assertEquals(81, new SpecificationMemo(1000000, 81).getMapping(ls, getEngine()).size());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testUnionBudget() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 20; i++) {
+            source.addTriple("S" + i, "parity", "" + i % 2);
+            source.addTriple("S" + i, "half", "" + i / 10);
+            target.addTriple("T" + i, "parity", "" + i % 2);
+            target.addTriple("T" + i, "half", "" + i / 10);
+        }
+        // each atom has 200 of the 400 pairs as links, and their union 300
+        LinkSpecification ls = new LinkSpecification(
+                "OR(exactmatch(x.parity,y.parity)|1.0,exactmatch(x.half,y.half)|1.0)", 1.0);
+        assertNull(new SpecificationMemo(1000000, 250).getMapping(ls, getEngine()));
+        assertEquals(2, runs.get());
+        assertEquals(0, unions.get());
+        assertEquals(300, new SpecificationMemo(1000000, 300).getMapping(ls, getEngine()).size());
+    }
+
+    @Test
+    public void testEviction() {
+        SpecificationMemo memo = new SpecificationMemo(0, 1000000);
+        LinkSpecification ls = new LinkSpecification("trigrams(x.name,y.name)", 0.5);
+        memo.getMapping(ls, getEngine());
+        memo.getMapping(ls, getEngine());
+        assertEquals(0, memo.getLinks());
+        assertEquals(2, memo.getMisses());
+    }
+}
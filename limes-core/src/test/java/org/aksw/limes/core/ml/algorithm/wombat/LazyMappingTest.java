@@ -0,0 +1,75 @@
+package org.aksw.limes.core.ml.algorithm.wombat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.junit.Test;
+
+public class LazyMappingTest {
+
+    private AMapping createMapping(Random random) {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 100; i++) {
+            // links with confidence 0 are not positive
+            mapping.add("http://example.org/s" + random.nextInt(20), "http://example.org/t" + random.nextInt(20),
+                    random.nextInt(5) * 0.25);
+        }
+        return mapping;
+    }
+
+    @Test
+    public void testLazyMapping() {
+        Random random = new Random(42);
+        AMapping left = createMapping(random);
+        AMapping right = createMapping(random);
+        AMapping reference = createMapping(random);
+        double rMax = 0.8;
+
+        AMapping[] expected = { MappingOperations.intersection(left, right), MappingOperations.union(left, right),
+                MappingOperations.difference(left, right) };
+        LogicOperator[] operators = { LogicOperator.AND, LogicOperator.OR, LogicOperator.MINUS };
+        for (int i = 0; i < operators.length; i++) {
+            LazyMapping lazyMapping = new LazyMapping(operators[i], left, right);
+            assertEquals(expected[i], lazyMapping.materialize());
+            for (double beta : new double[] { 1d, 0.5d }) {
+                assertEquals(operators[i] + " " + beta,
+                        new FMeasure().calculate(expected[i], new GoldStandard(reference), beta),
+                        lazyMapping.getFMeasure(reference, beta), 0d);
+                ExtendedRefinementNode node = new ExtendedRefinementNode(0d, expected[i], "", reference, beta, rMax);
+                ExtendedRefinementNode lazyNode = new ExtendedRefinementNode(0d, lazyMapping, "", reference, beta,
+                        rMax);
+                assertEquals(node.getMaxFMeasure(), lazyNode.getMaxFMeasure(), 0d);
+            }
+        }
+
+        // an empty mapping has the F-measure 0
+        assertEquals(0d, new LazyMapping(LogicOperator.MINUS, left, left).getFMeasure(reference, 1d), 0d);
+    }
+
+    @Test
+    public void testMaterializeMapping() {
+        Random random = new Random(7);
+        AMapping left = createMapping(random);
+        AMapping right = createMapping(random);
+        RefinementNode node = new RefinementNode(0d, new LazyMapping(LogicOperator.OR, left, right), "");
+        AMapping m = node.getMapping();
+        assertEquals(MappingOperations.union(left, right), m);
+        // requesting the mapping keeps the node lazy
+        assertNotNull(node.getLazyMapping());
+        node.materializeMapping();
+        assertNull(node.getLazyMapping());
+        assertEquals(m, node.getMapping());
+        // the materialized mapping is kept
+        assertSame(node.getMapping(), node.getMapping());
+    }
+}
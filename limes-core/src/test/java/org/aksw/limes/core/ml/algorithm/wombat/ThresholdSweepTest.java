@@ -0,0 +1,54 @@
+package org.aksw.limes.core.ml.algorithm.wombat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.junit.Test;
+
+public class ThresholdSweepTest {
+
+    @Test
+    public void testGetFMeasures() {
+        Random random = new Random(42);
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        AMapping reference = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 200; i++) {
+            String s = "http://example.org/s" + random.nextInt(50);
+            String t = "http://example.org/t" + random.nextInt(50);
+            // confidences on a coarse grid, so that links share confidences
+            // and thresholds
+            mapping.add(s, t, 0.4 + random.nextInt(13) * 0.05);
+            if (random.nextInt(3) == 0) {
+                reference.add(s, t, 1d);
+            }
+            if (random.nextInt(4) == 0) {
+                reference.add(t, s, 1d);
+            }
+        }
+        // a link of the reference with confidence 0 is not correct
+        reference.add("http://example.org/s0", "http://example.org/t0", 0d);
+        mapping.add("http://example.org/s0", "http://example.org/t0", 1d);
+
+        double[] thresholds = new double[20];
+        thresholds[0] = 1d;
+        for (int i = 1; i < thresholds.length; i++) {
+            thresholds[i] = thresholds[i - 1] * 0.95;
+        }
+        thresholds[5] = 0.8;
+        for (double beta : new double[] { 1d, 0.5d }) {
+            double[] fMeasures = ThresholdSweep.getFMeasures(mapping, reference, thresholds, beta);
+            for (int i = 0; i < thresholds.length; i++) {
+                double expected = new FMeasure().calculate(mapping.getSubMap(thresholds[i]),
+                        new GoldStandard(reference), beta);
+                assertEquals("threshold " + thresholds[i], expected, fMeasures[i], 0d);
+            }
+        }
+        assertEquals(0d, ThresholdSweep.getFMeasures(MappingFactory.createDefaultMapping(), reference,
+                thresholds, 1d)[0], 0d);
+    }
+}
@@ -0,0 +1,89 @@
+package org.aksw.limes.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ComputeExecutorTest {
+
+    @After
+    public void tearDown() {
+        ComputeExecutor.setParallelism(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    public void invokeAllTest() {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int n = i;
+            tasks.add(() -> n * n);
+        }
+        List<Integer> results = ComputeExecutor.invokeAll(tasks);
+        assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * i, results.get(i).intValue());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void nestedTest() {
+        // a single worker must execute the nested tasks while it waits for them
+        ComputeExecutor.setParallelism(1);
+        AtomicInteger count = new AtomicInteger();
+        List<Callable<Integer>> outer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            outer.add(() -> {
+                List<Runnable> inner = new ArrayList<>();
+                for (int j = 0; j < 10; j++) {
+                    inner.add(count::incrementAndGet);
+                }
+                ComputeExecutor.runAll(inner);
+                return ComputeExecutor.getPool().getPoolSize();
+            });
+        }
+        for (int poolSize : ComputeExecutor.invokeAll(outer)) {
+            assertEquals(1, poolSize);
+        }
+        assertEquals(40, count.get());
+    }
+
+    @Test
+    public void exceptionTest() {
+        AtomicInteger count = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int n = i;
+            tasks.add(() -> {
+                if (n == 3) {
+                    throw new IllegalStateException("task " + n);
+                }
+                count.incrementAndGet();
+            });
+        }
+        try {
+            ComputeExecutor.runAll(tasks);
+            fail();
+        } catch (IllegalStateException e) {
+            // the exception may be rethrown as a copy that wraps the original one
+            assertTrue(e.getMessage().contains("task 3"));
+        }
+        assertEquals(9, count.get());
+    }
+
+    @Test
+    public void setParallelismTest() {
+        ComputeExecutor.setParallelism(3);
+        assertEquals(3, ComputeExecutor.getParallelism());
+        ForkJoinTask<Integer> task = ComputeExecutor.submit(() -> 42);
+        assertEquals(42, task.join().intValue());
+    }
+}